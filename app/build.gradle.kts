@@ -88,6 +88,12 @@ android {
         noCompress += listOf("tar.gz", "tar.xz", "xz")
     }
 
+    sourceSets {
+        getByName("main") {
+            assets.srcDir(layout.buildDirectory.dir("generated/assetManifests"))
+        }
+    }
+
     packaging {
         jniLibs {
             useLegacyPackaging = true
@@ -99,6 +105,30 @@ android {
     }
 }
 
+// 为 assets 中的组件压缩包生成完整性清单（路径、大小、CRC32）
+// 不挂在 preBuild 上：本地检出的压缩包可能只是 Git LFS 指针，由 CI 在拉取真实资产后显式执行。
+// 没有清单时应用跳过按文件校验，回退到原有的目录结构检查
+val generateAssetManifests by tasks.registering(Exec::class) {
+    group = "build"
+    description = "Generates integrity manifests for bundled component archives"
+    mustRunAfter("clean")
+    val assetsDir = file("src/main/assets")
+    val outputDir = layout.buildDirectory.dir("generated/assetManifests")
+    inputs.files(fileTree(assetsDir) { include("**/*.tar", "**/*.tar.gz", "**/*.tar.xz") })
+    inputs.file(rootProject.file("scripts/generate_asset_manifest.py"))
+    outputs.dir(outputDir)
+    commandLine(
+        "python3",
+        rootProject.file("scripts/generate_asset_manifest.py").absolutePath,
+        "--assets", assetsDir.absolutePath,
+        "--output", outputDir.get().asFile.absolutePath
+    )
+}
+
+tasks.matching { it.name.startsWith("merge") && it.name.endsWith("Assets") }.configureEach {
+    mustRunAfter(generateAssetManifests)
+}
+
 dependencies {
     // 本地 JAR/AAR 依赖
     implementation(files("../external/libs/libSystem.Security.Cryptography.Native.Android.jar"))
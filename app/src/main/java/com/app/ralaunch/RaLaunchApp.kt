@@ -14,6 +14,8 @@ import com.app.ralaunch.core.di.contract.IRuntimeManagerServiceV2
 import com.app.ralaunch.core.di.service.StoragePathsProviderServiceV1
 import com.app.ralaunch.core.di.service.VibrationManagerServiceV1
 import com.app.ralaunch.core.logging.service.AndroidFileLogger
+import com.app.ralaunch.core.common.util.AppProcess
+import com.app.ralaunch.core.common.util.AssetIntegrityChecker
 import com.app.ralaunch.core.common.util.DensityAdapter
 import com.app.ralaunch.core.common.util.LocaleManager
 import com.app.ralaunch.core.model.ThemeMode
@@ -23,6 +25,8 @@ import org.koin.android.ext.android.inject
 import org.koin.core.component.KoinComponent
 import java.io.File
 import com.app.ralaunch.core.platform.runtime.BlackBoxLogger
+import com.app.ralaunch.core.platform.runtime.DeviceTopologyProbe
+import com.app.ralaunch.core.platform.runtime.NativeLibraryPreloader
 
 class RaLaunchApp : Application(), KoinComponent {
 
@@ -76,10 +80,21 @@ class RaLaunchApp : Application(), KoinComponent {
         
         step("DensityAdapter")  { DensityAdapter.init(this) }
         step("KoinInitializer") { KoinInitializer.init(this) }
+        // 每个进程都按设置初始化标签日志级别，未初始化时全部级别开启
+        step("LogLevels")       { _fileLogger.applyTagLevels() }
+        // 游戏所需的 native 库只在 :game 进程中预加载
+        if (AppProcess.isGame(this)) {
+            step("NativePreload") { NativeLibraryPreloader.start(SettingsAccess.fnaRenderer) }
+        }
+        // 拓扑探测可能创建临时 EGL 上下文，只在主进程进行；其它进程读取持久化结果
+        if (AppProcess.isMain(this)) {
+            step("DeviceTopology")  { DeviceTopologyProbe.prewarm(this) }
+        }
         step("Theme")           { applyThemeFromSettings() }
         step("Fishnet")         { initCrashHandler() }
         step("Patches")         { installPatchesInBackground() }
         step("EnvVars")         { setupEnvironmentVariables() }
+        step("AssetVerify")     { AssetIntegrityChecker.scheduleBackgroundDeepVerify(this) }
 
         writeLog("=== Init Complete ===")
     }
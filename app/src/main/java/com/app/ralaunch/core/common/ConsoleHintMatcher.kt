@@ -0,0 +1,171 @@
+package com.app.ralaunch.core.common
+
+/**
+ * 控制台智能提示的多模式匹配器
+ *
+ * 所有规则的关键词预先编译为一个 Aho-Corasick 自动机，每行只扫描一遍（ASCII 不区分大小写），
+ * 得到命中关键词的位掩码后按规则顺序判断。扫描过程不分配内存，也不使用正则。
+ *
+ * @param rules 按优先级排列；每条规则有若干备选条件，任一条件中的关键词全部出现即命中
+ */
+class ConsoleHintMatcher(private val rules: List<Rule>) {
+
+    class Rule(val key: String, vararg alternatives: List<String>) {
+        val alternatives: List<List<String>> = alternatives.toList()
+    }
+
+    private val keywords: List<String> = rules
+        .flatMap { rule -> rule.alternatives.flatten() }
+        .map { it.lowercase() }
+        .distinct()
+
+    /** 每条规则各备选条件所需的关键词位掩码 */
+    private val ruleMasks: List<LongArray>
+
+    /** ASCII 字符到字母表下标，未出现在关键词中的字符为 -1 */
+    private val charIndex = IntArray(128) { -1 }
+    private val alphabetSize: Int
+
+    /** 完整的状态转移表，transitions[state * alphabetSize + c] */
+    private val transitions: IntArray
+
+    /** 到达该状态时命中的关键词（已合并失败链上的输出） */
+    private val outputs: LongArray
+
+    init {
+        require(keywords.size <= Long.SIZE_BITS) { "Too many hint keywords: ${keywords.size}" }
+        ruleMasks = rules.map { rule ->
+            LongArray(rule.alternatives.size) { i ->
+                rule.alternatives[i].fold(0L) { mask, word -> mask or (1L shl keywords.indexOf(word.lowercase())) }
+            }
+        }
+
+        var letters = 0
+        for (word in keywords) {
+            for (ch in word) {
+                require(ch.code < 128) { "Hint keywords must be ASCII: $word" }
+                if (charIndex[ch.code] < 0) charIndex[ch.code] = letters++
+            }
+        }
+        alphabetSize = letters
+
+        // 构建 trie
+        val goto = ArrayList<IntArray>()
+        val output = ArrayList<Long>()
+        goto.add(IntArray(alphabetSize) { -1 })
+        output.add(0L)
+        keywords.forEachIndexed { index, word ->
+            var state = 0
+            for (ch in word) {
+                val c = charIndex[ch.code]
+                if (goto[state][c] < 0) {
+                    goto[state][c] = goto.size
+                    goto.add(IntArray(alphabetSize) { -1 })
+                    output.add(0L)
+                }
+                state = goto[state][c]
+            }
+            output[state] = output[state] or (1L shl index)
+        }
+
+        // 广度优先补全失败转移，得到确定性自动机
+        val stateCount = goto.size
+        transitions = IntArray(stateCount * alphabetSize)
+        outputs = LongArray(stateCount) { output[it] }
+        val fail = IntArray(stateCount)
+        val queue = ArrayDeque<Int>()
+        for (c in 0 until alphabetSize) {
+            val next = goto[0][c]
+            if (next < 0) {
+                transitions[c] = 0
+            } else {
+                transitions[c] = next
+                fail[next] = 0
+                queue.addLast(next)
+            }
+        }
+        while (queue.isNotEmpty()) {
+            val state = queue.removeFirst()
+            outputs[state] = outputs[state] or outputs[fail[state]]
+            for (c in 0 until alphabetSize) {
+                val next = goto[state][c]
+                if (next < 0) {
+                    transitions[state * alphabetSize + c] = transitions[fail[state] * alphabetSize + c]
+                } else {
+                    transitions[state * alphabetSize + c] = next
+                    fail[next] = transitions[fail[state] * alphabetSize + c]
+                    queue.addLast(next)
+                }
+            }
+        }
+    }
+
+    /**
+     * @return 第一条命中规则的 [Rule.key]，没有命中时为 null
+     */
+    fun match(message: CharSequence): String? {
+        if (alphabetSize == 0) return null
+        var state = 0
+        var found = 0L
+        for (i in 0 until message.length) {
+            var code = message[i].code
+            if (code in 'A'.code..'Z'.code) code += 'a'.code - 'A'.code
+            val c = if (code < 128) charIndex[code] else -1
+            state = if (c < 0) 0 else transitions[state * alphabetSize + c]
+            found = found or outputs[state]
+        }
+        if (found == 0L) return null
+        for (r in rules.indices) {
+            for (mask in ruleMasks[r]) {
+                if (found and mask == mask) return rules[r].key
+            }
+        }
+        return null
+    }
+
+    companion object {
+        const val WORLD_SELECT = "world_select"
+        const val PORT = "port"
+        const val MAX_PLAYERS = "maxplayers"
+        const val PASSWORD = "password"
+        const val SERVER_READY = "server_ready"
+        const val UPNP = "upnp"
+        const val MODS_LOADING = "mods_loading"
+        const val WORLD_GENERATING = "worldgen"
+        const val SAVING = "saving"
+
+        /** 服务器输出的提示规则，顺序与优先级同原先的 when 分支一致 */
+        val DEFAULT = ConsoleHintMatcher(
+            listOf(
+                Rule(WORLD_SELECT, listOf("new world")),
+                Rule(PORT, listOf("server port"), listOf("port", "7777")),
+                Rule(MAX_PLAYERS, listOf("max player"), listOf("maxplayers")),
+                Rule(PASSWORD, listOf("server password")),
+                Rule(SERVER_READY, listOf("listening on port"), listOf("server started")),
+                Rule(UPNP, listOf("auto-forwarding port"), listOf("upnp")),
+                Rule(MODS_LOADING, listOf("loading mod")),
+                Rule(WORLD_GENERATING, listOf("generating world"), listOf("world generation")),
+                Rule(SAVING, listOf("saving world"))
+            )
+        )
+
+        /**
+         * 从 "port: 7777"、"Port 7777" 之类的文本中取端口号（不区分大小写），找不到时为 null
+         */
+        fun extractPort(message: String): String? {
+            var from = 0
+            while (true) {
+                val at = message.indexOf("port", from, ignoreCase = true)
+                if (at < 0) return null
+                var i = at + 4
+                while (i < message.length && message[i].isWhitespace()) i++
+                if (i < message.length && message[i] == ':') i++
+                while (i < message.length && message[i].isWhitespace()) i++
+                val digitsStart = i
+                while (i < message.length && message[i] in '0'..'9') i++
+                if (i > digitsStart) return message.substring(digitsStart, i)
+                from = at + 1
+            }
+        }
+    }
+}
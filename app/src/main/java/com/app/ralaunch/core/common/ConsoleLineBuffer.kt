@@ -0,0 +1,95 @@
+package com.app.ralaunch.core.common
+
+import com.app.ralaunch.core.common.ConsoleManager.LogEntry
+import com.app.ralaunch.core.common.ConsoleManager.LogLevel
+
+/**
+ * 控制台行的定长环形缓冲
+ *
+ * 每行在写入时获得单调递增的 ID，清空后 ID 也不会回退。写入是 O(1) 且除行对象本身外不分配内存；
+ * 读取方记住自己看到的最后一个 ID，通过 [diffSince] 只取新增的行。
+ */
+class ConsoleLineBuffer(capacity: Int) {
+    val capacity: Int = capacity.coerceAtLeast(1)
+
+    private val lines = arrayOfNulls<LogEntry>(this.capacity)
+    private var nextId = 0L
+
+    /** 仍保留的最早行 ID；等于 [nextId] 时缓冲为空 */
+    private var firstId = 0L
+
+    @Synchronized
+    fun append(timestamp: String, level: LogLevel, tag: String, message: String): LogEntry {
+        val entry = LogEntry(id = nextId, timestamp = timestamp, level = level, tag = tag, message = message)
+        lines[(nextId % capacity).toInt()] = entry
+        nextId++
+        if (nextId - firstId > capacity) firstId = nextId - capacity
+        return entry
+    }
+
+    /** 最后写入的行 ID，尚无任何行时为 -1 */
+    val lastId: Long
+        @Synchronized get() = nextId - 1
+
+    val size: Int
+        @Synchronized get() = (nextId - firstId).toInt()
+
+    /**
+     * 取 ID 大于 [afterId] 的行，最多最新的 [limit] 行
+     */
+    @Synchronized
+    fun diffSince(afterId: Long, limit: Int = capacity): ConsoleDiff {
+        val from = maxOf(afterId + 1, firstId, nextId - limit.coerceAtLeast(0))
+        val count = (nextId - from).coerceAtLeast(0L).toInt()
+        val appended = ArrayList<LogEntry>(count)
+        for (id in from until nextId) {
+            appended.add(lines[(id % capacity).toInt()]!!)
+        }
+        return ConsoleDiff(firstRetainedId = firstId, appended = appended, lastId = nextId - 1)
+    }
+
+    /** 最新的 [count] 行 */
+    fun tail(count: Int): List<LogEntry> = diffSince(-1L, count).appended
+
+    @Synchronized
+    fun clear() {
+        lines.fill(null)
+        firstId = nextId
+    }
+}
+
+/**
+ * 两次读取之间的追加式差异
+ *
+ * @param firstRetainedId 缓冲中仍保留的最早 ID，更早的行已被覆盖或清空，显示方应一并移除
+ * @param appended 新增的行，按 ID 升序
+ * @param lastId 本次读取时的最后 ID，作为下一次 [ConsoleLineBuffer.diffSince] 的参数
+ */
+class ConsoleDiff(
+    val firstRetainedId: Long,
+    val appended: List<LogEntry>,
+    val lastId: Long
+) {
+    /**
+     * 把差异应用到上一次显示的列表，只保留最新的 [maxLines] 行
+     *
+     * [previous] 按 ID 升序；只复制仍需保留的尾部，而不是逐行重建
+     */
+    fun applyTo(previous: List<LogEntry>, maxLines: Int): List<LogEntry> {
+        // 上一次列表中仍有效的部分是连续的一段 [start, end)：未被覆盖，且早于新增行
+        val firstAppendedId = appended.firstOrNull()?.id ?: Long.MAX_VALUE
+        var end = previous.size
+        while (end > 0 && previous[end - 1].id >= firstAppendedId) end--
+        var start = end
+        while (start > 0 && previous[start - 1].id >= firstRetainedId) start--
+
+        val keepFromPrevious = minOf(end - start, (maxLines - appended.size).coerceAtLeast(0))
+        if (keepFromPrevious == previous.size && appended.isEmpty()) return previous
+        val appendedFrom = (appended.size - maxLines).coerceAtLeast(0)
+
+        val result = ArrayList<LogEntry>(keepFromPrevious + appended.size - appendedFrom)
+        for (i in end - keepFromPrevious until end) result.add(previous[i])
+        for (i in appendedFrom until appended.size) result.add(appended[i])
+        return result
+    }
+}
@@ -1,30 +1,39 @@
 package com.app.ralaunch.core.common
 
+import android.os.Handler
+import android.os.Looper
+import android.view.Choreographer
 import androidx.annotation.StringRes
 import com.app.ralaunch.R
 import com.app.ralaunch.RaLaunchApp
-import com.app.ralaunch.core.logging.AppLog
 import com.app.ralaunch.core.common.util.LocaleManager
+import com.app.ralaunch.core.logging.service.LogcatEntry
+import com.app.ralaunch.core.logging.service.LogcatFilter
+import com.app.ralaunch.core.logging.service.LogcatIngestionService
+import com.app.ralaunch.core.logging.service.LogcatOverflow
+import com.app.ralaunch.core.logging.service.LogcatSubscription
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
-import java.io.BufferedReader
-import java.io.InputStreamReader
 import java.text.SimpleDateFormat
 import java.util.Date
 import java.util.Locale
-import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicBoolean
 
 /**
  * 命令控制台管理器（单例）
  *
  * 收集实时日志、管理控制台状态、处理命令。
+ *
+ * 日志写入定长环形缓冲，界面状态每帧最多发布一次，智能提示在后台线程上匹配，
+ * 因此高频输出的日志不会让每一行都触发整表复制。
  */
 object ConsoleManager {
 
     private const val TAG = "ConsoleManager"
     private const val MAX_LOG_LINES = 500
     private const val MAX_DEBUG_LOG_LINES = 30
+    private const val LOGCAT_REPLAY_LINES = 100
 
     /** 只收集包含这些关键词的 tag（不区分大小写） */
     private val ALLOWED_TAG_KEYWORDS = listOf(
@@ -44,11 +53,12 @@ object ConsoleManager {
         val display: String get() = "[$timestamp] [$level/$tag] $message"
     }
 
-    private var nextId = java.util.concurrent.atomic.AtomicLong(0)
-
     enum class LogLevel { V, D, I, W, E }
 
-    // 全部日志
+    /** 行缓冲，写入只做 O(1) 的环形覆盖；界面与提示匹配各自按行 ID 增量读取 */
+    private val lines = ConsoleLineBuffer(MAX_LOG_LINES)
+
+    // 全部日志（按帧合并更新）
     private val _logs = MutableStateFlow<List<LogEntry>>(emptyList())
     val logs: StateFlow<List<LogEntry>> = _logs.asStateFlow()
 
@@ -56,6 +66,10 @@ object ConsoleManager {
     private val _recentLogs = MutableStateFlow<List<LogEntry>>(emptyList())
     val recentLogs: StateFlow<List<LogEntry>> = _recentLogs.asStateFlow()
 
+    // 最后一次发布到界面的行 ID，需要增量渲染的界面配合 [linesSince] 使用
+    private val _lastLineId = MutableStateFlow(-1L)
+    val lastLineId: StateFlow<Long> = _lastLineId.asStateFlow()
+
     // 控制台可见性
     private val _consoleVisible = MutableStateFlow(false)
     val consoleVisible: StateFlow<Boolean> = _consoleVisible.asStateFlow()
@@ -64,83 +78,113 @@ object ConsoleManager {
     private val _debugLogVisible = MutableStateFlow(false)
     val debugLogVisible: StateFlow<Boolean> = _debugLogVisible.asStateFlow()
 
-    private val logBuffer = CopyOnWriteArrayList<LogEntry>()
-    private var logcatThread: Thread? = null
-    private var isRunning = false
-    private val timeFormat = SimpleDateFormat("HH:mm:ss", Locale.getDefault())
+    private var subscription: LogcatSubscription? = null
 
     /**
      * 开始收集日志
+     *
+     * 订阅共用的 logcat 读取服务，回放最近 [LOGCAT_REPLAY_LINES] 条匹配的日志，不清除旧缓冲
      */
+    @Synchronized
     fun start() {
-        if (isRunning) return
-        isRunning = true
-
-        logcatThread = Thread({
-            try {
-                // 使用 tag 格式：X/Tag: message，不清除旧缓冲
-                val process = Runtime.getRuntime().exec(arrayOf("logcat", "-v", "tag", "-T", "100"))
-                val reader = BufferedReader(InputStreamReader(process.inputStream))
-                var line: String?
-                while (isRunning) {
-                    line = reader.readLine()
-                    if (line != null && line.isNotBlank()) {
-                        val entry = parseLine(line)
-                        if (entry != null) {
-                            addLog(entry)
-                        }
-                    }
-                }
-                process.destroy()
-            } catch (e: Exception) {
-                if (isRunning) {
-                    AppLog.e(TAG, "日志收集异常: ${e.message}")
-                }
-            }
-        }, "ConsoleLogCollector").apply {
-            isDaemon = true
-            start()
-        }
+        if (subscription != null) return
+
+        subscription = LogcatIngestionService.shared.subscribe(
+            name = "ConsoleLogCollector",
+            filter = LogcatFilter(tagKeywords = ALLOWED_TAG_KEYWORDS),
+            capacity = MAX_LOG_LINES,
+            overflow = LogcatOverflow.DROP_OLDEST,
+            replay = LOGCAT_REPLAY_LINES
+        ) { entry -> appendLogcat(entry) }
     }
 
     /**
      * 停止收集日志
      */
+    @Synchronized
     fun stop() {
-        isRunning = false
-        logcatThread?.interrupt()
-        logcatThread = null
+        subscription?.close()
+        subscription = null
     }
 
     /**
-     * 手动添加一条日志
+     * 手动添加一条日志；行 ID 由缓冲重新分配，[LogEntry.id] 会被忽略
      */
     fun addLog(entry: LogEntry) {
-        logBuffer.add(entry)
-        // 裁剪缓冲
-        while (logBuffer.size > MAX_LOG_LINES) {
-            logBuffer.removeAt(0)
-        }
-        _logs.value = logBuffer.toList()
-        _recentLogs.value = logBuffer.takeLast(MAX_DEBUG_LOG_LINES)
-
-        // 智能提示：检测服务器输出并给出操作提示
-        if (entry.tag != HINT_TAG) {
-            checkAndShowHint(entry.message)
-        }
+        appendLine(entry.timestamp, entry.level, entry.tag, entry.message)
     }
 
     /**
      * 添加一条控制台消息
      */
     fun addMessage(message: String, level: LogLevel = LogLevel.I) {
-        addLog(LogEntry(
-            id = nextId.getAndIncrement(),
-            timestamp = timeFormat.format(Date()),
-            level = level,
-            tag = "Console",
-            message = message
-        ))
+        appendLine(timestampOf(System.currentTimeMillis()), level, "Console", message)
+    }
+
+    /**
+     * 取 ID 大于 [afterId] 的行，供增量渲染使用
+     */
+    fun linesSince(afterId: Long, limit: Int = MAX_LOG_LINES): ConsoleDiff = lines.diffSince(afterId, limit)
+
+    private fun appendLine(timestamp: String, level: LogLevel, tag: String, message: String) {
+        lines.append(timestamp, level, tag, message)
+        requestPublish()
+        signalHints()
+    }
+
+    private fun appendLogcat(entry: LogcatEntry) {
+        val level = when (entry.priority) {
+            LogcatEntry.VERBOSE -> LogLevel.V
+            LogcatEntry.DEBUG -> LogLevel.D
+            LogcatEntry.INFO -> LogLevel.I
+            LogcatEntry.WARN -> LogLevel.W
+            else -> LogLevel.E
+        }
+        appendLine(timestampOf(entry.timeMillis), level, entry.tag.trim(), entry.message)
+    }
+
+    // ==================== 按帧发布 ====================
+
+    private val mainHandler by lazy { Handler(Looper.getMainLooper()) }
+    private val publishPending = AtomicBoolean(false)
+
+    /** 已发布到 StateFlow 的最后行 ID，只在主线程访问 */
+    private var publishedId = -1L
+
+    private val publishFrame = Choreographer.FrameCallback { publish() }
+    private val postPublishFrame = Runnable { Choreographer.getInstance().postFrameCallback(publishFrame) }
+
+    /**
+     * 同一帧内的多次写入只触发一次发布
+     */
+    private fun requestPublish() {
+        if (publishPending.compareAndSet(false, true)) {
+            mainHandler.post(postPublishFrame)
+        }
+    }
+
+    private fun publish() {
+        publishPending.set(false)
+        val diff = lines.diffSince(publishedId)
+        publishedId = diff.lastId
+        _logs.value = diff.applyTo(_logs.value, MAX_LOG_LINES)
+        _recentLogs.value = diff.applyTo(_recentLogs.value, MAX_DEBUG_LOG_LINES)
+        _lastLineId.value = diff.lastId
+    }
+
+    private var timestampSecond = Long.MIN_VALUE
+    private var timestampText = ""
+    private val timeFormat = SimpleDateFormat("HH:mm:ss", Locale.getDefault())
+
+    /** 同一秒内的行复用时间字符串 */
+    @Synchronized
+    private fun timestampOf(millis: Long): String {
+        val second = millis / 1000L
+        if (second != timestampSecond) {
+            timestampText = timeFormat.format(Date(millis))
+            timestampSecond = second
+        }
+        return timestampText
     }
 
     // ==================== 智能提示 ====================
@@ -148,92 +192,96 @@ object ConsoleManager {
     private val HINT_TAG: String
         get() = getLocalizedString(R.string.console_hint_tag)
 
-    /** 避免同一提示短时间内重复显示 */
+    /** 避免同一提示短时间内重复显示；只在提示线程访问 */
     private var lastHintKey = ""
     private var lastHintTime = 0L
     private const val HINT_COOLDOWN_MS = 5000L
 
+    private val hintMatcher = ConsoleHintMatcher.DEFAULT
+    private val hintMonitor = Object()
+    private var hintPending = false
+    private var hintThread: Thread? = null
+
+    /** 提示线程已检查到的行 ID */
+    private var hintCursor = -1L
+
+    /**
+     * 唤醒后台提示线程；线程忙碌时多次唤醒合并为一次
+     */
+    private fun signalHints() {
+        synchronized(hintMonitor) {
+            if (hintThread == null) {
+                hintThread = Thread(::runHints, "ConsoleHints").apply {
+                    isDaemon = true
+                    priority = Thread.MIN_PRIORITY
+                    start()
+                }
+            }
+            if (!hintPending) {
+                hintPending = true
+                hintMonitor.notify()
+            }
+        }
+    }
+
+    private fun runHints() {
+        while (true) {
+            synchronized(hintMonitor) {
+                while (!hintPending) {
+                    try {
+                        hintMonitor.wait()
+                    } catch (_: InterruptedException) {
+                        return
+                    }
+                }
+                hintPending = false
+            }
+            val diff = lines.diffSince(hintCursor)
+            hintCursor = diff.lastId
+            if (diff.appended.isEmpty()) continue
+
+            val hintTag = HINT_TAG
+            for (entry in diff.appended) {
+                if (entry.tag == hintTag) continue
+                val key = hintMatcher.match(entry.message) ?: continue
+                runCatching { addHint(key, hintMessage(key, entry.message)) }
+            }
+        }
+    }
+
     private fun addHint(key: String, message: String) {
         val now = System.currentTimeMillis()
         if (key == lastHintKey && now - lastHintTime < HINT_COOLDOWN_MS) return
         lastHintKey = key
         lastHintTime = now
-        addLog(LogEntry(
-            id = nextId.getAndIncrement(),
-            timestamp = timeFormat.format(Date()),
-            level = LogLevel.W,
-            tag = HINT_TAG,
-            message = message
-        ))
+        appendLine(timestampOf(now), LogLevel.W, HINT_TAG, message)
     }
 
     /**
-     * 检测服务器输出的关键内容，自动添加操作提示
+     * 服务器输出命中提示规则后对应的操作提示
      */
-    private fun checkAndShowHint(msg: String) {
-        val m = msg.trim().lowercase()
-        when {
-            // 世界选择菜单
-            m.contains("new world") && m.contains("n") ->
-                addHint("world_select", getLocalizedString(
-                    R.string.console_hint_world_select
-                ))
-
-            // 端口输入
-            m.contains("server port") || (m.contains("port") && m.contains("7777")) ->
-                addHint("port", getLocalizedString(
-                    R.string.console_hint_port
-                ))
-
-            // 最大玩家数
-            m.contains("max player") || m.contains("maxplayers") ->
-                addHint("maxplayers", getLocalizedString(
-                    R.string.console_hint_max_players
-                ))
-
-            // 密码
-            m.contains("server password") ->
-                addHint("password", getLocalizedString(
-                    R.string.console_hint_password
-                ))
-
-            // 服务器启动成功
-            m.contains("listening on port") || m.contains("server started") -> {
-                // 尝试提取端口号
-                val portMatch = Regex("""port\s*:?\s*(\d+)""", RegexOption.IGNORE_CASE).find(msg)
-                val port = portMatch?.groupValues?.get(1) ?: "7777"
-                addHint("server_ready",
-                    getLocalizedString(
-                        R.string.console_hint_server_ready,
-                        port
-                    )
-                )
-            }
-
-            // 自动转发
-            m.contains("auto-forwarding port") || m.contains("upnp") ->
-                addHint("upnp", getLocalizedString(
-                    R.string.console_hint_upnp
-                ))
-
-            // Mods 加载
-            m.contains("loading mods") || m.contains("loading mod") ->
-                addHint("mods_loading", getLocalizedString(
-                    R.string.console_hint_mods_loading
-                ))
-
-            // 世界生成中
-            m.contains("generating world") || m.contains("world generation") ->
-                addHint("worldgen", getLocalizedString(
-                    R.string.console_hint_world_generating
-                ))
-
-            // 世界保存
-            m.contains("saving world") ->
-                addHint("saving", getLocalizedString(
-                    R.string.console_hint_saving_world
-                ))
-        }
+    private fun hintMessage(key: String, msg: String): String = when (key) {
+        // 世界选择菜单
+        ConsoleHintMatcher.WORLD_SELECT -> getLocalizedString(R.string.console_hint_world_select)
+        // 端口输入
+        ConsoleHintMatcher.PORT -> getLocalizedString(R.string.console_hint_port)
+        // 最大玩家数
+        ConsoleHintMatcher.MAX_PLAYERS -> getLocalizedString(R.string.console_hint_max_players)
+        // 密码
+        ConsoleHintMatcher.PASSWORD -> getLocalizedString(R.string.console_hint_password)
+        // 服务器启动成功，尝试提取端口号
+        ConsoleHintMatcher.SERVER_READY -> getLocalizedString(
+            R.string.console_hint_server_ready,
+            ConsoleHintMatcher.extractPort(msg) ?: "7777"
+        )
+        // 自动转发
+        ConsoleHintMatcher.UPNP -> getLocalizedString(R.string.console_hint_upnp)
+        // Mods 加载
+        ConsoleHintMatcher.MODS_LOADING -> getLocalizedString(R.string.console_hint_mods_loading)
+        // 世界生成中
+        ConsoleHintMatcher.WORLD_GENERATING -> getLocalizedString(R.string.console_hint_world_generating)
+        // 世界保存
+        else -> getLocalizedString(R.string.console_hint_saving_world)
     }
 
     private fun getLocalizedString(
@@ -268,42 +316,7 @@ object ConsoleManager {
     }
 
     fun clearLogs() {
-        logBuffer.clear()
-        _logs.value = emptyList()
-        _recentLogs.value = emptyList()
-    }
-
-    // 预编译正则：tag 格式 "X/Tag: message" 或 brief 格式 "X/Tag( PID): message"
-    private val tagRegex = Regex("""^([VDIWEFS])/(.+?):\s*(.*)$""")
-    private val briefRegex = Regex("""^([VDIWEFS])/(.+?)\(\s*\d+\):\s*(.*)$""")
-
-    /**
-     * 解析 logcat 行（仅保留 DOTNET 相关 tag）
-     */
-    private fun parseLine(line: String): LogEntry? {
-        val match = tagRegex.find(line) ?: briefRegex.find(line) ?: return null
-        val levelChar = match.groupValues[1]
-        val tag = match.groupValues[2].trim()
-        val msg = match.groupValues[3]
-
-        // 过滤：只保留 DOTNET 相关的 tag
-        val tagLower = tag.lowercase()
-        if (ALLOWED_TAG_KEYWORDS.none { tagLower.contains(it) }) return null
-
-        val level = when (levelChar) {
-            "V" -> LogLevel.V
-            "D" -> LogLevel.D
-            "I" -> LogLevel.I
-            "W" -> LogLevel.W
-            "E", "F", "S" -> LogLevel.E
-            else -> LogLevel.I
-        }
-        return LogEntry(
-            id = nextId.getAndIncrement(),
-            timestamp = timeFormat.format(Date()),
-            level = level,
-            tag = tag,
-            message = msg
-        )
+        lines.clear()
+        requestPublish()
     }
 }
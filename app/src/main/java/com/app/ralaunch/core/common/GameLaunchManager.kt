@@ -2,6 +2,9 @@ package com.app.ralaunch.core.common
 
 import android.content.Context
 import com.app.ralaunch.core.model.GameItem
+import com.app.ralaunch.core.platform.runtime.AndroidRendererRegistry
+import com.app.ralaunch.core.platform.runtime.RendererEnvironmentConfigurator
+import com.app.ralaunch.core.platform.runtime.RendererRegistry
 import com.app.ralaunch.feature.game.ui.legacy.GameActivity
 import com.app.ralaunch.core.logging.AppLog
 import java.io.File
@@ -18,6 +21,23 @@ class GameLaunchManager(private val context: Context) {
         private const val TAG = "GameLaunchManager"
     }
 
+    /**
+     * 启动前解压游戏实际使用的渲染器所需的运行时库（游戏进程中不再解压）
+     */
+    suspend fun prepareRendererLibraries(game: GameItem): Boolean {
+        val override = game.rendererOverride?.let { RendererRegistry.normalizeRendererId(it) }
+        val renderer = RendererEnvironmentConfigurator.resolveRendererForLaunch(
+            globalEffectiveRenderer = RendererEnvironmentConfigurator.getEffectiveRenderer(),
+            rendererOverride = game.rendererOverride,
+            isOverrideCompatible = override?.let { AndroidRendererRegistry.isRendererCompatible(it) } ?: true
+        )
+        val ready = RendererRegistry.ensureRendererLibraries(renderer)
+        if (!ready) {
+            AppLog.w(TAG, "Runtime libraries for renderer $renderer are incomplete")
+        }
+        return ready
+    }
+
     fun launchGame(game: GameItem): Boolean {
         AppLog.d(TAG, ">>> launchGame called for: ${game.displayedName}")
         AppLog.i(TAG, "launchGame called for: ${game.displayedName}, path: ${game.gameExePathRelative}")
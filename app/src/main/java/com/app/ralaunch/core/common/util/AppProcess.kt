@@ -0,0 +1,50 @@
+package com.app.ralaunch.core.common.util
+
+import android.app.Application
+import android.content.Context
+import android.os.Build
+import java.io.File
+
+/**
+ * 当前进程信息
+ *
+ * 应用运行在主进程、:game（游戏）与 :launcher 进程中，Application.onCreate 在每个进程都会执行，
+ * 只属于某个进程的初始化需要先判断进程。
+ */
+object AppProcess {
+    const val GAME_SUFFIX = ":game"
+
+    @Volatile
+    private var cachedName: String? = null
+
+    /**
+     * 当前进程名
+     */
+    @JvmStatic
+    fun name(context: Context): String {
+        cachedName?.let { return it }
+        val name = if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            Application.getProcessName()
+        } else {
+            try {
+                File("/proc/self/cmdline").readText().trimEnd('\u0000').substringBefore('\u0000')
+            } catch (e: Exception) {
+                ""
+            }
+        }.ifEmpty { context.packageName }
+        cachedName = name
+        return name
+    }
+
+    /**
+     * 是否是主进程（启动器界面所在进程）
+     */
+    @JvmStatic
+    fun isMain(context: Context): Boolean = name(context) == context.packageName
+
+    /**
+     * 是否是 :game 进程
+     */
+    @JvmStatic
+    fun isGame(context: Context): Boolean = name(context) == context.packageName + GAME_SUFFIX
+}
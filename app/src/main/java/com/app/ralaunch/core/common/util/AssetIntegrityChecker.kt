@@ -5,15 +5,22 @@ import com.app.ralaunch.R
 import com.app.ralaunch.core.di.contract.IRuntimeManagerServiceV2
 import com.app.ralaunch.core.logging.AppLog
 import com.app.ralaunch.core.platform.AppConstants
+import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
 import kotlinx.coroutines.withContext
 import org.koin.java.KoinJavaComponent
+import org.tukaani.xz.XZInputStream
+import java.io.BufferedInputStream
 import java.io.File
 
 /**
  * 资产完整性检查器
  * 
  * 检查初始化解压的库和资产文件是否完整，防止游戏启动失败。
+ * 带构建时完整性清单的组件还会按文件做大小/mtime 快速校验或 CRC32 深度校验，
+ * 修复时只重新写出失败的文件。
  */
 object AssetIntegrityChecker {
 
@@ -31,7 +38,9 @@ object AssetIntegrityChecker {
             val type: IssueType,
             val description: String,
             val filePath: String? = null,
-            val canAutoFix: Boolean = false
+            val canAutoFix: Boolean = false,
+            /** 清单校验失败的条目，非空时可以只修复该文件 */
+            val manifestFailure: ManifestVerifier.Failure? = null
         )
 
         enum class IssueType {
@@ -67,10 +76,44 @@ object AssetIntegrityChecker {
         )
     )
 
+    /**
+     * 带完整性清单的组件
+     *
+     * @param archive assets 中的压缩包名（清单为 manifests/<archive>.json）
+     * @param stripPrefix 解压时去掉的路径前缀
+     * @param rootDir 解析由该压缩包解压出的目录，未安装时返回 null。
+     *                只能返回内置资产解压出的目录，用户自行安装的组件不按内置清单校验和修复
+     */
+    private data class ManifestComponent(
+        val nameResId: Int,
+        val archive: String,
+        val stripPrefix: String?,
+        val rootDir: (ComponentManifest) -> File?
+    )
+
+    private val MANIFEST_COMPONENTS = listOf(
+        ManifestComponent(
+            nameResId = R.string.asset_check_component_dotnet_runtime,
+            archive = "dotnet.tar.xz",
+            stripPrefix = "dotnet/",
+            rootDir = ::bundledDotNetRoot
+        )
+    )
+
+    private val BUNDLED_DOTNET_VERSION = Regex("""(?:^|/)shared/Microsoft\.NETCore\.App/([^/]+)/""")
+
+    /** 后台深度校验的最小间隔 */
+    private const val DEEP_VERIFY_INTERVAL_MS = 3L * 24 * 60 * 60 * 1000
+    private const val KEY_LAST_DEEP_VERIFY = "asset_last_deep_verify"
+
+    private val backgroundScope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+
     /**
      * 执行完整性检查
+     *
+     * @param deep 为 true 时对带清单的组件做 CRC32 深度校验，否则只比较大小与 mtime
      */
-    suspend fun checkIntegrity(context: Context): CheckResult = withContext(Dispatchers.IO) {
+    suspend fun checkIntegrity(context: Context, deep: Boolean = false): CheckResult = withContext(Dispatchers.IO) {
         val issues = mutableListOf<CheckResult.Issue>()
         val filesDir = context.filesDir
 
@@ -105,6 +148,12 @@ object AssetIntegrityChecker {
             }
         }
 
+        // 2. 按清单校验组件文件
+        val reportedPaths = issues.mapNotNull { it.filePath }.toSet()
+        issues.addAll(
+            checkManifestComponents(context, deep).filter { it.filePath !in reportedPaths }
+        )
+
         // 生成摘要
         val summary = if (issues.isEmpty()) {
             context.getString(R.string.asset_check_summary_all_passed)
@@ -205,7 +254,20 @@ object AssetIntegrityChecker {
         var fixedCount = 0
         var failedCount = 0
         val errors = mutableListOf<String>()
-        val componentsToReextract = resolveAffectedComponents(context, fixableIssues)
+
+        // 有清单条目的问题只修复对应文件，修复失败的再回退到整体重新解压
+        val (fileIssues, componentIssues) = fixableIssues.partition { it.manifestFailure != null }
+        val unrepairedIssues = mutableListOf<CheckResult.Issue>()
+        if (fileIssues.isNotEmpty()) {
+            progressCallback?.invoke(10, context.getString(R.string.asset_fix_progress_repair_files))
+            val failures = fileIssues.mapNotNull { it.manifestFailure }
+            val stillFailing = repairManifestFailures(context, failures)
+            fixedCount += failures.size - stillFailing.size
+            val stillFailingPaths = stillFailing.map { it.file.absolutePath }.toSet()
+            unrepairedIssues.addAll(fileIssues.filter { it.manifestFailure?.file?.absolutePath in stillFailingPaths })
+        }
+
+        val componentsToReextract = resolveAffectedComponents(context, componentIssues + unrepairedIssues)
         var needsComponentExtract = false
 
         if (componentsToReextract.isNotEmpty()) {
@@ -295,6 +357,132 @@ object AssetIntegrityChecker {
         return autoFix(context, reinstallIssues)
     }
 
+    /**
+     * 在后台对带清单的组件执行深度校验，并只修复失败的文件
+     *
+     * 受 [DEEP_VERIFY_INTERVAL_MS] 限制，避免每次启动都完整读取运行时文件。
+     */
+    fun scheduleBackgroundDeepVerify(context: Context) {
+        val appContext = context.applicationContext
+        backgroundScope.launch {
+            val prefs = appContext.getSharedPreferences(AppConstants.PREFS_NAME, 0)
+            val now = System.currentTimeMillis()
+            if (now - prefs.getLong(KEY_LAST_DEEP_VERIFY, 0L) < DEEP_VERIFY_INTERVAL_MS) return@launch
+
+            try {
+                val failures = collectManifestFailures(appContext, deep = true).map { it.second }
+                if (failures.isEmpty()) {
+                    AppLog.i(TAG, "后台深度校验通过")
+                } else {
+                    AppLog.w(TAG, "后台深度校验发现 ${failures.size} 个损坏文件，开始修复")
+                    val stillFailing = repairManifestFailures(appContext, failures)
+                    if (stillFailing.isNotEmpty()) {
+                        AppLog.w(TAG, "仍有 ${stillFailing.size} 个文件无法修复，等待用户手动修复")
+                        return@launch
+                    }
+                }
+                prefs.edit().putLong(KEY_LAST_DEEP_VERIFY, now).apply()
+            } catch (e: Exception) {
+                AppLog.w(TAG, "后台深度校验失败: ${e.message}")
+            }
+        }
+    }
+
+    private suspend fun checkManifestComponents(context: Context, deep: Boolean): List<CheckResult.Issue> {
+        return collectManifestFailures(context, deep).map { (component, failure) ->
+            val componentName = context.getString(component.nameResId)
+            CheckResult.Issue(
+                type = when (failure.reason) {
+                    ManifestVerifier.Reason.MISSING -> CheckResult.IssueType.MISSING_FILE
+                    ManifestVerifier.Reason.UNREADABLE -> CheckResult.IssueType.PERMISSION_ERROR
+                    else -> CheckResult.IssueType.CORRUPTED_FILE
+                },
+                description = context.getString(
+                    R.string.asset_check_issue_checksum_mismatch,
+                    componentName,
+                    failure.file.name,
+                    failure.reason.name
+                ),
+                filePath = failure.file.absolutePath,
+                canAutoFix = true,
+                manifestFailure = failure
+            )
+        }
+    }
+
+    private suspend fun collectManifestFailures(
+        context: Context,
+        deep: Boolean
+    ): List<Pair<ManifestComponent, ManifestVerifier.Failure>> {
+        val result = mutableListOf<Pair<ManifestComponent, ManifestVerifier.Failure>>()
+        for (component in MANIFEST_COMPONENTS) {
+            val verifier = createVerifier(context, component) ?: continue
+            val failures = if (deep) verifier.verifyDeep() else verifier.verifyFast()
+            failures.forEach { result.add(component to it) }
+        }
+        return result
+    }
+
+    private fun createVerifier(context: Context, component: ManifestComponent): ManifestVerifier? {
+        val manifest = ComponentManifest.load(context, component.archive) ?: return null
+        val rootDir = component.rootDir(manifest)?.takeIf { it.isDirectory } ?: return null
+        return ManifestVerifier(rootDir, manifest, component.stripPrefix)
+    }
+
+    /**
+     * 内置 dotnet 压缩包解压并迁移后的目录 runtimes/dotnet/<包内版本>
+     *
+     * 不使用当前选中的运行时：用户可能选择了自行安装的其他版本，按内置清单修复会覆盖它
+     */
+    private fun bundledDotNetRoot(manifest: ComponentManifest): File? {
+        val version = manifest.entries.firstNotNullOfOrNull { entry ->
+            BUNDLED_DOTNET_VERSION.find(entry.path)?.groupValues?.get(1)
+        } ?: return null
+        return runtimeManager()
+            .getRuntimeInstallPath(IRuntimeManagerServiceV2.RuntimeType.DOTNET, version)
+            .toFile()
+    }
+
+    /**
+     * 从 assets 压缩包中只重新写出失败的文件
+     *
+     * @return 仍未修复的条目
+     */
+    private fun repairManifestFailures(
+        context: Context,
+        failures: List<ManifestVerifier.Failure>
+    ): List<ManifestVerifier.Failure> {
+        val remaining = mutableListOf<ManifestVerifier.Failure>()
+        val handledRoots = mutableListOf<String>()
+        for (component in MANIFEST_COMPONENTS) {
+            val verifier = createVerifier(context, component) ?: continue
+            val rootPath = verifier.rootDir.absolutePath
+            handledRoots.add(rootPath)
+            val componentFailures = failures.filter {
+                it.file.absolutePath.startsWith(rootPath + File.separator)
+            }
+            if (componentFailures.isEmpty()) continue
+
+            try {
+                val result = context.assets.open(component.archive).use { assetStream ->
+                    XZInputStream(BufferedInputStream(assetStream, 1024 * 1024)).use { xzStream ->
+                        verifier.repairFromTar(xzStream, componentFailures)
+                    }
+                }
+                AppLog.i(TAG, "已修复 ${result.repaired.size}/${componentFailures.size} 个文件: ${component.archive}")
+                remaining.addAll(result.failed)
+            } catch (e: Exception) {
+                AppLog.w(TAG, "修复文件失败: ${component.archive}: ${e.message}")
+                remaining.addAll(componentFailures)
+            }
+        }
+        // 不属于任何带清单组件的条目无法单独修复
+        remaining.addAll(failures.filter { failure ->
+            handledRoots.none { failure.file.absolutePath.startsWith(it + File.separator) }
+        })
+        return remaining
+    }
+
     private fun resolveAffectedComponents(
         context: Context,
         issues: List<CheckResult.Issue>
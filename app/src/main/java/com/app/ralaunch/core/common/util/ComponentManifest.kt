@@ -0,0 +1,64 @@
+package com.app.ralaunch.core.common.util
+
+import android.content.Context
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.json.Json
+
+/**
+ * 组件完整性清单
+ *
+ * 由构建脚本 scripts/generate_asset_manifest.py 在打包时为 assets 中的每个组件压缩包生成，
+ * 记录包内每个文件的路径、大小与 CRC32，用于解压后的快速/深度校验与按文件修复。
+ */
+@Serializable
+data class ComponentManifest(
+    /** 对应的 assets 压缩包文件名 */
+    val archive: String,
+    /** 压缩包大小（字节） */
+    val archiveSize: Long,
+    /** 压缩包 CRC32 */
+    val archiveCrc32: Long,
+    /** 包内普通文件条目（不含目录与符号链接） */
+    val entries: List<Entry> = emptyList()
+) {
+    @Serializable
+    data class Entry(
+        /** 压缩包内的原始路径 */
+        val path: String,
+        val size: Long,
+        val crc32: Long
+    )
+
+    /**
+     * 清单版本标识，替代旧的 v2_<size> 标记：
+     * 无需读取压缩包即可判断 assets 是否已更新。
+     */
+    val version: String
+        get() = "m1_${archiveSize}_${archiveCrc32.toString(16)}"
+
+    companion object {
+        /** 清单在 assets 中的目录 */
+        const val ASSET_DIR = "manifests"
+
+        private val json = Json {
+            ignoreUnknownKeys = true
+        }
+
+        fun assetPath(archive: String): String = "$ASSET_DIR/$archive.json"
+
+        fun parse(text: String): ComponentManifest = json.decodeFromString(serializer(), text)
+
+        /**
+         * 从 assets 读取指定压缩包的清单，不存在或解析失败时返回 null
+         */
+        fun load(context: Context, archive: String): ComponentManifest? {
+            return try {
+                context.assets.open(assetPath(archive)).use { stream ->
+                    parse(stream.bufferedReader().readText())
+                }
+            } catch (e: Exception) {
+                null
+            }
+        }
+    }
+}
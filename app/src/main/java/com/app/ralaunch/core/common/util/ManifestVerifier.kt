@@ -0,0 +1,240 @@
+package com.app.ralaunch.core.common.util
+
+import com.app.ralaunch.core.extractor.ArchiveExtractor
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.util.zip.CRC32
+
+/**
+ * 基于 [ComponentManifest] 的解压目录校验器
+ *
+ * - 快速校验：只比较文件大小与解压时记录的 mtime，适合每次启动前调用；
+ * - 深度校验：并行计算 CRC32，适合在后台定期执行；
+ * - 修复：只从压缩包中重新写出校验失败的文件，而不是整体重新解压。
+ *
+ * @param rootDir 组件解压目标目录
+ * @param manifest 构建时生成的清单
+ * @param stripPrefix 解压时去掉的路径前缀（与 ArchiveExtractor 的 stripPrefix 一致）
+ * @param stampName 时间戳文件名，多个组件共用一个目录时需要区分
+ */
+class ManifestVerifier(
+    val rootDir: File,
+    private val manifest: ComponentManifest,
+    private val stripPrefix: String? = null,
+    private val stampName: String = STAMP_FILE
+) {
+
+    data class Failure(
+        val entry: ComponentManifest.Entry,
+        val file: File,
+        val reason: Reason
+    )
+
+    enum class Reason {
+        MISSING,            // 文件缺失
+        SIZE_MISMATCH,      // 大小不一致（常见于崩溃导致的半写文件）
+        MTIME_CHANGED,      // 解压后被改动过
+        CHECKSUM_MISMATCH,  // CRC32 不一致
+        UNREADABLE          // 无法读取
+    }
+
+    data class RepairResult(
+        val repaired: List<File>,
+        val failed: List<Failure>
+    ) {
+        val isSuccess: Boolean get() = failed.isEmpty()
+    }
+
+    private val stampFile = File(rootDir, stampName)
+
+    fun fileFor(entry: ComponentManifest.Entry): File = File(rootDir, relativePath(entry.path))
+
+    /**
+     * 解压目录中记录的清单版本，未写入过时返回 null
+     */
+    fun installedVersion(): String? = readStamp()?.version
+
+    /**
+     * 快速校验：只做 stat，不读取文件内容
+     *
+     * 没有写入过时间戳时只比较大小。
+     */
+    fun verifyFast(): List<Failure> {
+        val stamp = readStamp()?.takeIf { it.version == manifest.version }
+        return manifest.entries.mapNotNull { entry ->
+            val file = fileFor(entry)
+            when {
+                !file.isFile -> Failure(entry, file, Reason.MISSING)
+                file.length() != entry.size -> Failure(entry, file, Reason.SIZE_MISMATCH)
+                stamp != null && stamp.mtimes[entry.path]?.let { it != file.lastModified() } == true ->
+                    Failure(entry, file, Reason.MTIME_CHANGED)
+                else -> null
+            }
+        }
+    }
+
+    /**
+     * 深度校验：大文件优先，并行计算每个文件的 CRC32
+     */
+    suspend fun verifyDeep(parallelism: Int = defaultParallelism()): List<Failure> = coroutineScope {
+        val dispatcher = Dispatchers.IO.limitedParallelism(parallelism.coerceAtLeast(1))
+        manifest.entries
+            .sortedByDescending { it.size }
+            .map { entry -> async(dispatcher) { verifyEntryDeep(entry) } }
+            .awaitAll()
+            .filterNotNull()
+    }
+
+    private fun verifyEntryDeep(entry: ComponentManifest.Entry): Failure? {
+        val file = fileFor(entry)
+        if (!file.isFile) return Failure(entry, file, Reason.MISSING)
+        if (file.length() != entry.size) return Failure(entry, file, Reason.SIZE_MISMATCH)
+        return try {
+            if (crc32Of(file) == entry.crc32) null else Failure(entry, file, Reason.CHECKSUM_MISMATCH)
+        } catch (e: IOException) {
+            Failure(entry, file, Reason.UNREADABLE)
+        }
+    }
+
+    /**
+     * 从已解压缩的 tar 流中只写出失败的文件
+     *
+     * 写入先落到临时文件并校验 CRC32，通过后再替换原文件，避免再次留下半写文件。
+     */
+    fun repairFromTar(tarStream: InputStream, failures: Collection<Failure>): RepairResult {
+        val pending = failures.associateBy { it.entry.path }.toMutableMap()
+        val repaired = mutableListOf<File>()
+        val failed = mutableListOf<Failure>()
+        val tarReader = ArchiveExtractor.MiniTarReader(tarStream)
+        val buffer = ByteArray(BUFFER_SIZE)
+
+        while (pending.isNotEmpty()) {
+            val tarEntry = tarReader.nextEntry() ?: break
+            val failure = pending.remove(normalizeArchivePath(tarEntry.name))
+            if (failure == null || tarEntry.isDirectory || tarEntry.isSymbolicLink) {
+                tarReader.skipEntry()
+                continue
+            }
+
+            val target = failure.file
+            val temp = File(target.parentFile, "${target.name}.repair")
+            try {
+                target.parentFile?.mkdirs()
+                val crc = CRC32()
+                FileOutputStream(temp).use { fos ->
+                    while (true) {
+                        val read = tarReader.readData(buffer)
+                        if (read <= 0) break
+                        crc.update(buffer, 0, read)
+                        fos.write(buffer, 0, read)
+                    }
+                    fos.fd.sync()
+                }
+                if (crc.value != failure.entry.crc32 || temp.length() != failure.entry.size) {
+                    temp.delete()
+                    failed.add(failure.copy(reason = Reason.CHECKSUM_MISMATCH))
+                    continue
+                }
+                if (!temp.renameTo(target)) {
+                    target.delete()
+                    if (!temp.renameTo(target)) throw IOException("rename failed: ${target.absolutePath}")
+                }
+                target.setReadable(true, false)
+                if (target.name.endsWith(".so")) target.setExecutable(true, false)
+                repaired.add(target)
+            } catch (e: IOException) {
+                temp.delete()
+                failed.add(failure.copy(reason = Reason.UNREADABLE))
+            }
+        }
+
+        // 压缩包中找不到的条目视为修复失败
+        failed.addAll(pending.values)
+
+        if (repaired.isNotEmpty()) writeStamp()
+        return RepairResult(repaired, failed)
+    }
+
+    /**
+     * 记录当前清单版本与每个文件的 mtime，供下次快速校验使用
+     */
+    fun writeStamp() {
+        val content = buildString {
+            appendLine(manifest.version)
+            for (entry in manifest.entries) {
+                val file = fileFor(entry)
+                if (file.isFile) {
+                    append(entry.path).append('\t').append(file.lastModified()).append('\n')
+                }
+            }
+        }
+        rootDir.mkdirs()
+        val temp = File(rootDir, "$stampName.tmp")
+        temp.writeText(content)
+        if (!temp.renameTo(stampFile)) {
+            stampFile.delete()
+            temp.renameTo(stampFile)
+        }
+    }
+
+    private data class Stamp(val version: String, val mtimes: Map<String, Long>)
+
+    private fun readStamp(): Stamp? {
+        if (!stampFile.isFile) return null
+        return try {
+            val lines = stampFile.readLines()
+            val version = lines.firstOrNull()?.trim().orEmpty()
+            if (version.isEmpty()) return null
+            val mtimes = HashMap<String, Long>(lines.size)
+            for (i in 1 until lines.size) {
+                val tab = lines[i].lastIndexOf('\t')
+                if (tab <= 0) continue
+                val mtime = lines[i].substring(tab + 1).toLongOrNull() ?: continue
+                mtimes[lines[i].substring(0, tab)] = mtime
+            }
+            Stamp(version, mtimes)
+        } catch (e: IOException) {
+            null
+        }
+    }
+
+    private fun normalizeArchivePath(name: String): String =
+        if (name.startsWith("./")) name.substring(2) else name
+
+    private fun relativePath(archivePath: String): String {
+        var name = normalizeArchivePath(archivePath)
+        if (!stripPrefix.isNullOrEmpty() && name.startsWith(stripPrefix)) {
+            name = name.substring(stripPrefix.length)
+        }
+        return name.trimStart('/', '\\')
+    }
+
+    companion object {
+        /** 解压目录中的时间戳文件 */
+        const val STAMP_FILE = ".integrity"
+
+        private const val BUFFER_SIZE = 65536
+
+        fun defaultParallelism(): Int = Runtime.getRuntime().availableProcessors().coerceIn(2, 4)
+
+        fun crc32Of(file: File): Long {
+            val crc = CRC32()
+            val buffer = ByteArray(BUFFER_SIZE)
+            FileInputStream(file).use { input ->
+                while (true) {
+                    val read = input.read(buffer)
+                    if (read == -1) break
+                    crc.update(buffer, 0, read)
+                }
+            }
+            return crc.value
+        }
+    }
+}
@@ -18,6 +18,7 @@ import com.app.ralaunch.core.di.service.ThemeManagerServiceV1
 import com.app.ralaunch.core.di.service.VibrationManagerServiceV1
 import com.app.ralaunch.core.logging.LogFilePolicy
 import com.app.ralaunch.core.logging.LogLevel
+import com.app.ralaunch.core.logging.LogTagLevels
 import com.app.ralaunch.core.logging.contract.Logger
 import com.app.ralaunch.core.logging.service.AndroidFileLogger
 import com.app.ralaunch.core.logging.service.LogExportHelper
@@ -77,7 +78,9 @@ val appModule = module {
             logLevel = {
                 if (settingsRepository.Settings.verboseLogging) LogLevel.VERBOSE else LogLevel.INFO
             },
-            logcatFileLogger = get(named(LOGCAT_FILE_LOGGER))
+            logcatFileLogger = get(named(LOGCAT_FILE_LOGGER)),
+            tagLevels = LogTagLevels.shared,
+            tagLevelSpec = { settingsRepository.Settings.logTagLevels }
         )
     }
 
@@ -41,8 +41,12 @@ import androidx.compose.ui.unit.sp
 import androidx.core.content.FileProvider
 import com.app.ralaunch.R
 import com.app.ralaunch.core.logging.service.LogExportHelper
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 import org.koin.java.KoinJavaComponent
 import java.io.File
+import java.io.FileOutputStream
 import java.text.SimpleDateFormat
 import java.util.*
 
@@ -61,6 +65,7 @@ fun CrashReportScreen(
     onRestart: () -> Unit
 ) {
     val context = LocalContext.current
+    val scope = rememberCoroutineScope()
     var stackTraceExpanded by remember { mutableStateOf(true) }
     val rotationAngle by animateFloatAsState(
         targetValue = if (stackTraceExpanded) 180f else 0f,
@@ -112,7 +117,7 @@ fun CrashReportScreen(
 
                 // 操作按钮
                 ActionButtons(
-                    onShare = { shareLog(context, errorDetails, stackTrace) },
+                    onShare = { scope.launch { shareLog(context, errorDetails, stackTrace) } },
                     onReturnToApp = onReturnToApp,
                     onRestart = onRestart,
                     onClose = onClose
@@ -577,64 +582,74 @@ private fun parseErrorDetails(context: android.content.Context, errorDetails: St
     )
 }
 
-private fun shareLog(
+private const val CRASH_ARCHIVE_PREFIX = "crash_"
+
+/**
+ * 保存崩溃报告并把它连同日志、诊断信息打包为 zip 分享
+ *
+ * 崩溃报告写入 crash_logs/，由导出包的 crash/ 条目带上；日志以流式写入，不会整体读入内存
+ */
+private suspend fun shareLog(
     context: android.content.Context,
     errorDetails: String?,
     stackTrace: String?
 ) {
     try {
-        val logDir = File(context.filesDir, "crash_logs").apply {
-            if (!exists()) mkdirs()
-        }
-        val sdf = SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault())
-        val logFile = File(logDir, "crash_${sdf.format(Date())}.log")
-        val logExportHelper: LogExportHelper = KoinJavaComponent.get(LogExportHelper::class.java)
-        val exportedLogs = logExportHelper.buildExportContent()
-
-        val logContent = buildString {
-            append("=" .repeat(60))
-            append("\n")
-            append("                    ${context.getString(R.string.crash_report_file_title)}\n")
-            append("=" .repeat(60))
-            append("\n\n")
-
-            errorDetails?.takeIf { it.isNotEmpty() }?.let {
-                append("【${context.getString(R.string.crash_report_basic_info_section)}】\n")
-                append(it)
-                append("\n\n")
+        val timestamp = SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(Date())
+        val fileUri = withContext(Dispatchers.IO) {
+            val logDir = File(context.filesDir, "crash_logs").apply {
+                if (!exists()) mkdirs()
             }
+            val logFile = File(logDir, "crash_$timestamp.log")
 
-            stackTrace?.takeIf { it.isNotEmpty() }?.let {
-                append("【${context.getString(R.string.crash_report_detailed_logs_section)}】\n")
-                append("-".repeat(40))
+            val logContent = buildString {
+                append("=" .repeat(60))
                 append("\n")
-                append(it)
-            }
-
-            exportedLogs.takeIf { it.isNotBlank() }?.let {
+                append("                    ${context.getString(R.string.crash_report_file_title)}\n")
+                append("=" .repeat(60))
                 append("\n\n")
-                append("【${context.getString(R.string.settings_developer_export_logs_title)}】\n")
-                append("-".repeat(40))
-                append("\n")
-                append(it)
-            }
 
-            if (isBlank()) append(context.getString(R.string.crash_report_unavailable))
-        }
+                errorDetails?.takeIf { it.isNotEmpty() }?.let {
+                    append("【${context.getString(R.string.crash_report_basic_info_section)}】\n")
+                    append(it)
+                    append("\n\n")
+                }
 
-        logFile.writeText(logContent, Charsets.UTF_8)
+                stackTrace?.takeIf { it.isNotEmpty() }?.let {
+                    append("【${context.getString(R.string.crash_report_detailed_logs_section)}】\n")
+                    append("-".repeat(40))
+                    append("\n")
+                    append(it)
+                }
 
-        val fileUri = FileProvider.getUriForFile(
-            context,
-            "com.app.ralaunch.fileprovider",
-            logFile
-        )
+                if (isBlank()) append(context.getString(R.string.crash_report_unavailable))
+            }
+
+            logFile.writeText(logContent, Charsets.UTF_8)
+
+            val shareDir = File(context.cacheDir, "shared_logs").apply {
+                mkdirs()
+            }
+            // 只清理之前分享留下的崩溃导出包
+            shareDir.listFiles { file ->
+                file.isFile && file.name.startsWith(CRASH_ARCHIVE_PREFIX) && file.name.endsWith(".zip")
+            }?.forEach(File::delete)
+            val archiveFile = File(shareDir, "$CRASH_ARCHIVE_PREFIX$timestamp.zip")
+            val logExportHelper: LogExportHelper = KoinJavaComponent.get(LogExportHelper::class.java)
+            logExportHelper.writeExportArchive(FileOutputStream(archiveFile))
+
+            FileProvider.getUriForFile(
+                context,
+                "com.app.ralaunch.fileprovider",
+                archiveFile
+            )
+        }
 
         val shareIntent = Intent(Intent.ACTION_SEND).apply {
-            type = "text/plain"
+            type = "application/zip"
             putExtra(Intent.EXTRA_STREAM, fileUri)
             putExtra(Intent.EXTRA_SUBJECT, context.getString(R.string.crash_share_subject))
-            putExtra(Intent.EXTRA_TEXT, context.getString(R.string.crash_share_text_format, sdf.format(Date())))
+            putExtra(Intent.EXTRA_TEXT, context.getString(R.string.crash_share_text_format, timestamp))
             addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION)
         }
 
@@ -229,6 +229,17 @@ object ArchiveExtractor {
             return read
         }
 
+        /**
+         * 跳过当前条目尚未读取的数据，使下一次 nextEntry 能正确对齐
+         */
+        fun skipEntry() {
+            val remaining = currentEntrySize - bytesReadForEntry
+            if (remaining > 0) {
+                skipFully(remaining)
+                bytesReadForEntry = currentEntrySize
+            }
+        }
+
         private fun parseString(offset: Int, length: Int): String {
             var end = offset
             val limit = offset + length
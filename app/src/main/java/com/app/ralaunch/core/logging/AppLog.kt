@@ -3,6 +3,13 @@ package com.app.ralaunch.core.logging
 import android.util.Log
 import com.app.ralaunch.core.logging.contract.Logger
 
+/**
+ * 全局日志入口
+ *
+ * 每次调用先按 [LogTagLevels] 判断标签与级别是否开启，关闭时直接返回 0。
+ * 消息需要拼接时使用 lambda 重载，如 `AppLog.d(TAG) { "x=$x" }`：关闭时不会构造字符串，
+ * lambda 被内联，也不分配闭包对象。
+ */
 object AppLog {
     @Volatile
     private var logger: Logger? = null
@@ -15,35 +22,97 @@ object AppLog {
         logger = null
     }
 
+    /** 按标签配置的级别，运行时修改立即生效 */
+    val tagLevels: LogTagLevels
+        get() = LogTagLevels.shared
+
+    @JvmStatic
+    fun isLoggable(tag: String, level: LogLevel): Boolean = LogTagLevels.shared.isEnabled(tag, level)
+
     @JvmStatic
-    fun v(tag: String, message: String): Int = activeLogger.v(tag, message)
+    fun v(tag: String, message: String): Int =
+        if (isLoggable(tag, LogLevel.VERBOSE)) activeLogger.v(tag, message) else 0
 
     @JvmStatic
-    fun v(tag: String, message: String, throwable: Throwable?): Int = activeLogger.v(tag, message, throwable)
+    fun v(tag: String, message: String, throwable: Throwable?): Int =
+        if (isLoggable(tag, LogLevel.VERBOSE)) activeLogger.v(tag, message, throwable) else 0
+
+    inline fun v(tag: String, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.VERBOSE)) dispatch(LogLevel.VERBOSE, tag, message(), null) else 0
+
+    inline fun v(tag: String, throwable: Throwable?, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.VERBOSE)) dispatch(LogLevel.VERBOSE, tag, message(), throwable) else 0
 
     @JvmStatic
-    fun d(tag: String, message: String): Int = activeLogger.d(tag, message)
+    fun d(tag: String, message: String): Int =
+        if (isLoggable(tag, LogLevel.DEBUG)) activeLogger.d(tag, message) else 0
 
     @JvmStatic
-    fun d(tag: String, message: String, throwable: Throwable?): Int = activeLogger.d(tag, message, throwable)
+    fun d(tag: String, message: String, throwable: Throwable?): Int =
+        if (isLoggable(tag, LogLevel.DEBUG)) activeLogger.d(tag, message, throwable) else 0
+
+    inline fun d(tag: String, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.DEBUG)) dispatch(LogLevel.DEBUG, tag, message(), null) else 0
+
+    inline fun d(tag: String, throwable: Throwable?, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.DEBUG)) dispatch(LogLevel.DEBUG, tag, message(), throwable) else 0
 
     @JvmStatic
-    fun i(tag: String, message: String): Int = activeLogger.i(tag, message)
+    fun i(tag: String, message: String): Int =
+        if (isLoggable(tag, LogLevel.INFO)) activeLogger.i(tag, message) else 0
 
     @JvmStatic
-    fun i(tag: String, message: String, throwable: Throwable?): Int = activeLogger.i(tag, message, throwable)
+    fun i(tag: String, message: String, throwable: Throwable?): Int =
+        if (isLoggable(tag, LogLevel.INFO)) activeLogger.i(tag, message, throwable) else 0
+
+    inline fun i(tag: String, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.INFO)) dispatch(LogLevel.INFO, tag, message(), null) else 0
+
+    inline fun i(tag: String, throwable: Throwable?, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.INFO)) dispatch(LogLevel.INFO, tag, message(), throwable) else 0
 
     @JvmStatic
-    fun w(tag: String, message: String): Int = activeLogger.w(tag, message)
+    fun w(tag: String, message: String): Int =
+        if (isLoggable(tag, LogLevel.WARN)) activeLogger.w(tag, message) else 0
 
     @JvmStatic
-    fun w(tag: String, message: String, throwable: Throwable?): Int = activeLogger.w(tag, message, throwable)
+    fun w(tag: String, message: String, throwable: Throwable?): Int =
+        if (isLoggable(tag, LogLevel.WARN)) activeLogger.w(tag, message, throwable) else 0
+
+    inline fun w(tag: String, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.WARN)) dispatch(LogLevel.WARN, tag, message(), null) else 0
+
+    inline fun w(tag: String, throwable: Throwable?, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.WARN)) dispatch(LogLevel.WARN, tag, message(), throwable) else 0
 
     @JvmStatic
-    fun e(tag: String, message: String): Int = activeLogger.e(tag, message)
+    fun e(tag: String, message: String): Int =
+        if (isLoggable(tag, LogLevel.ERROR)) activeLogger.e(tag, message) else 0
 
     @JvmStatic
-    fun e(tag: String, message: String, throwable: Throwable?): Int = activeLogger.e(tag, message, throwable)
+    fun e(tag: String, message: String, throwable: Throwable?): Int =
+        if (isLoggable(tag, LogLevel.ERROR)) activeLogger.e(tag, message, throwable) else 0
+
+    inline fun e(tag: String, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.ERROR)) dispatch(LogLevel.ERROR, tag, message(), null) else 0
+
+    inline fun e(tag: String, throwable: Throwable?, message: () -> String): Int =
+        if (isLoggable(tag, LogLevel.ERROR)) dispatch(LogLevel.ERROR, tag, message(), throwable) else 0
+
+    /**
+     * 供内联重载调用：级别已检查过，直接交给当前 Logger
+     */
+    @PublishedApi
+    internal fun dispatch(level: LogLevel, tag: String, message: String, throwable: Throwable?): Int {
+        val logger = activeLogger
+        return when (level) {
+            LogLevel.VERBOSE -> if (throwable != null) logger.v(tag, message, throwable) else logger.v(tag, message)
+            LogLevel.DEBUG -> if (throwable != null) logger.d(tag, message, throwable) else logger.d(tag, message)
+            LogLevel.INFO -> if (throwable != null) logger.i(tag, message, throwable) else logger.i(tag, message)
+            LogLevel.WARN -> if (throwable != null) logger.w(tag, message, throwable) else logger.w(tag, message)
+            LogLevel.ERROR -> if (throwable != null) logger.e(tag, message, throwable) else logger.e(tag, message)
+        }
+    }
 
     @JvmStatic
     fun getStackTraceString(throwable: Throwable): String = Log.getStackTraceString(throwable)
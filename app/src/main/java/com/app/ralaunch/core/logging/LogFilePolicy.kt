@@ -7,8 +7,21 @@ import java.time.format.DateTimeFormatter
 import java.util.Date
 import java.util.Locale
 
+/**
+ * 日志文件命名与保留策略
+ *
+ * 当天的活动文件为 ralaunch_yyyy-MM-dd.log（logcat 为 _logcat.log），超过 [SEGMENT_MAX_BYTES]
+ * 后重命名为分段 ralaunch_yyyy-MM-dd.N.log 并在后台压缩为 .gz。所有受管文件共享
+ * [TOTAL_BUDGET_BYTES] 的总空间与 [MAX_FILES] 的数量上限，超出时从最旧的文件开始删除。
+ */
 object LogFilePolicy {
-    const val RETENTION_DAYS = 2
+    /** 按时间的兜底保留期，正常情况下由空间预算先生效 */
+    const val RETENTION_DAYS = 7
+
+    const val SEGMENT_MAX_BYTES = 8L * 1024 * 1024
+    const val TOTAL_BUDGET_BYTES = 64L * 1024 * 1024
+    const val MAX_FILES = 48
+    const val COMPRESSED_EXTENSION = ".gz"
 
     private const val PREFIX = "ralaunch_"
     private const val EXTENSION = ".log"
@@ -16,11 +29,31 @@ object LogFilePolicy {
     private val dateFormatter = DateTimeFormatter
         .ofPattern("yyyy-MM-dd", Locale.US)
         .withZone(ZoneId.systemDefault())
-    private val appLogFileRegex = Regex("^${Regex.escape(PREFIX)}\\d{4}-\\d{2}-\\d{2}${Regex.escape(EXTENSION)}$")
+    private val archiveTimeFormatter = DateTimeFormatter
+        .ofPattern("yyyy-MM-dd_HH-mm-ss", Locale.US)
+        .withZone(ZoneId.systemDefault())
+    private const val ARCHIVE_EXTENSION = ".zip"
+    private const val DATE_PATTERN = "\\d{4}-\\d{2}-\\d{2}"
+    private const val SEGMENT_PATTERN = "(?:\\.(\\d+))?"
+    private val compressedPattern = "(?:${Regex.escape(COMPRESSED_EXTENSION)})?"
+    private val appLogFileRegex = Regex(
+        "^${Regex.escape(PREFIX)}$DATE_PATTERN$SEGMENT_PATTERN${Regex.escape(EXTENSION)}$compressedPattern$"
+    )
+    private val exportArchiveRegex = Regex(
+        "^${Regex.escape(PREFIX)}logs_${DATE_PATTERN}_\\d{2}-\\d{2}-\\d{2}${Regex.escape(ARCHIVE_EXTENSION)}$"
+    )
     private val logcatLogFileRegex = Regex(
-        "^${Regex.escape(PREFIX)}\\d{4}-\\d{2}-\\d{2}${Regex.escape(LOGCAT_SUFFIX)}${Regex.escape(EXTENSION)}$"
+        "^${Regex.escape(PREFIX)}$DATE_PATTERN${Regex.escape(LOGCAT_SUFFIX)}$SEGMENT_PATTERN" +
+            "${Regex.escape(EXTENSION)}$compressedPattern$"
     )
 
+    /** 日志导出压缩包的文件名，例如 ralaunch_logs_2026-04-25_12-30-00.zip */
+    fun exportArchiveFileName(date: Date = Date()): String =
+        "${PREFIX}logs_${archiveTimeFormatter.format(Instant.ofEpochMilli(date.time))}$ARCHIVE_EXTENSION"
+
+    /** 是否是 [exportArchiveFileName] 生成的导出压缩包 */
+    fun isExportArchive(file: File): Boolean = file.isFile && exportArchiveRegex.matches(file.name)
+
     fun appLogFileName(date: Date = Date()): String = "$PREFIX${formatDate(date)}$EXTENSION"
 
     fun logcatLogFileName(date: Date = Date()): String = "$PREFIX${formatDate(date)}$LOGCAT_SUFFIX$EXTENSION"
@@ -31,6 +64,78 @@ object LogFilePolicy {
 
     fun isManagedLogFile(file: File): Boolean = isAppLogFile(file) || isLogcatLogFile(file)
 
+    fun isCompressed(file: File): Boolean = file.name.endsWith(COMPRESSED_EXTENSION)
+
+    fun compressedFile(file: File): File = File(file.parentFile, file.name + COMPRESSED_EXTENSION)
+
+    /**
+     * 活动文件 [activeFile] 的下一个分段文件名，序号取目录中已有分段（含已压缩的）的最大值 + 1
+     *
+     * 例如 ralaunch_2026-04-25.log -> ralaunch_2026-04-25.3.log
+     */
+    fun nextSegmentFile(activeFile: File): File {
+        val base = activeFile.name.removeSuffix(EXTENSION)
+        val segmentRegex = Regex("^${Regex.escape(base)}\\.(\\d+)${Regex.escape(EXTENSION)}$compressedPattern$")
+        val highest = activeFile.parentFile
+            ?.list()
+            ?.mapNotNull { name -> segmentRegex.matchEntire(name)?.groupValues?.get(1)?.toIntOrNull() }
+            ?.maxOrNull()
+            ?: 0
+        return File(activeFile.parentFile, "$base.${highest + 1}$EXTENSION")
+    }
+
+    /**
+     * 分段序号，活动文件（无序号）返回 [Int.MAX_VALUE]；修改时间相同时用于排序
+     */
+    fun segmentIndex(file: File): Int {
+        val match = appLogFileRegex.matchEntire(file.name) ?: logcatLogFileRegex.matchEntire(file.name)
+        return match?.groupValues?.get(1)?.toIntOrNull() ?: Int.MAX_VALUE
+    }
+
+    /**
+     * 需要压缩的已关闭文件：未压缩、且不是正在写入的活动文件
+     *
+     * @param activeFileNames 当前被写入的文件名，不会被压缩
+     */
+    fun closedFilesToCompress(directory: File, activeFileNames: Set<String>): List<File> {
+        return directory
+            .listFiles { file -> isManagedLogFile(file) && !isCompressed(file) && file.name !in activeFileNames }
+            ?.sortedBy { it.lastModified() }
+            ?: emptyList()
+    }
+
+    /**
+     * 超出空间预算或数量上限的文件，从最旧的开始选出
+     *
+     * 最新的文件优先保留；活动文件总是保留，但其大小计入预算。
+     */
+    fun filesOverBudget(
+        directory: File,
+        activeFileNames: Set<String> = emptySet(),
+        budgetBytes: Long = TOTAL_BUDGET_BYTES,
+        maxFiles: Int = MAX_FILES
+    ): List<File> {
+        val managed = directory.listFiles { file -> isManagedLogFile(file) }?.toList() ?: return emptyList()
+        val (active, closed) = managed.partition { it.name in activeFileNames }
+
+        var usedBytes = active.sumOf { it.length() }
+        var keptFiles = active.size
+        val overBudget = ArrayList<File>()
+        var exhausted = false
+        for (file in closed.sortedWith(compareByDescending<File> { it.lastModified() }.thenByDescending { it.name })) {
+            val size = file.length()
+            // 一旦超出，更旧的文件全部删除，保证留下的是连续的最近历史
+            if (!exhausted && keptFiles < maxFiles && usedBytes + size <= budgetBytes) {
+                usedBytes += size
+                keptFiles++
+            } else {
+                exhausted = true
+                overBudget.add(file)
+            }
+        }
+        return overBudget.sortedBy { it.lastModified() }
+    }
+
     fun filesOlderThanRetention(directory: File, nowMillis: Long = System.currentTimeMillis()): List<File> {
         val cutoffMillis = nowMillis - RETENTION_DAYS * 24L * 60L * 60L * 1000L
         return directory
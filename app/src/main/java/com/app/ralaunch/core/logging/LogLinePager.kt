@@ -0,0 +1,41 @@
+package com.app.ralaunch.core.logging
+
+/**
+ * 按页缓存 [MappedLogFile] 的行，供懒加载列表按行号取用
+ *
+ * 只缓存最近访问的 [maxPages] 页，滚动浏览整个大文件时内存占用保持不变。
+ * 一页数据来自内存映射，读取开销约为一次 64 KB 拷贝，可以在主线程上调用。
+ */
+class LogLinePager(
+    private val log: MappedLogFile,
+    private val pageLines: Int = DEFAULT_PAGE_LINES,
+    private val maxPages: Int = DEFAULT_MAX_PAGES
+) {
+    private val pages = object : LinkedHashMap<Int, List<LogLine>>(maxPages, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Int, List<LogLine>>?): Boolean =
+            size > maxPages
+    }
+
+    /** 当前可访问的行数，即已建立索引的行数 */
+    val lineCount: Int
+        get() = log.indexedLineCount
+
+    /**
+     * 第 [number] 行，超出已索引范围时为 null
+     */
+    @Synchronized
+    fun line(number: Int): LogLine? {
+        if (number < 0 || number >= lineCount) return null
+        val page = number / pageLines
+        val lines = pages[page] ?: log.readLines(page * pageLines, pageLines).also {
+            // 文件末尾的不完整页在索引完成前不缓存
+            if (it.size == pageLines || log.isIndexComplete) pages[page] = it
+        }
+        return lines.getOrNull(number - page * pageLines)
+    }
+
+    companion object {
+        const val DEFAULT_PAGE_LINES = 256
+        const val DEFAULT_MAX_PAGES = 16
+    }
+}
@@ -0,0 +1,28 @@
+package com.app.ralaunch.core.logging
+
+import java.io.BufferedReader
+import java.io.File
+import java.io.FileInputStream
+import java.io.InputStream
+import java.io.InputStreamReader
+import java.util.zip.GZIPInputStream
+
+/**
+ * 透明读取日志文件：已压缩的分段（.gz）与普通文本文件使用相同的接口
+ */
+object LogSegmentReader {
+    private const val BUFFER_BYTES = 64 * 1024
+
+    fun openStream(file: File): InputStream = decode(file, FileInputStream(file))
+
+    /**
+     * 按 [file] 的文件名决定是否解压已打开的原始流 [raw]，便于调用方统计实际读取的字节
+     */
+    fun decode(file: File, raw: InputStream): InputStream =
+        if (LogFilePolicy.isCompressed(file)) GZIPInputStream(raw, BUFFER_BYTES) else raw
+
+    fun openReader(file: File): BufferedReader =
+        BufferedReader(InputStreamReader(openStream(file), Charsets.UTF_8), BUFFER_BYTES)
+
+    fun readText(file: File): String = openReader(file).use { it.readText() }
+}
@@ -0,0 +1,97 @@
+package com.app.ralaunch.core.logging
+
+/**
+ * 按标签配置的日志级别，运行时修改立即生效
+ *
+ * [isEnabled] 在每次日志调用前执行，只读取两个 volatile 字段；没有单独配置的标签时不做 Map 查找。
+ * 修改时整体替换不可变的 Map，读取方无需加锁。
+ */
+class LogTagLevels(defaultLevel: LogLevel = LogLevel.VERBOSE) {
+
+    /** 级别阈值，取 [LogLevel.ordinal]（枚举按严重程度声明），[OFF] 表示关闭 */
+    @Volatile
+    private var defaultThreshold = defaultLevel.ordinal
+
+    @Volatile
+    private var overrides: Map<String, Int> = emptyMap()
+
+    /** 未单独配置的标签使用的最低级别 */
+    var defaultLevel: LogLevel
+        get() = LogLevel.entries[defaultThreshold]
+        set(value) {
+            defaultThreshold = value.ordinal
+        }
+
+    fun isEnabled(tag: String, level: LogLevel): Boolean {
+        val tagOverrides = overrides
+        val threshold = if (tagOverrides.isEmpty()) defaultThreshold else tagOverrides[tag] ?: defaultThreshold
+        return level.ordinal >= threshold
+    }
+
+    /**
+     * 设置 [tag] 的最低级别，null 表示关闭该标签的全部日志
+     */
+    @Synchronized
+    fun setLevel(tag: String, level: LogLevel?) {
+        overrides = HashMap(overrides).apply { put(tag, level?.ordinal ?: OFF) }
+    }
+
+    /**
+     * [tag] 的最低级别，关闭时为 null；未单独配置时返回 [defaultLevel]
+     */
+    fun levelOf(tag: String): LogLevel? {
+        val threshold = overrides[tag] ?: defaultThreshold
+        return if (threshold == OFF) null else LogLevel.entries[threshold]
+    }
+
+    @Synchronized
+    fun clear(tag: String) {
+        if (tag in overrides) overrides = HashMap(overrides).apply { remove(tag) }
+    }
+
+    /**
+     * 清除所有标签配置并恢复默认级别为 VERBOSE
+     */
+    @Synchronized
+    fun reset() {
+        overrides = emptyMap()
+        defaultThreshold = LogLevel.VERBOSE.ordinal
+    }
+
+    /**
+     * 清除所有标签配置，以 [defaultLevel] 为默认级别重新应用 [spec]（格式同 [apply]）
+     */
+    @Synchronized
+    fun replace(defaultLevel: LogLevel, spec: String) {
+        overrides = emptyMap()
+        defaultThreshold = defaultLevel.ordinal
+        apply(spec)
+    }
+
+    /**
+     * 按 `Tag=W,Other=off` 形式批量设置，级别取 [LogLevel.label]；`*=I` 设置默认级别。
+     * 无法识别的条目被忽略
+     */
+    fun apply(spec: String) {
+        for (entry in spec.split(',')) {
+            val separator = entry.indexOf('=')
+            if (separator <= 0) continue
+            val tag = entry.substring(0, separator).trim()
+            val value = entry.substring(separator + 1).trim()
+            val level = LogLevel.entries.firstOrNull { it.label.equals(value, ignoreCase = true) }
+            when {
+                tag == "*" && level != null -> defaultLevel = level
+                tag == "*" -> Unit
+                value.equals("off", ignoreCase = true) -> setLevel(tag, null)
+                level != null -> setLevel(tag, level)
+            }
+        }
+    }
+
+    companion object {
+        private const val OFF = Int.MAX_VALUE
+
+        /** [AppLog] 使用的全局配置 */
+        val shared: LogTagLevels by lazy { LogTagLevels() }
+    }
+}
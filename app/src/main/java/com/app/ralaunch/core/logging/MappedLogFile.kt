@@ -0,0 +1,450 @@
+package com.app.ralaunch.core.logging
+
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+
+/**
+ * 内存映射的日志文件，供日志查看器按需分页读取
+ *
+ * 打开时只做映射，不读取内容；行号索引由 [buildIndex] 在后台逐块建立，每 [stride] 行记录一个起始偏移，
+ * 500 MB 的日志索引只占几百 KB。索引建立期间即可通过 [tail] 从文件末尾倒序读取最新的行，
+ * 耗时与文件大小无关；[search] 直接扫描映射的字节，不依赖索引。
+ *
+ * 映射的是打开时的文件长度，之后追加的内容需要重新打开才能看到。MappedByteBuffer 没有公开的解除映射接口，
+ * 不再引用后由 GC 回收映射。
+ */
+class MappedLogFile private constructor(
+    val file: File,
+    private val regions: Array<ByteBuffer>,
+    val length: Long,
+    private val regionShift: Int,
+    val stride: Int
+) {
+
+    private val regionMask = (1L shl regionShift) - 1
+
+    /** 第 k 个元素为第 k * [stride] 行的起始偏移；先写元素、再替换引用、最后更新行数 */
+    @Volatile
+    private var checkpoints = LongArray(INITIAL_CHECKPOINTS)
+
+    @Volatile
+    var indexedLineCount: Int = 0
+        private set
+
+    /** 已扫描过的字节数 */
+    @Volatile
+    var indexedBytes: Long = 0L
+        private set
+
+    val isIndexComplete: Boolean
+        get() = indexedBytes >= length
+
+    private val indexLock = Any()
+
+    /**
+     * 从上次停下的位置继续建立行索引，直到文件末尾或 [isCancelled] 返回 true
+     *
+     * 已建立的部分立即可用于 [readLines]；同一时间只有一个线程在建立索引
+     *
+     * @param onProgress 每扫描一块回调一次，参数为已扫描字节数与已发现的行数
+     */
+    fun buildIndex(
+        isCancelled: () -> Boolean = { false },
+        onProgress: (indexedBytes: Long, lineCount: Int) -> Unit = { _, _ -> }
+    ) {
+        synchronized(indexLock) {
+            val chunk = ByteArray(CHUNK_BYTES)
+            var position = indexedBytes
+            var lines = indexedLineCount
+            var table = checkpoints
+            if (position == 0L && length > 0L) {
+                table[0] = 0L
+                lines = 1
+            }
+
+            while (position < length && !isCancelled()) {
+                val count = readInto(position, chunk, minOf(CHUNK_BYTES.toLong(), length - position).toInt())
+                for (i in 0 until count) {
+                    if (chunk[i] != NEWLINE) continue
+                    val lineStart = position + i + 1
+                    if (lineStart >= length) continue
+                    if (lines % stride == 0) {
+                        val slot = lines / stride
+                        if (slot == table.size) table = table.copyOf(table.size * 2)
+                        table[slot] = lineStart
+                    }
+                    lines++
+                }
+                position += count
+                checkpoints = table
+                indexedLineCount = lines
+                indexedBytes = position
+                onProgress(position, lines)
+            }
+        }
+    }
+
+    /**
+     * 第 [line] 行（从 0 开始）的起始偏移，[line] 须小于 [indexedLineCount]
+     */
+    fun lineOffset(line: Int): Long {
+        val count = indexedLineCount
+        require(line in 0 until count) { "Line $line is not indexed yet ($count lines indexed)" }
+        var offset = checkpoints[line / stride]
+        var remaining = line % stride
+        while (remaining > 0) {
+            if (byteAt(offset) == NEWLINE) remaining--
+            offset++
+        }
+        return offset
+    }
+
+    /**
+     * 读取从第 [fromLine] 行开始的至多 [count] 行，[fromLine] 须已建立索引
+     */
+    fun readLines(fromLine: Int, count: Int): List<LogLine> {
+        if (count <= 0 || fromLine >= indexedLineCount) return emptyList()
+        val result = ArrayList<LogLine>(count)
+        scanLines(lineOffset(fromLine), fromLine) { line, offset, bytes, size ->
+            result.add(LogLine(line, offset, decode(bytes, size)))
+            result.size < count
+        }
+        return result
+    }
+
+    /**
+     * 文件最后的至多 [count] 行，从末尾倒序查找换行符，不需要索引
+     *
+     * 索引尚未完成时行号未知，[LogLine.number] 为 -1
+     */
+    fun tail(count: Int): List<LogLine> {
+        if (count <= 0 || length == 0L) return emptyList()
+        val starts = ArrayList<Long>(count)
+        var position = (if (byteAt(length - 1) == NEWLINE) length - 1 else length) - 1
+        while (starts.size < count) {
+            while (position >= 0L && byteAt(position) != NEWLINE) position--
+            starts.add(position + 1)
+            if (position < 0L) break
+            position--
+        }
+        starts.reverse()
+
+        val firstNumber = if (isIndexComplete) indexedLineCount - starts.size else -1
+        val result = ArrayList<LogLine>(starts.size)
+        var lineBuffer = ByteArray(256)
+        for ((i, start) in starts.withIndex()) {
+            var size = 0
+            var cursor = start
+            while (cursor < length && size < MAX_LINE_BYTES) {
+                val b = byteAt(cursor)
+                if (b == NEWLINE) break
+                if (size == lineBuffer.size) lineBuffer = lineBuffer.copyOf(minOf(size * 2, MAX_LINE_BYTES))
+                lineBuffer[size++] = b
+                cursor++
+            }
+            if (size > 0 && lineBuffer[size - 1] == CARRIAGE_RETURN) size--
+            result.add(LogLine(if (firstNumber < 0) -1 else firstNumber + i, start, decode(lineBuffer, size)))
+        }
+        return result
+    }
+
+    /**
+     * 顺序扫描整个文件查找匹配 [query] 的行，结果分批通过 [onBatch] 增量返回
+     *
+     * 不依赖索引，返回的行带有行号。没有头部的续行（如异常堆栈）沿用上一条日志的级别与标签。
+     *
+     * @param maxResults 达到后停止扫描，最后一批的 [LogSearchBatch.truncated] 为 true
+     */
+    fun search(
+        query: LogSearchQuery,
+        isCancelled: () -> Boolean = { false },
+        batchSize: Int = DEFAULT_SEARCH_BATCH,
+        maxResults: Int = Int.MAX_VALUE,
+        onBatch: (LogSearchBatch) -> Unit
+    ) {
+        val needle = query.text.toByteArray(Charsets.UTF_8).let { if (query.ignoreCase) lowerAscii(it) else it }
+        val tag = query.tag?.toByteArray(Charsets.UTF_8)?.let(::lowerAscii)
+        var matches = ArrayList<LogLine>(minOf(batchSize, maxResults))
+        var total = 0
+        var currentLevel: LogLevel? = null
+        val header = IntArray(HEADER_FIELDS)
+        var currentTagMatches = tag == null
+        var scanned = 0L
+        var cancelled = false
+
+        scanLines(0L, 0) { line, offset, bytes, size ->
+            if ((line and CANCEL_CHECK_MASK) == 0 && isCancelled()) {
+                cancelled = true
+                return@scanLines false
+            }
+            scanned = offset + size
+            if (parseHeader(bytes, size, header)) {
+                currentLevel = levelOf(bytes[header[HEADER_LEVEL]])
+                currentTagMatches = tag == null ||
+                    indexOf(bytes, header[HEADER_TAG_START], header[HEADER_TAG_END], tag, ignoreCase = true) >= 0
+            }
+            val levelMatches = query.minLevel == null || currentLevel?.let { query.minLevel.allows(it) } == true
+            if (levelMatches && currentTagMatches &&
+                (needle.isEmpty() || indexOf(bytes, 0, size, needle, query.ignoreCase) >= 0)
+            ) {
+                matches.add(LogLine(line, offset, decode(bytes, size)))
+                total++
+                if (total >= maxResults) {
+                    onBatch(LogSearchBatch(matches, scanned, length, done = true, truncated = true))
+                    matches = ArrayList()
+                    return@scanLines false
+                }
+                if (matches.size >= batchSize) {
+                    onBatch(LogSearchBatch(matches, scanned, length, done = false, truncated = false))
+                    matches = ArrayList(batchSize)
+                }
+            }
+            true
+        }
+        if (total < maxResults && !cancelled) {
+            onBatch(LogSearchBatch(matches, length, length, done = true, truncated = false))
+        }
+    }
+
+    // ==================== 扫描 ====================
+
+    /**
+     * 从 [fromOffset]（须为行首）开始逐行回调，行内容不含换行符，超过 [MAX_LINE_BYTES] 的部分被截断；
+     * [visitor] 返回 false 时停止
+     */
+    private fun scanLines(
+        fromOffset: Long,
+        firstLine: Int,
+        visitor: (line: Int, offset: Long, bytes: ByteArray, size: Int) -> Boolean
+    ) {
+        val chunk = ByteArray(CHUNK_BYTES)
+        var lineBuffer = ByteArray(256)
+        var lineSize = 0
+        var lineStart = fromOffset
+        var line = firstLine
+        var position = fromOffset
+
+        fun append(from: Int, count: Int) {
+            val take = minOf(count, MAX_LINE_BYTES - lineSize)
+            if (take <= 0) return
+            if (lineSize + take > lineBuffer.size) {
+                lineBuffer = lineBuffer.copyOf(minOf(maxOf(lineBuffer.size * 2, lineSize + take), MAX_LINE_BYTES))
+            }
+            System.arraycopy(chunk, from, lineBuffer, lineSize, take)
+            lineSize += take
+        }
+
+        fun emit(): Boolean {
+            val size = if (lineSize > 0 && lineBuffer[lineSize - 1] == CARRIAGE_RETURN) lineSize - 1 else lineSize
+            return visitor(line, lineStart, lineBuffer, size)
+        }
+
+        while (position < length) {
+            val count = readInto(position, chunk, minOf(CHUNK_BYTES.toLong(), length - position).toInt())
+            var segmentStart = 0
+            for (i in 0 until count) {
+                if (chunk[i] != NEWLINE) continue
+                append(segmentStart, i - segmentStart)
+                if (!emit()) return
+                line++
+                lineStart = position + i + 1
+                lineSize = 0
+                segmentStart = i + 1
+            }
+            append(segmentStart, count - segmentStart)
+            position += count
+        }
+        if (lineStart < length) emit()
+    }
+
+    private fun readInto(position: Long, target: ByteArray, count: Int): Int {
+        var done = 0
+        while (done < count) {
+            val at = position + done
+            val region = regions[(at shr regionShift).toInt()].duplicate()
+            val offset = (at and regionMask).toInt()
+            val take = minOf(count - done, region.limit() - offset)
+            region.position(offset)
+            region.get(target, done, take)
+            done += take
+        }
+        return done
+    }
+
+    private fun byteAt(position: Long): Byte =
+        regions[(position shr regionShift).toInt()].get((position and regionMask).toInt())
+
+    // ==================== 行头解析 ====================
+
+    /**
+     * 解析 `[时间] [L] [Tag] 消息` 格式的行头，成功时把级别与标签的位置写入 [out]
+     */
+    private fun parseHeader(bytes: ByteArray, size: Int, out: IntArray): Boolean {
+        if (size < 8 || bytes[0] != '['.code.toByte()) return false
+        var i = 1
+        while (i < size && bytes[i] != ']'.code.toByte()) i++
+        // "] [L] ["
+        if (i + 6 >= size || bytes[i + 1] != ' '.code.toByte() || bytes[i + 2] != '['.code.toByte() ||
+            bytes[i + 4] != ']'.code.toByte() || bytes[i + 5] != ' '.code.toByte() || bytes[i + 6] != '['.code.toByte()
+        ) {
+            return false
+        }
+        if (levelOf(bytes[i + 3]) == null) return false
+        var end = i + 7
+        while (end < size && bytes[end] != ']'.code.toByte()) end++
+        if (end == size) return false
+        out[HEADER_LEVEL] = i + 3
+        out[HEADER_TAG_START] = i + 7
+        out[HEADER_TAG_END] = end
+        return true
+    }
+
+    companion object {
+        const val DEFAULT_STRIDE = 64
+        const val DEFAULT_SEARCH_BATCH = 256
+
+        /** 单行最多解码的字节数，更长的部分不显示也不参与搜索 */
+        const val MAX_LINE_BYTES = 16 * 1024
+
+        private const val DEFAULT_REGION_SHIFT = 30
+        private const val CHUNK_BYTES = 64 * 1024
+        private const val INITIAL_CHECKPOINTS = 1024
+        private const val CANCEL_CHECK_MASK = 0x3FF
+        private const val NEWLINE = '\n'.code.toByte()
+        private const val CARRIAGE_RETURN = '\r'.code.toByte()
+
+        private const val HEADER_FIELDS = 3
+        private const val HEADER_LEVEL = 0
+        private const val HEADER_TAG_START = 1
+        private const val HEADER_TAG_END = 2
+
+        /**
+         * 映射 [file]；不读取内容，耗时与文件大小无关
+         *
+         * @param regionBytes 单个映射区的大小，须为 2 的幂；超过 2 GB 的文件会分成多个映射区
+         */
+        fun open(
+            file: File,
+            stride: Int = DEFAULT_STRIDE,
+            regionBytes: Int = 1 shl DEFAULT_REGION_SHIFT
+        ): MappedLogFile {
+            require(stride > 0) { "stride must be positive" }
+            require(regionBytes > 0 && regionBytes and (regionBytes - 1) == 0) { "regionBytes must be a power of two" }
+            val regionShift = Integer.numberOfTrailingZeros(regionBytes)
+            return FileChannel.open(file.toPath(), StandardOpenOption.READ).use { channel ->
+                val length = channel.size()
+                val regionCount = ((length + regionBytes - 1) shr regionShift).toInt()
+                val regions = Array<ByteBuffer>(regionCount) { index ->
+                    val start = index.toLong() shl regionShift
+                    channel.map(FileChannel.MapMode.READ_ONLY, start, minOf(regionBytes.toLong(), length - start))
+                }
+                MappedLogFile(file, regions, length, regionShift, stride)
+            }
+        }
+
+        private fun decode(bytes: ByteArray, size: Int): String = String(bytes, 0, size, Charsets.UTF_8)
+
+        private fun levelOf(label: Byte): LogLevel? = when (label.toInt().toChar()) {
+            'V' -> LogLevel.VERBOSE
+            'D' -> LogLevel.DEBUG
+            'I' -> LogLevel.INFO
+            'W' -> LogLevel.WARN
+            'E', 'F', 'A' -> LogLevel.ERROR
+            else -> null
+        }
+
+        private fun lowerAscii(bytes: ByteArray): ByteArray =
+            ByteArray(bytes.size) { i -> lowerAscii(bytes[i]) }
+
+        private fun lowerAscii(b: Byte): Byte =
+            if (b in 'A'.code.toByte()..'Z'.code.toByte()) (b + ('a' - 'A')).toByte() else b
+
+        /**
+         * 在 bytes[from, to) 中查找 [needle]；[ignoreCase] 时 [needle] 须已转为小写，仅折叠 ASCII 大小写
+         */
+        private fun indexOf(bytes: ByteArray, from: Int, to: Int, needle: ByteArray, ignoreCase: Boolean): Int {
+            if (needle.isEmpty()) return from
+            val first = needle[0]
+            val last = to - needle.size
+            var i = from
+            while (i <= last) {
+                val b = if (ignoreCase) lowerAscii(bytes[i]) else bytes[i]
+                if (b == first) {
+                    var j = 1
+                    while (j < needle.size) {
+                        val c = if (ignoreCase) lowerAscii(bytes[i + j]) else bytes[i + j]
+                        if (c != needle[j]) break
+                        j++
+                    }
+                    if (j == needle.size) return i
+                }
+                i++
+            }
+            return -1
+        }
+    }
+}
+
+/**
+ * 日志中的一行
+ *
+ * @param number 从 0 开始的行号，未知时为 -1
+ * @param offset 行首在文件中的字节偏移
+ */
+data class LogLine(
+    val number: Int,
+    val offset: Long,
+    val text: String
+)
+
+/**
+ * 日志搜索条件，各条件同时满足才算匹配
+ *
+ * @param text 子串，为空时不按内容过滤
+ * @param minLevel 最低级别，null 表示不按级别过滤
+ * @param tag 标签需包含的子串（不区分 ASCII 大小写），null 表示不按标签过滤
+ */
+data class LogSearchQuery(
+    val text: String = "",
+    val minLevel: LogLevel? = null,
+    val tag: String? = null,
+    val ignoreCase: Boolean = true
+) {
+    val isEmpty: Boolean
+        get() = text.isEmpty() && minLevel == null && tag == null
+
+    companion object {
+        private const val TAG_PREFIX = "tag:"
+
+        /**
+         * 解析输入框内容，`tag:Name` 形式的词作为标签条件，其余部分作为子串
+         */
+        fun parse(input: String, minLevel: LogLevel? = null): LogSearchQuery {
+            var tag: String? = null
+            val words = ArrayList<String>()
+            for (word in input.trim().split(' ')) {
+                if (word.startsWith(TAG_PREFIX, ignoreCase = true) && word.length > TAG_PREFIX.length) {
+                    tag = word.substring(TAG_PREFIX.length)
+                } else if (word.isNotEmpty()) {
+                    words.add(word)
+                }
+            }
+            return LogSearchQuery(text = words.joinToString(" "), minLevel = minLevel, tag = tag)
+        }
+    }
+}
+
+/**
+ * 搜索的一批增量结果
+ *
+ * @param scannedBytes 截至本批已扫描的字节数，与 [totalBytes] 一起用于显示进度
+ */
+class LogSearchBatch(
+    val matches: List<LogLine>,
+    val scannedBytes: Long,
+    val totalBytes: Long,
+    val done: Boolean,
+    val truncated: Boolean
+)
@@ -2,21 +2,24 @@ package com.app.ralaunch.core.logging.service
 
 import android.util.Log
 import com.app.ralaunch.core.common.util.FileUtils
+import com.app.ralaunch.core.logging.AppLog
 import com.app.ralaunch.core.logging.LogFilePolicy
 import com.app.ralaunch.core.logging.LogLevel
+import com.app.ralaunch.core.logging.LogTagLevels
 import com.app.ralaunch.core.logging.contract.Logger
-import java.io.BufferedWriter
 import java.io.File
-import java.io.FileWriter
-import java.io.PrintWriter
+import java.io.FileOutputStream
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.channels.FileChannel
+import java.nio.charset.CodingErrorAction
 import java.text.SimpleDateFormat
 import java.util.Date
 import java.util.Locale
 import java.util.concurrent.CountDownLatch
-import java.util.concurrent.LinkedBlockingDeque
-import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicBoolean
-import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
 
 class AndroidFileLogger(
     private val fileNameProvider: () -> String = { LogFilePolicy.appLogFileName() },
@@ -25,10 +28,19 @@ class AndroidFileLogger(
     private val logLevel: () -> LogLevel = { LogLevel.VERBOSE },
     private val logcatFileLogger: AndroidFileLogger? = null,
     private val queueCapacity: Int = DEFAULT_QUEUE_CAPACITY,
-    private val writerStartGate: CountDownLatch? = null
+    private val writerStartGate: CountDownLatch? = null,
+    private val segmentMaxBytes: Long = LogFilePolicy.SEGMENT_MAX_BYTES,
+    private val segmentMaintainer: LogSegmentMaintainer = LogSegmentMaintainer.shared,
+    private val tagLevels: LogTagLevels? = null,
+    private val tagLevelSpec: () -> String = { "" }
 ) : Logger {
     private val lock = Any()
-    private val timestampFormat = SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US)
+    private val tags = LogTagTable()
+    private val droppedRecords = AtomicLong(0L)
+    private val replacedRecords = AtomicLong(0L)
+
+    /** 调用方无锁读取；只在持有 [lock] 时替换 */
+    @Volatile
     private var writer: AsyncLogWriter? = null
     private var logFile: File? = null
     private var reader: LogcatReader? = null
@@ -46,6 +58,14 @@ class AndroidFileLogger(
         applyConfiguration(clearExpiredLogs = false)
     }
 
+    /**
+     * 按设置更新 [LogTagLevels]：默认级别取配置的日志级别，再应用按标签的配置。
+     * 每个进程启动时调用一次，低于配置级别的调用在 AppLog 入口即被跳过，不再构造消息
+     */
+    fun applyTagLevels() {
+        tagLevels?.replace(logLevel(), tagLevelSpec())
+    }
+
     fun stop() {
         stopReader()
         logcatFileLogger?.close()
@@ -66,12 +86,19 @@ class AndroidFileLogger(
             val configuredLogFile = File(logDirectory, fileNameProvider())
             configuredLogFile.createNewFile()
             logFile = configuredLogFile
+            segmentMaintainer.registerActive(configuredLogFile)
             writer = AsyncLogWriter(
                 file = configuredLogFile,
                 queueCapacity = queueCapacity,
-                droppedLineFormatter = ::formatDroppedLine,
-                startGate = writerStartGate
+                tags = tags,
+                droppedTotal = droppedRecords,
+                replacedTotal = replacedRecords,
+                startGate = writerStartGate,
+                segmentMaxBytes = segmentMaxBytes,
+                onSegmentClosed = { segmentMaintainer.schedule(logDirectory) }
             )
+            // 压缩上次运行留下的文件并执行空间预算
+            segmentMaintainer.schedule(logDirectory)
         }
     }
 
@@ -85,11 +112,18 @@ class AndroidFileLogger(
 
     fun currentLogcatFile(): File? = logcatFileLogger?.currentLogFile()
 
+    /**
+     * 自创建以来因缓冲已满而丢弃（或为高优先级记录腾出位置）的记录总数
+     */
+    fun droppedRecordCount(): Long = droppedRecords.get()
+
+    /**
+     * 其中为高优先级记录腾出位置而丢弃的低优先级记录数
+     */
+    fun replacedRecordCount(): Long = replacedRecords.get()
+
     fun writeRawLine(line: String) {
-        synchronized(lock) { writer }?.enqueue(
-            line = line,
-            priority = LogLevel.FileWritePriority.LOW
-        )
+        writer?.enqueueRaw(line)
     }
 
     override fun v(tag: String, message: String): Int {
@@ -153,6 +187,7 @@ class AndroidFileLogger(
     }
 
     private fun applyConfiguration(clearExpiredLogs: Boolean) {
+        applyTagLevels()
         val directory = logDirectory ?: return
 
         try {
@@ -213,39 +248,16 @@ class AndroidFileLogger(
         }
     }
 
+    /**
+     * 调用方线程只做级别判断并写入一条二进制记录，格式化与 IO 都在写线程完成
+     */
     private fun write(level: LogLevel, tag: String, message: String, throwable: Throwable?) {
         if (!shouldWriteFileLevel(level)) return
-
-        val formattedLine = buildString {
-            append("[")
-            append(formatTimestamp())
-            append("] [")
-            append(level.label)
-            append("] [")
-            append(tag)
-            append("] ")
-            append(message)
-            if (throwable != null) {
-                appendLine()
-                append(throwable.stackTraceToString().trimEnd())
-            }
-        }
-
-        synchronized(lock) { writer }?.enqueue(
-            line = formattedLine,
-            priority = level.fileWritePriority
-        )
+        writer?.enqueue(level, tag, message, throwable)
     }
 
     private fun shouldWriteFileLevel(level: LogLevel): Boolean = logLevel().allows(level)
 
-    private fun formatTimestamp(): String = synchronized(timestampFormat) {
-        timestampFormat.format(Date())
-    }
-
-    private fun formatDroppedLine(droppedCount: Int): String =
-        "[${formatTimestamp()}] [W] [$TAG] Dropped $droppedCount log lines because the async log queue was full"
-
     private fun clearExpiredLogFiles(directory: File) {
         LogFilePolicy.filesOlderThanRetention(directory).forEach { file ->
             runCatching { FileUtils.deleteFileWithinRoot(file, directory) }
@@ -254,9 +266,12 @@ class AndroidFileLogger(
     }
 
     private fun closeLocked() {
-        writer?.close()
+        val closing = writer
+        val closingFile = logFile
         writer = null
         logFile = null
+        closing?.close()
+        closingFile?.let(segmentMaintainer::unregisterActive)
     }
 
     companion object {
@@ -266,75 +281,130 @@ class AndroidFileLogger(
     }
 
     internal fun drainForTest(timeoutMillis: Long = 5_000L): Boolean =
-        synchronized(lock) { writer }?.flush(timeoutMillis) ?: true
-
-    private sealed interface QueueItem {
-        data class Line(
-            val value: String,
-            val priority: LogLevel.FileWritePriority
-        ) : QueueItem
-
-        data class Flush(val complete: CountDownLatch? = null) : QueueItem
-
-        data class Stop(val complete: CountDownLatch) : QueueItem
-    }
-
+        writer?.flush(timeoutMillis) ?: true
+
+    /**
+     * 单个日志文件的异步写入器
+     *
+     * 调用方把记录写入 [LogRecordRing] 后立即返回；写线程批量取出记录，用缓存的日期前缀格式化，
+     * 编码进直接内存 ByteBuffer，缓冲满、遇到 WARN/ERROR、收到 flush 请求或距上次落盘超过
+     * [FLUSH_INTERVAL_MS] 时才写入文件。缓冲满时丢弃的记录会计数，并在下一次写出时记录一行提示。
+     *
+     * 文件超过 [segmentMaxBytes] 时由写线程重命名为下一个分段并重新打开，已关闭的分段交给
+     * [onSegmentClosed] 处理（压缩与空间预算）。
+     */
     private class AsyncLogWriter(
         private val file: File,
         queueCapacity: Int,
-        private val droppedLineFormatter: (Int) -> String,
-        private val startGate: CountDownLatch?
+        private val tags: LogTagTable,
+        private val droppedTotal: AtomicLong,
+        private val replacedTotal: AtomicLong,
+        private val startGate: CountDownLatch?,
+        private val segmentMaxBytes: Long,
+        private val onSegmentClosed: () -> Unit
     ) {
-        private val queue = LinkedBlockingDeque<QueueItem>(queueCapacity.coerceAtLeast(1))
-        private val droppedLineCount = AtomicInteger(0)
+        private val ring = LogRecordRing(queueCapacity)
+        private val wakeThreshold = (ring.capacity / 2).coerceAtLeast(1)
+        private val pendingDropped = AtomicLong(0L)
         private val closed = AtomicBoolean(false)
+        private val flushRequests = AtomicLong(0L)
+        private val flushMonitor = Object()
+
+        @Volatile
+        private var flushCompleted = 0L
+
+        @Volatile
+        private var stopRequested = false
+
+        @Volatile
+        private var parked = false
+
+        // 以下字段只由写线程访问
+        private val record = LogRecordRing.Record()
+        private val line = StringBuilder(256)
+        private var chars = CharArray(256)
+        private var charView: CharBuffer = CharBuffer.wrap(chars)
+        private val output: ByteBuffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_BYTES)
+        private val encoder = Charsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+        private val prefixFormat = SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US)
+        private val prefixDate = Date()
+        private var prefixSecond = Long.MIN_VALUE
+        private var prefix = ""
+        private var stream: FileOutputStream? = null
+        private var channel: FileChannel? = null
+        private var segmentBytes = 0L
+
         private val writerThread = Thread(::run, "AndroidFileLogger-${file.name}").apply {
             isDaemon = true
             start()
         }
 
-        fun enqueue(
-            line: String,
-            priority: LogLevel.FileWritePriority
-        ) {
+        fun enqueue(level: LogLevel, tag: String, message: String, throwable: Throwable?) {
+            if (closed.get()) return
+            val tagId = tags.idOf(tag)
+            // tag 表已满时把 tag 并入消息，只在极端情况下发生
+            val text = if (tagId == LogTagTable.OVERFLOW) "[$tag] $message" else message
+            val high = level.fileWritePriority > LogLevel.FileWritePriority.LOW
+            offer(level.ordinal, tagId, text, throwable, high)
+        }
+
+        fun enqueueRaw(line: String) {
             if (closed.get()) return
+            offer(RAW_LEVEL, LogTagTable.OVERFLOW, line, null, high = false)
+        }
 
-            val item = QueueItem.Line(
-                value = line,
-                priority = priority
+        private fun offer(level: Int, tagId: Int, message: String, throwable: Throwable?, high: Boolean) {
+            val result = ring.offer(
+                timestampMillis = System.currentTimeMillis(),
+                level = level,
+                tagId = tagId,
+                message = message,
+                throwable = throwable,
+                high = high,
+                replaceLowPriority = high
             )
-            if (queue.offer(item)) return
-
-            if (priority > LogLevel.FileWritePriority.LOW && dropQueuedLowPriorityLine()) {
-                if (queue.offer(item)) return
+            if (result != LogRecordRing.OFFERED) {
+                pendingDropped.incrementAndGet()
+                droppedTotal.incrementAndGet()
+                if (result == LogRecordRing.REPLACED) replacedTotal.incrementAndGet()
+            }
+            // 低优先级记录不急于唤醒写线程，由定时落盘或缓冲过半时处理
+            if (parked && (high || ring.size() >= wakeThreshold)) {
+                LockSupport.unpark(writerThread)
             }
-
-            droppedLineCount.incrementAndGet()
         }
 
         fun flush(timeoutMillis: Long): Boolean {
             if (closed.get()) return true
 
-            val complete = CountDownLatch(1)
-            if (!queue.offer(QueueItem.Flush(complete))) {
-                return false
-            }
-            return try {
-                complete.await(timeoutMillis, TimeUnit.MILLISECONDS)
-            } catch (_: InterruptedException) {
-                Thread.currentThread().interrupt()
-                false
+            val ticket = flushRequests.incrementAndGet()
+            LockSupport.unpark(writerThread)
+            val deadline = System.currentTimeMillis() + timeoutMillis
+            synchronized(flushMonitor) {
+                while (flushCompleted < ticket) {
+                    val remaining = deadline - System.currentTimeMillis()
+                    if (remaining <= 0L) return false
+                    try {
+                        flushMonitor.wait(remaining)
+                    } catch (_: InterruptedException) {
+                        Thread.currentThread().interrupt()
+                        return false
+                    }
+                }
             }
+            return true
         }
 
         fun close() {
             if (!closed.compareAndSet(false, true)) return
             if (!writerThread.isAlive) return
 
-            val complete = CountDownLatch(1)
+            stopRequested = true
+            LockSupport.unpark(writerThread)
             try {
-                queue.put(QueueItem.Stop(complete))
-                complete.await()
+                writerThread.join()
             } catch (_: InterruptedException) {
                 Thread.currentThread().interrupt()
             }
@@ -343,101 +413,171 @@ class AndroidFileLogger(
         private fun run() {
             try {
                 startGate?.await()
-                PrintWriter(BufferedWriter(FileWriter(file, true))).use { writer ->
-                    var lastFlushAt = System.currentTimeMillis()
-                    var running = true
-
-                    while (running) {
-                        when (val item = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
-                            is QueueItem.Line -> {
-                                writeDroppedMarkerIfNeeded(writer)
-                                writer.println(item.value)
-                                if (item.priority.flushesImmediately()) {
-                                    writer.flush()
-                                    lastFlushAt = System.currentTimeMillis()
-                                }
-                            }
-
-                            is QueueItem.Flush -> {
-                                writeDroppedMarkerIfNeeded(writer)
-                                writer.flush()
-                                item.complete?.countDown()
-                                lastFlushAt = System.currentTimeMillis()
-                            }
-
-                            is QueueItem.Stop -> {
-                                drainRemainingLines(writer)
-                                writeDroppedMarkerIfNeeded(writer)
-                                writer.flush()
-                                item.complete.countDown()
-                                running = false
-                                lastFlushAt = System.currentTimeMillis()
-                            }
-
-                            null -> {
-                                writer.flush()
-                                lastFlushAt = System.currentTimeMillis()
+                openFile()
+                var lastFlushAt = System.currentTimeMillis()
+
+                while (true) {
+                    val stopping = stopRequested
+                    val flushTicket = flushRequests.get()
+                    val sawHighPriority = drain()
+
+                    val now = System.currentTimeMillis()
+                    if (sawHighPriority || stopping || flushTicket > flushCompleted ||
+                        now - lastFlushAt >= FLUSH_INTERVAL_MS
+                    ) {
+                        writeOutput()
+                        lastFlushAt = now
+                    }
+                    if (flushTicket > flushCompleted) completeFlush(flushTicket)
+                    if (stopping) break
+
+                    if (ring.isEmpty()) {
+                        parked = true
+                        if (ring.isEmpty() && !stopRequested && flushRequests.get() == flushCompleted) {
+                            val waitMillis = if (output.position() > 0) {
+                                (lastFlushAt + FLUSH_INTERVAL_MS - System.currentTimeMillis()).coerceAtLeast(1L)
+                            } else {
+                                FLUSH_INTERVAL_MS
                             }
+                            LockSupport.parkNanos(this, waitMillis * 1_000_000L)
                         }
-
-                        val now = System.currentTimeMillis()
-                        if (now - lastFlushAt >= FLUSH_INTERVAL_MS) {
-                            writer.flush()
-                            lastFlushAt = now
-                        }
+                        parked = false
                     }
                 }
             } catch (_: InterruptedException) {
                 Thread.currentThread().interrupt()
+            } catch (e: Exception) {
+                // 文件不可写时放弃写入，调用方不受影响；先标记关闭，避免这条日志再次进入本写入器
+                closed.set(true)
+                AppLog.e(TAG, "日志文件写入失败，停止写入 / Failed to write log file ${file.name}, file logging stopped", e)
             } finally {
-                releasePendingControls()
+                closed.set(true)
+                runCatching { stream?.close() }
+                completeFlush(Long.MAX_VALUE)
             }
         }
 
-        private fun drainRemainingLines(writer: PrintWriter) {
-            while (true) {
-                when (val item = queue.poll()) {
-                    is QueueItem.Line -> {
-                        writeDroppedMarkerIfNeeded(writer)
-                        writer.println(item.value)
-                    }
+        private fun openFile() {
+            stream = FileOutputStream(file, true).also { channel = it.channel }
+            segmentBytes = file.length()
+        }
 
-                    is QueueItem.Flush -> item.complete?.countDown()
-                    is QueueItem.Stop -> item.complete.countDown()
-                    null -> return
-                }
+        /**
+         * 关闭当前文件并重命名为下一个分段，然后在原路径重新打开
+         */
+        private fun rotateSegment() {
+            writeOutput()
+            stream?.close()
+            val segment = LogFilePolicy.nextSegmentFile(file)
+            val rotated = file.renameTo(segment)
+            openFile()
+            if (rotated) onSegmentClosed()
+        }
+
+        /**
+         * 取出当前缓冲中的全部记录并编码
+         * @return 是否包含需要立即落盘的记录
+         */
+        private fun drain(): Boolean {
+            var sawHighPriority = false
+            while (ring.poll(record)) {
+                writeDroppedMarkerIfNeeded()
+                formatRecord(record)
+                encodeLine()
+                if (record.highPriority) sawHighPriority = true
+                record.message = null
+                record.throwable = null
+                if (segmentBytes + output.position() >= segmentMaxBytes) rotateSegment()
             }
+            writeDroppedMarkerIfNeeded()
+            return sawHighPriority
         }
 
-        private fun releasePendingControls() {
-            while (true) {
-                when (val item = queue.poll()) {
-                    is QueueItem.Flush -> item.complete?.countDown()
-                    is QueueItem.Stop -> item.complete.countDown()
-                    is QueueItem.Line -> Unit
-                    null -> return
+        private fun formatRecord(record: LogRecordRing.Record) {
+            line.setLength(0)
+            if (record.level == RAW_LEVEL) {
+                line.append(record.message)
+            } else {
+                val level = LogLevel.entries[record.level]
+                appendHeader(record.timestampMillis, level.label, tags.tagAt(record.tagId) ?: "?")
+                line.append(record.message)
+                record.throwable?.let { throwable ->
+                    line.append('\n')
+                    line.append(throwable.stackTraceToString().trimEnd())
                 }
             }
+            line.append('\n')
         }
 
-        private fun writeDroppedMarkerIfNeeded(writer: PrintWriter) {
-            val dropped = droppedLineCount.getAndSet(0)
-            if (dropped > 0) {
-                writer.println(droppedLineFormatter(dropped))
+        private fun writeDroppedMarkerIfNeeded() {
+            val dropped = pendingDropped.getAndSet(0L)
+            if (dropped <= 0L) return
+            line.setLength(0)
+            appendHeader(System.currentTimeMillis(), LogLevel.WARN.label, TAG)
+            line.append("Dropped ").append(dropped).append(" log lines because the async log queue was full\n")
+            encodeLine()
+        }
+
+        private fun appendHeader(timestampMillis: Long, label: String, tag: String) {
+            line.append('[')
+            appendTimestamp(timestampMillis)
+            line.append("] [").append(label).append("] [").append(tag).append("] ")
+        }
+
+        /** yyyy-MM-dd HH:mm:ss 部分按秒缓存，只有毫秒需要逐条拼接 */
+        private fun appendTimestamp(timestampMillis: Long) {
+            val second = Math.floorDiv(timestampMillis, 1000L)
+            if (second != prefixSecond) {
+                prefixDate.time = second * 1000L
+                prefix = prefixFormat.format(prefixDate)
+                prefixSecond = second
             }
+            val millis = Math.floorMod(timestampMillis, 1000L).toInt()
+            line.append(prefix).append('.')
+            if (millis < 100) line.append('0')
+            if (millis < 10) line.append('0')
+            line.append(millis)
         }
 
-        private fun dropQueuedLowPriorityLine(): Boolean {
-            val iterator = queue.iterator()
-            while (iterator.hasNext()) {
-                val item = iterator.next()
-                if (item is QueueItem.Line && item.priority <= LogLevel.FileWritePriority.LOW) {
-                    iterator.remove()
-                    droppedLineCount.incrementAndGet()
-                    return true
-                }
+        private fun encodeLine() {
+            val length = line.length
+            if (length > chars.size) {
+                chars = CharArray(Integer.highestOneBit(length) shl 1)
+                charView = CharBuffer.wrap(chars)
+            }
+            line.getChars(0, length, chars, 0)
+            charView.clear()
+            charView.limit(length)
+            encoder.reset()
+            while (encoder.encode(charView, output, true).isOverflow) {
+                writeOutput()
             }
-            return false
+            while (encoder.flush(output).isOverflow) {
+                writeOutput()
+            }
+        }
+
+        private fun writeOutput() {
+            if (output.position() == 0) return
+            val target = channel ?: return
+            output.flip()
+            segmentBytes += output.remaining()
+            while (output.hasRemaining()) {
+                target.write(output)
+            }
+            output.clear()
+        }
+
+        private fun completeFlush(ticket: Long) {
+            synchronized(flushMonitor) {
+                flushCompleted = ticket
+                flushMonitor.notifyAll()
+            }
+        }
+
+        companion object {
+            private const val RAW_LEVEL = -1
+            private const val OUTPUT_BUFFER_BYTES = 64 * 1024
         }
     }
 }
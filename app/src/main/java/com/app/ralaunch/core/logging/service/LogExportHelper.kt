@@ -6,18 +6,28 @@ import com.app.ralaunch.core.di.contract.IGameRepositoryServiceV3
 import com.app.ralaunch.core.di.service.StoragePathsProviderServiceV1
 import com.app.ralaunch.core.logging.AppLog
 import com.app.ralaunch.core.logging.LogFilePolicy
+import com.app.ralaunch.core.logging.LogSegmentReader
 import com.app.ralaunch.feature.patch.data.Patch
 import com.app.ralaunch.feature.patch.data.PatchManager
+import java.io.BufferedOutputStream
 import java.io.File
+import java.io.FileInputStream
+import java.io.FilterInputStream
+import java.io.InputStream
+import java.io.OutputStream
 import java.nio.file.Paths
 import java.text.SimpleDateFormat
 import java.util.Date
 import java.util.Locale
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
 
 internal class LogExportHelper(
     private val logsDirPathProvider: () -> String,
     private val gameRepositoryProvider: () -> IGameRepositoryServiceV3? = { null },
-    private val patchManagerProvider: () -> PatchManager? = { null }
+    private val patchManagerProvider: () -> PatchManager? = { null },
+    private val settingsFilePathProvider: () -> String? = { null },
+    private val crashDumpFilesProvider: () -> List<File> = { emptyList() }
 ) {
     constructor(
         storagePathsProvider: StoragePathsProviderServiceV1,
@@ -26,7 +36,14 @@ internal class LogExportHelper(
     ) : this(
         logsDirPathProvider = storagePathsProvider::logsDirPathFull,
         gameRepositoryProvider = { gameRepository },
-        patchManagerProvider = { patchManager }
+        patchManagerProvider = { patchManager },
+        settingsFilePathProvider = storagePathsProvider::settingsFilePathFull,
+        crashDumpFilesProvider = {
+            crashDumpFiles(
+                filesDir = File(storagePathsProvider.filesDirPathFull()),
+                externalFilesDir = runCatching { File(storagePathsProvider.logsDirPathFull()).parentFile }.getOrNull()
+            )
+        }
     )
 
     fun getLogFiles(): List<File> {
@@ -36,6 +53,7 @@ internal class LogExportHelper(
             ?.sortedWith(
                 compareBy<File> { if (LogFilePolicy.isLogcatLogFile(it)) 1 else 0 }
                     .thenBy { it.lastModified() }
+                    .thenBy { LogFilePolicy.segmentIndex(it) }
             )
             ?: emptyList()
     }
@@ -44,35 +62,101 @@ internal class LogExportHelper(
         val logsDir = resolveLogsDir() ?: return emptyList()
         return logsDir
             .listFiles { file -> LogFilePolicy.isAppLogFile(file) }
-            ?.sortedBy { it.lastModified() }
+            ?.sortedWith(compareBy<File> { it.lastModified() }.thenBy { LogFilePolicy.segmentIndex(it) })
             ?: emptyList()
     }
 
-    fun buildExportContent(): String {
-        val files = getLogFiles()
+    /**
+     * 把日志与诊断信息以 zip 流式写入 [output]，写完后关闭 [output]
+     *
+     * 条目：device_info.txt、game_repository.txt、patches.txt、settings.json、
+     * logs/（各日志分段，已压缩的分段解压为文本）、crash/（崩溃转储）。
+     * 文件内容经由固定大小的缓冲逐块复制，内存占用与日志大小无关。
+     *
+     * @param onProgress 每写入一块数据回调一次，在调用线程上执行
+     */
+    fun writeExportArchive(output: OutputStream, onProgress: (LogExportProgress) -> Unit = {}) {
+        val sources = collectExportSources()
+        val totalBytes = sources.sumOf { it.sizeBytes }
+        val buffer = ByteArray(EXPORT_BUFFER_BYTES)
+        var doneBytes = 0L
 
-        return buildString {
-            appendDiagnosticSection(buildDeviceInfo())
-            appendDiagnosticSection(buildGameRepositoryInfo())
-            appendDiagnosticSection(buildPatchManagementInfo())
-
-            files.forEachIndexed { index, file ->
-                val banner = "=============== ${file.name} ==============="
-
-                appendLine("=".repeat(banner.length))
-                appendLine(banner)
-                appendLine("=".repeat(banner.length))
-                append(file.readText())
-                if (!endsWith("\n")) {
-                    appendLine()
+        ZipOutputStream(BufferedOutputStream(output, EXPORT_BUFFER_BYTES)).use { zip ->
+            sources.forEachIndexed { index, source ->
+                fun report(entryBytes: Long) {
+                    onProgress(LogExportProgress(source.entryName, index, sources.size, doneBytes + entryBytes, totalBytes))
                 }
-                if (index != files.lastIndex) {
-                    appendLine()
+
+                zip.putNextEntry(ZipEntry(source.entryName).apply { source.modifiedAt?.let { time = it } })
+                val written = when (source) {
+                    is ExportSource.Text -> {
+                        zip.write(source.bytes)
+                        source.sizeBytes
+                    }
+                    is ExportSource.FileEntry -> copyFileEntry(source.file, zip, buffer, ::report)
                 }
+                zip.closeEntry()
+                doneBytes += written
+                report(0L)
             }
         }
     }
 
+    private fun collectExportSources(): List<ExportSource> {
+        val sources = ArrayList<ExportSource>()
+        val usedNames = HashSet<String>()
+        fun addText(name: String, text: String) {
+            if (text.isNotBlank() && usedNames.add(name)) sources.add(ExportSource.Text(name, text))
+        }
+        fun addFile(name: String, file: File) {
+            if (usedNames.add(name)) sources.add(ExportSource.FileEntry(name, file))
+        }
+
+        addText("device_info.txt", buildDeviceInfo())
+        addText("game_repository.txt", buildGameRepositoryInfo())
+        addText("patches.txt", buildPatchManagementInfo())
+        runCatching { settingsFilePathProvider()?.let(::File) }.getOrNull()
+            ?.takeIf { it.isFile }
+            ?.let { addFile("settings.json", it) }
+        getLogFiles().forEach { file ->
+            addFile("logs/${file.name.removeSuffix(LogFilePolicy.COMPRESSED_EXTENSION)}", file)
+        }
+        runCatching { crashDumpFilesProvider() }.getOrDefault(emptyList()).forEach { file ->
+            addFile("crash/${file.parentFile?.name ?: "root"}/${file.name}", file)
+        }
+        return sources
+    }
+
+    /**
+     * @return 从磁盘读取的原始字节数（压缩分段按压缩后大小计，与进度总量一致）
+     */
+    private fun copyFileEntry(
+        file: File,
+        zip: ZipOutputStream,
+        buffer: ByteArray,
+        report: (Long) -> Unit
+    ): Long {
+        // 导出期间分段可能已被后台压缩
+        val source = when {
+            file.isFile -> file
+            LogFilePolicy.compressedFile(file).isFile -> LogFilePolicy.compressedFile(file)
+            else -> {
+                zip.write("File no longer exists: ${file.name}\n".toByteArray(Charsets.UTF_8))
+                return 0L
+            }
+        }
+        val raw = CountingInputStream(FileInputStream(source))
+        LogSegmentReader.decode(source, raw).use { input ->
+            while (true) {
+                val read = input.read(buffer)
+                if (read < 0) break
+                zip.write(buffer, 0, read)
+                report(raw.count)
+            }
+        }
+        return raw.count
+    }
+
     fun buildGameRepositoryInfo(): String {
         return try {
             val gameRepository = gameRepositoryProvider()
@@ -222,18 +306,6 @@ internal class LogExportHelper(
         }
     }
 
-    private fun StringBuilder.appendDiagnosticSection(section: String) {
-        if (section.isBlank()) return
-        if (isNotEmpty() && !endsWith("\n")) {
-            appendLine()
-        }
-        append(section)
-        if (!endsWith("\n")) {
-            appendLine()
-        }
-        appendLine()
-    }
-
     private fun buildDiagnosticSection(title: String, block: StringBuilder.() -> Unit): String {
         return buildString {
             val banner = "=============== $title ==============="
@@ -268,7 +340,64 @@ internal class LogExportHelper(
         return if (isEmpty()) "None" else joinToString(", ")
     }
 
+    private sealed class ExportSource(val entryName: String) {
+        abstract val sizeBytes: Long
+        open val modifiedAt: Long? = null
+
+        class Text(entryName: String, text: String) : ExportSource(entryName) {
+            val bytes: ByteArray = text.toByteArray(Charsets.UTF_8)
+            override val sizeBytes: Long get() = bytes.size.toLong()
+        }
+
+        class FileEntry(entryName: String, val file: File) : ExportSource(entryName) {
+            override val sizeBytes: Long = file.length()
+            override val modifiedAt: Long? = file.lastModified().takeIf { it > 0L }
+        }
+    }
+
+    private class CountingInputStream(input: InputStream) : FilterInputStream(input) {
+        var count = 0L
+            private set
+
+        override fun read(): Int = super.read().also { if (it >= 0) count++ }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int =
+            super.read(b, off, len).also { if (it > 0) count += it }
+
+        override fun skip(n: Long): Long = super.skip(n).also { count += it }
+    }
+
     companion object {
         private const val TAG = "LogExportHelper"
+        private const val EXPORT_BUFFER_BYTES = 64 * 1024
+
+        /**
+         * 崩溃转储文件：外部目录 crashreport/ 下的报告、内部的 FATAL_CRASH.txt 与 crash_logs/ 下的记录
+         */
+        fun crashDumpFiles(filesDir: File, externalFilesDir: File?): List<File> {
+            val files = ArrayList<File>()
+            externalFilesDir?.let { dir ->
+                File(dir, "crashreport").listFiles { file -> file.isFile }?.sortedBy { it.name }?.let(files::addAll)
+            }
+            File(filesDir, "FATAL_CRASH.txt").takeIf { it.isFile }?.let(files::add)
+            File(filesDir, "crash_logs").listFiles { file -> file.isFile }?.sortedBy { it.name }?.let(files::addAll)
+            return files
+        }
     }
 }
+
+/**
+ * 日志导出进度
+ *
+ * @param bytesTotal 开始导出时估算的总字节数，写入过程中日志仍在增长时 [fraction] 会截断到 1
+ */
+internal data class LogExportProgress(
+    val entryName: String,
+    val entryIndex: Int,
+    val entryCount: Int,
+    val bytesDone: Long,
+    val bytesTotal: Long
+) {
+    val fraction: Float
+        get() = if (bytesTotal <= 0L) 1f else (bytesDone.toFloat() / bytesTotal).coerceIn(0f, 1f)
+}
@@ -0,0 +1,235 @@
+package com.app.ralaunch.core.logging.service
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicIntegerArray
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * 预分配的多生产者/单消费者日志记录环形缓冲
+ *
+ * 每条记录只保存时间戳、级别、tag 索引以及消息/异常的引用，格式化全部交给唯一的消费者（写线程）。
+ * 生产者用 CAS 抢占槽位，既不加锁也不分配对象；缓冲已满时 [offer] 返回 false，由调用方计入丢弃数。
+ *
+ * 槽位序号的用法与 Vyukov 有界队列相同：序号等于写入位置表示空闲，等于位置 + 1 表示已发布。
+ * 另有一个 claim 标记：缓冲已满时，高优先级记录可以丢弃队首（最早）的低优先级记录，
+ * 并把自己写到队尾，此时与消费者通过队首槽位的 claim 互斥，记录始终按写入顺序取出。
+ */
+internal class LogRecordRing(requestedCapacity: Int) {
+
+    val capacity: Int = ceilPowerOfTwo(requestedCapacity.coerceIn(1, MAX_CAPACITY))
+    private val mask = capacity - 1
+
+    private val sequences = AtomicLongArray(capacity)
+    private val claims = AtomicIntegerArray(capacity)
+    private val timestamps = LongArray(capacity)
+    private val levels = IntArray(capacity)
+    private val tagIds = IntArray(capacity)
+    private val highPriority = BooleanArray(capacity)
+    private val messages = arrayOfNulls<String>(capacity)
+    private val throwables = arrayOfNulls<Throwable>(capacity)
+
+    private val tail = AtomicLong(0L)
+
+    /** 只在持有队首槽位的 claim 时修改（消费者或丢弃队首的生产者） */
+    @Volatile
+    private var head = 0L
+
+    init {
+        for (i in 0 until capacity) sequences.set(i, i.toLong())
+    }
+
+    /** 消费者复用的记录容器 */
+    class Record {
+        var timestampMillis = 0L
+        var level = 0
+        var tagId = 0
+        var highPriority = false
+        var message: String? = null
+        var throwable: Throwable? = null
+    }
+
+    /**
+     * 写入一条记录
+     *
+     * @param replaceLowPriority 已满时是否丢弃队首尚未写出的低优先级记录以腾出位置，被丢弃的记录计入丢弃数
+     * @return [OFFERED]、[REPLACED]（丢弃了队首记录）或 [FULL]
+     */
+    fun offer(
+        timestampMillis: Long,
+        level: Int,
+        tagId: Int,
+        message: String,
+        throwable: Throwable?,
+        high: Boolean,
+        replaceLowPriority: Boolean
+    ): Int {
+        var pos = tail.get()
+        while (true) {
+            val index = (pos and mask.toLong()).toInt()
+            val diff = sequences.get(index) - pos
+            when {
+                diff == 0L -> {
+                    if (tail.compareAndSet(pos, pos + 1)) {
+                        store(index, timestampMillis, level, tagId, message, throwable, high)
+                        sequences.set(index, pos + 1)
+                        return OFFERED
+                    }
+                    pos = tail.get()
+                }
+                diff < 0L -> {
+                    if (replaceLowPriority &&
+                        dropOldestLowPriority(timestampMillis, level, tagId, message, throwable, high)
+                    ) {
+                        return REPLACED
+                    }
+                    return FULL
+                }
+                else -> pos = tail.get()
+            }
+        }
+    }
+
+    /**
+     * 取出最早的一条已发布记录，只能由消费者线程调用
+     */
+    fun poll(out: Record): Boolean {
+        var pos: Long
+        var index: Int
+        while (true) {
+            pos = head
+            index = (pos and mask.toLong()).toInt()
+            if (sequences.get(index) != pos + 1) return false
+            while (!claims.compareAndSet(index, 0, 1)) {
+                Thread.yield()
+            }
+            // 等待 claim 期间队首可能已被生产者丢弃
+            if (head == pos && sequences.get(index) == pos + 1) break
+            claims.set(index, 0)
+        }
+        out.timestampMillis = timestamps[index]
+        out.level = levels[index]
+        out.tagId = tagIds[index]
+        out.highPriority = highPriority[index]
+        out.message = messages[index]
+        out.throwable = throwables[index]
+        messages[index] = null
+        throwables[index] = null
+        // 先让槽位失效再释放 claim，替换方拿到 claim 后会重新校验序号
+        sequences.set(index, pos + capacity)
+        claims.set(index, 0)
+        head = pos + 1
+        return true
+    }
+
+    fun isEmpty(): Boolean {
+        val pos = head
+        return sequences.get((pos and mask.toLong()).toInt()) != pos + 1
+    }
+
+    /** 近似的待写出记录数 */
+    fun size(): Int = (tail.get() - head).coerceIn(0L, capacity.toLong()).toInt()
+
+    /**
+     * 丢弃队首的低优先级记录，并把新记录写到队尾
+     *
+     * 缓冲已满时队尾的下一个位置正好是队首槽位：持有队首 claim 时消费者与其它丢弃方都无法前进，
+     * 因此同一槽位先以新位置重新发布新记录，再前移队首，其余记录的顺序不变。
+     * 队首是高优先级记录时不丢弃，由调用方计入丢弃数。
+     */
+    private fun dropOldestLowPriority(
+        timestampMillis: Long,
+        level: Int,
+        tagId: Int,
+        message: String,
+        throwable: Throwable?,
+        high: Boolean
+    ): Boolean {
+        val pos = head
+        val index = (pos and mask.toLong()).toInt()
+        if (sequences.get(index) != pos + 1 || highPriority[index]) return false
+        if (!claims.compareAndSet(index, 0, 1)) return false
+        try {
+            // 拿到 claim 后重新确认：队首未被消费、仍是低优先级，且缓冲仍然是满的
+            if (head != pos || sequences.get(index) != pos + 1 || highPriority[index]) return false
+            val next = pos + capacity
+            if (!tail.compareAndSet(next, next + 1)) return false
+            store(index, timestampMillis, level, tagId, message, throwable, high)
+            head = pos + 1
+            sequences.set(index, next + 1)
+            return true
+        } finally {
+            claims.set(index, 0)
+        }
+    }
+
+    private fun store(
+        index: Int,
+        timestampMillis: Long,
+        level: Int,
+        tagId: Int,
+        message: String,
+        throwable: Throwable?,
+        high: Boolean
+    ) {
+        timestamps[index] = timestampMillis
+        levels[index] = level
+        tagIds[index] = tagId
+        highPriority[index] = high
+        messages[index] = message
+        throwables[index] = throwable
+    }
+
+    companion object {
+        const val OFFERED = 0
+        const val REPLACED = 1
+        const val FULL = 2
+
+        private const val MAX_CAPACITY = 1 shl 20
+
+        private fun ceilPowerOfTwo(value: Int): Int {
+            val highest = Integer.highestOneBit(value)
+            return if (highest == value) value else highest shl 1
+        }
+    }
+}
+
+/**
+ * tag 到索引的映射，环形缓冲中只保存索引
+ *
+ * 注册新 tag 时写入的数组元素，经由随后发布记录时的序号写入对写线程可见。
+ */
+internal class LogTagTable {
+    private val ids = ConcurrentHashMap<String, Int>()
+
+    @Volatile
+    private var tags = arrayOfNulls<String>(INITIAL_CAPACITY)
+    private var count = 0
+
+    /**
+     * @return tag 索引；已登记的 tag 过多时返回 [OVERFLOW]
+     */
+    fun idOf(tag: String): Int = ids[tag] ?: register(tag)
+
+    fun tagAt(id: Int): String? = tags.getOrNull(id)
+
+    @Synchronized
+    private fun register(tag: String): Int {
+        ids[tag]?.let { return it }
+        if (count >= MAX_TAGS) return OVERFLOW
+        if (count == tags.size) {
+            tags = tags.copyOf(tags.size * 2)
+        }
+        val id = count
+        tags[id] = tag
+        count++
+        ids[tag] = id
+        return id
+    }
+
+    companion object {
+        const val OVERFLOW = -1
+        private const val INITIAL_CAPACITY = 128
+        private const val MAX_TAGS = 4096
+    }
+}
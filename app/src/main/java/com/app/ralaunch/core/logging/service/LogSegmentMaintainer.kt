@@ -0,0 +1,106 @@
+package com.app.ralaunch.core.logging.service
+
+import com.app.ralaunch.core.logging.LogFilePolicy
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.zip.GZIPOutputStream
+
+/**
+ * 已关闭日志分段的后台压缩与空间预算清理
+ *
+ * 所有日志写入器共用一个低优先级单线程执行器，压缩与删除不会与调用方或写线程竞争。
+ * 正在写入的文件登记在 [activeFiles] 中，既不会被压缩也不会被删除。
+ */
+class LogSegmentMaintainer(
+    private val budgetBytes: Long = LogFilePolicy.TOTAL_BUDGET_BYTES,
+    private val maxFiles: Int = LogFilePolicy.MAX_FILES,
+    private val executor: Executor = DEFAULT_EXECUTOR
+) {
+
+    /** 当前被写入的文件绝对路径 */
+    private val activeFiles: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+    fun registerActive(file: File) {
+        activeFiles.add(file.absolutePath)
+    }
+
+    fun unregisterActive(file: File) {
+        activeFiles.remove(file.absolutePath)
+    }
+
+    /**
+     * 异步压缩 [directory] 中已关闭的文件并执行预算清理
+     */
+    fun schedule(directory: File) {
+        executor.execute {
+            runCatching { maintain(directory) }
+        }
+    }
+
+    /**
+     * 同步执行一次维护
+     * @return 本次删除的文件
+     */
+    fun maintain(directory: File): List<File> {
+        val active = activeNamesIn(directory)
+        for (file in LogFilePolicy.closedFilesToCompress(directory, active)) {
+            try {
+                compress(file)
+            } catch (_: IOException) {
+                // 压缩失败时保留原文件，预算清理仍会计入其大小
+            }
+        }
+        val deleted = LogFilePolicy.filesOverBudget(directory, activeNamesIn(directory), budgetBytes, maxFiles)
+        deleted.forEach { it.delete() }
+        return deleted
+    }
+
+    private fun activeNamesIn(directory: File): Set<String> {
+        val prefix = directory.absolutePath + File.separator
+        return activeFiles.filter { it.startsWith(prefix) }.map { it.removePrefix(prefix) }.toSet()
+    }
+
+    companion object {
+        private const val BUFFER_BYTES = 64 * 1024
+
+        private val DEFAULT_EXECUTOR: Executor = Executors.newSingleThreadExecutor { runnable ->
+            Thread(runnable, "LogSegmentMaintainer").apply {
+                isDaemon = true
+                priority = Thread.MIN_PRIORITY
+            }
+        }
+
+        /** 应用内所有日志写入器共用的实例，保证活动文件登记与预算计算覆盖同一目录下的全部文件 */
+        val shared: LogSegmentMaintainer by lazy { LogSegmentMaintainer() }
+
+        /**
+         * 把 [file] 压缩为 gzip 并删除原文件，保留原修改时间以维持分段顺序
+         *
+         * 先写入临时文件再重命名，进程中途被杀时不会留下截断的 .gz
+         */
+        fun compress(file: File): File {
+            val target = LogFilePolicy.compressedFile(file).let { candidate ->
+                if (candidate.exists()) LogFilePolicy.compressedFile(LogFilePolicy.nextSegmentFile(file)) else candidate
+            }
+            val temp = File(target.parentFile, "${target.name}.tmp")
+            val lastModified = file.lastModified()
+            FileInputStream(file).use { input ->
+                GZIPOutputStream(FileOutputStream(temp), BUFFER_BYTES).use { output ->
+                    input.copyTo(output, BUFFER_BYTES)
+                }
+            }
+            if (!temp.renameTo(target)) {
+                temp.delete()
+                throw IOException("Failed to rename ${temp.name} to ${target.name}")
+            }
+            target.setLastModified(lastModified)
+            file.delete()
+            return target
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.app.ralaunch.core.logging.service
+
+import java.io.BufferedInputStream
+import java.io.IOException
+import java.io.InputStream
+
+/**
+ * 解码 `logcat -B` 输出的二进制日志条目，不使用正则
+ *
+ * 每条记录为小端序的 logger_entry 头部加负载：
+ * ```
+ * u16 len | u16 hdr_size | i32 pid | u32 tid | u32 sec | u32 nsec | [u32 lid] | [u32 uid]
+ * payload: u8 priority | tag \0 | message \0
+ * ```
+ * v1 头部的 hdr_size 字段为填充值 0，长度固定 20 字节；v3/v4 分别为 24/28 字节。
+ *
+ * 头部与负载读入复用的数组；常见 tag 经由小型缓存复用同一个 String，每条日志只为消息分配字符串。
+ */
+internal class LogcatBinaryDecoder(input: InputStream) {
+    private val input = input as? BufferedInputStream ?: BufferedInputStream(input, BUFFER_BYTES)
+    private val header = ByteArray(MAX_HEADER_SIZE)
+    private val payload = ByteArray(MAX_PAYLOAD_SIZE)
+    private val cachedTagBytes = arrayOfNulls<ByteArray>(TAG_CACHE_SIZE)
+    private val cachedTags = arrayOfNulls<String>(TAG_CACHE_SIZE)
+
+    /**
+     * 读取下一条文本日志，跳过无法解析的负载（例如 events 缓冲区的二进制事件）
+     *
+     * @return 流结束（包括结尾不完整的记录）时返回 null
+     * @throws IOException 头部长度不合法，说明输出已不同步
+     */
+    fun next(): LogcatEntry? {
+        while (true) {
+            if (!readFully(header, 0, 4)) return null
+            val payloadLength = u16(header, 0)
+            val headerSize = u16(header, 2).let { if (it == 0) V1_HEADER_SIZE else it }
+            if (headerSize < V1_HEADER_SIZE || headerSize > MAX_HEADER_SIZE) {
+                throw IOException("Unexpected logcat entry header size: $headerSize")
+            }
+            if (!readFully(header, 4, headerSize - 4)) return null
+            if (!readFully(payload, 0, payloadLength)) return null
+
+            val buffer = if (headerSize >= V3_HEADER_SIZE) i32(header, 20) else LogcatEntry.BUFFER_UNKNOWN
+            if (buffer == EVENTS_BUFFER) continue
+            decodePayload(
+                length = payloadLength,
+                pid = i32(header, 4),
+                tid = i32(header, 8),
+                seconds = i32(header, 12).toLong() and 0xFFFFFFFFL,
+                nanos = i32(header, 16),
+                buffer = buffer
+            )?.let { return it }
+        }
+    }
+
+    private fun decodePayload(length: Int, pid: Int, tid: Int, seconds: Long, nanos: Int, buffer: Int): LogcatEntry? {
+        if (length < 2) return null
+        val priority = payload[0].toInt()
+        if (priority < LogcatEntry.VERBOSE || priority > LogcatEntry.FATAL) return null
+
+        val tagEnd = indexOfZero(1, length)
+        if (tagEnd < 0) return null
+        var messageEnd = indexOfZero(tagEnd + 1, length).let { if (it < 0) length else it }
+        while (messageEnd > tagEnd + 1 && payload[messageEnd - 1] == NEWLINE) messageEnd--
+
+        return LogcatEntry(
+            pid = pid,
+            tid = tid,
+            seconds = seconds,
+            nanos = nanos,
+            priority = priority,
+            buffer = buffer,
+            tag = tagOf(1, tagEnd),
+            message = String(payload, tagEnd + 1, messageEnd - tagEnd - 1, Charsets.UTF_8)
+        )
+    }
+
+    private fun tagOf(start: Int, end: Int): String {
+        var hash = 0
+        for (i in start until end) hash = hash * 31 + payload[i]
+        val slot = hash and (TAG_CACHE_SIZE - 1)
+        val cachedBytes = cachedTagBytes[slot]
+        if (cachedBytes != null && sameBytes(cachedBytes, start, end)) {
+            return cachedTags[slot]!!
+        }
+        val tag = String(payload, start, end - start, Charsets.UTF_8)
+        cachedTagBytes[slot] = payload.copyOfRange(start, end)
+        cachedTags[slot] = tag
+        return tag
+    }
+
+    private fun sameBytes(cached: ByteArray, start: Int, end: Int): Boolean {
+        if (cached.size != end - start) return false
+        for (i in cached.indices) {
+            if (cached[i] != payload[start + i]) return false
+        }
+        return true
+    }
+
+    private fun indexOfZero(from: Int, to: Int): Int {
+        for (i in from until to) {
+            if (payload[i] == ZERO) return i
+        }
+        return -1
+    }
+
+    private fun readFully(target: ByteArray, offset: Int, length: Int): Boolean {
+        var read = 0
+        while (read < length) {
+            val count = input.read(target, offset + read, length - read)
+            if (count < 0) return false
+            read += count
+        }
+        return true
+    }
+
+    private fun u16(bytes: ByteArray, offset: Int): Int =
+        (bytes[offset].toInt() and 0xFF) or ((bytes[offset + 1].toInt() and 0xFF) shl 8)
+
+    private fun i32(bytes: ByteArray, offset: Int): Int =
+        (bytes[offset].toInt() and 0xFF) or
+            ((bytes[offset + 1].toInt() and 0xFF) shl 8) or
+            ((bytes[offset + 2].toInt() and 0xFF) shl 16) or
+            ((bytes[offset + 3].toInt() and 0xFF) shl 24)
+
+    companion object {
+        const val V1_HEADER_SIZE = 20
+        const val V3_HEADER_SIZE = 24
+        const val V4_HEADER_SIZE = 28
+
+        private const val MAX_HEADER_SIZE = 128
+        private const val MAX_PAYLOAD_SIZE = 0xFFFF
+        private const val EVENTS_BUFFER = 2
+        private const val TAG_CACHE_SIZE = 256
+        private const val BUFFER_BYTES = 64 * 1024
+        private const val ZERO: Byte = 0
+        private const val NEWLINE: Byte = '\n'.code.toByte()
+    }
+}
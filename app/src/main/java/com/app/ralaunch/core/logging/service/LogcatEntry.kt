@@ -0,0 +1,88 @@
+package com.app.ralaunch.core.logging.service
+
+import com.app.ralaunch.core.logging.LogLevel
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
+
+/**
+ * 从 logcat 二进制输出解码出的一条日志
+ *
+ * @param priority Android 日志优先级（[VERBOSE] 到 [FATAL]）
+ * @param buffer 来源缓冲区 ID（main=0、system=3、crash=4），旧版头部不含此字段时为 [BUFFER_UNKNOWN]
+ */
+data class LogcatEntry(
+    val pid: Int,
+    val tid: Int,
+    val seconds: Long,
+    val nanos: Int,
+    val priority: Int,
+    val buffer: Int,
+    val tag: String,
+    val message: String
+) {
+    val timeMillis: Long get() = seconds * 1000L + nanos / 1_000_000
+
+    /** logcat 文本格式中的单字母级别 */
+    val levelChar: Char
+        get() = when (priority) {
+            VERBOSE -> 'V'
+            DEBUG -> 'D'
+            INFO -> 'I'
+            WARN -> 'W'
+            ERROR -> 'E'
+            FATAL -> 'F'
+            else -> '?'
+        }
+
+    /** 时间戳严格晚于给定时间；用于 logcat 进程重启后跳过重复的积压日志 */
+    fun isAfter(seconds: Long, nanos: Int): Boolean =
+        this.seconds > seconds || (this.seconds == seconds && this.nanos > nanos)
+
+    companion object {
+        const val VERBOSE = 2
+        const val DEBUG = 3
+        const val INFO = 4
+        const val WARN = 5
+        const val ERROR = 6
+        const val FATAL = 7
+
+        const val BUFFER_UNKNOWN = -1
+        const val BUFFER_CRASH = 4
+
+        fun priorityOf(level: LogLevel): Int = when (level) {
+            LogLevel.VERBOSE -> VERBOSE
+            LogLevel.DEBUG -> DEBUG
+            LogLevel.INFO -> INFO
+            LogLevel.WARN -> WARN
+            LogLevel.ERROR -> ERROR
+        }
+    }
+}
+
+/**
+ * 把日志时间格式化为 logcat 的 "MM-dd HH:mm:ss.SSS"
+ *
+ * 同一秒内的日志复用日期前缀，只拼接毫秒部分。非线程安全，每个消费线程各持有一个实例。
+ */
+class LogcatTimestampFormatter {
+    private val prefixFormat = SimpleDateFormat("MM-dd HH:mm:ss", Locale.US)
+    private val prefixDate = Date()
+    private var prefixSecond = Long.MIN_VALUE
+    private var prefix = ""
+
+    fun appendTo(builder: StringBuilder, entry: LogcatEntry): StringBuilder {
+        if (entry.seconds != prefixSecond) {
+            prefixDate.time = entry.seconds * 1000L
+            prefix = prefixFormat.format(prefixDate)
+            prefixSecond = entry.seconds
+        }
+        val millis = entry.nanos / 1_000_000
+        builder.append(prefix).append('.')
+        if (millis < 100) builder.append('0')
+        if (millis < 10) builder.append('0')
+        return builder.append(millis)
+    }
+
+    fun format(entry: LogcatEntry): String = appendTo(StringBuilder(18), entry).toString()
+}
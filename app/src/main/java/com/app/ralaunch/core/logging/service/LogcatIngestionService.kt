@@ -0,0 +1,371 @@
+package com.app.ralaunch.core.logging.service
+
+import com.app.ralaunch.core.logging.AppLog
+import java.io.Closeable
+import java.io.FilterInputStream
+import java.io.IOException
+import java.io.InputStream
+import java.util.Locale
+
+/**
+ * 进程内唯一的 logcat 读取服务
+ *
+ * 只启动一个 `logcat -B` 进程，解码后的日志按各订阅者的过滤条件分发。每个订阅者拥有独立的有界队列与投递线程，
+ * 慢订阅者只会丢弃自己的日志（[LogcatOverflow]），不会阻塞读取线程或其他订阅者。
+ * 第一个订阅者出现时启动 logcat，最后一个订阅者关闭时结束进程。
+ *
+ * 服务保留最近 [replayCapacity] 条日志，新订阅者可以回放其中符合过滤条件的部分，
+ * 因此不再需要 `logcat -c` 清空缓冲区来区分新旧日志，改用 [LogcatFilter.notBeforeMillis]。
+ */
+class LogcatIngestionService(
+    private val openStream: () -> InputStream = ::openLogcatProcess,
+    private val replayCapacity: Int = DEFAULT_REPLAY_CAPACITY,
+    private val restartDelayMillis: Long = RESTART_DELAY_MS
+) {
+    private val lock = Any()
+    private val subscriptions = ArrayList<LogcatSubscription>()
+    private val replay = arrayOfNulls<LogcatEntry>(replayCapacity)
+    private var replayHead = 0
+    private var replaySize = 0
+
+    private var readerThread: Thread? = null
+    private var stream: InputStream? = null
+
+    /** 每次启动读取线程递增，旧线程据此发现自己已被停止 */
+    private var generation = 0
+
+    /** 最后分发的日志时间，logcat 进程重启后跳过不晚于它的积压日志 */
+    private var lastSeconds = Long.MIN_VALUE
+    private var lastNanos = 0
+
+    val isReading: Boolean get() = synchronized(lock) { readerThread != null }
+
+    val subscriberCount: Int get() = synchronized(lock) { subscriptions.size }
+
+    /**
+     * 订阅日志
+     *
+     * @param name 用于投递线程命名
+     * @param capacity 订阅者队列容量
+     * @param replay 从最近日志中回放的最大条数（只计符合过滤条件的）
+     */
+    fun subscribe(
+        name: String,
+        filter: LogcatFilter,
+        capacity: Int = DEFAULT_SUBSCRIBER_CAPACITY,
+        overflow: LogcatOverflow = LogcatOverflow.DROP_OLDEST,
+        replay: Int = 0,
+        subscriber: LogcatSubscriber
+    ): LogcatSubscription {
+        val subscription = LogcatSubscription(name, filter, capacity, overflow, subscriber, ::unsubscribe)
+        synchronized(lock) {
+            replayInto(subscription, replay)
+            subscriptions.add(subscription)
+            if (readerThread == null) startReaderLocked()
+        }
+        subscription.startDelivery()
+        return subscription
+    }
+
+    private fun unsubscribe(subscription: LogcatSubscription) {
+        synchronized(lock) {
+            if (!subscriptions.remove(subscription) || subscriptions.isNotEmpty()) return
+            stopReaderLocked()
+        }
+    }
+
+    private fun startReaderLocked() {
+        val readerGeneration = ++generation
+        readerThread = Thread({ runReader(readerGeneration) }, "LogcatIngestion").apply {
+            isDaemon = true
+            start()
+        }
+    }
+
+    private fun stopReaderLocked() {
+        generation++
+        readerThread?.interrupt()
+        readerThread = null
+        stream?.let { runCatching { it.close() } }
+        stream = null
+    }
+
+    private fun runReader(readerGeneration: Int) {
+        var failures = 0
+        var resumed = false
+        while (true) {
+            val input = try {
+                openStream()
+            } catch (e: Exception) {
+                AppLog.w(TAG, "启动 logcat 失败 / Failed to start logcat", e)
+                null
+            }
+            if (input != null) {
+                synchronized(lock) {
+                    if (generation != readerGeneration) {
+                        runCatching { input.close() }
+                        return
+                    }
+                    stream = input
+                }
+                try {
+                    val decoder = LogcatBinaryDecoder(input)
+                    while (true) {
+                        val entry = decoder.next() ?: break
+                        if (dispatch(entry, readerGeneration, resumed)) failures = 0
+                    }
+                } catch (e: IOException) {
+                    if (isCurrent(readerGeneration)) {
+                        AppLog.w(TAG, "读取 logcat 中断 / logcat stream interrupted", e)
+                    }
+                } finally {
+                    runCatching { input.close() }
+                    synchronized(lock) {
+                        if (stream === input) stream = null
+                    }
+                }
+            }
+
+            synchronized(lock) {
+                if (generation != readerGeneration) return
+                if (++failures > MAX_RESTARTS) {
+                    AppLog.e(TAG, "logcat 连续退出 $failures 次，停止读取 / logcat keeps exiting, giving up")
+                    readerThread = null
+                    return
+                }
+            }
+            try {
+                Thread.sleep(restartDelayMillis * failures)
+            } catch (_: InterruptedException) {
+                return
+            }
+            resumed = true
+        }
+    }
+
+    /**
+     * @return 日志是否被接受（重启后的重复积压日志不计）
+     */
+    private fun dispatch(entry: LogcatEntry, readerGeneration: Int, resumed: Boolean): Boolean {
+        synchronized(lock) {
+            if (generation != readerGeneration) return false
+            if (resumed && !entry.isAfter(lastSeconds, lastNanos)) return false
+            lastSeconds = entry.seconds
+            lastNanos = entry.nanos
+            appendReplay(entry)
+            for (subscription in subscriptions) {
+                subscription.offer(entry)
+            }
+            return true
+        }
+    }
+
+    private fun isCurrent(readerGeneration: Int): Boolean = synchronized(lock) { generation == readerGeneration }
+
+    private fun appendReplay(entry: LogcatEntry) {
+        if (replayCapacity == 0) return
+        replay[(replayHead + replaySize) % replayCapacity] = entry
+        if (replaySize < replayCapacity) {
+            replaySize++
+        } else {
+            replayHead = (replayHead + 1) % replayCapacity
+        }
+    }
+
+    private fun replayInto(subscription: LogcatSubscription, limit: Int) {
+        if (limit <= 0 || replaySize == 0) return
+        // 从新到旧找出最多 limit 条匹配的日志，再按时间顺序放入队列
+        val matched = ArrayList<LogcatEntry>(minOf(limit, replaySize))
+        var index = replaySize - 1
+        while (index >= 0 && matched.size < limit) {
+            val entry = replay[(replayHead + index) % replayCapacity]!!
+            if (subscription.filter.matches(entry)) matched.add(entry)
+            index--
+        }
+        for (i in matched.indices.reversed()) {
+            subscription.offer(matched[i])
+        }
+    }
+
+    companion object {
+        private const val TAG = "LogcatIngestion"
+        private const val DEFAULT_REPLAY_CAPACITY = 512
+        private const val DEFAULT_SUBSCRIBER_CAPACITY = 1024
+        private const val RESTART_DELAY_MS = 1000L
+        private const val MAX_RESTARTS = 5
+
+        /** 启动时从 logcat 缓冲区读取的历史条数 */
+        private const val INITIAL_BACKLOG = 512
+
+        /** 应用进程内共用的实例 */
+        val shared: LogcatIngestionService by lazy { LogcatIngestionService() }
+
+        internal fun logcatCommand(): List<String> = listOf(
+            "logcat", "-B", "-b", "main,system,crash", "-T", INITIAL_BACKLOG.toString()
+        )
+
+        private fun openLogcatProcess(): InputStream {
+            val process = ProcessBuilder(logcatCommand()).redirectErrorStream(false).start()
+            process.outputStream.close()
+            return object : FilterInputStream(process.inputStream) {
+                override fun close() {
+                    process.destroy()
+                    super.close()
+                }
+            }
+        }
+    }
+}
+
+/**
+ * 订阅者队列已满时的处理方式
+ */
+enum class LogcatOverflow {
+    /** 丢弃队列中最旧的日志，保留最新的（适合实时显示） */
+    DROP_OLDEST,
+
+    /** 丢弃新到的日志，保留最早的（适合崩溃现场记录） */
+    DROP_NEWEST
+}
+
+/**
+ * 订阅者回调，在订阅者自己的投递线程上调用
+ */
+fun interface LogcatSubscriber {
+    fun onEntry(entry: LogcatEntry)
+
+    /** 队列溢出后、投递下一条日志前调用，[count] 为此期间丢弃的条数 */
+    fun onDropped(count: Long) {}
+}
+
+/**
+ * 订阅者的过滤条件，在读取线程上判断
+ *
+ * @param pid 只接收该进程的日志，null 表示应用可见的全部进程
+ * @param minPriority 最低优先级（[LogcatEntry.VERBOSE] 到 [LogcatEntry.FATAL]）
+ * @param tags 只接收这些 tag（精确匹配），null 表示不限
+ * @param excludedTags 排除的 tag（精确匹配）
+ * @param tagKeywords tag 包含任一关键词（不区分大小写）才接收，空表示不限
+ * @param notBeforeMillis 早于该时间的日志不接收
+ */
+class LogcatFilter(
+    val pid: Int? = null,
+    val minPriority: Int = LogcatEntry.VERBOSE,
+    val tags: Set<String>? = null,
+    val excludedTags: Set<String> = emptySet(),
+    tagKeywords: Collection<String> = emptyList(),
+    val notBeforeMillis: Long = 0L
+) {
+    private val keywords = tagKeywords.map { it.lowercase(Locale.ROOT) }
+
+    /** tag 判断结果缓存；日志中的 tag 种类有限，每种只判断一次 */
+    private val tagDecisions = HashMap<String, Boolean>()
+
+    fun matches(entry: LogcatEntry): Boolean {
+        if (pid != null && entry.pid != pid) return false
+        if (entry.priority < minPriority) return false
+        if (notBeforeMillis > 0L && entry.timeMillis < notBeforeMillis) return false
+        return acceptsTag(entry.tag)
+    }
+
+    private fun acceptsTag(tag: String): Boolean {
+        if (tags == null && excludedTags.isEmpty() && keywords.isEmpty()) return true
+        synchronized(tagDecisions) {
+            tagDecisions[tag]?.let { return it }
+            val accepted = (tags == null || tag in tags) &&
+                tag !in excludedTags &&
+                (keywords.isEmpty() || tag.lowercase(Locale.ROOT).let { lower -> keywords.any { lower.contains(it) } })
+            if (tagDecisions.size < MAX_CACHED_TAGS) tagDecisions[tag] = accepted
+            return accepted
+        }
+    }
+
+    private companion object {
+        const val MAX_CACHED_TAGS = 4096
+    }
+}
+
+/**
+ * 一个订阅：有界队列加独立投递线程；[close] 后不再投递并在没有订阅者时停止 logcat
+ */
+class LogcatSubscription internal constructor(
+    val name: String,
+    val filter: LogcatFilter,
+    capacity: Int,
+    private val overflow: LogcatOverflow,
+    private val subscriber: LogcatSubscriber,
+    private val onClose: (LogcatSubscription) -> Unit
+) : Closeable {
+    private val capacity = capacity.coerceAtLeast(1)
+    private val monitor = Object()
+    private val queue = ArrayDeque<LogcatEntry>(minOf(this.capacity, 256))
+    private var pendingDropped = 0L
+    private var totalDropped = 0L
+    private var closed = false
+    private val thread = Thread(::deliver, "Logcat-$name").apply { isDaemon = true }
+
+    val droppedCount: Long get() = synchronized(monitor) { totalDropped }
+
+    val isClosed: Boolean get() = synchronized(monitor) { closed }
+
+    internal fun startDelivery() {
+        thread.start()
+    }
+
+    /**
+     * 由读取线程调用，永不阻塞
+     */
+    internal fun offer(entry: LogcatEntry) {
+        if (!filter.matches(entry)) return
+        synchronized(monitor) {
+            if (closed) return
+            if (queue.size >= capacity) {
+                pendingDropped++
+                totalDropped++
+                if (overflow == LogcatOverflow.DROP_NEWEST) return
+                queue.removeFirst()
+            }
+            queue.addLast(entry)
+            monitor.notify()
+        }
+    }
+
+    private fun deliver() {
+        var dropped = 0L
+        while (true) {
+            val entry = synchronized(monitor) {
+                while (queue.isEmpty() && !closed) {
+                    try {
+                        monitor.wait()
+                    } catch (_: InterruptedException) {
+                        return
+                    }
+                }
+                if (closed) return
+                dropped = pendingDropped
+                pendingDropped = 0L
+                queue.removeFirst()
+            }
+            try {
+                if (dropped > 0L) subscriber.onDropped(dropped)
+                subscriber.onEntry(entry)
+            } catch (e: Exception) {
+                AppLog.e(TAG, "logcat 订阅者 $name 处理失败 / Subscriber failed", e)
+            }
+        }
+    }
+
+    override fun close() {
+        synchronized(monitor) {
+            if (closed) return
+            closed = true
+            queue.clear()
+            monitor.notifyAll()
+        }
+        onClose(this)
+    }
+
+    private companion object {
+        const val TAG = "LogcatIngestion"
+    }
+}
@@ -2,130 +2,94 @@ package com.app.ralaunch.core.logging.service
 
 import com.app.ralaunch.core.logging.LogLevel
 import com.app.ralaunch.core.logging.contract.Logger
-import java.io.BufferedReader
-import java.io.InputStreamReader
-import java.util.concurrent.atomic.AtomicBoolean
 
+/**
+ * 把本进程的 logcat 日志写入日志文件
+ *
+ * 日志来自共用的 [LogcatIngestionService]，本类只负责过滤条件与行格式。
+ */
 class LogcatReader(
     private val logger: Logger,
-    private val fileLogger: AndroidFileLogger
+    private val fileLogger: AndroidFileLogger,
+    private val ingestion: LogcatIngestionService = LogcatIngestionService.shared
 ) {
-    private var readerThread: Thread? = null
-    private var logcatProcess: Process? = null
-    private val running = AtomicBoolean(false)
+    private var subscription: LogcatSubscription? = null
+
+    /** 只在投递线程上使用 */
+    private val timestampFormatter = LogcatTimestampFormatter()
+    private val line = StringBuilder(256)
 
     @JvmOverloads
     fun start(filterTags: Array<String>? = null, minLevel: LogLevel = LogLevel.VERBOSE) {
-        if (running.get()) {
+        if (subscription != null) {
             logger.w(TAG, "LogcatReader already running")
             return
         }
 
-        val pid = android.os.Process.myPid()
-
-        running.set(true)
-        readerThread = Thread({
-            try {
-                val command = buildCommand(pid, filterTags, minLevel)
-
-                logcatProcess = Runtime.getRuntime().exec(command)
-                BufferedReader(InputStreamReader(logcatProcess!!.inputStream)).use { reader ->
-                    while (running.get()) {
-                        val line = reader.readLine() ?: break
-                        processLogLine(line)
-                    }
-                }
-            } catch (e: Exception) {
-                if (running.get()) {
-                    logger.e(TAG, "LogcatReader error", e)
+        subscription = ingestion.subscribe(
+            name = TAG,
+            filter = buildFilter(android.os.Process.myPid(), filterTags, minLevel),
+            capacity = SUBSCRIBER_CAPACITY,
+            overflow = LogcatOverflow.DROP_OLDEST,
+            replay = SUBSCRIBER_CAPACITY,
+            subscriber = object : LogcatSubscriber {
+                override fun onEntry(entry: LogcatEntry) = processEntry(entry)
+
+                override fun onDropped(count: Long) {
+                    fileLogger.writeRawLine("Dropped $count logcat lines because the file writer fell behind")
                 }
             }
-        }, "LogcatReader").apply {
-            isDaemon = true
-            start()
-        }
+        )
         logger.i(TAG, "LogcatReader started, logging to: ${fileLogger.currentLogFile()?.absolutePath}")
     }
 
     fun stop() {
-        running.set(false)
-        logcatProcess?.destroy()
-        logcatProcess = null
-        readerThread?.interrupt()
-        readerThread = null
+        subscription?.close()
+        subscription = null
         logger.i(TAG, "LogcatReader stopped")
     }
 
-    val isRunning: Boolean get() = running.get()
+    val isRunning: Boolean get() = subscription?.isClosed == false
 
-    internal fun buildCommand(
+    internal fun buildFilter(
         pid: Int,
         filterTags: Array<String>? = null,
         minLevel: LogLevel = LogLevel.VERBOSE
-    ): String = buildString {
-        append("logcat --pid=$pid -v threadtime")
-        if (!filterTags.isNullOrEmpty()) {
-            append(" *:S")
-            filterTags.forEach { append(" $it:${minLevel.logcatPriority}") }
-        } else {
-            append(" *:${minLevel.logcatPriority}")
-        }
-    }
-
-    internal fun processLogLine(line: String) {
-        if (line.isEmpty() || line.startsWith("---------")) return
-
-        val parsed = parseLine(line) ?: return
-        if (shouldFilterTag(parsed.tag)) return
-
-        fileLogger.writeRawLine(parsed.format())
+    ): LogcatFilter = LogcatFilter(
+        pid = pid,
+        minPriority = LogcatEntry.priorityOf(minLevel),
+        tags = filterTags?.takeIf { it.isNotEmpty() }?.toSet(),
+        excludedTags = SYSTEM_TAG_BLACKLIST
+    )
+
+    internal fun processEntry(entry: LogcatEntry) {
+        if (shouldFilterTag(entry.tag)) return
+        fileLogger.writeRawLine(format(entry))
     }
 
-    internal fun parseLine(line: String): ParsedLogLine? {
-        THREADTIME_LINE.matchEntire(line)?.let { match ->
-            return ParsedLogLine(
-                timestamp = match.groupValues[1],
-                pid = match.groupValues[2].toIntOrNull(),
-                tid = match.groupValues[3].toIntOrNull(),
-                level = match.groupValues[4],
-                tag = match.groupValues[5].trim(),
-                message = match.groupValues[6]
-            )
-        }
-
-        TIME_LINE.matchEntire(line)?.let { match ->
-            return ParsedLogLine(
-                timestamp = match.groupValues[1],
-                pid = match.groupValues[4].toIntOrNull(),
-                tid = null,
-                level = match.groupValues[2],
-                tag = match.groupValues[3].trim(),
-                message = match.groupValues[5]
-            )
-        }
-
-        return null
+    /**
+     * 格式：`[MM-dd HH:mm:ss.SSS] [I] [Tag] [pid:tid] message`
+     */
+    internal fun format(entry: LogcatEntry): String {
+        line.setLength(0)
+        line.append('[')
+        timestampFormatter.appendTo(line, entry)
+        line.append("] [").append(entry.levelChar).append("] [").append(entry.tag.trim()).append("] [")
+            .append(entry.pid).append(':').append(entry.tid).append("] ")
+            .append(entry.message)
+        return line.toString()
     }
 
     internal fun shouldFilterTag(tag: String?): Boolean {
         if (tag == null) return true
-        return SYSTEM_TAG_BLACKLIST.any { tag == it }
+        return tag in SYSTEM_TAG_BLACKLIST
     }
 
     companion object {
         private const val TAG = "LogcatReader"
+        private const val SUBSCRIBER_CAPACITY = 2048
 
-        private val THREADTIME_LINE = Regex(
-            "^(\\d{2}-\\d{2}\\s+\\d{2}:\\d{2}:\\d{2}\\.\\d{3})" +
-                "(?:\\s+(?!\\d+\\s)[0-9A-Za-z_.]+)?\\s+(\\d+)\\s+(\\d+)\\s+([A-Z])\\s+" +
-                "(.+?)\\s*:\\s?(.*)$"
-        )
-        private val TIME_LINE = Regex(
-            "^(\\d{2}-\\d{2}\\s+\\d{2}:\\d{2}:\\d{2}\\.\\d{3})\\s+" +
-                "([A-Z])/(.+?)\\(\\s*(\\d+)\\):\\s?(.*)$"
-        )
-
-        private val SYSTEM_TAG_BLACKLIST = arrayOf(
+        private val SYSTEM_TAG_BLACKLIST = setOf(
             "ScrollerOptimizationManager", "HWUI", "NativeTurboSchedManager",
             "TurboSchedMonitor", "MiuiMultiWindowUtils", "MiuiProcessManagerImpl",
             "FramePredict", "FirstFrameSpeedUp", "InsetsController", "ViewRootImpl",
@@ -137,22 +101,4 @@ class LogcatReader(
             "OplusViewDragTouchViewHelper"
         )
     }
-
-    internal data class ParsedLogLine(
-        val timestamp: String,
-        val pid: Int?,
-        val tid: Int?,
-        val level: String,
-        val tag: String,
-        val message: String
-    ) {
-        fun format(): String {
-            val processInfo = when {
-                pid != null && tid != null -> " [$pid:$tid]"
-                pid != null -> " [$pid]"
-                else -> ""
-            }
-            return "[$timestamp] [$level] [$tag]$processInfo $message"
-        }
-    }
 }
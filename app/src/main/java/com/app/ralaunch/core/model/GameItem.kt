@@ -17,6 +17,7 @@ data class GameItem(
     var rendererOverride: String? = null,
     var dotNetRuntimeVersionOverride: String? = null,
     var gameEnvVars: Map<String, String?> = emptyMap(),
+    var runtimeProfile: RuntimeProfile = RuntimeProfile(),
 
     @Transient
     var gameRepositoryParent: IGameRepositoryServiceV3? = null
@@ -15,7 +15,8 @@ data class GameItemUi(
     val isShortcut: Boolean = false,
     val modLoaderEnabled: Boolean = true,
     val rendererOverride: String? = null,
-    val dotNetRuntimeVersionOverride: String? = null
+    val dotNetRuntimeVersionOverride: String? = null,
+    val runtimeProfile: RuntimeProfile = RuntimeProfile()
 ) {
     /**
      * @deprecated Use `id` instead. This alias will be removed in a future version.
@@ -35,7 +36,8 @@ fun GameItem.toUiModel(): GameItemUi = GameItemUi(
     iconPathFull = iconPathFull,  // Use absolute path for UI
     modLoaderEnabled = modLoaderEnabled,
     rendererOverride = rendererOverride,
-    dotNetRuntimeVersionOverride = dotNetRuntimeVersionOverride
+    dotNetRuntimeVersionOverride = dotNetRuntimeVersionOverride,
+    runtimeProfile = runtimeProfile
 )
 
 /**
@@ -62,6 +64,7 @@ fun GameItem.applyFromUiModel(uiModel: GameItemUi): GameItem {
     this.dotNetRuntimeVersionOverride = uiModel.dotNetRuntimeVersionOverride
         ?.trim()
         ?.takeIf { it.isNotEmpty() }
+    this.runtimeProfile = uiModel.runtimeProfile
     // 未来可扩展更多可编辑字段...
 
     return this
@@ -0,0 +1,24 @@
+package com.app.ralaunch.core.model
+
+import kotlinx.serialization.Serializable
+
+/**
+ * 游戏级运行时性能配置
+ *
+ * 每一项为 null 时跟随全局设置。渲染器仍使用 [GameItem.rendererOverride]，
+ * 这里只覆盖原本由 CoreCLRConfig / GameBoost / ThreadAffinityManager 读取的全局项。
+ */
+@Serializable
+data class RuntimeProfile(
+    val serverGc: Boolean? = null,
+    val concurrentGc: Boolean? = null,
+    val tieredCompilation: Boolean? = null,
+    val quickJit: Boolean? = null,
+    /** GameBoost 低内存调整（关闭 Server GC、限制 Mono 堆等） */
+    val lowMemoryTweaks: Boolean? = null,
+    /** 将线程绑定到大核 */
+    val bigCoreAffinity: Boolean? = null
+) {
+    val isEmpty: Boolean
+        get() = this == RuntimeProfile()
+}
@@ -115,6 +115,7 @@ data class AppSettings(
     // 开发者设置
     var logSystemEnabled: Boolean = true,
     var verboseLogging: Boolean = false,
+    var logTagLevels: String = "",
     var setThreadAffinityToBigCore: Boolean = false,
 
     // FNA 设置
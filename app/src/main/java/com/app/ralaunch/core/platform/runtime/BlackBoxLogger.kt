@@ -7,7 +7,16 @@ import android.os.Build
 import android.os.Process
 import android.system.Os
 import android.util.Log
+import com.app.ralaunch.core.logging.service.LogcatEntry
+import com.app.ralaunch.core.logging.service.LogcatFilter
+import com.app.ralaunch.core.logging.service.LogcatIngestionService
+import com.app.ralaunch.core.logging.service.LogcatOverflow
+import com.app.ralaunch.core.logging.service.LogcatSubscriber
+import com.app.ralaunch.core.logging.service.LogcatSubscription
+import com.app.ralaunch.core.logging.service.LogcatTimestampFormatter
 import java.io.File
+import java.io.FileOutputStream
+import java.io.PrintWriter
 import java.text.SimpleDateFormat
 import java.util.Date
 import java.util.Locale
@@ -15,9 +24,12 @@ import java.util.Locale
 object BlackBoxLogger {
 
     private const val TAG = "BlackBoxLogger"
+    private const val CRASH_QUEUE_CAPACITY = 4096
     private var isRecording = false
     private var isJavaArmed = false
-    private var logcatProcess: java.lang.Process? = null
+    private var subscription: LogcatSubscription? = null
+    @Volatile
+    private var crashWriter: PrintWriter? = null
 
     fun startRecording(context: Context) {
         val crashDir = File(context.getExternalFilesDir(null), "crashreport")
@@ -35,8 +47,11 @@ object BlackBoxLogger {
     fun stopRecording() {
         isRecording = false
         try {
-            logcatProcess?.destroy()
+            subscription?.close()
+            crashWriter?.close()
         } catch (t: Throwable) {}
+        subscription = null
+        crashWriter = null
     }
 
     private fun catchJavaCrashes(context: Context, logFile: File) {
@@ -56,47 +71,55 @@ object BlackBoxLogger {
         }
     }
 
+    /**
+     * 订阅共用 logcat 读取服务中本进程的错误日志，第一次出现时才创建报告文件
+     *
+     * 只接收开始记录之后的日志，不再用 `logcat -c` 清空其他读取方共用的缓冲区
+     */
     private fun catchNativeCrashes(logFile: File) {
         if (isRecording) return
-
-        Thread {
-            try {
-                isRecording = true
-                val myPid = Process.myPid().toString()
-
-                runCatching { Runtime.getRuntime().exec("logcat -c").waitFor() }
-                
-                logcatProcess = Runtime.getRuntime().exec("logcat -b crash,main -v time --pid=$myPid *:E")
-
-                logcatProcess?.inputStream?.bufferedReader()?.use { reader ->
-                    var isFileInitialized = false
-                    var writer: java.io.PrintWriter? = null
-
+        isRecording = true
+
+        val timestampFormatter = LogcatTimestampFormatter()
+
+        subscription = LogcatIngestionService.shared.subscribe(
+            name = TAG,
+            filter = LogcatFilter(
+                pid = Process.myPid(),
+                minPriority = LogcatEntry.ERROR,
+                notBeforeMillis = System.currentTimeMillis()
+            ),
+            capacity = CRASH_QUEUE_CAPACITY,
+            // 保留最早的错误，崩溃根因通常在最前面
+            overflow = LogcatOverflow.DROP_NEWEST,
+            subscriber = object : LogcatSubscriber {
+                override fun onEntry(entry: LogcatEntry) {
                     try {
-                        while (isRecording) {
-                            val line = reader.readLine() ?: break
-                            
-                            if (!isFileInitialized) {
-                                writer = java.io.PrintWriter(java.io.FileOutputStream(logFile, true))
-                                writer.println("=========================================")
-                                writer.println("💀 NATIVE / SYSTEM CRASH LOG 💀")
-                                writer.println("=========================================")
-                                isFileInitialized = true
-                            }
-
-                            writer?.println(line)
-                            writer?.flush()
+                        val out = crashWriter ?: PrintWriter(FileOutputStream(logFile, true)).also {
+                            it.println("=========================================")
+                            it.println("💀 NATIVE / SYSTEM CRASH LOG 💀")
+                            it.println("=========================================")
+                            crashWriter = it
                         }
-                    } finally {
-                        writer?.close()
+                        // 与 logcat -v time 相同的格式
+                        out.println(
+                            buildString {
+                                timestampFormatter.appendTo(this, entry)
+                                append(' ').append(entry.levelChar).append('/').append(entry.tag)
+                                append('(').append(entry.pid).append("): ").append(entry.message)
+                            }
+                        )
+                        out.flush()
+                    } catch (t: Throwable) {
+                        Log.e(TAG, "Logger malfunction", t)
                     }
                 }
-            } catch (t: Throwable) {
-                Log.e(TAG, "Logger malfunction", t)
-            } finally {
-                isRecording = false
+
+                override fun onDropped(count: Long) {
+                    crashWriter?.println("... $count more error lines dropped ...")
+                }
             }
-        }.start()
+        )
     }
 
     private fun writeThrowableReport(
@@ -113,9 +136,8 @@ object BlackBoxLogger {
             context.getSystemService(Context.ACTIVITY_SERVICE) as ActivityManager
         } catch (_: Throwable) { null }
 
-        val memoryInfo = try {
-            ActivityManager.MemoryInfo().also { info -> activityManager?.getMemoryInfo(info) }
-        } catch (_: Throwable) { null }
+        // 内存信息取自设备拓扑缓存，崩溃时不再查询系统服务
+        val topology = try { DeviceTopologyProbe.get(context, queryGpu = false) } catch (_: Throwable) { null }
 
         val memoryClass = try { activityManager?.memoryClass?.toString() ?: "Unknown" } catch (_: Throwable) { "Unknown" }
         val processName = try { if (Build.VERSION.SDK_INT >= 28) Application.getProcessName() else context.packageName } catch (_: Throwable) { context.packageName }
@@ -145,8 +167,8 @@ object BlackBoxLogger {
             appendLine("📚 FNA3D     : ${safeEnv("FNA3D_OPENGL_LIBRARY", "default")}")
             appendLine("-----------------------------------------")
             appendLine("🧠 MEM CLASS : ${memoryClass}MB")
-            appendLine("💾 AVAIL MEM : ${memoryInfo?.availMem?.div(1024 * 1024) ?: -1}MB")
-            appendLine("⚠️ LOW MEM   : ${memoryInfo?.lowMemory ?: "Unknown"}")
+            appendLine("💾 TOTAL RAM : ${topology?.totalRamBytes?.div(1024 * 1024) ?: -1}MB")
+            appendLine("⚠️ RAM CLASS : ${topology?.ramClass ?: "Unknown"}")
             appendLine("-----------------------------------------")
             appendLine("📁 FILE      : $errorFile")
             appendLine("🔢 LINE      : Line $errorLine")
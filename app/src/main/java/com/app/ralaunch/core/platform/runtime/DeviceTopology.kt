@@ -0,0 +1,280 @@
+package com.app.ralaunch.core.platform.runtime
+
+import kotlinx.serialization.Serializable
+import java.io.File
+import java.io.IOException
+import java.util.Locale
+
+/**
+ * 一个 CPU 簇（同一 cpufreq policy 下的核心）
+ *
+ * @param capacity 内核提供的 cpu_capacity（0~1024），部分设备没有
+ * @param minFreqKhz cpuinfo_min_freq，读不到为 0
+ */
+@Serializable
+data class CpuCluster(
+    val cpus: List<Int>,
+    val maxFreqKhz: Long = 0,
+    val capacity: Long? = null,
+    val minFreqKhz: Long = 0
+) {
+    /** 排序依据：优先容量，其次最大频率 */
+    val strength: Long
+        get() = capacity ?: maxFreqKhz
+}
+
+/**
+ * 一级缓存描述，来自 cpu<N>/cache/index<M>
+ *
+ * @param type Data / Instruction / Unified
+ */
+@Serializable
+data class CpuCache(
+    val level: Int,
+    val type: String,
+    val sizeKb: Int,
+    val sharedCpus: List<Int>
+)
+
+enum class RamClass {
+    /** 低于 4 GB，与 GameBoost 原有的低内存判断一致 */
+    LOW,
+    /** 4~8 GB */
+    MID,
+    HIGH,
+    /** 读不到总内存 */
+    UNKNOWN;
+
+    companion object {
+        private const val GB = 1024L * 1024 * 1024
+
+        fun of(totalBytes: Long): RamClass = when {
+            totalBytes <= 0 -> UNKNOWN
+            totalBytes < 4 * GB -> LOW
+            totalBytes < 8 * GB -> MID
+            else -> HIGH
+        }
+    }
+}
+
+enum class GpuFamily {
+    ADRENO, MALI, POWERVR, XCLIPSE, OTHER, UNKNOWN;
+
+    companion object {
+        /** 按 EGL/GL 的 GL_VENDOR 与 GL_RENDERER 字符串判断 */
+        fun of(vendor: String, renderer: String): GpuFamily {
+            val text = "$vendor $renderer".lowercase()
+            return when {
+                vendor.isBlank() && renderer.isBlank() -> UNKNOWN
+                "adreno" in text || "qualcomm" in text -> ADRENO
+                "mali" in text || vendor.equals("ARM", ignoreCase = true) -> MALI
+                "powervr" in text || "imagination" in text -> POWERVR
+                "xclipse" in text || "samsung" in text -> XCLIPSE
+                "<unknown>" in text -> UNKNOWN
+                else -> OTHER
+            }
+        }
+    }
+}
+
+/**
+ * 设备拓扑与能力：CPU 簇、缓存、指令集特性、内存与 GPU 厂商
+ *
+ * 每次开机探测一次并由 [DeviceTopologyProbe] 持久化，线程亲和性、低内存调整等
+ * 决策统一从这里读取，而不是各自猜测。
+ */
+@Serializable
+data class DeviceTopology(
+    /** /proc/sys/kernel/random/boot_id，用于判断持久化结果是否属于本次开机 */
+    val bootId: String = "",
+    val probedAt: Long = 0,
+    /** 从最弱到最强 */
+    val clusters: List<CpuCluster> = emptyList(),
+    val caches: List<CpuCache> = emptyList(),
+    /** /proc/cpuinfo 的 Features（ARM）或 flags（x86） */
+    val isaFeatures: List<String> = emptyList(),
+    val totalRamBytes: Long = 0,
+    /** 探测时的可用内存，仅供参考；需要实时值时应重新查询 */
+    val availableRamBytes: Long = 0,
+    val gpuVendor: String = "",
+    val gpuRenderer: String = "",
+    val glesMajorVersion: Int = 0
+) {
+    val ramClass: RamClass
+        get() = RamClass.of(totalRamBytes)
+
+    val isLowRam: Boolean
+        get() = ramClass == RamClass.LOW
+
+    val gpuFamily: GpuFamily
+        get() = GpuFamily.of(gpuVendor, gpuRenderer)
+
+    val hasGpuInfo: Boolean
+        get() = gpuVendor.isNotBlank() || gpuRenderer.isNotBlank()
+
+    val cpuCount: Int
+        get() = clusters.sumOf { it.cpus.size }
+
+    fun hasFeature(name: String): Boolean = isaFeatures.any { it.equals(name, ignoreCase = true) }
+
+    fun clusterLayout(): CpuClusterLayout = CpuClusterLayout(clusters.map { it.cpus })
+
+    /** 包含该核心的簇，拓扑中没有时为 null */
+    fun clusterOf(cpu: Int): CpuCluster? = clusters.firstOrNull { cpu in it.cpus }
+
+    /**
+     * 单行摘要，例如 "cpus=8 clusters=[0-3@1804MHz | 4-6@2419MHz | 7@3187MHz] ram=MID(7.5GB) gpu=ADRENO(Adreno (TM) 740)"
+     */
+    fun describe(): String = buildString {
+        append("cpus=").append(cpuCount)
+        append(" clusters=[")
+        append(clusters.joinToString(" | ") { cluster ->
+            val cpus = cluster.cpus.joinToString(",")
+            val freq = if (cluster.maxFreqKhz > 0) "@${cluster.maxFreqKhz / 1000}MHz" else ""
+            val cap = cluster.capacity?.let { " cap=$it" } ?: ""
+            "$cpus$freq$cap"
+        })
+        append("]")
+        val lastLevel = caches.filter { it.type != "Instruction" }.maxByOrNull { it.level }
+        if (lastLevel != null) append(" l").append(lastLevel.level).append('=').append(lastLevel.sizeKb).append("KB")
+        append(" ram=").append(ramClass)
+        if (totalRamBytes > 0) append(String.format(Locale.US, "(%.1fGB)", totalRamBytes / GB))
+        append(" gpu=").append(gpuFamily)
+        if (gpuRenderer.isNotBlank()) append('(').append(gpuRenderer).append(')')
+    }
+
+    companion object {
+        private const val GB = 1024.0 * 1024 * 1024
+
+        /**
+         * 从 sysfs 与 /proc 读取 CPU、缓存、指令集与内存信息（不含 GPU）
+         *
+         * @param root 文件系统根目录，测试时可指向伪造的目录树
+         */
+        fun read(root: File = File("/"), cpuCount: Int = Runtime.getRuntime().availableProcessors()): DeviceTopology {
+            val memInfo = readText(File(root, "proc/meminfo"))?.let(::parseMemInfo) ?: emptyMap()
+            return DeviceTopology(
+                bootId = readText(File(root, "proc/sys/kernel/random/boot_id"))?.trim().orEmpty(),
+                clusters = readClusters(root, cpuCount),
+                caches = readCaches(root, cpuCount),
+                isaFeatures = readText(File(root, "proc/cpuinfo"))?.let(::parseIsaFeatures) ?: emptyList(),
+                totalRamBytes = (memInfo["MemTotal"] ?: 0L) * 1024,
+                availableRamBytes = (memInfo["MemAvailable"] ?: memInfo["MemFree"] ?: 0L) * 1024
+            )
+        }
+
+        /**
+         * 按 cpufreq policy（或逐核最大频率/容量）分组，读不到任何信息时所有 CPU 视为一个簇
+         */
+        internal fun readClusters(root: File, cpuCount: Int): List<CpuCluster> {
+            val cpuDir = File(root, "sys/devices/system/cpu")
+            val clusters = ArrayList<CpuCluster>()
+
+            File(cpuDir, "cpufreq").listFiles { f -> f.name.startsWith("policy") }
+                ?.sortedBy { it.name.removePrefix("policy").toIntOrNull() ?: Int.MAX_VALUE }
+                ?.forEach { policy ->
+                    val cpus = parseCpuList(readText(File(policy, "related_cpus")) ?: return@forEach)
+                    if (cpus.isEmpty()) return@forEach
+                    val capacity = readLong(File(cpuDir, "cpu${cpus.first()}/cpu_capacity"))
+                    val maxFreq = readLong(File(policy, "cpuinfo_max_freq"))
+                    if (capacity == null && maxFreq == null) return@forEach
+                    val minFreq = readLong(File(policy, "cpuinfo_min_freq")) ?: 0
+                    clusters.add(CpuCluster(cpus, maxFreq ?: 0, capacity, minFreq))
+                }
+
+            if (clusters.isEmpty()) {
+                val byStrength = LinkedHashMap<Pair<Long?, Long>, MutableList<Int>>()
+                for (cpu in 0 until cpuCount) {
+                    val capacity = readLong(File(cpuDir, "cpu$cpu/cpu_capacity"))
+                    val maxFreq = readLong(File(cpuDir, "cpu$cpu/cpufreq/cpuinfo_max_freq"))
+                    if (capacity == null && maxFreq == null) continue
+                    byStrength.getOrPut(capacity to (maxFreq ?: 0)) { ArrayList() }.add(cpu)
+                }
+                byStrength.forEach { (key, cpus) ->
+                    val minFreq = readLong(File(cpuDir, "cpu${cpus.first()}/cpufreq/cpuinfo_min_freq")) ?: 0
+                    clusters.add(CpuCluster(cpus, key.second, key.first, minFreq))
+                }
+            }
+
+            if (clusters.isEmpty()) return listOf(CpuCluster((0 until cpuCount).toList()))
+            return clusters.sortedBy { it.strength }
+        }
+
+        /**
+         * 读取各核心的缓存描述，被多个核心共享的同一缓存只记录一次
+         */
+        internal fun readCaches(root: File, cpuCount: Int): List<CpuCache> {
+            val cpuDir = File(root, "sys/devices/system/cpu")
+            val caches = LinkedHashSet<CpuCache>()
+            for (cpu in 0 until cpuCount) {
+                val indexes = File(cpuDir, "cpu$cpu/cache").listFiles { f -> f.name.startsWith("index") } ?: continue
+                for (index in indexes.sortedBy { it.name }) {
+                    val level = readLong(File(index, "level"))?.toInt() ?: continue
+                    val size = readText(File(index, "size"))?.let(::parseCacheSizeKb) ?: continue
+                    val type = readText(File(index, "type"))?.trim().orEmpty().ifEmpty { "Unified" }
+                    val shared = readText(File(index, "shared_cpu_list"))?.let(::parseCpuList)
+                        ?.takeIf { it.isNotEmpty() } ?: listOf(cpu)
+                    caches.add(CpuCache(level, type, size, shared))
+                }
+            }
+            return caches.sortedWith(compareBy({ it.level }, { it.sharedCpus.first() }, { it.type }))
+        }
+
+        /** 解析 "0-3,6" 形式的 CPU 列表 */
+        internal fun parseCpuList(text: String): List<Int> {
+            val result = ArrayList<Int>()
+            for (part in text.trim().split(',', ' ')) {
+                if (part.isEmpty()) continue
+                val start = part.substringBefore('-').toIntOrNull() ?: continue
+                val end = if ('-' in part) part.substringAfter('-').toIntOrNull() ?: continue else start
+                for (cpu in start..end) result.add(cpu)
+            }
+            return result
+        }
+
+        /** 解析 "32K"、"2048K"、"1M" 形式的缓存大小 */
+        internal fun parseCacheSizeKb(text: String): Int? {
+            val trimmed = text.trim()
+            if (trimmed.isEmpty()) return null
+            val unit = trimmed.last().uppercaseChar()
+            val number = if (unit.isDigit()) trimmed else trimmed.dropLast(1)
+            val value = number.trim().toIntOrNull() ?: return null
+            return when (unit) {
+                'M' -> value * 1024
+                'G' -> value * 1024 * 1024
+                'K' -> value
+                else -> if (unit.isDigit()) value / 1024 else null
+            }
+        }
+
+        /** 取第一个 Features 或 flags 行，去重并保持原有顺序 */
+        internal fun parseIsaFeatures(cpuinfo: String): List<String> {
+            for (line in cpuinfo.lineSequence()) {
+                val key = line.substringBefore(':').trim()
+                if (key != "Features" && key != "flags") continue
+                return line.substringAfter(':').trim().split(' ', '\t').filter { it.isNotEmpty() }.distinct()
+            }
+            return emptyList()
+        }
+
+        /** 解析 /proc/meminfo，数值单位为 kB */
+        internal fun parseMemInfo(text: String): Map<String, Long> {
+            val result = HashMap<String, Long>()
+            for (line in text.lineSequence()) {
+                val key = line.substringBefore(':', "").trim()
+                if (key.isEmpty()) continue
+                val value = line.substringAfter(':').trim().substringBefore(' ').toLongOrNull() ?: continue
+                result[key] = value
+            }
+            return result
+        }
+
+        private fun readText(file: File): String? = try {
+            file.readText()
+        } catch (e: IOException) {
+            null
+        }
+
+        private fun readLong(file: File): Long? = readText(file)?.trim()?.toLongOrNull()
+    }
+}
@@ -0,0 +1,131 @@
+package com.app.ralaunch.core.platform.runtime
+
+import android.content.Context
+import com.app.ralaunch.core.common.util.GLInfoUtils
+import com.app.ralaunch.core.logging.AppLog
+import kotlinx.serialization.json.Json
+import java.io.File
+
+/**
+ * 设备拓扑的获取与持久化
+ *
+ * 每次开机只探测一次：结果写入 filesDir/device_topology.json，boot_id 相同则直接复用，
+ * 游戏进程（:game）也因此无需重新读取 sysfs 或创建 EGL 上下文。
+ */
+object DeviceTopologyProbe {
+    private const val TAG = "DeviceTopology"
+    private const val FILE_NAME = "device_topology.json"
+    private const val BOOT_ID_PATH = "/proc/sys/kernel/random/boot_id"
+
+    private val json = Json {
+        ignoreUnknownKeys = true
+    }
+
+    @Volatile
+    private var cached: DeviceTopology? = null
+
+    /**
+     * 获取本次开机的设备拓扑
+     *
+     * @param queryGpu 是否允许为获取 GPU 信息创建临时 EGL 上下文；
+     *   游戏进程中应传 false，避免干扰游戏自己的 EGL 显示连接
+     */
+    @JvmStatic
+    fun get(context: Context, queryGpu: Boolean = true): DeviceTopology {
+        cached?.let { if (!queryGpu || it.hasGpuInfo) return it }
+        return synchronized(this) {
+            cached?.takeIf { !queryGpu || it.hasGpuInfo } ?: loadOrProbe(
+                file = File(context.applicationContext.filesDir, FILE_NAME),
+                currentBootId = readBootId(),
+                requireGpu = queryGpu
+            ) { probe(queryGpu) }.also { cached = it }
+        }
+    }
+
+    /**
+     * 在后台线程完成探测，应用启动时调用；之后的 [get] 只读内存缓存
+     */
+    @JvmStatic
+    fun prewarm(context: Context) {
+        if (cached?.hasGpuInfo == true) return
+        val appContext = context.applicationContext
+        Thread({
+            try {
+                AppLog.i(TAG, "设备拓扑 / Device topology: ${get(appContext).describe()}")
+            } catch (e: Throwable) {
+                AppLog.w(TAG, "设备拓扑探测失败 / Device topology probe failed: ${e.message}")
+            }
+        }, "TopologyProbe").apply {
+            isDaemon = true
+            priority = Thread.MIN_PRIORITY
+            start()
+        }
+    }
+
+    /**
+     * 持久化结果属于本次开机（且在需要时包含 GPU 信息）则复用，否则重新探测并保存
+     */
+    internal fun loadOrProbe(
+        file: File,
+        currentBootId: String,
+        requireGpu: Boolean,
+        probe: () -> DeviceTopology
+    ): DeviceTopology {
+        val persisted = load(file)
+        if (persisted != null && currentBootId.isNotEmpty() && persisted.bootId == currentBootId &&
+            (!requireGpu || persisted.hasGpuInfo)
+        ) {
+            return persisted
+        }
+        val topology = probe()
+        save(file, topology)
+        return topology
+    }
+
+    private fun probe(queryGpu: Boolean): DeviceTopology {
+        val topology = DeviceTopology.read().copy(probedAt = System.currentTimeMillis())
+        if (!queryGpu) return topology
+        val gl = GLInfoUtils.getGlInfo()
+        return topology.copy(
+            gpuVendor = gl.vendor,
+            gpuRenderer = gl.renderer,
+            glesMajorVersion = gl.glesMajorVersion
+        )
+    }
+
+    private fun load(file: File): DeviceTopology? {
+        if (!file.isFile) return null
+        return try {
+            json.decodeFromString(DeviceTopology.serializer(), file.readText())
+        } catch (e: Exception) {
+            AppLog.w(TAG, "设备拓扑缓存无法解析 / Discarding unreadable topology cache: ${e.message}")
+            null
+        }
+    }
+
+    private fun save(file: File, topology: DeviceTopology) {
+        try {
+            val dir = file.parentFile ?: return
+            dir.mkdirs()
+            // 每个进程使用独立的临时文件，并发保存时不会互相覆盖写到一半的内容
+            val temp = File.createTempFile(file.name, ".tmp", dir)
+            try {
+                temp.writeText(json.encodeToString(DeviceTopology.serializer(), topology))
+                if (!temp.renameTo(file)) {
+                    file.delete()
+                    temp.renameTo(file)
+                }
+            } finally {
+                if (temp.exists()) temp.delete()
+            }
+        } catch (e: Exception) {
+            AppLog.w(TAG, "设备拓扑缓存写入失败 / Failed to persist topology: ${e.message}")
+        }
+    }
+
+    private fun readBootId(): String = try {
+        File(BOOT_ID_PATH).readText().trim()
+    } catch (e: Exception) {
+        ""
+    }
+}
@@ -0,0 +1,96 @@
+package com.app.ralaunch.core.platform.runtime
+
+import android.content.Context
+import com.app.ralaunch.core.common.SettingsAccess
+import com.app.ralaunch.core.model.RuntimeProfile
+import java.util.zip.CRC32
+
+/**
+ * 本次启动实际生效的运行时配置：游戏级 [RuntimeProfile] 覆盖后的全局设置
+ *
+ * 会话指标按 [id] 归档，相同配置的多次会话可以直接对比。
+ */
+data class EffectiveRuntimeProfile(
+    val serverGc: Boolean,
+    val concurrentGc: Boolean,
+    val tieredCompilation: Boolean,
+    val quickJit: Boolean,
+    val lowMemoryTweaks: Boolean,
+    val bigCoreAffinity: Boolean,
+    val renderer: String,
+    /** 是否有任何一项来自游戏级覆盖 */
+    val isCustom: Boolean = false
+) {
+    /**
+     * 配置的简短描述，例如 "sgc=0 cgc=1 tc=1 qj=1 lowmem=0 big=1 renderer=gl4es"
+     */
+    fun describe(): String = buildString {
+        append("sgc=").append(flag(serverGc))
+        append(" cgc=").append(flag(concurrentGc))
+        append(" tc=").append(flag(tieredCompilation))
+        append(" qj=").append(flag(quickJit))
+        append(" lowmem=").append(flag(lowMemoryTweaks))
+        append(" big=").append(flag(bigCoreAffinity))
+        append(" renderer=").append(renderer)
+    }
+
+    /** 由配置内容计算的稳定标识，与 [isCustom] 无关 */
+    val id: String
+        get() = CRC32().apply { update(describe().toByteArray()) }.value.toString(16).padStart(8, '0')
+
+    private fun flag(value: Boolean): String = if (value) "1" else "0"
+
+    companion object {
+        /**
+         * 用游戏级配置覆盖全局默认值
+         *
+         * 游戏级配置显式启用低内存调整且未指定 Server GC 时，关闭 Server GC。
+         */
+        fun resolve(profile: RuntimeProfile?, defaults: EffectiveRuntimeProfile): EffectiveRuntimeProfile {
+            if (profile == null || profile.isEmpty) return defaults
+            return EffectiveRuntimeProfile(
+                serverGc = profile.serverGc ?: (defaults.serverGc && profile.lowMemoryTweaks != true),
+                concurrentGc = profile.concurrentGc ?: defaults.concurrentGc,
+                tieredCompilation = profile.tieredCompilation ?: defaults.tieredCompilation,
+                quickJit = profile.quickJit ?: defaults.quickJit,
+                lowMemoryTweaks = profile.lowMemoryTweaks ?: defaults.lowMemoryTweaks,
+                bigCoreAffinity = profile.bigCoreAffinity ?: defaults.bigCoreAffinity,
+                renderer = defaults.renderer,
+                isCustom = true
+            )
+        }
+
+        /**
+         * 当前全局设置对应的配置
+         *
+         * @param rendererOverride 游戏的渲染器覆盖，渲染器仍由游戏条目决定
+         */
+        fun fromGlobalSettings(context: Context, rendererOverride: String?): EffectiveRuntimeProfile {
+            val settings = SettingsAccess
+            return EffectiveRuntimeProfile(
+                serverGc = settings.isServerGC,
+                concurrentGc = settings.isConcurrentGC,
+                tieredCompilation = settings.isTieredCompilation,
+                quickJit = settings.isQuickJIT,
+                lowMemoryTweaks = isLowMemoryDevice(context),
+                bigCoreAffinity = settings.setThreadAffinityToBigCoreEnabled,
+                renderer = RendererEnvironmentConfigurator.resolveRendererForLaunch(
+                    RendererEnvironmentConfigurator.getEffectiveRenderer(),
+                    rendererOverride
+                )
+            )
+        }
+
+        fun forLaunch(context: Context, profile: RuntimeProfile?, rendererOverride: String?): EffectiveRuntimeProfile =
+            resolve(profile, fromGlobalSettings(context, rendererOverride))
+
+        /** 总内存属于 [RamClass.LOW]（低于 4 GB）时默认启用低内存调整 */
+        private fun isLowMemoryDevice(context: Context): Boolean {
+            return try {
+                DeviceTopologyProbe.get(context, queryGpu = false).isLowRam
+            } catch (e: Exception) {
+                false
+            }
+        }
+    }
+}
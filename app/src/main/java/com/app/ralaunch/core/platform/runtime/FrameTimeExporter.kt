@@ -0,0 +1,95 @@
+package com.app.ralaunch.core.platform.runtime
+
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.json.Json
+import java.io.File
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
+
+/**
+ * 单次会话的帧时间报告（JSON 导出格式）
+ */
+@Serializable
+data class FrameTimeReport(
+    val sessionId: String,
+    val gameKey: String,
+    /** [EffectiveRuntimeProfile.describe]，包含渲染器，便于跨渲染器与设置对比 */
+    val profileDescription: String,
+    val startedAt: Long,
+    val durationMs: Long,
+    val stats: FrameTimeStats,
+    val histogram: List<HistogramBucket>
+) {
+    @Serializable
+    data class HistogramBucket(val lowUs: Long, val highUs: Long, val count: Long)
+}
+
+/**
+ * 帧时间导出：每次会话一对文件
+ * - `frametimes_<时间>.json`：统计摘要与完整直方图；
+ * - `frametimes_<时间>.csv`：最近 [FrameTimeRecorder.recentCapacity] 帧的原始帧时间。
+ *
+ * 会话进行中会重复导出以覆盖同名文件，进程被直接结束时也能留下最近一次结果。
+ */
+object FrameTimeExporter {
+
+    private val json = Json {
+        prettyPrint = true
+    }
+
+    fun baseNameFor(startedAt: Long): String =
+        "frametimes_" + SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(Date(startedAt))
+
+    /**
+     * @return 写入的 JSON 与 CSV 文件
+     */
+    fun export(
+        dir: File,
+        baseName: String,
+        sessionId: String,
+        gameKey: String,
+        profile: EffectiveRuntimeProfile,
+        startedAt: Long,
+        durationMs: Long,
+        recorder: FrameTimeRecorder
+    ): Pair<File, File> {
+        dir.mkdirs()
+        val histogram = ArrayList<FrameTimeReport.HistogramBucket>()
+        recorder.forEachBucket { low, high, count ->
+            histogram.add(FrameTimeReport.HistogramBucket(low, high, count))
+        }
+        val report = FrameTimeReport(
+            sessionId = sessionId,
+            gameKey = gameKey,
+            profileDescription = profile.describe(),
+            startedAt = startedAt,
+            durationMs = durationMs,
+            stats = recorder.stats(),
+            histogram = histogram
+        )
+        val jsonFile = File(dir, "$baseName.json")
+        writeAtomically(jsonFile, json.encodeToString(FrameTimeReport.serializer(), report))
+
+        val frames = IntArray(recorder.recentCapacity)
+        val count = recorder.copyRecent(frames)
+        val firstIndex = recorder.frames - count
+        val csvFile = File(dir, "$baseName.csv")
+        val csv = StringBuilder(count * 16 + 32).append("frame,frame_time_ms\n")
+        for (i in 0 until count) {
+            csv.append(firstIndex + i).append(',')
+                .append(String.format(Locale.US, "%.3f", frames[i] / 1000.0)).append('\n')
+        }
+        writeAtomically(csvFile, csv.toString())
+        return jsonFile to csvFile
+    }
+
+    private fun writeAtomically(file: File, content: String) {
+        val temp = File(file.parentFile, "${file.name}.tmp")
+        temp.writeText(content)
+        if (!temp.renameTo(file)) {
+            file.delete()
+            temp.renameTo(file)
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.app.ralaunch.core.platform.runtime
+
+import kotlinx.serialization.Serializable
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * 帧时间统计结果，不可变
+ *
+ * 低帧率按"最慢的 1% / 0.1% 帧的平均帧时间"换算为 FPS；无样本时各项为 0
+ */
+@Serializable
+data class FrameTimeStats(
+    val frames: Long = 0,
+    val avgMs: Double = 0.0,
+    val minMs: Double = 0.0,
+    val maxMs: Double = 0.0,
+    val p50Ms: Double = 0.0,
+    val p95Ms: Double = 0.0,
+    val p99Ms: Double = 0.0,
+    val low1PercentFps: Double = 0.0,
+    val low01PercentFps: Double = 0.0,
+    val stutters: Long = 0,
+    /** 读取不及时而被环形缓冲区覆盖、未计入统计的帧 */
+    val lostFrames: Long = 0
+)
+
+/**
+ * 帧时间记录器（固定内存）
+ *
+ * - 对数-线性直方图（HDR 风格）：每个 2 的幂区间分为 [SUB_BUCKETS_HALF] 个线性子桶，
+ *   覆盖 1 µs ~ 67 s，相对误差不超过约 3%，无论会话多长都只占用 [BUCKET_COUNT] 个 long；
+ * - 最近 [recentCapacity] 帧的环形缓冲区，用于导出原始帧时间；
+ * - 卡顿：帧时间超过指数平均的 [STUTTER_FACTOR] 倍且至少多出 [STUTTER_MIN_EXCESS_US]。
+ *
+ * 非线程安全，由会话采集线程独占使用，统计结果通过 [stats] 以不可变对象发布。
+ */
+class FrameTimeRecorder(val recentCapacity: Int = DEFAULT_RECENT_CAPACITY) {
+
+    private val buckets = LongArray(BUCKET_COUNT)
+    private val recent = IntArray(recentCapacity)
+
+    var frames = 0L
+        private set
+    private var totalUs = 0L
+    private var minUs = Long.MAX_VALUE
+    private var maxUs = 0L
+    private var stutters = 0L
+    private var emaUs = 0.0
+
+    var lostFrames = 0L
+        private set
+
+    /**
+     * 记录一帧
+     * @param frameUs 帧时间（微秒）
+     */
+    fun record(frameUs: Long) {
+        val value = frameUs.coerceIn(1L, MAX_TRACKABLE_US)
+        buckets[bucketIndex(value)]++
+        recent[(frames % recentCapacity).toInt()] = value.toInt()
+        frames++
+        totalUs += value
+        minUs = min(minUs, value)
+        maxUs = max(maxUs, value)
+
+        if (emaUs == 0.0) {
+            emaUs = value.toDouble()
+        } else {
+            if (value > emaUs * STUTTER_FACTOR && value - emaUs >= STUTTER_MIN_EXCESS_US) {
+                stutters++
+            }
+            // 单个卡顿帧不应把平均值拉得太高，否则紧随其后的卡顿会被漏掉
+            emaUs += EMA_ALPHA * (min(value.toDouble(), emaUs * STUTTER_FACTOR) - emaUs)
+        }
+    }
+
+    /**
+     * 批量记录 [TelemetryFrameRing.drain] 取得的帧（无符号微秒）
+     */
+    fun recordAll(framesUs: IntArray, count: Int) {
+        for (i in 0 until count) {
+            record(framesUs[i].toLong() and 0xFFFFFFFFL)
+        }
+    }
+
+    /**
+     * 更新环形缓冲区累计覆盖（未能读取）的帧数
+     */
+    fun updateLostFrames(total: Long) {
+        lostFrames = total
+    }
+
+    fun stats(): FrameTimeStats {
+        if (frames == 0L) return FrameTimeStats(lostFrames = lostFrames)
+        return FrameTimeStats(
+            frames = frames,
+            avgMs = totalUs / frames.toDouble() / 1000.0,
+            minMs = minUs / 1000.0,
+            maxMs = maxUs / 1000.0,
+            p50Ms = percentileUs(0.50) / 1000.0,
+            p95Ms = percentileUs(0.95) / 1000.0,
+            p99Ms = percentileUs(0.99) / 1000.0,
+            low1PercentFps = lowFps(0.01),
+            low01PercentFps = lowFps(0.001),
+            stutters = stutters,
+            lostFrames = lostFrames
+        )
+    }
+
+    /**
+     * 分位数（桶中值，并限制在实际最小/最大值之间）
+     */
+    fun percentileUs(fraction: Double): Double {
+        if (frames == 0L) return 0.0
+        val target = kotlin.math.ceil(frames * fraction).toLong().coerceIn(1L, frames)
+        var seen = 0L
+        for (i in buckets.indices) {
+            seen += buckets[i]
+            if (seen >= target) return clampToObserved(bucketMid(i))
+        }
+        return maxUs.toDouble()
+    }
+
+    /**
+     * 最慢的 fraction 部分帧的平均帧时间换算的 FPS，至少取 1 帧
+     */
+    private fun lowFps(fraction: Double): Double {
+        val wanted = kotlin.math.ceil(frames * fraction).toLong().coerceAtLeast(1L)
+        var remaining = wanted
+        var sumUs = 0.0
+        for (i in buckets.indices.reversed()) {
+            val count = buckets[i]
+            if (count == 0L) continue
+            val taken = min(count, remaining)
+            sumUs += clampToObserved(bucketMid(i)) * taken
+            remaining -= taken
+            if (remaining == 0L) break
+        }
+        val avgUs = sumUs / wanted
+        return if (avgUs > 0.0) 1_000_000.0 / avgUs else 0.0
+    }
+
+    private fun clampToObserved(valueUs: Double): Double =
+        valueUs.coerceIn(minUs.toDouble(), maxUs.toDouble())
+
+    /**
+     * 按时间顺序复制最近的帧（微秒）
+     * @return 复制的帧数
+     */
+    fun copyRecent(out: IntArray): Int {
+        val count = min(min(frames, recentCapacity.toLong()), out.size.toLong()).toInt()
+        val start = frames - count
+        for (i in 0 until count) {
+            out[i] = recent[((start + i) % recentCapacity).toInt()]
+        }
+        return count
+    }
+
+    /**
+     * 遍历非空桶：下沿、上沿（微秒）与计数
+     */
+    fun forEachBucket(action: (lowUs: Long, highUs: Long, count: Long) -> Unit) {
+        for (i in buckets.indices) {
+            if (buckets[i] != 0L) action(bucketLow(i), bucketLow(i + 1), buckets[i])
+        }
+    }
+
+    companion object {
+        const val DEFAULT_RECENT_CAPACITY = 7200
+
+        private const val SUB_BUCKET_BITS = 6
+        private const val SUB_BUCKETS = 1 shl SUB_BUCKET_BITS
+        private const val SUB_BUCKETS_HALF = SUB_BUCKETS / 2
+        private const val MAX_MAGNITUDE = 26
+        internal const val MAX_TRACKABLE_US = (1L shl MAX_MAGNITUDE) - 1
+        internal const val BUCKET_COUNT =
+            SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS) * SUB_BUCKETS_HALF
+
+        private const val STUTTER_FACTOR = 2.0
+        private const val STUTTER_MIN_EXCESS_US = 8_000.0
+        private const val EMA_ALPHA = 0.1
+
+        internal fun bucketIndex(valueUs: Long): Int {
+            if (valueUs < SUB_BUCKETS) return valueUs.toInt()
+            val magnitude = 63 - java.lang.Long.numberOfLeadingZeros(valueUs)
+            val shift = magnitude - SUB_BUCKET_BITS + 1
+            val sub = (valueUs shr shift).toInt()
+            return SUB_BUCKETS + (shift - 1) * SUB_BUCKETS_HALF + (sub - SUB_BUCKETS_HALF)
+        }
+
+        internal fun bucketLow(index: Int): Long {
+            if (index < SUB_BUCKETS) return index.toLong()
+            val offset = index - SUB_BUCKETS
+            val shift = offset / SUB_BUCKETS_HALF + 1
+            val sub = offset % SUB_BUCKETS_HALF + SUB_BUCKETS_HALF
+            return sub.toLong() shl shift
+        }
+
+        private fun bucketMid(index: Int): Double = (bucketLow(index) + bucketLow(index + 1)) / 2.0
+    }
+}
@@ -6,10 +6,13 @@ import com.app.ralaunch.core.common.SettingsAccess
 import org.koin.java.KoinJavaComponent
 import com.app.ralaunch.core.platform.runtime.dotnet.DotNetLauncher
 import com.app.ralaunch.core.logging.AppLog
+import com.app.ralaunch.core.platform.AppConstants
 import com.app.ralaunch.core.common.util.NativeMethods
+import com.app.ralaunch.core.model.RuntimeProfile
 import com.app.ralaunch.core.platform.runtime.RendererEnvironmentConfigurator
 import com.app.ralaunch.feature.patch.data.Patch
 import com.app.ralaunch.feature.patch.data.PatchManager
+import com.app.ralaunch.feature.game.legacy.GameBoost
 import com.app.ralaunch.core.platform.android.ProcessLauncherService
 import org.libsdl.app.SDL
 import java.io.File
@@ -26,22 +29,8 @@ object GameLauncher {
     }
 
     init {
-        try {
-            System.loadLibrary("fmodL")
-            System.loadLibrary("fmod")
-            System.loadLibrary("fmodstudioL")
-            System.loadLibrary("fmodstudio")
-            System.loadLibrary("dotnethost")
-            System.loadLibrary("FAudio")
-            System.loadLibrary("theorafile")
-            System.loadLibrary("SDL2")
-            System.loadLibrary("main")
-            System.loadLibrary("openal32")
-            System.loadLibrary("lwjgl_lz4")
-            System.loadLibrary("SkiaSharp")
-        } catch (e: UnsatisfiedLinkError) {
-            AppLog.e(TAG, "加载 Native 库失败 / Failed to load native libraries: ${e.message}")
-        }
+        // Native 库由 NativeLibraryPreloader 在应用启动时于后台线程加载，这里只等待其完成
+        NativeLibraryPreloader.awaitReady(RendererEnvironmentConfigurator.getEffectiveRenderer())
     }
 
     fun getLastErrorMessage(): String {
@@ -51,13 +40,13 @@ object GameLauncher {
     private fun initializeSDLJNI(context: Context) {
         if (isSDLJNIInitialized) return
         try {
-            AppLogger.info(TAG, "正在初始化 SDL JNI 环境 / Initializing SDL JNI environment...")
+            AppLog.i(TAG, "正在初始化 SDL JNI 环境 / Initializing SDL JNI environment...")
             SDL.setupJNI()
             SDL.setContext(context)
             isSDLJNIInitialized = true
-            AppLogger.info(TAG, "SDL JNI 初始化成功 / SDL JNI initialized successfully")
+            AppLog.i(TAG, "SDL JNI 初始化成功 / SDL JNI initialized successfully")
         } catch (e: Exception) {
-            AppLogger.warn(TAG, "SDL JNI 初始化失败 / Failed to initialize SDL JNI: ${e.message}")
+            AppLog.w(TAG) { "SDL JNI 初始化失败 / Failed to initialize SDL JNI: ${e.message}" }
         }
     }
 
@@ -67,14 +56,17 @@ object GameLauncher {
         enabledPatches: List<Patch>? = null,
         rendererOverride: String? = null,
         dotNetRuntimeVersionOverride: String? = null,
-        gameEnvVars: Map<String, String?> = emptyMap()
+        gameEnvVars: Map<String, String?> = emptyMap(),
+        runtimeProfile: RuntimeProfile? = null,
+        metricsKey: String? = null
     ): Int {
+        val launchStartNanos = System.nanoTime()
         try {
-            AppLogger.info(TAG, "=== 开始启动 .NET 程序集 / Starting .NET Assembly Launch ===")
-            AppLogger.info(TAG, "程序集路径 / Assembly path: $assemblyPath")
+            AppLog.i(TAG, "=== 开始启动 .NET 程序集 / Starting .NET Assembly Launch ===")
+            AppLog.i(TAG) { "程序集路径 / Assembly path: $assemblyPath" }
 
             if (!File(assemblyPath).exists()) {
-                AppLogger.error(TAG, "程序集文件不存在 / Assembly file does not exist: $assemblyPath")
+                AppLog.e(TAG) { "程序集文件不存在 / Assembly file does not exist: $assemblyPath" }
                 return -1
             }
 
@@ -85,12 +77,24 @@ object GameLauncher {
             )
 
             val workingDir = File(assemblyPath).parent ?: ""
-            AppLogger.debug(TAG, "切换工作目录 / Changing working directory to: $workingDir")
+            AppLog.d(TAG) { "切换工作目录 / Changing working directory to: $workingDir" }
             NativeMethods.chdir(workingDir)
 
             val dataDir = prepareDataDirectory(assemblyPath)
             val cacheDir = appContext.cacheDir.absolutePath
-            AppLog.i(TAG, "数据目录 / Data directory: $dataDir")
+            AppLog.i(TAG) { "数据目录 / Data directory: $dataDir" }
+
+            // 在运行时初始化期间回放（或录制）启动文件轨迹，预热页缓存
+            LaunchPrefetcher.begin(
+                context = appContext,
+                assemblyPath = assemblyPath,
+                roots = listOfNotNull(
+                    File(assemblyPath).parentFile,
+                    File(dataDir),
+                    appContext.filesDir,
+                    appContext.getExternalFilesDir(null)
+                )
+            )
 
             EnvVarsManager.quickSetEnvVars(
                 "HOME" to dataDir,
@@ -142,8 +146,15 @@ object GameLauncher {
                 rendererOverride = rendererOverride
             )
 
-            if (settings.setThreadAffinityToBigCoreEnabled) {
-                ThreadAffinityManager.setThreadAffinityToBigCores()
+            // 游戏级运行时配置覆盖全局的 GC/JIT、低内存调整与大核绑定
+            val effectiveProfile = EffectiveRuntimeProfile.forLaunch(appContext, runtimeProfile, rendererOverride)
+            AppLog.i(TAG) {
+                "运行时配置 / Runtime profile: ${effectiveProfile.describe()} " +
+                    "(id=${effectiveProfile.id}, custom=${effectiveProfile.isCustom})"
+            }
+
+            if (effectiveProfile.lowMemoryTweaks) {
+                GameBoost.applyLowMemoryGc()
             }
 
             if (gameEnvVars.isNotEmpty()) {
@@ -166,12 +177,41 @@ object GameLauncher {
                 EnvVarsManager.quickSetEnvVars(resolvedGameEnvVars)
             }
 
-            val result = DotNetLauncher.hostfxrLaunch(assemblyPath, args)
-            AppLogger.info(TAG, "退出代码 / Exit code: $result")
-            return result
+            // 按线程角色分配大小核（游戏环境变量 RAL_AFFINITY_POLICY 可覆盖默认策略）
+            if (effectiveProfile.bigCoreAffinity) {
+                ThreadAffinityManager.startPolicy(appContext)
+            }
+
+            try {
+                // 只为游戏启动记录会话指标（安装器等工具程序集不传 metricsKey）
+                val metricsRecorder = metricsKey?.let { key ->
+                    SessionMetricsRecorder(
+                        profile = effectiveProfile,
+                        store = SessionMetricsStore.forContext(appContext),
+                        gameKey = key,
+                        startNanos = launchStartNanos,
+                        exportDir = frameTimeExportDir(appContext, key)
+                    ).also { it.start() }
+                }
+
+                val result = DotNetLauncher.hostfxrLaunch(assemblyPath, args, runtimeProfile = effectiveProfile)
+                AppLog.i(TAG) { "退出代码 / Exit code: $result" }
+
+                metricsRecorder?.finish(result)?.let { metrics ->
+                    AppLog.i(TAG) {
+                        "会话指标 / Session metrics: load=${metrics.loadTimeMs}ms, " +
+                            "avg=${metrics.frameTimeAvgMs}ms, p95=${metrics.frameTimeP95Ms}ms, " +
+                            "gcPause=${metrics.gcPauseTotalMs}ms, peakRss=${metrics.peakRssKb}kB"
+                    }
+                }
+                return result
+            } finally {
+                // 启动失败时同样停止亲和性策略，避免后台线程继续调整线程绑定
+                ThreadAffinityManager.stopPolicy()
+            }
 
         } catch (e: Exception) {
-            AppLogger.error(TAG, "启动程序集失败 / Failed to launch assembly: $assemblyPath", e)
+            AppLog.e(TAG, e) { "启动程序集失败 / Failed to launch assembly: $assemblyPath" }
             return -1
         }
     }
@@ -182,11 +222,17 @@ object GameLauncher {
             ProcessLauncherService.launch(assemblyPath, args, title, gameId)
             0
         } catch (e: Exception) {
-            AppLogger.error(TAG, "启动新 .NET 进程失败 / Failed to launch new .NET process", e)
+            AppLog.e(TAG, "启动新 .NET 进程失败 / Failed to launch new .NET process", e)
             -1
         }
     }
 
+    /** 帧时间导出目录：日志目录下按游戏区分 */
+    private fun frameTimeExportDir(context: Context, gameKey: String): File? {
+        val logsDir = context.getExternalFilesDir(null)?.let { File(it, AppConstants.Dirs.LOGS) } ?: return null
+        return File(logsDir, "frametimes/" + gameKey.replace(Regex("[^A-Za-z0-9._-]"), "_"))
+    }
+
     private fun prepareDataDirectory(assemblyPath: String): String {
         var finalDataDir = File(assemblyPath).parentFile?.absolutePath ?: ""
 
@@ -206,10 +252,10 @@ object GameLauncher {
             }
 
             finalDataDir = defaultDataDir.absolutePath
-            AppLogger.info(TAG, "使用默认数据目录 / Using default data directory: $finalDataDir")
+            AppLog.i(TAG) { "使用默认数据目录 / Using default data directory: $finalDataDir" }
 
         } catch (e: Exception) {
-            AppLogger.warn(TAG, "无法访问默认数据目录 / Failed to access default data directory, using fallback: $finalDataDir", e)
+            AppLog.w(TAG, e) { "无法访问默认数据目录 / Failed to access default data directory, using fallback: $finalDataDir" }
         }
 
         return finalDataDir
@@ -0,0 +1,231 @@
+package com.app.ralaunch.core.platform.runtime
+
+import android.content.Context
+import android.system.ErrnoException
+import android.system.Os
+import android.system.OsConstants
+import com.app.ralaunch.core.logging.AppLog
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.launch
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+
+/**
+ * 基于启动轨迹的页缓存预取
+ *
+ * 首次启动（或轨迹过期）时在后台录制游戏前 [RECORD_DURATION_MS] 内访问的文件与范围；
+ * 之后的启动在运行时初始化的同时于后台线程回放轨迹：优先 posix_fadvise(WILLNEED) 让内核异步预读，
+ * 不支持时退化为并行顺序读取。取代旧的 GameBoost 只读取 .tmod 前 4 KB 的做法。
+ */
+object LaunchPrefetcher {
+
+    private const val TAG = "LaunchPrefetcher"
+    private const val TRACE_DIR = "launch_traces"
+
+    /** 录制时长与采样间隔 */
+    const val RECORD_DURATION_MS = 30_000L
+    private const val SAMPLE_INTERVAL_MS = 100L
+
+    /** 轨迹超过该时长后重新录制 */
+    private const val MAX_TRACE_AGE_MS = 7L * 24 * 60 * 60 * 1000
+
+    /** 回放时超过该比例的文件已变化则删除轨迹，下次启动重新录制 */
+    private const val STALE_RATIO_RERECORD = 0.2
+
+    /** 预取总量上限：可用内存的 1/4，且不超过 1 GB */
+    private const val MAX_PREFETCH_BYTES = 1024L * 1024 * 1024
+
+    private const val READ_BUFFER_SIZE = 256 * 1024
+
+    private val scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+
+    data class ReplayStats(
+        val files: Int,
+        val skippedStale: Int,
+        val skippedBudget: Int,
+        val bytes: Long,
+        val durationMs: Double,
+        val usedFadvise: Boolean
+    ) {
+        val staleRatio: Double
+            get() = if (files + skippedStale == 0) 0.0 else skippedStale.toDouble() / (files + skippedStale)
+    }
+
+    fun traceFileFor(context: Context, assemblyPath: String): File {
+        val name = File(assemblyPath).nameWithoutExtension.replace(Regex("[^A-Za-z0-9._-]"), "_")
+        val hash = Integer.toHexString(File(assemblyPath).absolutePath.hashCode())
+        return File(File(context.filesDir, TRACE_DIR), "${name}_$hash.json")
+    }
+
+    /**
+     * 游戏启动时调用：有可用轨迹则在后台回放，否则在后台开始录制
+     *
+     * 同一次启动只做其中一件事，避免录制到预取线程自己打开的文件。
+     *
+     * @param roots 需要录制的目录
+     */
+    fun begin(context: Context, assemblyPath: String, roots: Collection<File>) {
+        val traceFile = traceFileFor(context, assemblyPath)
+        val trace = LaunchTrace.load(traceFile)
+            ?.takeIf { System.currentTimeMillis() - it.recordedAt < MAX_TRACE_AGE_MS }
+
+        if (trace != null && trace.entries.isNotEmpty()) {
+            val budget = prefetchBudget(context)
+            scope.launch {
+                val stats = replay(trace, maxBytes = budget)
+                AppLog.i(
+                    TAG,
+                    "Replayed launch trace: %d files, %.1f MB in %.1f ms (%s), stale=%d, over budget=%d".format(
+                        stats.files,
+                        stats.bytes / (1024.0 * 1024.0),
+                        stats.durationMs,
+                        if (stats.usedFadvise) "fadvise" else "read",
+                        stats.skippedStale,
+                        stats.skippedBudget
+                    )
+                )
+                if (stats.staleRatio > STALE_RATIO_RERECORD) {
+                    AppLog.i(TAG, "Launch trace is stale, it will be recorded again next launch")
+                    traceFile.delete()
+                }
+            }
+            return
+        }
+
+        val recorder = LaunchTraceRecorder(roots)
+        val thread = Thread({
+            try {
+                recorder.record(RECORD_DURATION_MS, SAMPLE_INTERVAL_MS)
+                val recorded = recorder.toTrace(assemblyPath, RECORD_DURATION_MS)
+                recorded.save(traceFile)
+                AppLog.i(
+                    TAG,
+                    "Recorded launch trace: ${recorded.entries.size} files, " +
+                        "%.1f MB -> ${traceFile.name}".format(recorded.totalBytes / (1024.0 * 1024.0))
+                )
+            } catch (e: Exception) {
+                AppLog.w(TAG, "Failed to record launch trace: ${e.message}")
+            }
+        }, "LaunchTraceRecorder")
+        thread.isDaemon = true
+        thread.priority = Thread.MIN_PRIORITY
+        thread.start()
+        AppLog.i(TAG, "No launch trace for ${File(assemblyPath).name}, recording for ${RECORD_DURATION_MS / 1000}s")
+    }
+
+    /**
+     * 按轨迹顺序预取文件范围，先打开的文件先预取
+     *
+     * @param useFadvise 为 true 时优先 posix_fadvise，失败再退化为读取
+     * @param onPrefetched 每个条目预取完成后在 IO 线程回调
+     */
+    suspend fun replay(
+        trace: LaunchTrace,
+        parallelism: Int = defaultParallelism(),
+        maxBytes: Long = MAX_PREFETCH_BYTES,
+        useFadvise: Boolean = true,
+        onPrefetched: (LaunchTrace.Entry) -> Unit = {}
+    ): ReplayStats = coroutineScope {
+        val startNanos = System.nanoTime()
+        val dispatcher = Dispatchers.IO.limitedParallelism(parallelism.coerceAtLeast(1))
+
+        var stale = 0
+        var overBudget = 0
+        var scheduledBytes = 0L
+        val scheduled = mutableListOf<LaunchTrace.Entry>()
+        for (entry in trace.entries) {
+            when {
+                entry.isStale(File(entry.path)) -> stale++
+                scheduledBytes + entry.totalBytes > maxBytes -> overBudget++
+                else -> {
+                    scheduled.add(entry)
+                    scheduledBytes += entry.totalBytes
+                }
+            }
+        }
+
+        val results = scheduled
+            .map { entry ->
+                async(dispatcher) {
+                    prefetchEntry(entry, useFadvise).also { if (it != null) onPrefetched(entry) }
+                }
+            }
+            .awaitAll()
+
+        ReplayStats(
+            files = results.count { it != null },
+            skippedStale = stale + results.count { it == null },
+            skippedBudget = overBudget,
+            bytes = scheduledBytes,
+            durationMs = (System.nanoTime() - startNanos) / 1_000_000.0,
+            usedFadvise = results.any { it == true }
+        )
+    }
+
+    /**
+     * @return true 表示使用了 fadvise，false 表示读取，null 表示文件无法打开
+     */
+    private fun prefetchEntry(entry: LaunchTrace.Entry, useFadvise: Boolean): Boolean? {
+        return try {
+            RandomAccessFile(entry.path, "r").use { raf ->
+                if (useFadvise && fadvise(raf, entry)) {
+                    true
+                } else {
+                    readRanges(raf, entry)
+                    false
+                }
+            }
+        } catch (e: IOException) {
+            null
+        }
+    }
+
+    private fun fadvise(raf: RandomAccessFile, entry: LaunchTrace.Entry): Boolean {
+        return try {
+            for (range in entry.ranges) {
+                Os.posix_fadvise(raf.fd, range.offset, range.length, OsConstants.POSIX_FADV_WILLNEED)
+            }
+            true
+        } catch (e: ErrnoException) {
+            false
+        } catch (e: RuntimeException) {
+            // 非 Android 环境（单元测试）下 Os 不可用
+            false
+        }
+    }
+
+    private fun readRanges(raf: RandomAccessFile, entry: LaunchTrace.Entry) {
+        val channel = raf.channel
+        val buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE)
+        for (range in entry.ranges) {
+            var position = range.offset
+            val end = range.offset + range.length
+            while (position < end) {
+                buffer.clear()
+                buffer.limit(minOf(READ_BUFFER_SIZE.toLong(), end - position).toInt())
+                val read = channel.read(buffer, position)
+                if (read <= 0) break
+                position += read
+            }
+        }
+    }
+
+    /** 按设备总内存的 1/8 限制预取量（约为空闲时可用内存的 1/4） */
+    private fun prefetchBudget(context: Context): Long {
+        val totalRam = try {
+            DeviceTopologyProbe.get(context, queryGpu = false).totalRamBytes
+        } catch (e: Exception) {
+            0L
+        }
+        return if (totalRam > 0) minOf(MAX_PREFETCH_BYTES, totalRam / 8) else MAX_PREFETCH_BYTES / 4
+    }
+
+    private fun defaultParallelism(): Int = Runtime.getRuntime().availableProcessors().coerceIn(2, 4)
+}
@@ -0,0 +1,76 @@
+package com.app.ralaunch.core.platform.runtime
+
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.json.Json
+import java.io.File
+
+/**
+ * 游戏启动文件访问轨迹
+ *
+ * 由 [LaunchTraceRecorder] 在启动后的前若干秒内采样得到，按首次打开顺序记录文件及其被读取/映射的范围，
+ * 下次启动时由 [LaunchPrefetcher] 回放，提前把这些范围读入页缓存。
+ */
+@Serializable
+data class LaunchTrace(
+    /** 录制时的程序集路径 */
+    val assemblyPath: String,
+    /** 录制完成时间（毫秒时间戳） */
+    val recordedAt: Long,
+    /** 录制时长（毫秒） */
+    val durationMs: Long,
+    /** 按首次访问顺序排列的文件 */
+    val entries: List<Entry> = emptyList()
+) {
+    @Serializable
+    data class Entry(
+        val path: String,
+        /** 录制时的文件大小与 mtime，用于回放时跳过已变化的文件 */
+        val size: Long,
+        val mtime: Long,
+        /** 已合并、按页对齐的访问范围 */
+        val ranges: List<Range>
+    ) {
+        val totalBytes: Long get() = ranges.sumOf { it.length }
+
+        fun isStale(file: File): Boolean =
+            !file.isFile || file.length() != size || file.lastModified() != mtime
+    }
+
+    @Serializable
+    data class Range(
+        val offset: Long,
+        val length: Long
+    )
+
+    val totalBytes: Long get() = entries.sumOf { it.totalBytes }
+
+    fun save(file: File) {
+        file.parentFile?.mkdirs()
+        val temp = File(file.parentFile, "${file.name}.tmp")
+        temp.writeText(json.encodeToString(serializer(), this))
+        if (!temp.renameTo(file)) {
+            file.delete()
+            temp.renameTo(file)
+        }
+    }
+
+    companion object {
+        private val json = Json {
+            ignoreUnknownKeys = true
+        }
+
+        fun parse(text: String): LaunchTrace = json.decodeFromString(serializer(), text)
+
+        /**
+         * 读取轨迹文件，不存在或解析失败时返回 null
+         */
+        fun load(file: File): LaunchTrace? {
+            if (!file.isFile) return null
+            return try {
+                parse(file.readText())
+            } catch (e: Exception) {
+                null
+            }
+        }
+    }
+}
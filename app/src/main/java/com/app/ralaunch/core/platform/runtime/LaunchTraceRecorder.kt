@@ -0,0 +1,206 @@
+package com.app.ralaunch.core.platform.runtime
+
+import java.io.File
+import java.io.IOException
+
+/**
+ * 启动文件访问录制器
+ *
+ * 游戏与启动器运行在同一进程中，因此无需 hook open()：周期性扫描 /proc/self/fd（配合 fdinfo 中的读取位置）
+ * 与 /proc/self/maps（CoreCLR 以 mmap 方式加载程序集与 native 库），即可得到游戏打开了哪些文件以及大致读取了哪些范围。
+ * 只记录 [roots] 目录下的普通文件。
+ *
+ * 所有方法只应在同一个采样线程中调用。
+ *
+ * @param roots 需要记录的目录（游戏目录、数据目录、运行时目录等）
+ * @param procDir 进程信息目录，测试时可替换为伪造的目录
+ * @param headBytes 通过 fd 观察到但读取位置尚未推进的文件，至少预读的头部字节数
+ */
+class LaunchTraceRecorder(
+    roots: Collection<File>,
+    private val procDir: File = File("/proc/self"),
+    private val headBytes: Long = DEFAULT_HEAD_BYTES
+) {
+
+    private val rootPrefixes = roots.map { normalizePath(canonical(it)).trimEnd('/') + "/" }
+
+    /** 路径 -> 已合并的 [start, end) 范围，按首次出现顺序 */
+    private val accessed = LinkedHashMap<String, MutableList<LongArray>>()
+
+    /** 路径 -> 首次观察到时的 (大小, mtime) */
+    private val fileInfo = HashMap<String, Pair<Long, Long>>()
+
+    val fileCount: Int get() = accessed.size
+
+    /**
+     * 采样一次当前打开的 fd 与内存映射
+     */
+    fun sample() {
+        sampleFds()
+        sampleMaps()
+    }
+
+    /**
+     * 在调用线程上按固定间隔采样，直到超时或 [isCancelled] 返回 true
+     */
+    fun record(durationMs: Long, intervalMs: Long, isCancelled: () -> Boolean = { false }) {
+        val deadline = System.nanoTime() + durationMs * 1_000_000L
+        while (!isCancelled() && System.nanoTime() < deadline) {
+            sample()
+            try {
+                Thread.sleep(intervalMs)
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+                break
+            }
+        }
+        if (!isCancelled()) sample()
+    }
+
+    /**
+     * 生成轨迹，文件按首次被观察到的顺序排列
+     */
+    fun toTrace(assemblyPath: String, durationMs: Long): LaunchTrace {
+        val entries = accessed.mapNotNull { (path, ranges) ->
+            val (size, mtime) = fileInfo[path] ?: return@mapNotNull null
+            LaunchTrace.Entry(
+                path = path,
+                size = size,
+                mtime = mtime,
+                ranges = ranges.map { LaunchTrace.Range(it[0], it[1] - it[0]) }
+            )
+        }
+        return LaunchTrace(assemblyPath, System.currentTimeMillis(), durationMs, entries)
+    }
+
+    private fun sampleFds() {
+        val fdDir = File(procDir, "fd")
+        val fds = fdDir.list() ?: return
+        for (fd in fds) {
+            val target = try {
+                File(fdDir, fd).canonicalPath
+            } catch (e: IOException) {
+                continue
+            }
+            val path = acceptPath(target) ?: continue
+            val size = fileInfo[path]?.first ?: continue
+            val pos = readFdPosition(fd)
+            addRange(path, 0L, maxOf(pos, headBytes), size)
+        }
+    }
+
+    private fun sampleMaps() {
+        val lines = try {
+            File(procDir, "maps").readLines()
+        } catch (e: IOException) {
+            return
+        }
+        for (line in lines) {
+            val mapping = parseMapsLine(line) ?: continue
+            val path = acceptPath(mapping.path) ?: continue
+            val size = fileInfo[path]?.first ?: continue
+            addRange(path, mapping.offset, mapping.offset + mapping.length, size)
+        }
+    }
+
+    /**
+     * 过滤并规范化路径；首次遇到的文件会记录其大小与 mtime
+     */
+    private fun acceptPath(rawPath: String): String? {
+        if (rawPath.endsWith(DELETED_SUFFIX)) return null
+        val path = normalizePath(rawPath)
+        if (rootPrefixes.none { path.startsWith(it) }) return null
+        if (path !in fileInfo) {
+            val file = File(path)
+            if (!file.isFile) return null
+            fileInfo[path] = file.length() to file.lastModified()
+        }
+        return path
+    }
+
+    private fun readFdPosition(fd: String): Long {
+        return try {
+            File(procDir, "fdinfo/$fd").useLines { lines ->
+                lines.firstOrNull { it.startsWith("pos:") }
+                    ?.substringAfter(':')
+                    ?.trim()
+                    ?.toLongOrNull()
+            } ?: 0L
+        } catch (e: IOException) {
+            0L
+        }
+    }
+
+    private fun addRange(path: String, start: Long, end: Long, size: Long) {
+        val alignedStart = (start / PAGE_SIZE) * PAGE_SIZE
+        val alignedEnd = minOf(size, ((end + PAGE_SIZE - 1) / PAGE_SIZE) * PAGE_SIZE)
+        if (alignedEnd <= alignedStart) return
+        val ranges = accessed.getOrPut(path) { mutableListOf() }
+        mergeRange(ranges, alignedStart, alignedEnd)
+    }
+
+    internal data class Mapping(val offset: Long, val length: Long, val path: String)
+
+    companion object {
+        const val DEFAULT_HEAD_BYTES = 128L * 1024L
+        private const val PAGE_SIZE = 4096L
+        private const val DELETED_SUFFIX = " (deleted)"
+
+        private val STORAGE_ALIASES = listOf(
+            Regex("^/data/media/(\\d+)/"),
+            Regex("^/mnt/user/\\d+/emulated/(\\d+)/"),
+            Regex("^/storage/self/primary/")
+        )
+
+        /**
+         * 外部存储在 fd 链接中可能显示为 /data/media/0 或 /mnt/user/0/emulated/0，统一为 /storage/emulated/N
+         */
+        internal fun normalizePath(path: String): String {
+            for (alias in STORAGE_ALIASES) {
+                val match = alias.find(path) ?: continue
+                val user = match.groupValues.getOrNull(1)?.takeIf { it.isNotEmpty() } ?: "0"
+                return "/storage/emulated/$user/" + path.substring(match.range.last + 1)
+            }
+            return path
+        }
+
+        /**
+         * 解析 /proc/self/maps 的一行：start-end perms offset dev inode path
+         */
+        internal fun parseMapsLine(line: String): Mapping? {
+            val slash = line.indexOf('/')
+            if (slash < 0) return null
+            val fields = line.substring(0, slash).trim().split(' ').filter { it.isNotEmpty() }
+            if (fields.size < 5) return null
+            val dash = fields[0].indexOf('-')
+            if (dash <= 0) return null
+            val start = fields[0].substring(0, dash).toLongOrNull(16) ?: return null
+            val end = fields[0].substring(dash + 1).toLongOrNull(16) ?: return null
+            val offset = fields[2].toLongOrNull(16) ?: return null
+            if (end <= start) return null
+            return Mapping(offset, end - start, line.substring(slash).trimEnd())
+        }
+
+        /**
+         * 将 [start, end) 合并进有序、互不重叠的范围列表
+         */
+        internal fun mergeRange(ranges: MutableList<LongArray>, start: Long, end: Long) {
+            var newStart = start
+            var newEnd = end
+            var index = 0
+            while (index < ranges.size && ranges[index][1] < newStart) index++
+            while (index < ranges.size && ranges[index][0] <= newEnd) {
+                newStart = minOf(newStart, ranges[index][0])
+                newEnd = maxOf(newEnd, ranges[index][1])
+                ranges.removeAt(index)
+            }
+            ranges.add(index, longArrayOf(newStart, newEnd))
+        }
+
+        private fun canonical(file: File): String = try {
+            file.canonicalPath
+        } catch (e: IOException) {
+            file.absolutePath
+        }
+    }
+}
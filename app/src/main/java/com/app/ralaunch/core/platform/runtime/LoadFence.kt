@@ -0,0 +1,23 @@
+package com.app.ralaunch.core.platform.runtime
+
+/**
+ * 共享内存读者使用的 LoadLoad 屏障
+ *
+ * minSdk 24 没有 VarHandle.loadLoadFence，这里用一对 volatile 访问拼出屏障：
+ * volatile 写具有 release 语义，之前的普通读取不能移到它之后；
+ * volatile 读具有 acquire 语义，之后的普通读取不能移到它之前；
+ * 同一线程内 volatile 写与其后的 volatile 读之间也不会重排。
+ * 因此 [fence] 之前的读取一定先于之后的读取完成（ART 在 ARM64 上分别生成 stlr/ldar）。
+ * 单独一次 volatile 读只能约束其后的读取，不足以保证 seqlock 复检前的数据读取已经完成。
+ */
+internal object LoadFence {
+
+    @Volatile
+    private var word = 0
+
+    @Suppress("UNUSED_VARIABLE")
+    fun fence() {
+        word = 0
+        val ignored = word
+    }
+}
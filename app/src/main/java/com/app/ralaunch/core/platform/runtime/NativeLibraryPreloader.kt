@@ -0,0 +1,184 @@
+package com.app.ralaunch.core.platform.runtime
+
+import com.app.ralaunch.core.logging.AppLog
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * Native 库预加载器
+ *
+ * :game 进程启动时在后台线程加载游戏所需的 native 库（FMOD、SDL2、dotnet host 等），
+ * 避免 GameLauncher / GameActivity 首次使用时在主线程同步 System.loadLibrary。
+ * 游戏侧通过 [awaitReady] 等待加载完成，并补齐当前渲染器额外需要的库。
+ */
+object NativeLibraryPreloader {
+
+    private const val TAG = "NativeLibPreloader"
+    private const val SLOW_PRELOAD_WARN_MS = 15_000L
+
+    /**
+     * @param name System.loadLibrary 使用的库名（不含 lib 前缀与 .so 后缀）
+     * @param renderers 仅这些渲染器需要该库；null 表示所有渲染器都需要
+     */
+    private data class LibrarySpec(
+        val name: String,
+        val renderers: Set<String>? = null
+    ) {
+        fun isNeededBy(rendererId: String?): Boolean =
+            renderers == null || (rendererId != null && rendererId in renderers)
+    }
+
+    /**
+     * 单个库的加载记录
+     */
+    data class LoadRecord(
+        val name: String,
+        val durationMs: Double,
+        val error: String? = null
+    ) {
+        val isSuccess: Boolean get() = error == null
+    }
+
+    /**
+     * 按加载顺序排列，顺序与依赖关系有关（如 fmod 在 fmodstudio 之前，SDL2 在 main 之前）
+     */
+    private val LIBRARIES = listOf(
+        LibrarySpec("fmodL"),
+        LibrarySpec("fmod"),
+        LibrarySpec("fmodstudioL"),
+        LibrarySpec("fmodstudio"),
+        LibrarySpec("dotnethost"),
+        LibrarySpec("FAudio"),
+        LibrarySpec("theorafile"),
+        LibrarySpec("SDL2"),
+        LibrarySpec("main"),
+        LibrarySpec("openal32"),
+        LibrarySpec("lwjgl_lz4"),
+        LibrarySpec("SkiaSharp"),
+        LibrarySpec("OSMesa", renderers = setOf(RendererRegistry.ID_ZINK))
+    )
+
+    private val records = ConcurrentHashMap<String, LoadRecord>()
+
+    @Volatile
+    private var readyFuture: CompletableFuture<List<LoadRecord>>? = null
+
+    /**
+     * 在后台线程开始预加载，重复调用返回同一个 Future
+     *
+     * @param rendererId 预计使用的渲染器，用于跳过其它渲染器专用的库
+     */
+    @JvmStatic
+    fun start(rendererId: String?): CompletableFuture<List<LoadRecord>> {
+        readyFuture?.let { return it }
+        synchronized(this) {
+            readyFuture?.let { return it }
+            val future = CompletableFuture<List<LoadRecord>>()
+            readyFuture = future
+            Thread({
+                try {
+                    future.complete(loadAll(rendererId))
+                } catch (e: Throwable) {
+                    future.completeExceptionally(e)
+                }
+            }, "NativeLibPreloader").start()
+            return future
+        }
+    }
+
+    /**
+     * 加载就绪 Future；尚未调用 [start] 时为 null
+     */
+    @JvmStatic
+    fun readiness(): CompletableFuture<List<LoadRecord>>? = readyFuture
+
+    /**
+     * 等待预加载完成，并同步补齐 [rendererId] 需要但尚未加载的库
+     *
+     * 没有启动过预加载时直接在调用线程加载。游戏必须在这些库加载完成后才能继续，
+     * 因此一直等到预加载结束，超过 [warnAfterMs] 时只输出警告。
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun awaitReady(rendererId: String? = null, warnAfterMs: Long = SLOW_PRELOAD_WARN_MS): List<LoadRecord> {
+        val future = readyFuture
+        if (future != null) {
+            val startNanos = System.nanoTime()
+            var warned = false
+            while (true) {
+                try {
+                    future.get(warnAfterMs, TimeUnit.MILLISECONDS)
+                    break
+                } catch (e: TimeoutException) {
+                    if (!warned) {
+                        AppLog.w(TAG, "Preload still running after $warnAfterMs ms, waiting for it to finish")
+                        warned = true
+                    }
+                } catch (e: InterruptedException) {
+                    Thread.currentThread().interrupt()
+                    throw IllegalStateException("Interrupted while waiting for native library preload", e)
+                } catch (e: Exception) {
+                    // 预加载线程异常结束，剩余的库在下面由调用线程加载
+                    AppLog.w(TAG, "Preload failed: ${e.message}")
+                    break
+                }
+            }
+            val waitedMs = (System.nanoTime() - startNanos) / 1_000_000.0
+            if (waitedMs >= 1.0) {
+                AppLog.i(TAG, "Waited %.1f ms for native library preload".format(waitedMs))
+            }
+        }
+        loadAll(rendererId)
+        return getLoadRecords()
+    }
+
+    /**
+     * 已记录的加载结果（按加载顺序）
+     */
+    @JvmStatic
+    fun getLoadRecords(): List<LoadRecord> = LIBRARIES.mapNotNull { records[it.name] }
+
+    @JvmStatic
+    fun isLoaded(name: String): Boolean = records[name]?.isSuccess == true
+
+    @Synchronized
+    private fun loadAll(rendererId: String?): List<LoadRecord> {
+        val pending = LIBRARIES.filter { it.isNeededBy(rendererId) && it.name !in records }
+        if (pending.isEmpty()) return getLoadRecords()
+
+        val totalStart = System.nanoTime()
+        for (spec in pending) {
+            records[spec.name] = loadOne(spec.name)
+        }
+        val totalMs = (System.nanoTime() - totalStart) / 1_000_000.0
+
+        val loaded = pending.mapNotNull { records[it.name] }
+        AppLog.i(
+            TAG,
+            "Loaded ${loaded.count { it.isSuccess }}/${loaded.size} native libraries in %.1f ms on %s: %s".format(
+                totalMs,
+                Thread.currentThread().name,
+                loaded.joinToString { "${it.name}=%.1fms".format(it.durationMs) }
+            )
+        )
+        loaded.filterNot { it.isSuccess }.forEach {
+            AppLog.e(TAG, "加载 Native 库失败 / Failed to load native library ${it.name}: ${it.error}")
+        }
+        return getLoadRecords()
+    }
+
+    private fun loadOne(name: String): LoadRecord {
+        val start = System.nanoTime()
+        val error = try {
+            System.loadLibrary(name)
+            null
+        } catch (e: UnsatisfiedLinkError) {
+            e.message ?: e.javaClass.simpleName
+        } catch (e: SecurityException) {
+            e.message ?: e.javaClass.simpleName
+        }
+        return LoadRecord(name, (System.nanoTime() - start) / 1_000_000.0, error)
+    }
+}
@@ -0,0 +1,42 @@
+package com.app.ralaunch.core.platform.runtime
+
+import java.nio.ByteBuffer
+
+/**
+ * libmain 中共享遥测块与帧时间环形缓冲区的入口，地址在进程内不变
+ */
+object NativeTelemetry {
+
+    @Volatile
+    private var cached: TelemetryBlock? = null
+
+    /**
+     * @return 遥测块；libmain 未加载或布局版本不匹配时返回 null
+     */
+    fun block(): TelemetryBlock? {
+        cached?.let { return it }
+        val buffer = try {
+            nativeGetBuffer()
+        } catch (e: UnsatisfiedLinkError) {
+            null
+        } ?: return null
+        return TelemetryBlock(buffer).takeIf { it.isValid }?.also { cached = it }
+    }
+
+    /**
+     * 帧时间环形缓冲区；每个调用方获得独立的读取游标
+     *
+     * @return libmain 未加载时返回 null
+     */
+    fun frameRing(): TelemetryFrameRing? {
+        val buffer = try {
+            nativeGetFrameRing()
+        } catch (e: UnsatisfiedLinkError) {
+            null
+        } ?: return null
+        return TelemetryFrameRing(buffer).takeIf { it.isValid }
+    }
+
+    private external fun nativeGetBuffer(): ByteBuffer?
+    private external fun nativeGetFrameRing(): ByteBuffer?
+}
@@ -24,6 +24,11 @@ object RendererLoader {
                 return false
             }
 
+            // 运行时库包由启动前的 ensureRendererLibraries 在协程中解压，这里只检查
+            if (!RendererRegistry.hasRendererLibraries(normalizedRenderer)) {
+                AppLogger.warn(TAG, "Runtime libraries for $normalizedRenderer are not extracted")
+            }
+
             val nativeLibDir = context.applicationInfo.nativeLibraryDir
             val runtimeLibsDir = File(context.filesDir, RUNTIME_LIBS_DIR)
 
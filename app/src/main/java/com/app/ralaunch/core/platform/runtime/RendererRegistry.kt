@@ -193,18 +193,18 @@ object RendererRegistry {
 
             var hasLibraries = true
 
-            if (renderer.eglLibrary != null && getRendererLibraryPath(renderer.eglLibrary) == null) {
+            if (renderer.eglLibrary != null && !isRendererLibraryAvailable(renderer.eglLibrary)) {
                 hasLibraries = false
             }
 
             if (hasLibraries && renderer.glesLibrary != null && renderer.glesLibrary != renderer.eglLibrary) {
-                if (getRendererLibraryPath(renderer.glesLibrary) == null) {
+                if (!isRendererLibraryAvailable(renderer.glesLibrary)) {
                     hasLibraries = false
                 }
             }
 
             if (hasLibraries && renderer.id == ID_GL4ES_ANGLE) {
-                if (getRendererLibraryPath("libGLESv2_angle.so") == null) {
+                if (!isRendererLibraryAvailable("libGLESv2_angle.so")) {
                     hasLibraries = false
                 }
             }
@@ -252,6 +252,54 @@ object RendererRegistry {
         return null
     }
 
+    /**
+     * 库已解压/随 APK 打包，或可以从 assets 中按需解压
+     */
+    private fun isRendererLibraryAvailable(libraryName: String): Boolean {
+        return getRendererLibraryPath(libraryName) != null ||
+            RuntimeLibraryLoader.isLibraryAvailable(getGlobalContext(), libraryName)
+    }
+
+    /**
+     * 渲染器依赖的运行时库包
+     */
+    @JvmStatic
+    fun getRendererBundles(rendererId: String): List<RuntimeLibraryLoader.Bundle> {
+        return getRendererPreloadLibraries(rendererId)
+            .mapNotNull { RuntimeLibraryLoader.Bundle.forLibrary(it) }
+            .distinct()
+    }
+
+    /**
+     * 确保渲染器所需的运行时库已解压
+     *
+     * 首次选择某个渲染器或启动游戏前调用，只解压该渲染器用到的包。
+     */
+    @JvmStatic
+    suspend fun ensureRendererLibraries(rendererId: String): Boolean {
+        val bundles = getRendererBundles(rendererId)
+        if (bundles.isEmpty()) return true
+        return RuntimeLibraryLoader.ensureBundles(getGlobalContext(), bundles)
+    }
+
+    /**
+     * 渲染器所需的运行时库是否都已解压（不解压，可在任意线程调用）
+     */
+    @JvmStatic
+    fun hasRendererLibraries(rendererId: String): Boolean {
+        val context = getGlobalContext()
+        return getRendererBundles(rendererId).all { RuntimeLibraryLoader.isBundleExtracted(context, it) }
+    }
+
+    /**
+     * 在后台预先解压渲染器所需的运行时库（打开渲染器设置时调用）
+     */
+    @JvmStatic
+    fun prefetchRendererLibraries(rendererIds: Collection<String>) {
+        val bundles = rendererIds.flatMap { getRendererBundles(it) }.distinct()
+        RuntimeLibraryLoader.prefetchBundles(getGlobalContext(), bundles)
+    }
+
     @JvmStatic
     fun buildRendererEnv(rendererId: String): Map<String, String?> {
         val rendererInfo = getRendererInfo(normalizeRendererId(rendererId)) ?: return emptyMap()
@@ -5,7 +5,14 @@ import com.app.ralaunch.R
 import com.app.ralaunch.RaLaunchApp
 import com.app.ralaunch.core.common.util.AppLogger
 import com.app.ralaunch.core.common.util.ArchiveExtractor
+import com.app.ralaunch.core.common.util.ComponentManifest
+import com.app.ralaunch.core.common.util.ManifestVerifier
+import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
 import kotlinx.coroutines.withContext
 // ... Removed Apache TarArchiveInputStream to prevent crash ...
 import org.tukaani.xz.XZInputStream
@@ -25,6 +32,10 @@ import java.io.FileOutputStream
  * - libGLESv2_angle.so (5 MB) - ANGLE OpenGL ES
  * - libGL_gl4es.so (4 MB) - GL4ES OpenGL
  * - lib7-Zip-JBinding.so (3 MB) - 7-Zip 解压库
+ *
+ * 库按渲染器分为独立的包（见 [Bundle]），首次选择某个渲染器时才从 runtime_libs.tar.xz
+ * 中挑出该包的文件解压；由旧版本整体解压出来的库仍然兼容。
+ * 解压只在协程中进行（[ensureBundle]），[loadLibrary] 只加载已解压的库，不会阻塞调用方解压。
  */
 object RuntimeLibraryLoader {
     
@@ -55,6 +66,43 @@ object RuntimeLibraryLoader {
         // 7-Zip 保留在 APK 中，通过 System.loadLibrary 加载
     }
     
+    /**
+     * 按渲染器拆分的运行时库包
+     *
+     * 所有包都来自同一个压缩包 runtime_libs.tar.xz，按文件名挑选条目，互不依赖，可以单独解压与修复。
+     */
+    enum class Bundle(val id: String, val libs: List<String>) {
+        GL4ES("gl4es", listOf("libGL_gl4es.so", "libEGL_gl4es.so")),
+        ANGLE("angle", listOf("libEGL_angle.so", "libGLESv2_angle.so")),
+        MOBILEGLUES("mobileglues", listOf("libmobileglues.so")),
+        SKIASHARP("skiasharp", listOf("libSkiaSharp.so"));
+
+        internal val versionFile: String get() = "$VERSION_FILE.$id"
+
+        internal val stampFile: String get() = "${ManifestVerifier.STAMP_FILE}.$id"
+
+        companion object {
+            fun forLibrary(libName: String): Bundle? = entries.firstOrNull { libName in it.libs }
+        }
+    }
+
+    /**
+     * 运行时库包状态
+     */
+    enum class BundleState {
+        PRESENT,        // 已解压，可直接加载
+        AVAILABLE,      // 未解压，但 assets 中有对应压缩包，可按需解压
+        MISSING         // 既未解压，也没有可用的压缩包
+    }
+
+    // 每个包一个锁，避免同一个包被并发解压
+    private val bundleLocks = Bundle.entries.associateWith { Mutex() }
+
+    private val prefetchScope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+
+    @Volatile
+    private var archiveBundled: Boolean? = null
+
     /**
      * 必须存在的关键库文件列表
      */
@@ -98,32 +146,73 @@ object RuntimeLibraryLoader {
     
     /**
      * 获取 assets 中压缩包的版本
-     * 使用 AssetFileDescriptor 获取真实文件大小
+     *
+     * 优先使用构建时生成的清单版本；没有清单时回退到 AssetFileDescriptor 的真实大小。
+     * 压缩包以 noCompress 方式打包，openFd 总是可用，不再需要流式读取整个文件来统计大小。
      */
     private fun getAssetVersion(context: Context): String {
+        loadManifest(context)?.let { return it.version }
         return try {
             context.assets.openFd(RUNTIME_LIBS_ARCHIVE).use { afd ->
-                val size = afd.length
-                "v2_$size"  // v2 表示新的版本计算方式
+                "v2_${afd.length}"
             }
         } catch (e: Exception) {
-            // openFd 可能对压缩的 assets 失败，回退到读取方式
-            try {
-                context.assets.open(RUNTIME_LIBS_ARCHIVE).use { stream ->
-                    var size = 0L
-                    val buffer = ByteArray(8192)
-                    var read: Int
-                    while (stream.read(buffer).also { read = it } != -1) {
-                        size += read
-                    }
-                    "v2_$size"
-                }
-            } catch (e2: Exception) {
-                AppLogger.error(TAG, "Failed to get asset version: ${e2.message}")
-                "unknown"
-            }
+            AppLogger.error(TAG, "Failed to get asset version: ${e.message}")
+            "unknown"
         }
     }
+
+    private fun loadManifest(context: Context): ComponentManifest? =
+        ComponentManifest.load(context, RUNTIME_LIBS_ARCHIVE)
+
+    private fun createVerifier(context: Context): ManifestVerifier? {
+        val manifest = loadManifest(context) ?: return null
+        return ManifestVerifier(getRuntimeLibsDir(context), manifest)
+    }
+
+    /**
+     * 快速校验已解压的运行时库（大小 + mtime），没有清单时返回空列表
+     */
+    fun verifyFast(context: Context): List<ManifestVerifier.Failure> {
+        return createVerifier(context)?.verifyFast().orEmpty()
+    }
+
+    /**
+     * 深度校验已解压的运行时库（并行 CRC32），没有清单时返回空列表
+     */
+    suspend fun verifyDeep(context: Context): List<ManifestVerifier.Failure> = withContext(Dispatchers.IO) {
+        createVerifier(context)?.verifyDeep().orEmpty()
+    }
+
+    /**
+     * 只修复校验失败的文件
+     *
+     * @return true 如果所有失败文件都已修复
+     */
+    suspend fun repair(
+        context: Context,
+        failures: List<ManifestVerifier.Failure>
+    ): Boolean = withContext(Dispatchers.IO) {
+        if (failures.isEmpty()) return@withContext true
+        val verifier = createVerifier(context) ?: return@withContext false
+
+        repairArchive(context, verifier, failures)
+    }
+
+    /**
+     * 快速校验并只修复失败的文件；版本不一致或修复失败时回退到完整重新解压
+     */
+    suspend fun ensureIntact(
+        context: Context,
+        progressCallback: ((Int, String) -> Unit)? = null
+    ): Boolean {
+        if (!isExtracted(context)) {
+            return extractRuntimeLibs(context, progressCallback)
+        }
+        val failures = verifyFast(context)
+        if (failures.isEmpty() || repair(context, failures)) return true
+        return forceReExtract(context, progressCallback)
+    }
     
     /**
      * 获取运行时库目录
@@ -178,48 +267,17 @@ object RuntimeLibraryLoader {
                 val xzStream = XZInputStream(bufferedStream)
                 
                 // ... Use our custom MiniTarReader instead of Apache ...
-                val tarReader = ArchiveExtractor.MiniTarReader(xzStream)
-                
                 var extractedCount = 0
-                val buffer = ByteArray(8192) // ... buffer for custom copy ...
-                
-                while (true) {
-                    val entry = tarReader.nextEntry() ?: break
-                    val outputFile = File(runtimeDir, entry.name)
-                    
-                    if (entry.isDirectory) {
-                        outputFile.mkdirs()
-                    } else {
-                        outputFile.parentFile?.mkdirs()
-                        
-                        FileOutputStream(outputFile).use { fos ->
-                            // ... Custom write loop ...
-                            while (true) {
-                                val read = tarReader.readData(buffer)
-                                if (read <= 0) break
-                                fos.write(buffer, 0, read)
-                            }
-                        }
-                        
-                        // 设置库文件权限（可读 + 可执行）
-                        if (entry.name.endsWith(".so")) {
-                            outputFile.setReadable(true, false)  // 所有用户可读
-                            outputFile.setExecutable(true, false) // 所有用户可执行
-                            AppLogger.debug(TAG, "Set permissions for: ${entry.name}")
-                        }
-                        
-                        extractedCount++
-                        val progress = (extractedCount * 100) / 10  // 假设约10个文件
-                        progressCallback?.invoke(
-                            minOf(progress, 95),
-                            RaLaunchApp.getInstance().getString(
-                                R.string.runtime_extract_entry,
-                                entry.name
-                            )
+                writeTarEntries(ArchiveExtractor.MiniTarReader(xzStream), runtimeDir) { entryName ->
+                    extractedCount++
+                    val progress = (extractedCount * 100) / 10  // 假设约10个文件
+                    progressCallback?.invoke(
+                        minOf(progress, 95),
+                        RaLaunchApp.getInstance().getString(
+                            R.string.runtime_extract_entry,
+                            entryName
                         )
-                        
-                        AppLogger.debug(TAG, "Extracted: ${entry.name}")
-                    }
+                    )
                 }
             }
             
@@ -241,9 +299,10 @@ object RuntimeLibraryLoader {
                 return@withContext false
             }
             
-            // 验证成功后写入版本标记
+            // 验证成功后写入版本标记与完整性时间戳
             val versionFile = File(runtimeDir, VERSION_FILE)
             versionFile.writeText(getAssetVersion(context))
+            createVerifier(context)?.writeStamp()
             
             // 列出所有已解压的库
             val extractedLibs = listExtractedLibraries(context)
@@ -273,6 +332,234 @@ object RuntimeLibraryLoader {
         }
     }
     
+    /**
+     * 将 tar 流中的条目写入目标目录，并为 .so 设置可读/可执行权限
+     */
+    private fun writeTarEntries(
+        tarReader: ArchiveExtractor.MiniTarReader,
+        targetDir: File,
+        include: (String) -> Boolean = { true },
+        onFileExtracted: (String) -> Unit
+    ) {
+        val buffer = ByteArray(8192) // ... buffer for custom copy ...
+        while (true) {
+            val entry = tarReader.nextEntry() ?: break
+            if (!include(entry.name)) {
+                tarReader.skipEntry()
+                continue
+            }
+            val outputFile = File(targetDir, entry.name)
+            
+            if (entry.isDirectory) {
+                outputFile.mkdirs()
+            } else {
+                outputFile.parentFile?.mkdirs()
+                
+                FileOutputStream(outputFile).use { fos ->
+                    // ... Custom write loop ...
+                    while (true) {
+                        val read = tarReader.readData(buffer)
+                        if (read <= 0) break
+                        fos.write(buffer, 0, read)
+                    }
+                }
+                
+                // 设置库文件权限（可读 + 可执行）
+                if (entry.name.endsWith(".so")) {
+                    outputFile.setReadable(true, false)  // 所有用户可读
+                    outputFile.setExecutable(true, false) // 所有用户可执行
+                    AppLogger.debug(TAG, "Set permissions for: ${entry.name}")
+                }
+                
+                onFileExtracted(entry.name)
+                AppLogger.debug(TAG, "Extracted: ${entry.name}")
+            }
+        }
+    }
+    
+    /**
+     * assets 中是否带有运行时库压缩包 runtime_libs.tar.xz
+     */
+    fun hasMonolithicArchive(context: Context): Boolean {
+        return try {
+            context.assets.list("")?.contains(RUNTIME_LIBS_ARCHIVE) == true
+        } catch (e: Exception) {
+            false
+        }
+    }
+
+    private fun isArchiveBundled(context: Context): Boolean {
+        return archiveBundled ?: hasMonolithicArchive(context).also { archiveBundled = it }
+    }
+
+    private fun isBundleEntry(bundle: Bundle, entryPath: String): Boolean =
+        entryPath.substringAfterLast('/') in bundle.libs
+
+    private fun hasBundleLibs(context: Context, bundle: Bundle): Boolean {
+        val runtimeDir = getRuntimeLibsDir(context)
+        return bundle.libs.all { libName ->
+            val libFile = File(runtimeDir, libName)
+            libFile.exists() && libFile.length() > 0L
+        }
+    }
+
+    /**
+     * 检查单个包是否已解压且与 assets 中的版本一致
+     */
+    fun isBundleExtracted(context: Context, bundle: Bundle): Boolean {
+        if (!hasBundleLibs(context, bundle)) return false
+        // assets 中没有压缩包时（库直接打包），只要文件存在即可
+        if (!isArchiveBundled(context)) return true
+        val assetVersion = getAssetVersion(context)
+        val runtimeDir = getRuntimeLibsDir(context)
+        // 旧版本整体解压时只写了整体版本标记
+        return listOf(bundle.versionFile, VERSION_FILE).any { name ->
+            val versionFile = File(runtimeDir, name)
+            versionFile.exists() && versionFile.readText().trim() == assetVersion
+        }
+    }
+
+    /**
+     * 获取单个包的状态
+     */
+    fun getBundleState(context: Context, bundle: Bundle): BundleState = when {
+        isBundleExtracted(context, bundle) -> BundleState.PRESENT
+        isArchiveBundled(context) && bundle.libs.isNotEmpty() -> BundleState.AVAILABLE
+        else -> BundleState.MISSING
+    }
+
+    /**
+     * 获取所有包的状态
+     */
+    fun getBundleStates(context: Context): Map<Bundle, BundleState> =
+        Bundle.entries.associateWith { getBundleState(context, it) }
+
+    /**
+     * 库文件是否可用：已解压，或可以从 assets 中按需解压
+     */
+    fun isLibraryAvailable(context: Context, libName: String): Boolean {
+        if (File(getRuntimeLibsDir(context), libName).exists()) return true
+        if (Bundle.forLibrary(libName) == null) return false
+        return isArchiveBundled(context)
+    }
+
+    /**
+     * 确保指定包已解压且完整
+     *
+     * 已解压时只做快速校验并修复失败的文件；未解压或修复失败时重新解压该包。
+     */
+    suspend fun ensureBundle(context: Context, bundle: Bundle): Boolean = withContext(Dispatchers.IO) {
+        bundleLocks.getValue(bundle).withLock {
+            if (isBundleExtracted(context, bundle)) {
+                val verifier = createBundleVerifier(context, bundle) ?: return@withLock true
+                val failures = verifier.verifyFast()
+                if (failures.isEmpty() || repairArchive(context, verifier, failures)) {
+                    return@withLock true
+                }
+            }
+            extractBundleLocked(context, bundle)
+        }
+    }
+
+    /**
+     * 确保多个包已解压
+     */
+    suspend fun ensureBundles(context: Context, bundles: Collection<Bundle>): Boolean {
+        var success = true
+        for (bundle in bundles) {
+            if (!ensureBundle(context, bundle)) success = false
+        }
+        return success
+    }
+
+    /**
+     * 在后台预先解压指定的包，不阻塞调用方
+     */
+    fun prefetchBundles(context: Context, bundles: Collection<Bundle>) {
+        if (bundles.isEmpty()) return
+        val appContext = context.applicationContext
+        prefetchScope.launch {
+            val pending = bundles.filter { getBundleState(appContext, it) == BundleState.AVAILABLE }
+            if (pending.isEmpty()) return@launch
+            AppLogger.info(TAG, "Prefetching runtime bundles: ${pending.joinToString { it.id }}")
+            ensureBundles(appContext, pending)
+        }
+    }
+
+    private fun extractBundleLocked(context: Context, bundle: Bundle): Boolean {
+        if (!isArchiveBundled(context)) {
+            AppLogger.warn(TAG, "Runtime libs archive not found in assets: $RUNTIME_LIBS_ARCHIVE")
+            return false
+        }
+
+        val runtimeDir = getRuntimeLibsDir(context).apply { mkdirs() }
+        val startTime = System.currentTimeMillis()
+        return try {
+            // 只清理该包自己的文件，不影响其它已解压的包
+            bundle.libs.forEach { File(runtimeDir, it).delete() }
+            File(runtimeDir, bundle.versionFile).delete()
+
+            // 从整体压缩包中只写出该包的文件，其余条目直接跳过
+            context.assets.open(RUNTIME_LIBS_ARCHIVE).use { assetStream ->
+                XZInputStream(BufferedInputStream(assetStream, 1024 * 1024)).use { xzStream ->
+                    writeTarEntries(
+                        ArchiveExtractor.MiniTarReader(xzStream),
+                        runtimeDir,
+                        include = { isBundleEntry(bundle, it) }
+                    ) { }
+                }
+            }
+
+            if (!hasBundleLibs(context, bundle)) {
+                AppLogger.error(TAG, "Missing libraries after extracting bundle ${bundle.id}: ${bundle.libs}")
+                return false
+            }
+
+            File(runtimeDir, bundle.versionFile).writeText(getAssetVersion(context))
+            createBundleVerifier(context, bundle)?.writeStamp()
+            AppLogger.info(TAG, "Runtime bundle ${bundle.id} extracted in ${System.currentTimeMillis() - startTime} ms")
+            true
+        } catch (e: Exception) {
+            AppLogger.error(TAG, "Failed to extract runtime bundle ${bundle.id}", e)
+            bundle.libs.forEach { File(runtimeDir, it).delete() }
+            false
+        }
+    }
+
+    private fun createBundleVerifier(context: Context, bundle: Bundle): ManifestVerifier? {
+        val manifest = loadManifest(context) ?: return null
+        val bundleManifest = manifest.copy(entries = manifest.entries.filter { isBundleEntry(bundle, it.path) })
+        return ManifestVerifier(getRuntimeLibsDir(context), bundleManifest, stampName = bundle.stampFile)
+    }
+
+    private fun repairArchive(
+        context: Context,
+        verifier: ManifestVerifier,
+        failures: List<ManifestVerifier.Failure>
+    ): Boolean {
+        AppLogger.info(TAG, "Repairing ${failures.size} file(s) from $RUNTIME_LIBS_ARCHIVE: ${failures.joinToString { "${it.entry.path}(${it.reason})" }}")
+        return try {
+            val result = context.assets.open(RUNTIME_LIBS_ARCHIVE).use { assetStream ->
+                XZInputStream(BufferedInputStream(assetStream, 1024 * 1024)).use { xzStream ->
+                    verifier.repairFromTar(xzStream, failures)
+                }
+            }
+            result.failed.forEach { AppLogger.warn(TAG, "Repair failed: ${it.entry.path} (${it.reason})") }
+            AppLogger.info(TAG, "Repaired ${result.repaired.size}/${failures.size} file(s) from $RUNTIME_LIBS_ARCHIVE")
+            result.isSuccess
+        } catch (e: Exception) {
+            AppLogger.error(TAG, "Failed to repair $RUNTIME_LIBS_ARCHIVE", e)
+            false
+        }
+    }
+
+    /**
+     * 获取运行时库包状态摘要
+     */
+    fun getBundleStatusSummary(context: Context): String {
+        return getBundleStates(context).entries.joinToString(", ") { (bundle, state) -> "${bundle.id}=$state" }
+    }
+    
     /**
      * 强制重新解压运行时库
      * 删除版本文件后重新解压
@@ -320,8 +607,10 @@ object RuntimeLibraryLoader {
         val libPath = getLibraryPath(context, lib.fileName)
         val libFile = File(libPath)
         
+        // 所属的包需要先通过 ensureBundle 在协程中解压，这里不在调用线程上解压
         if (!libFile.exists()) {
-            AppLogger.error(TAG, "${lib.fileName} not found at: $libPath")
+            val bundle = Bundle.forLibrary(lib.fileName)
+            AppLogger.error(TAG, "${lib.fileName} not found at: $libPath (bundle ${bundle?.id} not extracted)")
             return false
         }
         
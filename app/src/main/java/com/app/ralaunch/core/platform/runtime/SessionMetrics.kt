@@ -0,0 +1,145 @@
+package com.app.ralaunch.core.platform.runtime
+
+import android.content.Context
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.builtins.ListSerializer
+import kotlinx.serialization.json.Json
+import java.io.File
+
+/**
+ * 单次游戏会话的性能摘要，归属于启动时生效的运行时配置
+ */
+@Serializable
+data class SessionMetrics(
+    val sessionId: String,
+    /** [EffectiveRuntimeProfile.id] */
+    val profileId: String,
+    /** [EffectiveRuntimeProfile.describe] */
+    val profileDescription: String,
+    val customProfile: Boolean = false,
+    val startedAt: Long,
+    val durationMs: Long = 0,
+    /** 从开始启动到出现第一帧的耗时 */
+    val loadTimeMs: Long? = null,
+    val frameTimeAvgMs: Double? = null,
+    val frameTimeP50Ms: Double? = null,
+    val frameTimeP95Ms: Double? = null,
+    val frameTimeP99Ms: Double? = null,
+    val frameSamples: Int = 0,
+    /** 以下三项仅在帧 hook 提供逐帧数据时存在 */
+    val low1PercentFps: Double? = null,
+    val low01PercentFps: Double? = null,
+    val stutterCount: Long? = null,
+    /** 由 FPSDisplayPatch 上报，未启用补丁时为 null */
+    val gcPauseTotalMs: Double? = null,
+    val gcCount: Int? = null,
+    /** /proc/self/status 中的 VmHWM */
+    val peakRssKb: Long? = null,
+    /** 进程被直接结束时没有退出码 */
+    val exitCode: Int? = null
+)
+
+/**
+ * 同一运行时配置下多次会话的汇总
+ */
+data class ProfileMetricsSummary(
+    val profileId: String,
+    val profileDescription: String,
+    val sessions: Int,
+    val loadTimeMedianMs: Long?,
+    val frameTimeAvgMs: Double?,
+    val frameTimeP95Ms: Double?,
+    val gcPauseAvgMs: Double?,
+    val peakRssMaxKb: Long?,
+    val lastStartedAt: Long
+)
+
+/**
+ * 会话指标存储：每个游戏一个 JSON 文件，保留最近 [MAX_SESSIONS] 次会话
+ */
+class SessionMetricsStore(private val dir: File) {
+
+    fun fileFor(gameKey: String): File =
+        File(dir, gameKey.replace(Regex("[^A-Za-z0-9._-]"), "_") + ".json")
+
+    @Synchronized
+    fun load(gameKey: String): List<SessionMetrics> {
+        val file = fileFor(gameKey)
+        if (!file.isFile) return emptyList()
+        return try {
+            json.decodeFromString(listSerializer, file.readText())
+        } catch (e: Exception) {
+            emptyList()
+        }
+    }
+
+    /**
+     * 写入会话；sessionId 相同的记录会被替换，便于会话进行中定期保存
+     */
+    @Synchronized
+    fun save(gameKey: String, session: SessionMetrics) {
+        val sessions = load(gameKey).filterNot { it.sessionId == session.sessionId } + session
+        val trimmed = sessions.sortedBy { it.startedAt }.takeLast(MAX_SESSIONS)
+        val file = fileFor(gameKey)
+        file.parentFile?.mkdirs()
+        val temp = File(file.parentFile, "${file.name}.tmp")
+        temp.writeText(json.encodeToString(listSerializer, trimmed))
+        if (!temp.renameTo(file)) {
+            file.delete()
+            temp.renameTo(file)
+        }
+    }
+
+    fun summarize(gameKey: String): List<ProfileMetricsSummary> = summarize(load(gameKey))
+
+    companion object {
+        const val MAX_SESSIONS = 50
+        private const val DIR_NAME = "session_metrics"
+
+        private val json = Json {
+            ignoreUnknownKeys = true
+        }
+        private val listSerializer = ListSerializer(SessionMetrics.serializer())
+
+        fun forContext(context: Context): SessionMetricsStore =
+            SessionMetricsStore(File(context.filesDir, DIR_NAME))
+
+        /**
+         * 按配置分组汇总，最近使用的配置在前
+         */
+        fun summarize(sessions: List<SessionMetrics>): List<ProfileMetricsSummary> {
+            return sessions.groupBy { it.profileId }
+                .map { (profileId, group) ->
+                    val loadTimes = group.mapNotNull { it.loadTimeMs }.sorted()
+                    ProfileMetricsSummary(
+                        profileId = profileId,
+                        profileDescription = group.maxByOrNull { it.startedAt }!!.profileDescription,
+                        sessions = group.size,
+                        loadTimeMedianMs = loadTimes.getOrNull(loadTimes.size / 2),
+                        frameTimeAvgMs = weightedFrameTime(group) { it.frameTimeAvgMs },
+                        frameTimeP95Ms = weightedFrameTime(group) { it.frameTimeP95Ms },
+                        gcPauseAvgMs = group.mapNotNull { it.gcPauseTotalMs }.takeIf { it.isNotEmpty() }?.average(),
+                        peakRssMaxKb = group.mapNotNull { it.peakRssKb }.maxOrNull(),
+                        lastStartedAt = group.maxOf { it.startedAt }
+                    )
+                }
+                .sortedByDescending { it.lastStartedAt }
+        }
+
+        /** 以帧采样数加权，避免短会话与长会话同等权重 */
+        private fun weightedFrameTime(
+            group: List<SessionMetrics>,
+            selector: (SessionMetrics) -> Double?
+        ): Double? {
+            var weighted = 0.0
+            var samples = 0L
+            for (session in group) {
+                val value = selector(session) ?: continue
+                if (session.frameSamples <= 0) continue
+                weighted += value * session.frameSamples
+                samples += session.frameSamples
+            }
+            return if (samples > 0) weighted / samples else null
+        }
+    }
+}
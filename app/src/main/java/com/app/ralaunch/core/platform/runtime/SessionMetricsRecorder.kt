@@ -0,0 +1,289 @@
+package com.app.ralaunch.core.platform.runtime
+
+import java.io.File
+import java.io.IOException
+import java.util.UUID
+
+/**
+ * 游戏会话指标采集器
+ *
+ * 在低优先级后台线程中定期读取共享遥测块（[TelemetryBlock]）与 /proc/self/status 的 VmHWM。
+ * 帧数据与 GC 统计由写者（native 渲染层、FPSDisplayPatch）直接写入遥测块，采集时只读内存，不读环境变量。
+ * 会话进行中定期保存，进程被直接结束时也能保留已采集的数据。
+ *
+ * 帧 hook 写入帧时间环形缓冲区（[TelemetryFrameRing]）时，逐帧统计分位数、低帧率与卡顿，
+ * 结果通过 [liveFrameStats] 供性能浮窗显示（当前会话的采集器见 [current]），并导出到 [exportDir]；
+ * 否则退回按采样间隔记录遥测块的窗口帧时间。
+ *
+ * @param startNanos 启动开始时刻（System.nanoTime），用于计算加载耗时
+ * @param telemetry 共享遥测块，每次采样时解析（libmain 可能晚于采集器加载），测试时可替换
+ * @param frameRing 帧时间环形缓冲区，null 表示不可用
+ * @param exportDir 帧时间 CSV/JSON 导出目录，null 表示不导出
+ */
+class SessionMetricsRecorder(
+    private val profile: EffectiveRuntimeProfile,
+    private val store: SessionMetricsStore,
+    private val gameKey: String,
+    private val startNanos: Long = System.nanoTime(),
+    private val telemetry: () -> TelemetryBlock? = NativeTelemetry::block,
+    private val statusFile: File = File("/proc/self/status"),
+    private val intervalMs: Long = DEFAULT_INTERVAL_MS,
+    private val checkpointMs: Long = DEFAULT_CHECKPOINT_MS,
+    private val frameRing: TelemetryFrameRing? = NativeTelemetry.frameRing(),
+    private val exportDir: File? = null
+) {
+
+    private val sessionId = UUID.randomUUID().toString()
+    private val startedAt = System.currentTimeMillis() - (System.nanoTime() - startNanos) / 1_000_000L
+    private val histogram = FrameTimeHistogram()
+    private val frameTimes = FrameTimeRecorder()
+    private val drainBuffer = IntArray(frameRing?.capacity?.coerceAtLeast(1) ?: 1)
+    private val exportBaseName = FrameTimeExporter.baseNameFor(startedAt)
+    private val frameSnapshot = TelemetryBlock.FrameSnapshot()
+    private val runtimeSnapshot = TelemetryBlock.RuntimeSnapshot()
+
+    /** 会话开始时遥测块中已有的帧数，之前的帧不属于本次会话 */
+    private var framesAtStart = 0L
+
+    private var loadTimeMs: Long? = null
+    private var gcPauseTotalMs: Double? = null
+    private var gcCount: Int? = null
+
+    /** 本次会话的实时帧时间统计，没有逐帧数据或会话已结束时为 null */
+    @Volatile
+    var liveFrameStats: FrameTimeStats? = null
+        private set
+
+    @Volatile
+    private var running = false
+    private var thread: Thread? = null
+
+    fun start() {
+        if (running) return
+        running = true
+        liveFrameStats = null
+        current = this
+        // 对齐环形缓冲区游标与帧计数，之前的帧不属于本次会话
+        frameRing?.drain(drainBuffer)
+        telemetry()?.let { block ->
+            if (block.readFrame(frameSnapshot)) framesAtStart = frameSnapshot.frameCount
+        }
+        thread = Thread({ runLoop() }, "SessionMetrics").apply {
+            isDaemon = true
+            priority = Thread.MIN_PRIORITY
+            start()
+        }
+    }
+
+    /**
+     * 结束采集并写入最终结果
+     */
+    fun finish(exitCode: Int?): SessionMetrics {
+        running = false
+        thread?.let {
+            it.interrupt()
+            try {
+                it.join(JOIN_TIMEOUT_MS)
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+            }
+        }
+        thread = null
+        return synchronized(this) {
+            sample(System.nanoTime())
+            snapshot(exitCode).also {
+                saveQuietly(it)
+                exportQuietly()
+                liveFrameStats = null
+                if (current === this) current = null
+            }
+        }
+    }
+
+    private fun runLoop() {
+        var lastCheckpoint = System.nanoTime()
+        while (running) {
+            try {
+                Thread.sleep(intervalMs)
+            } catch (e: InterruptedException) {
+                break
+            }
+            val now = System.nanoTime()
+            synchronized(this) {
+                if (!running) return
+                sample(now)
+                if ((now - lastCheckpoint) / 1_000_000L >= checkpointMs) {
+                    saveQuietly(snapshot(null))
+                    exportQuietly()
+                    lastCheckpoint = now
+                }
+            }
+        }
+    }
+
+    /**
+     * 采集一次；出现第一帧之前的帧时间不计入统计
+     */
+    @Synchronized
+    internal fun sample(nowNanos: Long) {
+        drainFrameRing()
+        val block = telemetry()
+        // 本次会话出现过帧时为最近窗口的平均帧时间（毫秒），否则为 null
+        val windowFrameMs = frameSnapshot
+            .takeIf { block != null && block.readFrame(it) && it.isPublished && it.frameCount > framesAtStart }
+            ?.avgFrameMs
+        if (loadTimeMs == null && (frameTimes.frames > 0L || windowFrameMs != null)) {
+            loadTimeMs = (nowNanos - startNanos) / 1_000_000L
+        }
+        if (loadTimeMs != null && frameTimes.frames == 0L && windowFrameMs != null && windowFrameMs > 0f) {
+            histogram.record(windowFrameMs.toDouble())
+        }
+        if (block != null && block.readRuntime(runtimeSnapshot) && runtimeSnapshot.isPublished) {
+            gcPauseTotalMs = runtimeSnapshot.gcPauseMs
+            gcCount = runtimeSnapshot.gcCount
+        }
+    }
+
+    /**
+     * 取走环形缓冲区中的全部新帧并发布实时统计
+     */
+    private fun drainFrameRing() {
+        val ring = frameRing ?: return
+        var drained = 0
+        do {
+            val count = ring.drain(drainBuffer)
+            frameTimes.recordAll(drainBuffer, count)
+            drained += count
+        } while (count == drainBuffer.size)
+        frameTimes.updateLostFrames(ring.lostFrames)
+        if (drained > 0) {
+            liveFrameStats = frameTimes.stats()
+        }
+    }
+
+    @Synchronized
+    internal fun snapshot(exitCode: Int?): SessionMetrics {
+        val base = SessionMetrics(
+            sessionId = sessionId,
+            profileId = profile.id,
+            profileDescription = profile.describe(),
+            customProfile = profile.isCustom,
+            startedAt = startedAt,
+            durationMs = (System.nanoTime() - startNanos) / 1_000_000L,
+            loadTimeMs = loadTimeMs,
+            frameTimeAvgMs = histogram.mean(),
+            frameTimeP50Ms = histogram.percentile(0.50),
+            frameTimeP95Ms = histogram.percentile(0.95),
+            frameTimeP99Ms = histogram.percentile(0.99),
+            frameSamples = histogram.count.toInt(),
+            gcPauseTotalMs = gcPauseTotalMs,
+            gcCount = gcCount,
+            peakRssKb = readPeakRssKb(),
+            exitCode = exitCode
+        )
+        if (frameTimes.frames == 0L) return base
+        // 有逐帧数据时以其为准
+        val stats = frameTimes.stats()
+        return base.copy(
+            frameTimeAvgMs = stats.avgMs,
+            frameTimeP50Ms = stats.p50Ms,
+            frameTimeP95Ms = stats.p95Ms,
+            frameTimeP99Ms = stats.p99Ms,
+            frameSamples = stats.frames.coerceAtMost(Int.MAX_VALUE.toLong()).toInt(),
+            low1PercentFps = stats.low1PercentFps,
+            low01PercentFps = stats.low01PercentFps,
+            stutterCount = stats.stutters
+        )
+    }
+
+    @Synchronized
+    private fun exportQuietly() {
+        val dir = exportDir ?: return
+        if (frameTimes.frames == 0L) return
+        try {
+            FrameTimeExporter.export(
+                dir = dir,
+                baseName = exportBaseName,
+                sessionId = sessionId,
+                gameKey = gameKey,
+                profile = profile,
+                startedAt = startedAt,
+                durationMs = (System.nanoTime() - startNanos) / 1_000_000L,
+                recorder = frameTimes
+            )
+        } catch (e: Exception) {
+            // 导出失败不影响游戏
+        }
+    }
+
+    private fun saveQuietly(session: SessionMetrics) {
+        try {
+            store.save(gameKey, session)
+        } catch (e: Exception) {
+            // 指标写入失败不影响游戏
+        }
+    }
+
+    private fun readPeakRssKb(): Long? {
+        return try {
+            statusFile.useLines { lines ->
+                lines.firstOrNull { it.startsWith("VmHWM:") }
+                    ?.substringAfter(':')
+                    ?.trim()
+                    ?.substringBefore(' ')
+                    ?.toLongOrNull()
+            }
+        } catch (e: IOException) {
+            null
+        }
+    }
+
+    /**
+     * 帧时间直方图：0.25 ms 一个桶，覆盖 0 ~ 250 ms，更长的帧计入最后一个桶
+     */
+    internal class FrameTimeHistogram {
+        private val buckets = LongArray(BUCKET_COUNT)
+        private var sum = 0.0
+        var count = 0L
+            private set
+
+        fun record(frameTimeMs: Double) {
+            val index = (frameTimeMs / BUCKET_WIDTH_MS).toInt().coerceIn(0, BUCKET_COUNT - 1)
+            buckets[index]++
+            sum += frameTimeMs
+            count++
+        }
+
+        fun mean(): Double? = if (count == 0L) null else sum / count
+
+        /**
+         * @return 桶上沿，无样本时为 null
+         */
+        fun percentile(fraction: Double): Double? {
+            if (count == 0L) return null
+            val target = kotlin.math.ceil(count * fraction).toLong().coerceAtLeast(1L)
+            var seen = 0L
+            for (i in buckets.indices) {
+                seen += buckets[i]
+                if (seen >= target) return (i + 1) * BUCKET_WIDTH_MS
+            }
+            return BUCKET_COUNT * BUCKET_WIDTH_MS
+        }
+
+        companion object {
+            private const val BUCKET_WIDTH_MS = 0.25
+            private const val BUCKET_COUNT = 1000
+        }
+    }
+
+    companion object {
+        /** 正在采集的会话，没有进行中的会话时为 null */
+        @Volatile
+        var current: SessionMetricsRecorder? = null
+            private set
+
+        private const val DEFAULT_INTERVAL_MS = 250L
+        private const val DEFAULT_CHECKPOINT_MS = 30_000L
+        private const val JOIN_TIMEOUT_MS = 1_000L
+    }
+}
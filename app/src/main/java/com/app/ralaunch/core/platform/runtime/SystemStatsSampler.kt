@@ -0,0 +1,375 @@
+package com.app.ralaunch.core.platform.runtime
+
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+
+/**
+ * CPU/GPU 频率、负载与温度快照，不可变，可在任意线程直接读取
+ *
+ * 无数据的项为 -1（温度为 [Float.NaN]）
+ */
+class SystemStatsSnapshot(
+    val timestampNanos: Long,
+    /** 按核心频率相对 min/max 估算的平均负载（百分比） */
+    val cpuLoadPercent: Float,
+    /** 每个核心的当前频率（kHz），离线或不可读为 -1 */
+    val cpuFreqsKhz: List<Int>,
+    val gpuLoadPercent: Float,
+    val gpuFreqHz: Long,
+    val cpuTempC: Float,
+    val gpuTempC: Float
+) {
+    companion object {
+        val EMPTY = SystemStatsSnapshot(0L, -1f, emptyList(), -1f, -1L, Float.NaN, Float.NaN)
+    }
+}
+
+/**
+ * 后台 sysfs 采样器
+ *
+ * 在低优先级线程中按固定间隔采样，sysfs 文件只在首次使用时打开，之后通过
+ * [FileChannel.read]（带位置参数，即 pread）反复读取，不再在每次刷新时 open/close。
+ * 读取失败的文件会被关闭并在若干次采样后重试，对应项报告为无数据，不影响其它项。
+ *
+ * 各核心的最小/最大频率优先取自设备拓扑缓存（[DeviceTopologyProbe]），缓存中没有时才读取 sysfs。
+ *
+ * @param root sysfs 所在根目录，测试时可指向伪造的目录树
+ * @param intervalMs 采样间隔
+ * @param topology 设备拓扑，在采样线程首次采样时获取
+ */
+class SystemStatsSampler(
+    private val root: File = File("/"),
+    @Volatile var intervalMs: Long = DEFAULT_INTERVAL_MS,
+    private val cpuCount: Int = Runtime.getRuntime().availableProcessors(),
+    private val topology: () -> DeviceTopology? = { null }
+) {
+
+    @Volatile
+    var latest: SystemStatsSnapshot = SystemStatsSnapshot.EMPTY
+        private set
+
+    @Volatile
+    private var running = false
+    private var thread: Thread? = null
+
+    private var initialized = false
+    private var cpuCores: List<CpuCore> = emptyList()
+    private var gpuUtil: SysfsValue? = null
+    private var gpuUtilParser: ((String) -> Float)? = null
+    private var gpuFreq: SysfsValue? = null
+    private var gpuMinFreq = 0L
+    private var gpuMaxFreq = 0L
+    private var cpuTemp: SysfsValue? = null
+    private var gpuTemp: SysfsValue? = null
+
+    private class CpuCore(val cur: SysfsValue, var minKhz: Int, var maxKhz: Int, val index: Int)
+
+    @Synchronized
+    fun start() {
+        if (running) return
+        running = true
+        thread = Thread({ runLoop() }, "SystemStatsSampler").apply {
+            isDaemon = true
+            priority = Thread.MIN_PRIORITY
+            start()
+        }
+    }
+
+    @Synchronized
+    fun stop() {
+        running = false
+        thread?.interrupt()
+        thread = null
+    }
+
+    private fun runLoop() {
+        try {
+            android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_LOWEST)
+        } catch (_: Throwable) { }
+        try {
+            while (running) {
+                sampleOnce()
+                Thread.sleep(intervalMs.coerceAtLeast(MIN_INTERVAL_MS))
+            }
+        } catch (_: InterruptedException) {
+        } finally {
+            closeAll()
+        }
+    }
+
+    /**
+     * 采样一次并发布快照
+     */
+    @Synchronized
+    fun sampleOnce(nowNanos: Long = System.nanoTime()): SystemStatsSnapshot {
+        if (!initialized) {
+            discover()
+            initialized = true
+        }
+
+        var totalLoad = 0f
+        var activeCores = 0
+        val freqs = ArrayList<Int>(cpuCores.size)
+        for (core in cpuCores) {
+            val cur = core.cur.readLong()?.toInt() ?: -1
+            freqs.add(cur)
+            if (cur > 0 && core.maxKhz <= core.minKhz) {
+                // 核心离线时 min/max 读不到，上线后补读
+                core.minKhz = readOnce(cpuFreqFile(core.index, "cpuinfo_min_freq"))?.toInt() ?: 0
+                core.maxKhz = readOnce(cpuFreqFile(core.index, "cpuinfo_max_freq"))?.toInt() ?: 0
+            }
+            if (cur > 0 && core.maxKhz > core.minKhz) {
+                totalLoad += ((cur - core.minKhz).toFloat() / (core.maxKhz - core.minKhz) * 100f).coerceIn(0f, 100f)
+                activeCores++
+            }
+        }
+
+        val gpuFreqHz = gpuFreq?.readLong() ?: -1L
+        val gpuLoad = readGpuUtil()
+            ?: if (gpuFreqHz > 0 && gpuMaxFreq > gpuMinFreq) {
+                ((gpuFreqHz - gpuMinFreq).toFloat() / (gpuMaxFreq - gpuMinFreq) * 100f).coerceIn(0f, 100f)
+            } else -1f
+
+        return SystemStatsSnapshot(
+            timestampNanos = nowNanos,
+            cpuLoadPercent = if (activeCores > 0) totalLoad / activeCores else -1f,
+            cpuFreqsKhz = freqs,
+            gpuLoadPercent = gpuLoad,
+            gpuFreqHz = gpuFreqHz,
+            cpuTempC = cpuTemp?.readLong()?.let { toCelsius(it) } ?: Float.NaN,
+            gpuTempC = gpuTemp?.readLong()?.let { toCelsius(it) } ?: Float.NaN
+        ).also { latest = it }
+    }
+
+    private fun readGpuUtil(): Float? {
+        val value = gpuUtil ?: return null
+        val line = value.readLine() ?: return null
+        val result = gpuUtilParser?.invoke(line) ?: return null
+        return if (result >= 0f) result.coerceIn(0f, 100f) else null
+    }
+
+    private fun discover() {
+        val deviceTopology = try {
+            topology()
+        } catch (e: Exception) {
+            null
+        }
+        cpuCores = (0 until cpuCount).map { i ->
+            val cluster = deviceTopology?.clusterOf(i)
+            CpuCore(
+                cur = SysfsValue(cpuFreqFile(i, "scaling_cur_freq")),
+                minKhz = cluster?.minFreqKhz?.takeIf { it > 0 }?.toInt()
+                    ?: readOnce(cpuFreqFile(i, "cpuinfo_min_freq"))?.toInt() ?: 0,
+                maxKhz = cluster?.maxFreqKhz?.takeIf { it > 0 }?.toInt()
+                    ?: readOnce(cpuFreqFile(i, "cpuinfo_max_freq"))?.toInt() ?: 0,
+                index = i
+            )
+        }
+
+        for ((path, parser) in GPU_UTIL_PATHS) {
+            val file = File(root, path)
+            if (!file.canRead()) continue
+            val value = SysfsValue(file)
+            val line = value.readLine()
+            if (line != null && parser(line) >= 0f) {
+                gpuUtil = value
+                gpuUtilParser = parser
+                break
+            }
+            value.close()
+        }
+
+        val devfreq = findGpuDevfreq()
+        val kgsl = File(root, "sys/class/kgsl/kgsl-3d0")
+        if (devfreq != null) {
+            gpuFreq = SysfsValue(File(devfreq, "cur_freq"))
+            gpuMinFreq = readOnce(File(devfreq, "min_freq")) ?: 0L
+            gpuMaxFreq = readOnce(File(devfreq, "max_freq")) ?: 0L
+        } else if (File(kgsl, "gpuclk").canRead()) {
+            // Adreno 备用路径：没有 devfreq 节点的旧内核只提供 gpuclk/max_gpuclk
+            gpuFreq = SysfsValue(File(kgsl, "gpuclk"))
+            gpuMinFreq = readMinFrequency(File(kgsl, "gpu_available_frequencies")) ?: 0L
+            gpuMaxFreq = readOnce(File(kgsl, "max_gpuclk")) ?: 0L
+        }
+
+        val zones = File(root, "sys/class/thermal").listFiles { f -> f.name.startsWith("thermal_zone") }
+            ?.sortedBy { it.name.removePrefix("thermal_zone").toIntOrNull() ?: Int.MAX_VALUE }
+            .orEmpty()
+        val typed = zones.mapNotNull { zone ->
+            val type = try {
+                File(zone, "type").readText().trim().lowercase()
+            } catch (e: IOException) {
+                return@mapNotNull null
+            }
+            type to zone
+        }
+        cpuTemp = typed.firstOrNull { (type, _) -> CPU_THERMAL_TYPES.any { type.contains(it) } }
+            ?.let { SysfsValue(File(it.second, "temp")) }
+        gpuTemp = typed.firstOrNull { (type, _) -> GPU_THERMAL_TYPES.any { type.contains(it) } }
+            ?.let { SysfsValue(File(it.second, "temp")) }
+    }
+
+    private fun findGpuDevfreq(): File? {
+        val adreno = File(root, "sys/class/kgsl/kgsl-3d0/devfreq")
+        if (File(adreno, "cur_freq").canRead()) return adreno
+        return File(root, "sys/class/devfreq").listFiles()
+            ?.sortedBy { it.name }
+            ?.firstOrNull { device ->
+                val name = device.name.lowercase()
+                GPU_DEVFREQ_NAMES.any { name.contains(it) } && File(device, "cur_freq").canRead()
+            }
+    }
+
+    private fun cpuFreqFile(index: Int, name: String) =
+        File(root, "sys/devices/system/cpu/cpu$index/cpufreq/$name")
+
+    /** 可用频率列表（空格分隔）中的最小值 */
+    private fun readMinFrequency(file: File): Long? {
+        return try {
+            file.readText().trim().split(WHITESPACE).mapNotNull { it.toLongOrNull() }.minOrNull()
+        } catch (e: IOException) {
+            null
+        }
+    }
+
+    private fun readOnce(file: File): Long? {
+        return try {
+            file.readText().trim().substringBefore(' ').toLongOrNull()
+        } catch (e: IOException) {
+            null
+        }
+    }
+
+    @Synchronized
+    private fun closeAll() {
+        cpuCores.forEach { it.cur.close() }
+        gpuUtil?.close()
+        gpuFreq?.close()
+        cpuTemp?.close()
+        gpuTemp?.close()
+        cpuCores = emptyList()
+        gpuUtil = null
+        gpuFreq = null
+        cpuTemp = null
+        gpuTemp = null
+        initialized = false
+    }
+
+    /**
+     * 保持打开的 sysfs 文件；每次从偏移 0 重新读取（sysfs 在 pread 时会重新生成内容）
+     */
+    private class SysfsValue(private val file: File) {
+        private var channel: FileChannel? = null
+        private val buffer = ByteBuffer.allocate(BUFFER_SIZE)
+        private var failures = 0
+        private var retryCountdown = 0
+
+        fun readLine(): String? {
+            val length = read() ?: return null
+            val bytes = ByteArray(length)
+            buffer.get(bytes)
+            return String(bytes, Charsets.US_ASCII).lineSequence().firstOrNull()?.trim()
+        }
+
+        fun readLong(): Long? {
+            val length = read() ?: return null
+            var value = 0L
+            var digits = 0
+            var negative = false
+            for (i in 0 until length) {
+                val c = buffer.get(i).toInt().toChar()
+                when {
+                    c == '-' && digits == 0 && !negative -> negative = true
+                    c in '0'..'9' -> {
+                        value = value * 10 + (c - '0')
+                        digits++
+                    }
+                    digits == 0 && c.isWhitespace() -> continue
+                    else -> break
+                }
+            }
+            if (digits == 0) return null
+            return if (negative) -value else value
+        }
+
+        private fun read(): Int? {
+            if (retryCountdown > 0) {
+                retryCountdown--
+                return null
+            }
+            return try {
+                val ch = channel ?: RandomAccessFile(file, "r").channel.also { channel = it }
+                buffer.clear()
+                val n = ch.read(buffer, 0L)
+                buffer.flip()
+                failures = 0
+                if (n <= 0) null else n
+            } catch (e: IOException) {
+                close()
+                failures++
+                retryCountdown = (RETRY_BASE shl (failures - 1).coerceAtMost(4)).coerceAtMost(MAX_RETRY_DELAY)
+                null
+            }
+        }
+
+        fun close() {
+            try {
+                channel?.close()
+            } catch (_: IOException) {
+            }
+            channel = null
+        }
+    }
+
+    companion object {
+        const val DEFAULT_INTERVAL_MS = 500L
+        private const val MIN_INTERVAL_MS = 50L
+        private const val BUFFER_SIZE = 128
+        /** 读取失败后跳过的采样次数，按失败次数指数增长 */
+        private const val RETRY_BASE = 4
+        private const val MAX_RETRY_DELAY = 64
+
+        private val CPU_THERMAL_TYPES = listOf("cpu", "tsens_tz_sensor", "soc_thermal", "mtktscpu")
+        private val GPU_THERMAL_TYPES = listOf("gpu", "mali", "g3d")
+        private val GPU_DEVFREQ_NAMES = listOf("gpu", "mali", "kgsl", "g3d")
+
+        private val GPU_UTIL_PATHS: List<Pair<String, (String) -> Float>> = listOf(
+            // Adreno GPU (Qualcomm)
+            "sys/class/kgsl/kgsl-3d0/gpubusy" to ::parseAdrenoGpuBusy,
+            "sys/class/kgsl/kgsl-3d0/gpu_busy_percentage" to ::parsePercentage,
+            // Mali GPU (ARM)
+            "sys/kernel/gpu/gpu_busy" to ::parsePercentage,
+            "sys/class/misc/mali0/device/utilization" to ::parsePercentage,
+            // 联发科 (MediaTek)
+            "sys/kernel/ged/hal/gpu_utilization" to ::parsePercentage,
+            "sys/module/ged/parameters/gpu_loading" to ::parsePercentage,
+            // Samsung Exynos
+            "sys/devices/platform/17500000.g3d/utilization" to ::parsePercentage,
+            "sys/devices/platform/18500000.g3d/utilization" to ::parsePercentage,
+        )
+
+        internal fun parseAdrenoGpuBusy(line: String): Float {
+            val parts = line.trim().split(WHITESPACE)
+            if (parts.size >= 2) {
+                val busy = parts[0].toLongOrNull() ?: return -1f
+                val total = parts[1].toLongOrNull() ?: return -1f
+                if (total > 0) return (busy.toFloat() / total.toFloat()) * 100f
+            }
+            return -1f
+        }
+
+        internal fun parsePercentage(line: String): Float {
+            val cleaned = line.trim().replace("%", "").replace("@", " ").split(WHITESPACE)[0]
+            return cleaned.toFloatOrNull() ?: -1f
+        }
+
+        /** thermal_zone 的 temp 多数以毫摄氏度报告，少数设备直接报告摄氏度 */
+        internal fun toCelsius(raw: Long): Float =
+            if (raw > 1000L || raw < -1000L) raw / 1000f else raw.toFloat()
+
+        private val WHITESPACE = Regex("\\s+")
+    }
+}
@@ -0,0 +1,158 @@
+package com.app.ralaunch.core.platform.runtime
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+/**
+ * 共享遥测块读取器
+ *
+ * 布局与 core/includes/ral_telemetry.h 一致。帧区与运行时区各有一个序列号（seqlock）：
+ * 写者写入前置为奇数、写完置为偶数；读者在两次读到相同的偶数序列号之间复制数据，否则重试。
+ * 读取只访问 DirectByteBuffer，不经过 JNI，也不分配对象，可以在 UI 线程的刷新回调中调用。
+ */
+class TelemetryBlock(buffer: ByteBuffer) {
+
+    private val buffer: ByteBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+
+    /** 读取过程中的直方图暂存，校验通过后才复制到快照；因此 [readFrame] 不应在多个线程并发调用 */
+    private val scratchHistogram = IntArray(HISTOGRAM_BUCKETS)
+
+    val isValid: Boolean
+        get() = buffer.capacity() >= BLOCK_SIZE &&
+            buffer.getInt(OFFSET_MAGIC) == MAGIC &&
+            buffer.getInt(OFFSET_VERSION) == VERSION
+
+    /**
+     * 帧区快照，可复用以避免每次刷新分配
+     */
+    class FrameSnapshot {
+        /** 为 0 表示帧区从未被写入 */
+        var seq = 0
+        var source = SOURCE_NONE
+        var frameCount = 0L
+        var lastFrameNs = 0L
+        var totalFrameNs = 0L
+        var fps = 0f
+        var avgFrameMs = 0f
+        var maxFrameMs = 0f
+        val histogram = IntArray(HISTOGRAM_BUCKETS)
+
+        val isPublished: Boolean get() = seq != 0
+
+        /**
+         * 按直方图估算分位数（桶上沿，毫秒）；无样本时返回 -1
+         */
+        fun percentileMs(fraction: Double): Float {
+            var total = 0L
+            for (count in histogram) total += count.toLong() and 0xFFFFFFFFL
+            if (total == 0L) return -1f
+            val target = kotlin.math.ceil(total * fraction).toLong().coerceAtLeast(1L)
+            var seen = 0L
+            for (i in histogram.indices) {
+                seen += histogram[i].toLong() and 0xFFFFFFFFL
+                if (seen >= target) return (i + 1).toFloat()
+            }
+            return HISTOGRAM_BUCKETS.toFloat()
+        }
+    }
+
+    /**
+     * 运行时区快照（FPSDisplayPatch 发布的 GC 统计）
+     */
+    class RuntimeSnapshot {
+        /** 为 0 表示运行时区从未被写入 */
+        var seq = 0
+        var gcCount = 0
+        var gcPauseMs = 0.0
+
+        val isPublished: Boolean get() = seq != 0
+    }
+
+    /**
+     * 读取帧区；写者持续占用导致多次重试失败时返回 false，out 保持不变
+     */
+    fun readFrame(out: FrameSnapshot): Boolean {
+        repeat(MAX_RETRIES) {
+            val before = buffer.getInt(OFFSET_FRAME_SEQ)
+            if (before and 1 != 0) return@repeat
+            LoadFence.fence()
+            val source = buffer.getInt(OFFSET_FRAME_SOURCE)
+            val frameCount = buffer.getLong(OFFSET_FRAME_COUNT)
+            val lastFrameNs = buffer.getLong(OFFSET_LAST_FRAME_NS)
+            val totalFrameNs = buffer.getLong(OFFSET_TOTAL_FRAME_NS)
+            val fps = buffer.getFloat(OFFSET_FPS)
+            val avgFrameMs = buffer.getFloat(OFFSET_AVG_FRAME_MS)
+            val maxFrameMs = buffer.getFloat(OFFSET_MAX_FRAME_MS)
+            for (i in 0 until HISTOGRAM_BUCKETS) {
+                scratchHistogram[i] = buffer.getInt(OFFSET_HISTOGRAM + i * 4)
+            }
+            LoadFence.fence()
+            if (buffer.getInt(OFFSET_FRAME_SEQ) != before) return@repeat
+
+            out.seq = before
+            out.source = source
+            out.frameCount = frameCount
+            out.lastFrameNs = lastFrameNs
+            out.totalFrameNs = totalFrameNs
+            out.fps = fps
+            out.avgFrameMs = avgFrameMs
+            out.maxFrameMs = maxFrameMs
+            scratchHistogram.copyInto(out.histogram)
+            return true
+        }
+        return false
+    }
+
+    /**
+     * 读取运行时区；写者持续占用导致多次重试失败时返回 false，out 保持不变
+     */
+    fun readRuntime(out: RuntimeSnapshot): Boolean {
+        repeat(MAX_RETRIES) {
+            val before = buffer.getInt(OFFSET_RUNTIME_SEQ)
+            if (before and 1 != 0) return@repeat
+            LoadFence.fence()
+            val gcCount = buffer.getInt(OFFSET_RUNTIME_GC_COUNT)
+            val gcPauseMs = buffer.getDouble(OFFSET_RUNTIME_GC_PAUSE_MS)
+            LoadFence.fence()
+            if (buffer.getInt(OFFSET_RUNTIME_SEQ) != before) return@repeat
+
+            out.seq = before
+            out.gcCount = gcCount
+            out.gcPauseMs = gcPauseMs
+            return true
+        }
+        return false
+    }
+
+    companion object {
+        const val MAGIC = 0x544C4152
+        const val VERSION = 2
+        const val BLOCK_SIZE = 512
+        const val HISTOGRAM_BUCKETS = 64
+
+        const val SOURCE_NONE = 0
+        const val SOURCE_NATIVE = 1
+        const val SOURCE_MANAGED = 2
+
+        internal const val OFFSET_MAGIC = 0
+        internal const val OFFSET_VERSION = 4
+        internal const val OFFSET_SIZE = 8
+        internal const val OFFSET_HISTOGRAM_BUCKETS = 12
+
+        internal const val OFFSET_FRAME_SEQ = 16
+        internal const val OFFSET_FRAME_SOURCE = 20
+        internal const val OFFSET_FRAME_COUNT = 24
+        internal const val OFFSET_LAST_FRAME_NS = 32
+        internal const val OFFSET_TOTAL_FRAME_NS = 40
+        internal const val OFFSET_FPS = 48
+        internal const val OFFSET_AVG_FRAME_MS = 52
+        internal const val OFFSET_MAX_FRAME_MS = 56
+        internal const val OFFSET_HISTOGRAM = 64
+
+        internal const val OFFSET_RUNTIME_SEQ = 400
+        internal const val OFFSET_RUNTIME_GC_COUNT = 404
+        internal const val OFFSET_RUNTIME_GC_PAUSE_MS = 408
+
+        private const val MAX_RETRIES = 8
+    }
+}
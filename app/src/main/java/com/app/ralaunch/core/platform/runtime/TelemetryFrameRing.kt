@@ -0,0 +1,81 @@
+package com.app.ralaunch.core.platform.runtime
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+
+/**
+ * 帧时间环形缓冲区读取器
+ *
+ * 布局与 ral_telemetry.h 中的 RalFrameRing 一致：写者（帧线程）先写条目再以 release 语义递增 write_index。
+ * 读者保存自己的游标，每次取走游标之后的全部帧；落后超过一圈时最旧的帧被覆盖，计入 [lostFrames]。
+ * 同一实例只能由一个线程读取。
+ */
+class TelemetryFrameRing(buffer: ByteBuffer) {
+
+    private val buffer: ByteBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+
+    val capacity: Int = if (this.buffer.capacity() >= OFFSET_FRAMES) this.buffer.getInt(OFFSET_CAPACITY) else 0
+
+    val isValid: Boolean
+        get() = buffer.capacity() >= OFFSET_FRAMES &&
+            buffer.getInt(OFFSET_MAGIC) == MAGIC &&
+            capacity > 0 &&
+            buffer.capacity() >= OFFSET_FRAMES + capacity * 4
+
+    private var cursor = -1L
+
+    /** 因读取不及时被覆盖的帧数 */
+    var lostFrames = 0L
+        private set
+
+    /**
+     * 取走新写入的帧（微秒），最多 out.size 帧，剩余的留到下次
+     *
+     * 首次调用只对齐游标，不返回此前的帧，避免把上一次会话的残留计入本次统计。
+     *
+     * @return 写入 out 的帧数
+     */
+    fun drain(out: IntArray): Int {
+        val written = buffer.getLong(OFFSET_WRITE_INDEX)
+        LoadFence.fence()
+        if (cursor < 0L) {
+            cursor = written
+            return 0
+        }
+        if (written <= cursor) return 0
+
+        var from = cursor
+        val oldest = written - capacity
+        if (from < oldest) {
+            lostFrames += oldest - from
+            from = oldest
+        }
+        var count = minOf(written - from, out.size.toLong()).toInt()
+        for (i in 0 until count) {
+            out[i] = buffer.getInt(OFFSET_FRAMES + ((from + i) % capacity).toInt() * 4)
+        }
+        LoadFence.fence()
+
+        // 复制期间写者可能又绕了一圈，丢弃已被覆盖的开头部分
+        val overwrittenUntil = buffer.getLong(OFFSET_WRITE_INDEX) - capacity
+        if (overwrittenUntil > from) {
+            val dropped = minOf(overwrittenUntil - from, count.toLong()).toInt()
+            System.arraycopy(out, dropped, out, 0, count - dropped)
+            lostFrames += dropped
+            count -= dropped
+            cursor = from + dropped + count
+        } else {
+            cursor = from + count
+        }
+        return count
+    }
+
+    companion object {
+        const val MAGIC = 0x524C4152
+
+        internal const val OFFSET_MAGIC = 0
+        internal const val OFFSET_CAPACITY = 4
+        internal const val OFFSET_WRITE_INDEX = 8
+        internal const val OFFSET_FRAMES = 16
+    }
+}
@@ -0,0 +1,119 @@
+package com.app.ralaunch.core.platform.runtime
+
+import com.app.ralaunch.core.logging.AppLog
+import java.io.File
+import java.io.IOException
+
+/**
+ * 按线程角色分配 CPU 亲和性
+ *
+ * 定期扫描 /proc/self/task：新出现的线程、或改名后角色发生变化的线程按 [policy] 重新绑定，
+ * 已处理且未变化的线程不会重复调用 sched_setaffinity。每个决定都会写入日志以便诊断。
+ *
+ * @param mainTid 游戏主循环线程（调用 hostfxr 的 SDL 线程）
+ * @param setAffinity 绑定函数，返回 0 成功、负数为 -errno；测试时可替换
+ */
+class ThreadAffinityController(
+    private val policy: ThreadAffinityPolicy,
+    private val layout: CpuClusterLayout,
+    private val mainTid: Int,
+    private val taskDir: File = File("/proc/self/task"),
+    private val intervalMs: Long = DEFAULT_INTERVAL_MS,
+    private val setAffinity: (tid: Int, cpuMask: Long) -> Int
+) {
+
+    data class Decision(val tid: Int, val name: String, val role: ThreadRole, val coreClass: CoreClass, val result: Int)
+
+    private class Applied(val name: String, val role: ThreadRole)
+
+    private val applied = HashMap<Int, Applied>()
+
+    @Volatile
+    private var running = false
+    private var thread: Thread? = null
+
+    @Synchronized
+    fun start() {
+        if (running) return
+        running = true
+        AppLog.i(TAG, "线程亲和性策略 / Thread affinity policy: ${policy.describe()}, clusters=[${layout.describe()}]")
+        thread = Thread({ runLoop() }, "AffinityPolicy").apply {
+            isDaemon = true
+            priority = Thread.MIN_PRIORITY
+            start()
+        }
+    }
+
+    @Synchronized
+    fun stop() {
+        running = false
+        thread?.interrupt()
+        thread = null
+    }
+
+    private fun runLoop() {
+        try {
+            while (running) {
+                applyOnce()
+                Thread.sleep(intervalMs)
+            }
+        } catch (_: InterruptedException) {
+        }
+    }
+
+    /**
+     * 扫描一次并应用策略
+     * @return 本次做出的决定（未变化的线程不包含在内）
+     */
+    @Synchronized
+    fun applyOnce(): List<Decision> {
+        val tids = taskDir.list()?.mapNotNull { it.toIntOrNull() } ?: return emptyList()
+        applied.keys.retainAll(tids.toSet())
+
+        val decisions = ArrayList<Decision>()
+        for (tid in tids) {
+            val name = readName(tid) ?: continue
+            val previous = applied[tid]
+            if (previous != null && previous.name == name) continue
+
+            val role = ThreadClassifier.classify(tid, name, mainTid)
+            if (previous != null && previous.role == role) {
+                applied[tid] = Applied(name, role)
+                continue
+            }
+
+            val coreClass = policy.classFor(role)
+            val mask = layout.maskFor(coreClass)
+            val result = if (mask == 0L) RESULT_SKIPPED else setAffinity(tid, mask)
+            // 线程已退出时不记录，下一轮会自然移除
+            if (result == -ESRCH) continue
+            applied[tid] = Applied(name, role)
+            decisions.add(Decision(tid, name, role, coreClass, result))
+            log(tid, name, role, coreClass, result)
+        }
+        return decisions
+    }
+
+    private fun log(tid: Int, name: String, role: ThreadRole, coreClass: CoreClass, result: Int) {
+        val cpus = layout.cpusFor(coreClass).joinToString(",")
+        val message = "tid=$tid name=\"$name\" role=$role -> $coreClass [$cpus]"
+        if (result == 0) {
+            AppLog.i(TAG, message)
+        } else {
+            AppLog.w(TAG, "$message failed: $result")
+        }
+    }
+
+    private fun readName(tid: Int): String? = try {
+        File(taskDir, "$tid/comm").readText().trim()
+    } catch (e: IOException) {
+        null
+    }
+
+    companion object {
+        private const val TAG = "ThreadAffinity"
+        const val DEFAULT_INTERVAL_MS = 2_000L
+        private const val ESRCH = 3
+        private const val RESULT_SKIPPED = Int.MIN_VALUE
+    }
+}
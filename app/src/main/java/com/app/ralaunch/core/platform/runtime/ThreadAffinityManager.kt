@@ -1,9 +1,47 @@
 package com.app.ralaunch.core.platform.runtime
 
+import android.content.Context
+import android.system.Os
+import com.app.ralaunch.core.logging.AppLog
+
 object ThreadAffinityManager {
     private const val TAG = "ThreadAffinityManager"
 
-    fun setThreadAffinityToBigCores(): Int = nativeSetThreadAffinityToBigCores()
+    /** 游戏环境变量中可覆盖的策略，格式见 [ThreadAffinityPolicy.parse] */
+    const val ENV_POLICY = "RAL_AFFINITY_POLICY"
+
+    private var controller: ThreadAffinityController? = null
+
+    /**
+     * 为当前进程启动按线程角色的亲和性策略，调用线程视为游戏主循环
+     *
+     * 簇布局取自 [DeviceTopologyProbe]，游戏进程中不会为此创建 EGL 上下文
+     */
+    @Synchronized
+    fun startPolicy(context: Context, spec: String? = Os.getenv(ENV_POLICY)) {
+        controller?.stop()
+        val policy = ThreadAffinityPolicy.parse(spec) { invalid ->
+            AppLog.w(TAG, "忽略无效的亲和性配置项 / Ignoring invalid affinity entry: $invalid")
+        }
+        controller = ThreadAffinityController(
+            policy = policy,
+            layout = DeviceTopologyProbe.get(context, queryGpu = false).clusterLayout(),
+            mainTid = Os.gettid(),
+            setAffinity = ::setThreadAffinity
+        ).also { it.start() }
+    }
+
+    @Synchronized
+    fun stopPolicy() {
+        controller?.stop()
+        controller = null
+    }
+
+    /**
+     * @param cpuMask 第 i 位对应 CPU i
+     * @return 0 成功，否则为 -errno
+     */
+    fun setThreadAffinity(tid: Int, cpuMask: Long): Int = nativeSetThreadAffinity(tid, cpuMask)
 
-    private external fun nativeSetThreadAffinityToBigCores(): Int
-}
\ No newline at end of file
+    private external fun nativeSetThreadAffinity(tid: Int, cpuMask: Long): Int
+}
@@ -0,0 +1,134 @@
+package com.app.ralaunch.core.platform.runtime
+
+/**
+ * 游戏进程内的线程角色
+ */
+enum class ThreadRole {
+    /** 游戏主循环（SDL 线程），FNA/MonoGame 也在此线程提交 GL 命令 */
+    MAIN,
+    /** 独立的渲染/驱动线程（HWUI、GL 驱动、zink/gl4es 等） */
+    RENDER,
+    AUDIO,
+    /** .NET GC 线程 */
+    GC,
+    /** .NET 线程池与其它后台工作线程 */
+    WORKER,
+    OTHER
+}
+
+/**
+ * 核心分组
+ */
+enum class CoreClass {
+    /** 性能最强的簇（通常只有 1~2 个核心） */
+    PRIME,
+    /** 除 PRIME 与 LITTLE 外的大核；只有两个簇时等同 PRIME */
+    BIG,
+    LITTLE,
+    /** 全部核心，即不限制 */
+    ALL
+}
+
+/**
+ * 线程角色到核心分组的映射
+ *
+ * 可通过文本配置，例如 `main=prime,render=big,gc=big,audio=big,worker=all`，
+ * 未写出的角色沿用 [DEFAULT] 的设置。
+ */
+data class ThreadAffinityPolicy(val assignments: Map<ThreadRole, CoreClass>) {
+
+    fun classFor(role: ThreadRole): CoreClass = assignments[role] ?: DEFAULT.assignments[role] ?: CoreClass.ALL
+
+    fun describe(): String = ThreadRole.entries.joinToString(",") { "${it.name.lowercase()}=${classFor(it).name.lowercase()}" }
+
+    companion object {
+        /**
+         * 默认策略：主循环独占最强的簇，渲染/GC/音频使用其余大核，线程池与其它线程不限制，
+         * 避免所有线程都挤在大核上导致过早降频
+         */
+        val DEFAULT = ThreadAffinityPolicy(
+            mapOf(
+                ThreadRole.MAIN to CoreClass.PRIME,
+                ThreadRole.RENDER to CoreClass.BIG,
+                ThreadRole.GC to CoreClass.BIG,
+                ThreadRole.AUDIO to CoreClass.BIG,
+                ThreadRole.WORKER to CoreClass.ALL,
+                ThreadRole.OTHER to CoreClass.ALL
+            )
+        )
+
+        /**
+         * 解析文本配置，无法识别的项被忽略并通过 onInvalid 报告
+         */
+        fun parse(spec: String?, onInvalid: (String) -> Unit = {}): ThreadAffinityPolicy {
+            if (spec.isNullOrBlank()) return DEFAULT
+            val assignments = LinkedHashMap(DEFAULT.assignments)
+            for (entry in spec.split(',', ';')) {
+                val trimmed = entry.trim()
+                if (trimmed.isEmpty()) continue
+                val role = ThreadRole.entries.firstOrNull { it.name.equals(trimmed.substringBefore('=').trim(), true) }
+                val coreClass = CoreClass.entries.firstOrNull { it.name.equals(trimmed.substringAfter('=', "").trim(), true) }
+                if (role == null || coreClass == null) {
+                    onInvalid(trimmed)
+                    continue
+                }
+                assignments[role] = coreClass
+            }
+            return ThreadAffinityPolicy(assignments)
+        }
+    }
+}
+
+/**
+ * 按线程名（/proc/self/task/<tid>/comm，最多 15 个字符）判定线程角色
+ */
+object ThreadClassifier {
+
+    private val RENDER_MARKERS = listOf(
+        "renderthread", "glthread", "hwuitask", "mali-", "adreno", "kgsl", "zink", "gl4es", "fna3d", "vulkan", "angle"
+    )
+    private val AUDIO_MARKERS = listOf("audio", "openal", "aaudio")
+    private val GC_PREFIXES = listOf(".net bgc", ".net server gc", ".net gc")
+    private val WORKER_PREFIXES = listOf(".net", "defaultdispatch", "pool-")
+
+    fun classify(tid: Int, name: String, mainTid: Int): ThreadRole {
+        if (tid == mainTid || name == "SDLThread") return ThreadRole.MAIN
+        val lower = name.lowercase()
+        return when {
+            GC_PREFIXES.any { lower.startsWith(it) } -> ThreadRole.GC
+            AUDIO_MARKERS.any { lower.contains(it) } -> ThreadRole.AUDIO
+            RENDER_MARKERS.any { lower.contains(it) } -> ThreadRole.RENDER
+            WORKER_PREFIXES.any { lower.startsWith(it) } -> ThreadRole.WORKER
+            else -> ThreadRole.OTHER
+        }
+    }
+}
+
+/**
+ * CPU 簇布局，通常由 [DeviceTopology.clusterLayout] 得到
+ *
+ * @param clusters 每个簇的 CPU 编号，从最弱到最强
+ */
+class CpuClusterLayout(val clusters: List<List<Int>>) {
+
+    val allCpus: List<Int> = clusters.flatten().sorted()
+
+    fun cpusFor(coreClass: CoreClass): List<Int> {
+        if (clusters.size <= 1 || coreClass == CoreClass.ALL) return allCpus
+        return when (coreClass) {
+            CoreClass.PRIME -> clusters.last()
+            CoreClass.LITTLE -> clusters.first()
+            CoreClass.BIG -> if (clusters.size == 2) {
+                clusters.last()
+            } else {
+                clusters.subList(1, clusters.size - 1).flatten()
+            }
+            CoreClass.ALL -> allCpus
+        }
+    }
+
+    fun maskFor(coreClass: CoreClass): Long =
+        cpusFor(coreClass).filter { it in 0 until 64 }.fold(0L) { mask, cpu -> mask or (1L shl cpu) }
+
+    fun describe(): String = clusters.joinToString(" | ") { it.joinToString(",") }
+}
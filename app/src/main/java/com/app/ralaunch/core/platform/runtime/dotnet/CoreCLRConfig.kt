@@ -1,6 +1,8 @@
 package com.app.ralaunch.core.platform.runtime.dotnet
 
 import android.content.Context
+import android.system.Os
+import com.app.ralaunch.core.platform.runtime.EffectiveRuntimeProfile
 import com.app.ralaunch.core.platform.runtime.EnvVarsManager
 import com.app.ralaunch.core.common.SettingsAccess
 import org.koin.java.KoinJavaComponent
@@ -18,25 +20,32 @@ import org.koin.java.KoinJavaComponent
 object CoreCLRConfig {
     private const val TAG = "CoreCLRConfig"
 
+    const val ENV_GC_SERVER = "DOTNET_gcServer"
+    const val ENV_GC_CONCURRENT = "DOTNET_gcConcurrent"
+
     /**
      * 应用 CoreCLR 配置到 native 层
      * 此方法需要在启动 .NET 运行时之前调用
      *
-     * @param context Android Context
+     * @param profile 游戏级配置覆盖后的运行时配置，为 null 时使用全局设置
      */
-    fun applyConfigAndInitHooking() {
+    fun applyConfigAndInitHooking(profile: EffectiveRuntimeProfile? = null) {
         val settings = SettingsAccess
         val context: Context = KoinJavaComponent.get(Context::class.java)
+        val serverGc = profile?.serverGc ?: settings.isServerGC
+        val concurrentGc = profile?.concurrentGc ?: settings.isConcurrentGC
+        val tieredCompilation = profile?.tieredCompilation ?: settings.isTieredCompilation
+        val quickJit = profile?.quickJit ?: settings.isQuickJIT
         EnvVarsManager.quickSetEnvVars(
-            // 应用 GC 配置
-            "DOTNET_gcServer" to if (settings.isServerGC) "1" else "0",
-            "DOTNET_gcConcurrent" to if (settings.isConcurrentGC) "1" else "0",
+            // 应用 GC 配置；低内存调整（GameBoost.applyLowMemoryGc）或游戏环境变量已设置的值优先
+            ENV_GC_SERVER to (Os.getenv(ENV_GC_SERVER) ?: if (serverGc) "1" else "0"),
+            ENV_GC_CONCURRENT to (Os.getenv(ENV_GC_CONCURRENT) ?: if (concurrentGc) "1" else "0"),
             "DOTNET_GCHeapCount" to settings.gcHeapCount.takeIf { it != "auto" },
             "DOTNET_GCRetainVM" to if (settings.isRetainVM) "1" else "0",
 
             // 应用 JIT 配置
-            "DOTNET_TieredCompilation" to if (settings.isTieredCompilation) "1" else "0",
-            "DOTNET_TC_QuickJit" to if (settings.isTieredCompilation && settings.isQuickJIT) "1" else "0",
+            "DOTNET_TieredCompilation" to if (tieredCompilation) "1" else "0",
+            "DOTNET_TC_QuickJit" to if (tieredCompilation && quickJit) "1" else "0",
             "DOTNET_JitOptimizeType" to settings.jitOptimizeType.toString(),
 
             // 应用日志配置
@@ -3,6 +3,7 @@ package com.app.ralaunch.core.platform.runtime.dotnet
 import com.app.ralaunch.core.common.SettingsAccess
 import com.app.ralaunch.core.logging.AppLog
 import com.app.ralaunch.core.di.contract.IRuntimeManagerServiceV2
+import com.app.ralaunch.core.platform.runtime.EffectiveRuntimeProfile
 import com.app.ralaunch.core.platform.runtime.EnvVarsManager
 import org.koin.java.KoinJavaComponent
 
@@ -27,12 +28,14 @@ object DotNetLauncher {
      * 不要在这里进行游戏相关环境准备，以免影响其他程序集的运行
      * @param assemblyPath 程序集路径
      * @param args 传递给程序集的参数
+     * @param runtimeProfile 游戏级配置覆盖后的运行时配置，为 null 时使用全局设置
      * @return 程序集退出代码
      */
     fun hostfxrLaunch(
         assemblyPath: String,
         args: Array<String>,
-        dotNetRuntimeVersionOverride: String? = null
+        dotNetRuntimeVersionOverride: String? = null,
+        runtimeProfile: EffectiveRuntimeProfile? = null
     ): Int {
         val runtimeManager: IRuntimeManagerServiceV2 =
             KoinJavaComponent.get(IRuntimeManagerServiceV2::class.java)
@@ -51,7 +54,7 @@ object DotNetLauncher {
         AppLog.i(TAG, "Using .NET runtime version: ${dotnetRuntime.version}")
 
         EnvVarsManager.quickSetEnvVar("DOTNET_ROOT", dotnetRoot)
-        CoreCLRConfig.applyConfigAndInitHooking()
+        CoreCLRConfig.applyConfigAndInitHooking(runtimeProfile)
         val compatEnabled = SettingsAccess.isCoreClrXiaomiCompatEnabled
         if (compatEnabled) {
             CoreHostHooks.initCompatHooks()
@@ -5,23 +5,19 @@ import org.libsdl.app.SDLActivity
 
 /**
  * 触摸点跟踪器
- * 用于跟踪哪些触摸点被虚拟控件使用
- * 同时通知 SDL 层，让被占用的触摸点不会转换为鼠标事件
+ * 通知 SDL 层哪些触摸点被虚拟控件使用，让被占用的触摸点不会转换为鼠标事件
+ *
+ * 占用表只保存在 SDL 层（预编译的 SDL 分支中），这里不再保留副本：
+ * 应用内没有读取方，每次调用都直接同步给 SDL，重复占用同一触摸点时也会再次通知。
  */
 object TouchPointerTracker {
     private const val TAG = "TouchPointerTracker"
 
-    // 被虚拟控件占用的触摸点 ID
-    private val sConsumedPointers: MutableSet<Int?> = HashSet<Int?>()
-
     /**
      * 标记触摸点被虚拟控件占用
      * 同时通知 SDL 层，让此触摸点不会转换为鼠标事件
      */
-    @Synchronized
     fun consumePointer(pointerId: Int) {
-        sConsumedPointers.add(pointerId)
-        // 通知 SDL 层
         try {
             SDLActivity.nativeConsumeFingerTouch(pointerId)
         } catch (e: Exception) {
@@ -33,10 +29,7 @@ object TouchPointerTracker {
      * 释放触摸点
      * 同时通知 SDL 层
      */
-    @Synchronized
     fun releasePointer(pointerId: Int) {
-        sConsumedPointers.remove(pointerId)
-        // 通知 SDL 层
         try {
             SDLActivity.nativeReleaseFingerTouch(pointerId)
         } catch (e: Exception) {
@@ -44,30 +37,11 @@ object TouchPointerTracker {
         }
     }
 
-    /**
-     * 检查触摸点是否被占用
-     */
-    @JvmStatic
-    @Synchronized
-    fun isPointerConsumed(pointerId: Int): Boolean {
-        return sConsumedPointers.contains(pointerId)
-    }
-
-    @get:Synchronized
-    val consumedCount: Int
-        /**
-         * 获取被占用的触摸点数量
-         */
-        get() = sConsumedPointers.size
-
     /**
      * 清除所有占用
      * 同时通知 SDL 层
      */
-    @Synchronized
     fun clearAll() {
-        sConsumedPointers.clear()
-        // 通知 SDL 层
         try {
             SDLActivity.nativeClearConsumedFingers()
         } catch (e: Exception) {
@@ -75,6 +49,3 @@ object TouchPointerTracker {
         }
     }
 }
-
-
-
@@ -0,0 +1,280 @@
+package com.app.ralaunch.feature.controls.bridges
+
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 虚拟控件输入事件环形缓冲区的写入端
+ *
+ * 布局与 core/includes/ral_input_ring.h 一致。每个事件打包为 32 字节写入预分配的 DirectByteBuffer，
+ * 写入只有几次 put 和一次 [System.nanoTime]，不分配对象，也不经过 JNI。
+ *
+ * 读写索引保存在 JVM 侧的原子变量中：写入端写完事件后以 release 语义推进 [writeIndex]；
+ * 消费方以 acquire 语义读取它，交给 native 一次性派发到该位置（NativeInputQueue.nativeDrain，每帧一次 JNI 调用），
+ * 再把派发后的 read index 经 [onDrained] 交回。共享块中的 write_index/read_index 只由消费方写入，仅供统计。
+ *
+ * 写入端加锁串行化，允许多个线程写入；消费方只能有一个。
+ * 缓冲区满时反复通过 [Drainer] 请求立即派发直到腾出空位，事件始终按写入顺序派发；
+ * 只有没有 [Drainer] 时才丢弃并计数。
+ */
+class InputEventRing(
+    buffer: ByteBuffer,
+    private val drainer: Drainer? = null
+) {
+
+    /**
+     * 派发请求：[immediate] 为 false 表示缓冲区由空变为非空，安排在下一帧派发；
+     * 为 true 表示缓冲区已满，需要在返回前派发完毕
+     */
+    fun interface Drainer {
+        fun requestDrain(immediate: Boolean)
+    }
+
+    /**
+     * 消费端回调，供 [drain] 使用
+     */
+    interface Sink {
+        fun onEvent(type: Int, action: Int, code: Int, device: Int, x: Float, y: Float, pressure: Float)
+    }
+
+    /**
+     * 延迟统计快照，可复用以避免每次读取分配
+     */
+    class LatencySnapshot {
+        var drained = 0L
+        var dropped = 0L
+        var totalNs = 0L
+        var maxNs = 0L
+        val histogram = IntArray(LATENCY_BUCKETS)
+
+        val averageMs: Float
+            get() = if (drained == 0L) 0f else (totalNs.toDouble() / drained / 1e6).toFloat()
+
+        /**
+         * 按直方图估算分位数（桶上沿，毫秒）；无样本时返回 -1
+         */
+        fun percentileMs(fraction: Double): Float {
+            var total = 0L
+            for (count in histogram) total += count.toLong() and 0xFFFFFFFFL
+            if (total == 0L) return -1f
+            val target = kotlin.math.ceil(total * fraction).toLong().coerceAtLeast(1L)
+            var seen = 0L
+            for (i in histogram.indices) {
+                seen += histogram[i].toLong() and 0xFFFFFFFFL
+                if (seen >= target) return (i + 1).toFloat()
+            }
+            return LATENCY_BUCKETS.toFloat()
+        }
+    }
+
+    private val buffer: ByteBuffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+    private val capacity = this.buffer.getInt(OFFSET_CAPACITY)
+    private val mask = capacity - 1
+
+    /** 已写入的事件总数，只由持有锁的写入端推进 */
+    private val published = AtomicLong(this.buffer.getLong(OFFSET_WRITE_INDEX))
+
+    /** 已派发的事件总数，只增不减 */
+    private val consumed = AtomicLong(this.buffer.getLong(OFFSET_READ_INDEX))
+
+    /** 消费方派发的终点；此前写入的事件内容对读到该值的线程可见 */
+    val writeIndex: Long
+        get() = published.get()
+
+    val readIndex: Long
+        get() = consumed.get()
+
+    val isValid: Boolean
+        get() = buffer.getInt(OFFSET_MAGIC) == MAGIC &&
+            buffer.getInt(OFFSET_VERSION) == VERSION &&
+            buffer.getInt(OFFSET_EVENT_SIZE) == EVENT_SIZE &&
+            capacity > 0 && capacity and mask == 0 &&
+            buffer.capacity() >= HEADER_SIZE + capacity * EVENT_SIZE
+
+    /** 已写入但尚未派发的事件数 */
+    val pending: Int
+        get() = (published.get() - consumed.get()).toInt()
+
+    fun pushKey(keycode: Int, isDown: Boolean): Boolean =
+        push(TYPE_KEY, if (isDown) 1 else 0, keycode, 0, 0f, 0f, 0f)
+
+    fun pushPadButton(deviceId: Int, keycode: Int, isDown: Boolean): Boolean =
+        push(TYPE_PAD_BUTTON, if (isDown) 1 else 0, keycode, deviceId, 0f, 0f, 0f)
+
+    fun pushAxis(deviceId: Int, axis: Int, value: Float): Boolean =
+        push(TYPE_AXIS, 0, axis, deviceId, value, 0f, 0f)
+
+    /**
+     * @param action MotionEvent 动作
+     */
+    fun pushMouse(button: Int, action: Int, x: Float, y: Float, relative: Boolean): Boolean =
+        push(TYPE_MOUSE, action, button, if (relative) 1 else 0, x, y, 0f)
+
+    fun pushTouch(touchDeviceId: Int, fingerId: Int, action: Int, x: Float, y: Float, pressure: Float): Boolean =
+        push(TYPE_TOUCH, action, fingerId, touchDeviceId, x, y, pressure)
+
+    /**
+     * 滚轮与鼠标按键走同一缓冲区，不会先于已写入的按键事件派发
+     *
+     * @param scrollY 正数向上，负数向下
+     */
+    fun pushMouseWheel(scrollY: Float): Boolean =
+        push(TYPE_MOUSE_WHEEL, 0, 0, 0, 0f, scrollY, 0f)
+
+    /**
+     * 消费方派发完成后交回新的 read index；来自并发派发方的旧值不会让它回退
+     */
+    fun onDrained(readIndex: Long) {
+        while (true) {
+            val current = consumed.get()
+            if (readIndex <= current || consumed.compareAndSet(current, readIndex)) return
+        }
+    }
+
+    /**
+     * @return 事件已写入时返回 true；缓冲区满且没有 [Drainer] 时返回 false
+     */
+    @Synchronized
+    private fun push(type: Int, action: Int, code: Int, device: Int, x: Float, y: Float, pressure: Float): Boolean {
+        val write = published.get()
+        if (write - consumed.get() >= capacity && !awaitSpace(write)) {
+            buffer.putLong(OFFSET_DROPPED, buffer.getLong(OFFSET_DROPPED) + 1)
+            return false
+        }
+        val offset = HEADER_SIZE + (write.toInt() and mask) * EVENT_SIZE
+        buffer.putShort(offset + EVENT_TYPE, type.toShort())
+        buffer.putShort(offset + EVENT_ACTION, action.toShort())
+        buffer.putInt(offset + EVENT_CODE, code)
+        buffer.putInt(offset + EVENT_DEVICE, device)
+        buffer.putFloat(offset + EVENT_X, x)
+        buffer.putFloat(offset + EVENT_Y, y)
+        buffer.putFloat(offset + EVENT_PRESSURE, pressure)
+        buffer.putLong(offset + EVENT_TIMESTAMP, System.nanoTime())
+        // volatile 写：事件内容先于 write index 对消费方可见
+        published.set(write + 1)
+        if (write == consumed.get()) drainer?.requestDrain(immediate = false)
+        return true
+    }
+
+    /**
+     * 缓冲区已满：反复请求立即派发直到腾出空位，不绕过缓冲区，保证之后的事件不会先于已写入的事件派发。
+     * 其它线程正在派发时让出 CPU 等待其完成
+     *
+     * @return 有空位时返回 true；没有 [Drainer] 时返回 false
+     */
+    private fun awaitSpace(write: Long): Boolean {
+        while (write - consumed.get() >= capacity) {
+            val target = drainer ?: return false
+            target.requestDrain(immediate = true)
+            if (write - consumed.get() >= capacity) Thread.yield()
+        }
+        return true
+    }
+
+    /**
+     * 在 JVM 侧派发所有已写入的事件并记录延迟，语义与 native 的 nativeDrain 相同。
+     * 与写入使用同一把锁，用于测试及没有 native 消费方的场景，不能与 native 消费方同时使用
+     */
+    @Synchronized
+    fun drain(sink: Sink): Int {
+        val read = consumed.get()
+        val write = published.get()
+        val now = System.nanoTime()
+        var totalNs = buffer.getLong(OFFSET_LATENCY_TOTAL_NS)
+        var maxNs = buffer.getLong(OFFSET_LATENCY_MAX_NS)
+        var index = read
+        while (index < write) {
+            val offset = HEADER_SIZE + (index.toInt() and mask) * EVENT_SIZE
+            val latency = (now - buffer.getLong(offset + EVENT_TIMESTAMP)).coerceAtLeast(0L)
+            val bucket = OFFSET_LATENCY_HISTOGRAM + (latency / NS_PER_MS).coerceAtMost(LATENCY_BUCKETS - 1L).toInt() * 4
+            buffer.putInt(bucket, buffer.getInt(bucket) + 1)
+            totalNs += latency
+            if (latency > maxNs) maxNs = latency
+            sink.onEvent(
+                buffer.getShort(offset + EVENT_TYPE).toInt() and 0xFFFF,
+                buffer.getShort(offset + EVENT_ACTION).toInt() and 0xFFFF,
+                buffer.getInt(offset + EVENT_CODE),
+                buffer.getInt(offset + EVENT_DEVICE),
+                buffer.getFloat(offset + EVENT_X),
+                buffer.getFloat(offset + EVENT_Y),
+                buffer.getFloat(offset + EVENT_PRESSURE)
+            )
+            index++
+        }
+        buffer.putLong(OFFSET_LATENCY_TOTAL_NS, totalNs)
+        buffer.putLong(OFFSET_LATENCY_MAX_NS, maxNs)
+        buffer.putLong(OFFSET_DRAINED, buffer.getLong(OFFSET_DRAINED) + (write - read))
+        buffer.putLong(OFFSET_WRITE_INDEX, write)
+        buffer.putLong(OFFSET_READ_INDEX, write)
+        onDrained(write)
+        return (write - read).toInt()
+    }
+
+    /**
+     * 读取派发延迟统计；各字段分别读取，可能来自相邻两次派发
+     */
+    fun readLatency(out: LatencySnapshot) {
+        out.drained = buffer.getLong(OFFSET_DRAINED)
+        out.dropped = buffer.getLong(OFFSET_DROPPED)
+        out.totalNs = buffer.getLong(OFFSET_LATENCY_TOTAL_NS)
+        out.maxNs = buffer.getLong(OFFSET_LATENCY_MAX_NS)
+        for (i in 0 until LATENCY_BUCKETS) {
+            out.histogram[i] = buffer.getInt(OFFSET_LATENCY_HISTOGRAM + i * 4)
+        }
+    }
+
+    companion object {
+        const val MAGIC = 0x494C4152
+        const val VERSION = 2
+        const val DEFAULT_CAPACITY = 256
+        const val HEADER_SIZE = 192
+        const val EVENT_SIZE = 32
+        const val LATENCY_BUCKETS = 32
+
+        const val TYPE_KEY = 1
+        const val TYPE_PAD_BUTTON = 2
+        const val TYPE_AXIS = 3
+        const val TYPE_MOUSE = 4
+        const val TYPE_TOUCH = 5
+        const val TYPE_MOUSE_WHEEL = 6
+
+        private const val NS_PER_MS = 1_000_000L
+
+        private const val OFFSET_MAGIC = 0
+        private const val OFFSET_VERSION = 4
+        private const val OFFSET_CAPACITY = 8
+        private const val OFFSET_EVENT_SIZE = 12
+        private const val OFFSET_WRITE_INDEX = 16
+        private const val OFFSET_READ_INDEX = 24
+        private const val OFFSET_DROPPED = 32
+        private const val OFFSET_DRAINED = 40
+        private const val OFFSET_LATENCY_TOTAL_NS = 48
+        private const val OFFSET_LATENCY_MAX_NS = 56
+        private const val OFFSET_LATENCY_HISTOGRAM = 64
+
+        private const val EVENT_TYPE = 0
+        private const val EVENT_ACTION = 2
+        private const val EVENT_CODE = 4
+        private const val EVENT_DEVICE = 8
+        private const val EVENT_X = 12
+        private const val EVENT_Y = 16
+        private const val EVENT_PRESSURE = 20
+        private const val EVENT_TIMESTAMP = 24
+
+        /**
+         * 在 JVM 堆外分配一个与 native 布局相同的空缓冲区，用于测试及 libmain 不可用的场景
+         *
+         * @param capacity 事件容量，必须是 2 的幂
+         */
+        fun allocate(capacity: Int = DEFAULT_CAPACITY, drainer: Drainer? = null): InputEventRing {
+            require(capacity > 0 && capacity and (capacity - 1) == 0) { "capacity must be a power of two" }
+            val buffer = ByteBuffer.allocateDirect(HEADER_SIZE + capacity * EVENT_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+            buffer.putInt(OFFSET_MAGIC, MAGIC)
+            buffer.putInt(OFFSET_VERSION, VERSION)
+            buffer.putInt(OFFSET_CAPACITY, capacity)
+            buffer.putInt(OFFSET_EVENT_SIZE, EVENT_SIZE)
+            return InputEventRing(buffer, drainer)
+        }
+    }
+}
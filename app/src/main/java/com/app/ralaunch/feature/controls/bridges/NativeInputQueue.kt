@@ -0,0 +1,90 @@
+package com.app.ralaunch.feature.controls.bridges
+
+import android.os.Handler
+import android.os.Looper
+import android.view.Choreographer
+import java.nio.ByteBuffer
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * libmain 中输入事件环形缓冲区（[InputEventRing]）的入口
+ *
+ * 缓冲区由空变为非空时在主线程的下一个 vsync 安排一次派发，每帧最多一次 JNI 调用，
+ * 派发时 native 侧直接调用 SDL 的输入入口；缓冲区满时在写入线程上立即派发。
+ * 写入本身不经过 JNI：派发时把 [InputEventRing.writeIndex] 作为参数传给 native，
+ * native 派发到该位置后返回新的 read index，再经 [InputEventRing.onDrained] 交回写入端。
+ */
+object NativeInputQueue : InputEventRing.Drainer {
+
+    @Volatile
+    private var cached: InputEventRing? = null
+
+    private val drainScheduled = AtomicBoolean(false)
+    private val mainHandler by lazy { Handler(Looper.getMainLooper()) }
+
+    private val frameCallback = Choreographer.FrameCallback {
+        drainScheduled.set(false)
+        drainNow()
+        // 派发期间写入的事件可能没有触发新的安排
+        if ((cached?.pending ?: 0) > 0) requestDrain(immediate = false)
+    }
+
+    private val postFrameCallback = Runnable {
+        Choreographer.getInstance().postFrameCallback(frameCallback)
+    }
+
+    /**
+     * @return 事件缓冲区；libmain 未加载或布局版本不匹配时返回 null
+     */
+    @JvmStatic
+    fun ring(): InputEventRing? {
+        cached?.let { return it }
+        val buffer = try {
+            nativeGetBuffer()
+        } catch (e: UnsatisfiedLinkError) {
+            null
+        } ?: return null
+        return synchronized(this) {
+            cached ?: InputEventRing(buffer, this).takeIf { it.isValid }?.also { cached = it }
+        }
+    }
+
+    override fun requestDrain(immediate: Boolean) {
+        if (immediate) {
+            drainNow()
+            return
+        }
+        if (!drainScheduled.compareAndSet(false, true)) return
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            postFrameCallback.run()
+        } else {
+            mainHandler.post(postFrameCallback)
+        }
+    }
+
+    /**
+     * 立即派发所有已写入的事件
+     *
+     * @return 派发的事件数；其它线程正在派发时返回 0
+     */
+    fun drainNow(): Int {
+        val ring = cached ?: return 0
+        val read = ring.readIndex
+        val drained = try {
+            nativeDrain(ring.writeIndex)
+        } catch (e: UnsatisfiedLinkError) {
+            return 0
+        }
+        ring.onDrained(drained)
+        return (drained - read).coerceAtLeast(0L).toInt()
+    }
+
+    private external fun nativeGetBuffer(): ByteBuffer?
+
+    /**
+     * 派发到 writeIndex 为止的全部事件
+     *
+     * @return 派发后的 read index；其它线程正在派发时返回当前值
+     */
+    private external fun nativeDrain(writeIndex: Long): Long
+}
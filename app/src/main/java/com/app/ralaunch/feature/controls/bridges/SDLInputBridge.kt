@@ -1,7 +1,5 @@
 package com.app.ralaunch.feature.controls.bridges
 
-import android.os.Handler
-import android.os.Looper
 import com.app.ralaunch.core.logging.AppLog
 import android.view.KeyEvent
 import android.view.MotionEvent
@@ -17,6 +15,10 @@ import org.libsdl.app.VirtualXboxController
  * 注意：游戏使用触屏控制，鼠标按键通过虚拟触屏点实现
  */
 class SDLInputBridge : ControlInputBridge {
+    // libmain 中的输入事件缓冲区，每次使用时解析（libmain 可能晚于控件加载），未加载时为 null，此时直接调用 SDL
+    private val inputRing: InputEventRing?
+        get() = NativeInputQueue.ring()
+
     /**
      * 将SDL Scancode转换为Android KeyCode
      * SDLActivity.onNativeKeyDown期望接收Android KeyCode（如KEYCODE_A=29），不是ASCII！
@@ -139,7 +141,7 @@ class SDLInputBridge : ControlInputBridge {
             231 -> return KeyEvent.KEYCODE_META_RIGHT // 118
 
             else -> {
-                AppLog.w(TAG, "Unknown scancode: " + scancode + ", passing through")
+                AppLog.w(TAG) { "Unknown scancode: $scancode, passing through" }
                 return scancode // 未知的直接传递
             }
         }
@@ -150,35 +152,33 @@ class SDLInputBridge : ControlInputBridge {
             // 将Scancode转换为Keycode
             val keycode = scancodeToKeycode(scancode.code)
 
+//          AppLog.d(TAG) { "sendKey: scancode=$scancode -> keycode=$keycode, isDown=$isDown" }
 
-//            AppLog.d(TAG, "sendKey: scancode=" + scancode + " -> keycode=" + keycode +
-//                  ", isDown=" + isDown + ", calling SDLActivity.onNativeKey" + (isDown ? "Down" : "Up"));
-
-            // 确保在主线程上调用SDL方法（SDL的native方法需要在主线程调用）
-            val mainHandler = Handler(Looper.getMainLooper())
-            val finalKeycode = keycode
-            val finalIsDown = isDown
-
-            mainHandler.post(Runnable {
-                try {
-                    // 调用SDLActivity的静态native方法
-                    if (finalIsDown) {
-                        SDLActivity.onNativeKeyDown(finalKeycode)
-                        //                        AppLog.d(TAG, "SDLActivity.onNativeKeyDown(" + finalKeycode + ") called successfully");
-                    } else {
-                        SDLActivity.onNativeKeyUp(finalKeycode)
-                        //                        AppLog.d(TAG, "SDLActivity.onNativeKeyUp(" + finalKeycode + ") called successfully");
-                    }
-                } catch (e: Exception) {
-                    AppLog.e(TAG, "Error in SDL native key method: keycode=" + finalKeycode, e)
-                }
-            })
+            // 写入事件缓冲区，由主线程每帧统一派发（SDL的native方法需要在主线程调用）；
+            // 缓冲区可用时不回退到直接调用，避免与已写入的事件乱序
+            val ring = inputRing
+            if (ring != null) {
+                ring.pushKey(keycode, isDown)
+                return
+            }
+
+            // 缓冲区不可用时直接调用SDLActivity的静态native方法
+            if (isDown) {
+                SDLActivity.onNativeKeyDown(keycode)
+            } else {
+                SDLActivity.onNativeKeyUp(keycode)
+            }
         } catch (e: Exception) {
-            AppLog.e(TAG, "Error sending key: scancode=" + scancode, e)
+            AppLog.e(TAG, e) { "Error sending key: scancode=$scancode" }
         }
     }
 
     fun sdlOnNativeMouseDirect(button: Int, action: Int, x: Float, y: Float, relative: Boolean) {
+        val ring = inputRing
+        if (ring != null) {
+            ring.pushMouse(button, action, x, y, relative)
+            return
+        }
         SDLActivity.onNativeMouseDirect(button, action, x, y, relative)
     }
 
@@ -199,15 +199,12 @@ class SDLInputBridge : ControlInputBridge {
                 ControlData.KeyCode.MOUSE_RIGHT -> MotionEvent.BUTTON_SECONDARY
                 ControlData.KeyCode.MOUSE_MIDDLE -> MotionEvent.BUTTON_TERTIARY
                 else -> {
-                    AppLog.w(TAG, "Unknown mouse button: $button")
+                    AppLog.w(TAG) { "Unknown mouse button: $button" }
                     return
                 }
             }
 
-
-            // 添加日志查看发送的值
-//            AppLog.d(TAG, "Sending mouse button (no cursor move): button=" + button + " -> sdlButton=" + sdlButton +
-//                  ", isDown=" + isDown);
+//          AppLog.d(TAG) { "Sending mouse button (no cursor move): button=$button -> sdlButton=$sdlButton, isDown=$isDown" }
 
             sdlOnNativeMouseDirect(
                 sdlButton,
@@ -215,14 +212,14 @@ class SDLInputBridge : ControlInputBridge {
                 0f, 0f,
                 true)
         } catch (e: Exception) {
-            AppLog.e(TAG, "Error sending mouse button: $button", e)
+            AppLog.e(TAG, e) { "Error sending mouse button: $button" }
         }
     }
 
     override fun sendMousePosition(x: Float, y: Float) {
         try {
-            // 调用SDLActivity的静态native方法，使用绝对位置（relative = false）
-            SDLActivity.onNativeMouseDirect(0, MotionEvent.ACTION_MOVE, x, y, false)
+            // 使用绝对位置（relative = false）
+            sdlOnNativeMouseDirect(0, MotionEvent.ACTION_MOVE, x, y, false)
         } catch (e: Exception) {
             AppLog.e(TAG, "Error sending mouse position", e)
         }
@@ -230,7 +227,7 @@ class SDLInputBridge : ControlInputBridge {
 
     override fun sendMouseMove(deltaX: Float, deltaY: Float) {
         try {
-            SDLActivity.onNativeMouseDirect(0, MotionEvent.ACTION_MOVE, deltaX, deltaY, true)
+            sdlOnNativeMouseDirect(0, MotionEvent.ACTION_MOVE, deltaX, deltaY, true)
         } catch (e: Exception) {
             AppLog.e(TAG, "Error sending mouse move", e)
         }
@@ -238,9 +235,14 @@ class SDLInputBridge : ControlInputBridge {
 
     override fun sendMouseWheel(scrollY: Float) {
         try {
-            // 调用native方法发送鼠标滚轮事件
-            nativeSendMouseWheelSDL(scrollY)
-            //            AppLog.d(TAG, "Sending mouse wheel: scrollY=" + scrollY);
+            // 与鼠标按键走同一缓冲区，保证不会先于仍在缓冲区中的按键事件到达
+            val ring = inputRing
+            if (ring != null) {
+                ring.pushMouseWheel(scrollY)
+            } else {
+                nativeSendMouseWheelSDL(scrollY)
+            }
+//          AppLog.d(TAG) { "Sending mouse wheel: scrollY=$scrollY" }
         } catch (e: Exception) {
             AppLog.e(TAG, "Error sending mouse wheel", e)
         }
@@ -288,7 +290,7 @@ class SDLInputBridge : ControlInputBridge {
             if (buttonIndex >= 0) {
                 controller.setButton(buttonIndex, isDown)
             } else {
-                AppLog.w(TAG, "Unknown Xbox button code: " + xboxButton)
+                AppLog.w(TAG) { "Unknown Xbox button code: $xboxButton" }
             }
         } catch (e: Exception) {
             AppLog.e(TAG, "Error sending Xbox button", e)
@@ -312,7 +314,7 @@ class SDLInputBridge : ControlInputBridge {
                     controller.setAxis(VirtualXboxController.AXIS_RIGHT_TRIGGER, value)
                 }
                 else -> {
-                    AppLog.w(TAG, "Unknown Xbox trigger code: " + xboxTrigger)
+                    AppLog.w(TAG) { "Unknown Xbox trigger code: $xboxTrigger" }
                 }
             }
         } catch (e: Exception) {
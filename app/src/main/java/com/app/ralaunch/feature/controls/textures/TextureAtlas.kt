@@ -0,0 +1,70 @@
+package com.app.ralaunch.feature.controls.textures
+
+import android.graphics.Bitmap
+import android.graphics.BitmapShader
+import android.graphics.Rect
+import java.io.File
+
+/**
+ * 控件包纹理图集
+ *
+ * 当前布局用到的纹理按显示尺寸预先光栅化并合并到少数几张页面 Bitmap 中，
+ * 每个纹理路径按引用它的控件宽高比各对应一个 [Region]（页面 + 源矩形）。绘制时直接从页面取源矩形，
+ * 不再逐控件查找 LRU 缓存，也不会为每个控件各持有一张 Bitmap。
+ *
+ * 由 [TextureAtlasBuilder] 构建，通过 [TextureLoader.findAtlasRegion] 查找。
+ */
+class TextureAtlas internal constructor(
+    /** 图集对应的控件包资源目录 */
+    val assetsDir: File,
+    /** 构建参数的摘要，相同时可以直接复用 */
+    val key: String,
+    val pages: List<Bitmap>,
+    private val regions: Map<String, List<Region>>
+) {
+
+    /**
+     * 图集中的一块纹理，也用作控件绑定的纹理句柄（此时可能是整张独立的 Bitmap）
+     *
+     * @property page 所在页面
+     * @property src 在页面中的源矩形
+     */
+    class Region(val page: Bitmap, val src: Rect) {
+        /** 平铺模式使用的 Shader，由 [TextureRenderer.prepare] 创建，随句柄一起释放 */
+        var tileShader: BitmapShader? = null
+            internal set
+
+        val width: Int get() = src.width()
+        val height: Int get() = src.height()
+
+        /** 是否是整张 Bitmap（未放入图集的纹理），只有这种区域可以平铺 */
+        val coversPage: Boolean
+            get() = src.left == 0 && src.top == 0 && src.right == page.width && src.bottom == page.height
+    }
+
+    val regionCount: Int
+        get() = regions.values.sumOf { it.size }
+
+    /** 页面占用的字节数 */
+    val byteCount: Long
+        get() = pages.sumOf { it.allocationByteCount.toLong() }
+
+    /**
+     * @param relativePath 纹理相对于 [assetsDir] 的路径，与 [TextureConfig.path] 相同
+     * @param width 纹理的目标宽度，与 [height] 一起决定取哪个宽高比的区域
+     * @param height 纹理的目标高度
+     * @return 宽高比与目标尺寸相同的区域；该纹理只以其他宽高比收录时返回 null
+     */
+    fun find(relativePath: String, width: Int, height: Int): Region? {
+        val candidates = regions[relativePath] ?: return null
+        for (i in candidates.indices) {
+            val region = candidates[i]
+            if (region.width.toLong() * height == region.height.toLong() * width) {
+                return region.takeUnless { it.page.isRecycled }
+            }
+        }
+        return null
+    }
+
+    operator fun contains(relativePath: String): Boolean = relativePath in regions
+}
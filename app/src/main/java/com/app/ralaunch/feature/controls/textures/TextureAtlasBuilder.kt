@@ -0,0 +1,244 @@
+package com.app.ralaunch.feature.controls.textures
+
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import android.graphics.Canvas
+import android.graphics.Paint
+import android.graphics.Rect
+import android.os.SystemClock
+import com.app.ralaunch.core.logging.AppLog
+import com.app.ralaunch.feature.controls.ControlData
+import java.io.File
+import java.io.FileOutputStream
+
+/**
+ * 纹理图集构建器
+ *
+ * 把布局中按钮、摇杆用到的纹理按显示尺寸光栅化，用 [TextureAtlasPacker] 装进不超过 [MAX_PAGES] 张
+ * [MAX_PAGE_SIZE] 见方的页面，并把页面和源矩形表写入磁盘缓存（[TextureAtlasDiskCache]）。
+ *
+ * 缓存位于 `cacheDir/texture_atlas/<packId>/v<versionCode>_<densityDpi>dpi_<摘要>/`，
+ * 摘要覆盖每个纹理的路径、目标尺寸、文件大小和修改时间，编辑纹理或调整控件尺寸后自动失效；
+ * 同一纹理被宽高比不同的控件引用时按各自的宽高比分别光栅化，保证与逐个加载时的绘制结果一致；
+ * 每个控件包只保留最新的一份。
+ *
+ * 平铺模式（[TextureConfig.ScaleMode.TILE]）需要 BitmapShader 重复整张 Bitmap，不放入图集；
+ * 放不下的纹理同样留给 [TextureLoader] 按原方式加载。构建涉及解码和磁盘读写，只能在后台线程调用。
+ */
+class TextureAtlasBuilder(
+    private val loader: TextureLoader,
+    cacheRoot: File
+) {
+
+    private val diskCache = TextureAtlasDiskCache(cacheRoot)
+
+    /**
+     * 一个纹理在图集中的目标尺寸
+     *
+     * @param path 相对于控件包资源目录的路径
+     */
+    data class Request(val path: String, val width: Int, val height: Int)
+
+    /**
+     * 构建参数
+     */
+    class Spec(
+        val packId: String,
+        val versionCode: Int,
+        val densityDpi: Int,
+        val assetsDir: File,
+        val requests: List<Request>
+    )
+
+    /**
+     * 计算 [spec] 对应的缓存键，需要读取纹理文件的属性；没有可放入图集的纹理时返回 null
+     */
+    fun keyOf(spec: Spec): String? {
+        val requests = prepare(spec)
+        if (requests.isEmpty()) return null
+        return diskCache.keyOf(spec, requests)
+    }
+
+    /**
+     * 优先从磁盘缓存加载，未命中时重新构建并写入缓存
+     *
+     * @return 图集；没有可放入图集的纹理或构建失败时返回 null
+     */
+    fun build(spec: Spec): TextureAtlas? {
+        val requests = prepare(spec)
+        if (requests.isEmpty()) return null
+        val key = diskCache.keyOf(spec, requests)
+        val dir = diskCache.dirOf(spec.packId, key)
+
+        val start = SystemClock.elapsedRealtime()
+        loadFromDisk(dir, spec.assetsDir, key)?.let { atlas ->
+            AppLog.i(TAG) {
+                "Loaded atlas for ${spec.packId} from cache: ${atlas.regionCount} textures, " +
+                    "${atlas.pages.size} pages in ${SystemClock.elapsedRealtime() - start}ms"
+            }
+            return atlas
+        }
+
+        val atlas = rasterize(spec.assetsDir, key, requests) ?: return null
+        saveToDisk(dir, atlas, requests)
+        AppLog.i(TAG) {
+            "Built atlas for ${spec.packId}: ${atlas.regionCount}/${requests.size} textures, " +
+                "${atlas.pages.size} pages, ${atlas.byteCount / 1024}KB in ${SystemClock.elapsedRealtime() - start}ms"
+        }
+        return atlas
+    }
+
+    private fun prepare(spec: Spec): List<Request> =
+        merge(spec.requests).filter { File(spec.assetsDir, it.path).isFile }
+
+    private fun rasterize(assetsDir: File, key: String, requests: List<Request>): TextureAtlas? {
+        val result = TextureAtlasPacker.pack(
+            IntArray(requests.size) { requests[it].width },
+            IntArray(requests.size) { requests[it].height },
+            MAX_PAGE_SIZE,
+            maxPages = MAX_PAGES
+        )
+        if (result.pageCount == 0) return null
+
+        val pages = List(result.pageCount) {
+            Bitmap.createBitmap(result.pageWidth[it], result.pageHeight[it], Bitmap.Config.ARGB_8888)
+        }
+        val canvases = pages.map { Canvas(it) }
+        val paint = Paint(Paint.FILTER_BITMAP_FLAG)
+        val regions = HashMap<String, MutableList<TextureAtlas.Region>>()
+        var regionCount = 0
+
+        requests.forEachIndexed { i, request ->
+            val pageIndex = result.page[i]
+            if (pageIndex < 0) return@forEachIndexed
+            val bitmap = loader.decodeTexture(
+                File(assetsDir, request.path).absolutePath,
+                request.width,
+                request.height
+            ) ?: return@forEachIndexed
+            val dst = Rect(result.x[i], result.y[i], result.x[i] + request.width, result.y[i] + request.height)
+            canvases[pageIndex].drawBitmap(bitmap, null, dst, paint)
+            bitmap.recycle()
+            regions.getOrPut(request.path) { ArrayList() }.add(TextureAtlas.Region(pages[pageIndex], dst))
+            regionCount++
+        }
+
+        if (regionCount == 0) {
+            pages.forEach { it.recycle() }
+            return null
+        }
+        return TextureAtlas(assetsDir, key, pages, regions)
+    }
+
+    private fun loadFromDisk(dir: File, assetsDir: File, key: String): TextureAtlas? {
+        val index = diskCache.read(dir) ?: return null
+        return try {
+            val options = BitmapFactory.Options().apply {
+                inPreferredConfig = Bitmap.Config.ARGB_8888
+                inScaled = false
+            }
+            val pages = List(index.pages) { page ->
+                BitmapFactory.decodeFile(diskCache.pageFile(dir, page).path, options)
+            }.filterNotNull()
+            val regions = HashMap<String, MutableList<TextureAtlas.Region>>()
+            var regionCount = 0
+            for (entry in index.entries) {
+                val page = pages.getOrNull(entry.page) ?: break
+                val src = Rect(entry.left, entry.top, entry.right, entry.bottom)
+                if (src.isEmpty || src.left < 0 || src.top < 0 || src.right > page.width || src.bottom > page.height) break
+                regions.getOrPut(entry.path) { ArrayList() }.add(TextureAtlas.Region(page, src))
+                regionCount++
+            }
+            if (pages.size != index.pages || regionCount != index.entries.size) {
+                pages.forEach { it.recycle() }
+                return null
+            }
+            TextureAtlas(assetsDir, key, pages, regions)
+        } catch (e: Exception) {
+            AppLog.w(TAG, "Discarding unreadable atlas cache: ${dir.path}", e)
+            diskCache.discard(dir)
+            null
+        }
+    }
+
+    private fun saveToDisk(dir: File, atlas: TextureAtlas, requests: List<Request>) {
+        val entries = requests.mapNotNull { request ->
+            val region = atlas.find(request.path, request.width, request.height) ?: return@mapNotNull null
+            TextureAtlasDiskCache.Entry(
+                request.path,
+                atlas.pages.indexOf(region.page),
+                region.src.left,
+                region.src.top,
+                region.src.right,
+                region.src.bottom
+            )
+        }
+        diskCache.write(dir, atlas.pages.size, entries) { page, file ->
+            FileOutputStream(file).use { atlas.pages[page].compress(Bitmap.CompressFormat.PNG, 100, it) }
+        }
+    }
+
+    companion object {
+        private const val TAG = "TextureAtlasBuilder"
+
+        /** 缓存目录名，位于 cacheDir 下 */
+        const val CACHE_DIR_NAME = "texture_atlas"
+
+        const val MAX_PAGE_SIZE = 2048
+        const val MAX_PAGES = 4
+
+        /**
+         * 收集布局中通过 [TextureRenderer] 绘制的纹理：按钮的常态、按下、切换纹理按控件尺寸，
+         * 摇杆的底盘和摇杆头按控件短边的正方形（两者都不会超过这个尺寸）
+         *
+         * @param widthPx 控件宽度（像素）
+         * @param heightPx 控件高度（像素）
+         */
+        fun requestsFor(
+            controls: List<ControlData>,
+            widthPx: (ControlData) -> Int,
+            heightPx: (ControlData) -> Int
+        ): List<Request> {
+            val requests = ArrayList<Request>()
+            fun add(config: TextureConfig, width: Int, height: Int) {
+                if (!config.enabled || config.path.isEmpty() || config.scaleMode == TextureConfig.ScaleMode.TILE) return
+                requests.add(Request(config.path, width, height))
+            }
+            for (data in controls) {
+                val width = widthPx(data)
+                val height = heightPx(data)
+                when (data) {
+                    is ControlData.Button -> with(data.texture) {
+                        add(normal, width, height)
+                        add(pressed, width, height)
+                        add(toggled, width, height)
+                    }
+                    is ControlData.Joystick -> with(data.texture) {
+                        val side = minOf(width, height)
+                        add(background, side, side)
+                        add(knob, side, side)
+                        add(backgroundPressed, side, side)
+                        add(knobPressed, side, side)
+                    }
+                    else -> Unit
+                }
+            }
+            return requests
+        }
+
+        /**
+         * 同一路径、同一宽高比只放一份，取其中最大的尺寸；宽高比不同的引用各放一份，
+         * 避免按最大宽、最大高合成的区域在 FIT 模式下留边。按路径和尺寸排序使结果与控件顺序无关
+         */
+        internal fun merge(requests: List<Request>): List<Request> =
+            requests.filter { it.width > 0 && it.height > 0 }
+                .groupBy { request ->
+                    val divisor = gcd(request.width, request.height)
+                    Triple(request.path, request.width / divisor, request.height / divisor)
+                }
+                .map { (_, group) -> group.maxBy { it.width } }
+                .sortedWith(compareBy<Request>({ it.path }, { it.width }, { it.height }))
+
+        private tailrec fun gcd(a: Int, b: Int): Int = if (b == 0) a else gcd(b, a % b)
+    }
+}
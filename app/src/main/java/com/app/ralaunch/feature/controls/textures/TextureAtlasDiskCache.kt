@@ -0,0 +1,123 @@
+package com.app.ralaunch.feature.controls.textures
+
+import com.app.ralaunch.core.logging.AppLog
+import kotlinx.serialization.Serializable
+import kotlinx.serialization.json.Json
+import java.io.File
+
+/**
+ * 纹理图集的磁盘缓存
+ *
+ * 每份缓存是 `<cacheRoot>/<packId>/<key>/` 下的页面图片和源矩形表，键由 [keyOf] 计算。
+ * 写入先落到同级的 `.tmp` 目录，完成后删除同一控件包的其他缓存再改名，写入失败时保留原有缓存。
+ * 只负责目录和源矩形表，页面的编解码由 [TextureAtlasBuilder] 完成。
+ */
+internal class TextureAtlasDiskCache(private val cacheRoot: File) {
+
+    @Serializable
+    data class Index(
+        val format: Int,
+        val pages: Int,
+        val entries: List<Entry>
+    )
+
+    @Serializable
+    data class Entry(
+        val path: String,
+        val page: Int,
+        val left: Int,
+        val top: Int,
+        val right: Int,
+        val bottom: Int
+    )
+
+    /**
+     * 摘要覆盖每个纹理的路径、目标尺寸、文件大小和修改时间，以及应用版本和屏幕密度
+     */
+    fun keyOf(spec: TextureAtlasBuilder.Spec, requests: List<TextureAtlasBuilder.Request>): String {
+        var hash = FNV_OFFSET
+        fun mix(value: String) {
+            for (c in value) hash = (hash xor c.code.toLong()) * FNV_PRIME
+            hash = (hash xor 0xFF) * FNV_PRIME
+        }
+        for (request in requests) {
+            val file = File(spec.assetsDir, request.path)
+            mix(request.path)
+            mix("${request.width}x${request.height}")
+            mix("${file.length()}@${file.lastModified()}")
+        }
+        return "v${spec.versionCode}_${spec.densityDpi}dpi_${java.lang.Long.toHexString(hash)}"
+    }
+
+    fun dirOf(packId: String, key: String): File = File(File(cacheRoot, packId), key)
+
+    fun pageFile(dir: File, page: Int): File = File(dir, "page_$page.png")
+
+    /**
+     * 读取源矩形表
+     *
+     * @return 缓存不存在或格式不同时返回 null；无法解析时删除该缓存并返回 null
+     */
+    fun read(dir: File): Index? {
+        val indexFile = File(dir, INDEX_FILE_NAME)
+        if (!indexFile.isFile) return null
+        val index = try {
+            json.decodeFromString(Index.serializer(), indexFile.readText())
+        } catch (e: Exception) {
+            AppLog.w(TAG, "Discarding unreadable atlas cache: ${dir.path}", e)
+            discard(dir)
+            return null
+        }
+        return index.takeIf { it.format == FORMAT }
+    }
+
+    /**
+     * 写入一份缓存，成功后同一控件包只保留这一份
+     *
+     * @param writePage 把第 i 页写入给定文件
+     * @return 是否写入成功
+     */
+    fun write(dir: File, pages: Int, entries: List<Entry>, writePage: (page: Int, file: File) -> Unit): Boolean {
+        val packDir = dir.parentFile ?: return false
+        val staging = File(packDir, "${dir.name}$STAGING_SUFFIX")
+        try {
+            staging.deleteRecursively()
+            if (!staging.mkdirs()) return false
+            for (page in 0 until pages) writePage(page, pageFile(staging, page))
+            File(staging, INDEX_FILE_NAME).writeText(
+                json.encodeToString(Index.serializer(), Index(FORMAT, pages, entries))
+            )
+
+            // 同一控件包只保留最新的缓存
+            packDir.listFiles()?.forEach { if (it != staging) it.deleteRecursively() }
+            if (staging.renameTo(dir)) return true
+            staging.deleteRecursively()
+            return false
+        } catch (e: Exception) {
+            AppLog.w(TAG, "Failed to write atlas cache: ${dir.path}", e)
+            staging.deleteRecursively()
+            return false
+        }
+    }
+
+    /**
+     * 删除一份缓存，页面无法解码等情况下调用
+     */
+    fun discard(dir: File) {
+        dir.deleteRecursively()
+    }
+
+    companion object {
+        private const val TAG = "TextureAtlasDiskCache"
+
+        // 2: 同一路径可以有多个不同宽高比的条目
+        const val FORMAT = 2
+        private const val INDEX_FILE_NAME = "index.json"
+        private const val STAGING_SUFFIX = ".tmp"
+
+        private const val FNV_OFFSET = -0x340d631b7bdddcdbL
+        private const val FNV_PRIME = 0x100000001b3L
+
+        private val json = Json { ignoreUnknownKeys = true }
+    }
+}
@@ -0,0 +1,109 @@
+package com.app.ralaunch.feature.controls.textures
+
+/**
+ * 纹理图集的矩形装箱
+ *
+ * 按高度降序逐个放入“货架”：先尝试已有页面中高度足够且剩余宽度足够的货架，
+ * 再尝试在已有页面底部开新货架，最后才开新页面。控件纹理尺寸相近，货架装箱的利用率已经足够，
+ * 而且结果只取决于输入顺序，同样的输入总是得到同样的布局，便于磁盘缓存复用。
+ *
+ * 每个矩形四周至少留 [padding] 像素的透明间隙，避免双线性过滤采样到相邻纹理。
+ */
+object TextureAtlasPacker {
+
+    /**
+     * 装箱结果
+     *
+     * 第 i 个矩形位于第 [page] [i] 页的 ([x] [i], [y] [i])；放不下（超过页面尺寸或页数上限）时 [page] [i] 为 -1
+     */
+    class Result(
+        val pageCount: Int,
+        val page: IntArray,
+        val x: IntArray,
+        val y: IntArray,
+        /** 各页实际用到的宽度（含右侧间隙），可据此裁掉页面空白 */
+        val pageWidth: IntArray,
+        val pageHeight: IntArray
+    ) {
+        val packedCount: Int
+            get() = page.count { it >= 0 }
+    }
+
+    private class Shelf(val y: Int, val height: Int, var x: Int)
+
+    private class Page(val size: Int, padding: Int) {
+        val shelves = ArrayList<Shelf>()
+        var bottom = padding
+        var usedWidth = 0
+
+        /** 已有货架中能放下 [w] x [h] 的第一个 */
+        fun findShelf(w: Int, h: Int, limit: Int): Shelf? =
+            shelves.firstOrNull { it.height >= h && it.x + w <= limit }
+
+        fun canOpenShelf(h: Int, limit: Int): Boolean = bottom + h <= limit
+
+        fun openShelf(h: Int, padding: Int): Shelf =
+            Shelf(bottom, h, padding).also {
+                shelves.add(it)
+                bottom += h + padding
+            }
+    }
+
+    /**
+     * @param widths 各矩形宽度
+     * @param heights 各矩形高度
+     * @param maxPageSize 页面边长上限
+     * @param padding 矩形之间及与页面边缘的间隙
+     * @param maxPages 页数上限，超出的矩形不放入图集
+     */
+    fun pack(
+        widths: IntArray,
+        heights: IntArray,
+        maxPageSize: Int,
+        padding: Int = DEFAULT_PADDING,
+        maxPages: Int = Int.MAX_VALUE
+    ): Result {
+        require(widths.size == heights.size) { "widths and heights differ in size" }
+        val count = widths.size
+        val page = IntArray(count) { -1 }
+        val x = IntArray(count)
+        val y = IntArray(count)
+        val pages = ArrayList<Page>()
+        val limit = maxPageSize - padding
+
+        val order = (0 until count).sortedWith(
+            compareByDescending<Int> { heights[it] }.thenByDescending { widths[it] }.thenBy { it }
+        )
+        for (index in order) {
+            val w = widths[index]
+            val h = heights[index]
+            if (w <= 0 || h <= 0 || padding + w > limit || padding + h > limit) continue
+
+            var pageIndex = pages.indices.firstOrNull { pages[it].findShelf(w, h, limit) != null }
+                ?: pages.indices.firstOrNull { pages[it].canOpenShelf(h, limit) }
+            if (pageIndex == null) {
+                if (pages.size >= maxPages) continue
+                pages.add(Page(maxPageSize, padding))
+                pageIndex = pages.size - 1
+            }
+            val target = pages[pageIndex]
+            val shelf = target.findShelf(w, h, limit) ?: target.openShelf(h, padding)
+            page[index] = pageIndex
+            x[index] = shelf.x
+            y[index] = shelf.y
+            shelf.x += w + padding
+            target.usedWidth = maxOf(target.usedWidth, shelf.x)
+        }
+
+        return Result(
+            pageCount = pages.size,
+            page = page,
+            x = x,
+            y = y,
+            pageWidth = IntArray(pages.size) { minOf(pages[it].usedWidth, pages[it].size) },
+            pageHeight = IntArray(pages.size) { minOf(pages[it].bottom, pages[it].size) }
+        )
+    }
+
+    const val DEFAULT_PADDING = 2
+}
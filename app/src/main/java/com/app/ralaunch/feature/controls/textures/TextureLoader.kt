@@ -4,14 +4,21 @@ import android.content.Context
 import android.graphics.Bitmap
 import android.graphics.BitmapFactory
 import android.graphics.Canvas
+import android.graphics.Rect
 import android.graphics.drawable.Drawable
 import android.graphics.drawable.PictureDrawable
 import android.util.LruCache
 import com.app.ralaunch.core.logging.AppLog
 import com.caverock.androidsvg.SVG
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
 import java.io.File
 import java.io.FileInputStream
 import java.lang.ref.WeakReference
+import java.util.concurrent.atomic.AtomicInteger
 
 /**
  * 纹理加载器
@@ -23,6 +30,7 @@ import java.lang.ref.WeakReference
  * - LRU 内存缓存
  * - 自动缩放以适应目标尺寸
  * - SVG 矢量图支持（可缩放到任意尺寸）
+ * - 控件包纹理图集（[TextureAtlas]），按钮和摇杆优先从图集绘制
  * - 线程安全
  */
 class TextureLoader private constructor(context: Context) {
@@ -68,6 +76,24 @@ class TextureLoader private constructor(context: Context) {
     /** SVG 缓存（缓存 SVG 对象，渲染时按需生成 Bitmap） */
     private val svgCache = LruCache<String, SVG>(50)
     
+    /** 当前控件包的纹理图集 */
+    @Volatile
+    var atlas: TextureAtlas? = null
+        private set
+    
+    /** 每次请求构建图集时递增，较早的构建结果完成后被丢弃 */
+    private val atlasGeneration = AtomicInteger()
+    
+    private val atlasScope = CoroutineScope(Dispatchers.IO + SupervisorJob())
+    
+    /** 正在进行的图集构建，新的请求或 [clearAtlas] 时取消 */
+    @Volatile
+    private var atlasJob: Job? = null
+    
+    private val atlasBuilder by lazy {
+        TextureAtlasBuilder(this, File(contextRef.get()?.cacheDir, TextureAtlasBuilder.CACHE_DIR_NAME))
+    }
+    
     /**
      * 加载纹理
      * 
@@ -85,7 +111,6 @@ class TextureLoader private constructor(context: Context) {
             return null
         }
         
-        val extension = file.extension.lowercase()
         val cacheKey = "$path|${targetWidth}x${targetHeight}"
         
         // 检查缓存
@@ -93,8 +118,26 @@ class TextureLoader private constructor(context: Context) {
             if (!it.isRecycled) return it 
         }
         
+        return decodeFile(file, targetWidth, targetHeight)?.also { bitmapCache.put(cacheKey, it) }
+    }
+    
+    /**
+     * 解码纹理但不放入内存缓存，调用方负责回收返回的 Bitmap；用于构建图集等一次性场景
+     */
+    fun decodeTexture(path: String, targetWidth: Int = 0, targetHeight: Int = 0): Bitmap? {
+        if (path.isEmpty()) return null
+        val file = File(path)
+        if (!file.exists()) {
+            AppLog.w(TAG, "Texture file not found: $path")
+            return null
+        }
+        return decodeFile(file, targetWidth, targetHeight)
+    }
+    
+    private fun decodeFile(file: File, targetWidth: Int, targetHeight: Int): Bitmap? {
+        val extension = file.extension.lowercase()
         return try {
-            val bitmap = when {
+            when {
                 extension == SVG_EXTENSION -> loadSvg(file, targetWidth, targetHeight)
                 extension in SUPPORTED_IMAGE_EXTENSIONS -> loadBitmap(file, targetWidth, targetHeight)
                 else -> {
@@ -102,10 +145,8 @@ class TextureLoader private constructor(context: Context) {
                     null
                 }
             }
-            
-            bitmap?.also { bitmapCache.put(cacheKey, it) }
         } catch (e: Exception) {
-            AppLog.e(TAG, "Failed to load texture: $path", e)
+            AppLog.e(TAG, "Failed to load texture: ${file.path}", e)
             null
         }
     }
@@ -128,6 +169,89 @@ class TextureLoader private constructor(context: Context) {
         return loadTexture(file.absolutePath, targetWidth, targetHeight)
     }
     
+    /**
+     * 在图集中查找控件包纹理，只做一次 Map 查找，不访问文件系统
+     * 
+     * @param targetWidth 目标宽度，图集只返回宽高比与目标尺寸相同的区域
+     * @param targetHeight 目标高度
+     * @return 图集区域；图集不属于 [packAssetsDir] 或没有以该宽高比收录该纹理时返回 null，此时应回退到 [loadPackTexture]
+     */
+    fun findAtlasRegion(
+        packAssetsDir: File,
+        relativePath: String,
+        targetWidth: Int,
+        targetHeight: Int
+    ): TextureAtlas.Region? {
+        val current = atlas ?: return null
+        if (current.assetsDir != packAssetsDir) return null
+        return current.find(relativePath, targetWidth, targetHeight)
+    }
+    
+    /**
+     * 把控件包纹理解析为可直接绘制的句柄：优先取图集区域，否则加载（并缓存）整张 Bitmap。
+     * 会访问文件系统，供 [TextureSlots] 在绑定时调用，不应在绘制时调用。
+     * 同时为句柄准备好 [TextureRenderer] 的着色滤镜和平铺 Shader
+     */
+    fun resolvePackTexture(
+        packAssetsDir: File,
+        config: TextureConfig,
+        targetWidth: Int,
+        targetHeight: Int
+    ): TextureAtlas.Region? {
+        val atlasRegion = if (config.scaleMode != TextureConfig.ScaleMode.TILE) {
+            findAtlasRegion(packAssetsDir, config.path, targetWidth, targetHeight)
+        } else {
+            null
+        }
+        val region = atlasRegion
+            ?: loadPackTexture(packAssetsDir, config.path, targetWidth, targetHeight)?.let {
+                TextureAtlas.Region(it, Rect(0, 0, it.width, it.height))
+            }
+            ?: return null
+        TextureRenderer.prepare(region, config)
+        return region
+    }
+    
+    /**
+     * 为控件包构建纹理图集
+     * 
+     * 在 IO 线程中优先读取磁盘缓存，未命中时重新光栅化；参数与当前图集相同时不做任何工作。
+     * 完成后替换 [atlas] 并在 IO 线程回调 [onReady]（图集未变化时不回调）；
+     * 期间再次请求时取消较早的构建，已经构建出的结果被丢弃。
+     */
+    fun buildPackAtlas(spec: TextureAtlasBuilder.Spec, onReady: ((TextureAtlas?) -> Unit)? = null) {
+        val generation = atlasGeneration.incrementAndGet()
+        atlasJob?.cancel()
+        atlasJob = atlasScope.launch {
+            val key = atlasBuilder.keyOf(spec)
+            val current = atlas
+            if (key != null && current != null && current.key == key && current.assetsDir == spec.assetsDir) {
+                return@launch
+            }
+            val built = if (key == null) null else atlasBuilder.build(spec)
+            synchronized(atlasGeneration) {
+                if (atlasGeneration.get() != generation) {
+                    built?.pages?.forEach { it.recycle() }
+                    return@launch
+                }
+                atlas = built
+            }
+            onReady?.invoke(built)
+        }
+    }
+    
+    /**
+     * 丢弃当前图集并取消正在进行的构建，之后的绘制回退到逐个加载纹理
+     */
+    fun clearAtlas() {
+        synchronized(atlasGeneration) {
+            atlasGeneration.incrementAndGet()
+            atlasJob?.cancel()
+            atlasJob = null
+            atlas = null
+        }
+    }
+    
     /**
      * 加载 Bitmap 图片
      */
@@ -261,6 +385,8 @@ class TextureLoader private constructor(context: Context) {
         }
         keysToRemove.forEach { bitmapCache.remove(it) }
         svgCache.remove(path)
+        // 图集中的纹理可能已被替换
+        atlas?.let { if (path.startsWith(it.assetsDir.absolutePath)) clearAtlas() }
     }
     
     /**
@@ -269,6 +395,7 @@ class TextureLoader private constructor(context: Context) {
     fun clearCache() {
         bitmapCache.evictAll()
         svgCache.evictAll()
+        clearAtlas()
         AppLog.i(TAG, "Texture cache cleared")
     }
     
@@ -277,7 +404,8 @@ class TextureLoader private constructor(context: Context) {
      */
     fun getCacheStats(): String {
         return "Bitmap Cache: ${bitmapCache.size()}/${bitmapCache.maxSize()} bytes, " +
-               "SVG Cache: ${svgCache.size()}/50 items"
+               "SVG Cache: ${svgCache.size()}/50 items, " +
+               "Atlas: ${atlas?.let { "${it.regionCount} textures in ${it.pages.size} pages" } ?: "none"}"
     }
     
     /**
@@ -1,6 +1,7 @@
 package com.app.ralaunch.feature.controls.textures
 
 import android.graphics.*
+import android.util.SparseArray
 import kotlin.math.min
 
 /**
@@ -14,6 +15,28 @@ object TextureRenderer {
     private val matrix = Matrix()
     private val srcRect = Rect()
     private val dstRectF = RectF()
+    private val paddedBounds = RectF()
+    
+    // 着色滤镜在绑定纹理时创建，绘制时只查表；平铺 Shader 保存在句柄上
+    private val tintFilters = SparseArray<PorterDuffColorFilter>()
+    
+    /**
+     * 为绑定的纹理预先创建着色滤镜和平铺 Shader
+     * 
+     * 由 [TextureLoader.resolvePackTexture] 在绑定时调用，之后通过 [render] 绘制该区域不再分配对象
+     */
+    fun prepare(region: TextureAtlas.Region, config: TextureConfig) {
+        prepareTint(config.tintColor)
+        if (config.scaleMode == TextureConfig.ScaleMode.TILE && region.coversPage && region.tileShader == null) {
+            region.tileShader = BitmapShader(region.page, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT)
+        }
+    }
+    
+    private fun prepareTint(tintColor: Int) {
+        if (tintColor != 0 && tintFilters.get(tintColor) == null) {
+            tintFilters.put(tintColor, PorterDuffColorFilter(tintColor, PorterDuff.Mode.SRC_IN))
+        }
+    }
     
     /**
      * 渲染纹理到 Canvas
@@ -31,6 +54,49 @@ object TextureRenderer {
         bounds: RectF,
         clipPath: Path? = null,
         opacityMultiplier: Float = 1f
+    ) {
+        prepareTint(config.tintColor)
+        draw(canvas, bitmap, null, bitmap.width, bitmap.height, config, bounds, clipPath, opacityMultiplier)
+    }
+    
+    /**
+     * 从纹理图集渲染，缩放、旋转、翻转与 [render] 相同，只是取页面中的源矩形；
+     * 整张 Bitmap 的区域在平铺模式下按 [renderTiled] 绘制。
+     * 区域需先经过 [prepare]，绘制过程不分配对象
+     */
+    fun render(
+        canvas: Canvas,
+        region: TextureAtlas.Region,
+        config: TextureConfig,
+        bounds: RectF,
+        clipPath: Path? = null,
+        opacityMultiplier: Float = 1f
+    ) {
+        if (config.scaleMode == TextureConfig.ScaleMode.TILE && region.coversPage) {
+            val shader = region.tileShader
+            if (shader != null) {
+                drawTiled(canvas, shader, config, bounds, clipPath, opacityMultiplier)
+                return
+            }
+        }
+        draw(canvas, region.page, region.src, region.width, region.height, config, bounds, clipPath, opacityMultiplier)
+    }
+    
+    /**
+     * @param src 页面中的源矩形，null 表示整张 Bitmap
+     * @param width 纹理宽度（有 [src] 时为源矩形宽度）
+     * @param height 纹理高度
+     */
+    private fun draw(
+        canvas: Canvas,
+        bitmap: Bitmap,
+        src: Rect?,
+        width: Int,
+        height: Int,
+        config: TextureConfig,
+        bounds: RectF,
+        clipPath: Path?,
+        opacityMultiplier: Float
     ) {
         if (!config.enabled || bitmap.isRecycled) return
         
@@ -47,15 +113,11 @@ object TextureRenderer {
             .coerceIn(0, 255)
         
         // 设置着色
-        if (config.tintColor != 0) {
-            paint.colorFilter = PorterDuffColorFilter(config.tintColor, PorterDuff.Mode.SRC_IN)
-        } else {
-            paint.colorFilter = null
-        }
+        paint.colorFilter = if (config.tintColor != 0) tintFilters.get(config.tintColor) else null
         
         // 计算内边距
         val padding = min(bounds.width(), bounds.height()) * config.padding
-        val paddedBounds = RectF(
+        paddedBounds.set(
             bounds.left + padding,
             bounds.top + padding,
             bounds.right - padding,
@@ -63,7 +125,7 @@ object TextureRenderer {
         )
         
         // 计算绘制矩阵
-        calculateMatrix(bitmap, config, paddedBounds)
+        calculateMatrix(width.toFloat(), height.toFloat(), config, paddedBounds)
         
         // 应用旋转（围绕中心点）
         if (config.rotation != 0f) {
@@ -78,7 +140,13 @@ object TextureRenderer {
         }
         
         // 绘制
-        canvas.drawBitmap(bitmap, matrix, paint)
+        if (src == null) {
+            canvas.drawBitmap(bitmap, matrix, paint)
+        } else {
+            canvas.concat(matrix)
+            dstRectF.set(0f, 0f, width.toFloat(), height.toFloat())
+            canvas.drawBitmap(bitmap, src, dstRectF, paint)
+        }
         
         canvas.restore()
     }
@@ -86,11 +154,9 @@ object TextureRenderer {
     /**
      * 计算变换矩阵
      */
-    private fun calculateMatrix(bitmap: Bitmap, config: TextureConfig, bounds: RectF) {
+    private fun calculateMatrix(bitmapWidth: Float, bitmapHeight: Float, config: TextureConfig, bounds: RectF) {
         matrix.reset()
         
-        val bitmapWidth = bitmap.width.toFloat()
-        val bitmapHeight = bitmap.height.toFloat()
         val boundsWidth = bounds.width()
         val boundsHeight = bounds.height()
         
@@ -155,6 +221,26 @@ object TextureRenderer {
         opacityMultiplier: Float = 1f
     ) {
         if (!config.enabled || bitmap.isRecycled) return
+        prepareTint(config.tintColor)
+        drawTiled(
+            canvas,
+            BitmapShader(bitmap, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT),
+            config,
+            bounds,
+            clipPath,
+            opacityMultiplier
+        )
+    }
+    
+    private fun drawTiled(
+        canvas: Canvas,
+        shader: BitmapShader,
+        config: TextureConfig,
+        bounds: RectF,
+        clipPath: Path?,
+        opacityMultiplier: Float
+    ) {
+        if (!config.enabled) return
         
         canvas.save()
         
@@ -166,14 +252,8 @@ object TextureRenderer {
             .toInt()
             .coerceIn(0, 255)
         
-        if (config.tintColor != 0) {
-            paint.colorFilter = PorterDuffColorFilter(config.tintColor, PorterDuff.Mode.SRC_IN)
-        } else {
-            paint.colorFilter = null
-        }
+        paint.colorFilter = if (config.tintColor != 0) tintFilters.get(config.tintColor) else null
         
-        // 创建平铺 Shader
-        val shader = BitmapShader(bitmap, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT)
         paint.shader = shader
         
         canvas.drawRect(bounds, paint)
@@ -208,6 +288,12 @@ object TextureRenderer {
             else -> return
         }
         
+        // 图集中有该纹理时直接绘制，否则按原方式加载（平铺模式不在图集中）
+        findAtlasRegion(textureLoader, assetsDir, config, bounds)?.let { region ->
+            render(canvas, region, config, bounds, clipPath, opacityMultiplier)
+            return
+        }
+        
         val bitmap = textureLoader.loadPackTexture(
             assetsDir,
             config.path,
@@ -247,7 +333,10 @@ object TextureRenderer {
             textureConfig.background
         }
         
-        if (bgConfig.enabled) {
+        val bgRegion = findAtlasRegion(textureLoader, assetsDir, bgConfig, backgroundBounds)
+        if (bgRegion != null) {
+            render(canvas, bgRegion, bgConfig, backgroundBounds, backgroundClipPath, backgroundOpacityMultiplier)
+        } else if (bgConfig.enabled) {
             val bgBitmap = textureLoader.loadPackTexture(
                 assetsDir,
                 bgConfig.path,
@@ -284,7 +373,10 @@ object TextureRenderer {
             textureConfig.knob
         }
         
-        if (knobConfig.enabled) {
+        val knobRegion = findAtlasRegion(textureLoader, assetsDir, knobConfig, knobBounds)
+        if (knobRegion != null) {
+            render(canvas, knobRegion, knobConfig, knobBounds, knobClipPath, knobOpacityMultiplier)
+        } else if (knobConfig.enabled) {
             val knobBitmap = textureLoader.loadPackTexture(
                 assetsDir,
                 knobConfig.path,
@@ -315,6 +407,20 @@ object TextureRenderer {
         }
     }
 
+    /**
+     * 平铺需要 BitmapShader 重复整张 Bitmap，不能取图集的源矩形
+     */
+    private fun findAtlasRegion(
+        textureLoader: TextureLoader,
+        assetsDir: java.io.File,
+        config: TextureConfig,
+        bounds: RectF
+    ): TextureAtlas.Region? {
+        if (!config.enabled || config.scaleMode == TextureConfig.ScaleMode.TILE) return null
+        return textureLoader.findAtlasRegion(assetsDir, config.path, bounds.width().toInt(), bounds.height().toInt())
+            ?.also { prepare(it, config) }
+    }
+
     /**
      * 创建圆形裁剪路径
      */
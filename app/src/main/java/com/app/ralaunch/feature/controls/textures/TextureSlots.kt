@@ -0,0 +1,67 @@
+package com.app.ralaunch.feature.controls.textures
+
+import java.io.File
+
+/**
+ * 控件纹理的绑定缓存
+ *
+ * 控件在绑定时（设置资源目录、修改控件数据、尺寸变化）把每个纹理槽解析为可直接绘制的句柄，
+ * 绘制时只通过 [get] 取数组元素，不检查文件、不拼接缓存键。
+ * [bind] 只在资源目录、纹理配置或目标尺寸与上次不同时才调用 [Resolver]，重复绑定没有开销。
+ *
+ * @param T 句柄类型，界面中为 [TextureAtlas.Region]
+ */
+class TextureSlots<T : Any>(slotCount: Int, private val resolver: Resolver<T>) {
+
+    /**
+     * 把纹理解析为句柄，可能访问文件系统，只在绑定时调用
+     */
+    fun interface Resolver<T : Any> {
+        fun resolve(assetsDir: File, config: TextureConfig, width: Int, height: Int): T?
+    }
+
+    private val handles = arrayOfNulls<Any>(slotCount)
+    private val boundDirs = arrayOfNulls<File>(slotCount)
+    private val boundConfigs = arrayOfNulls<TextureConfig>(slotCount)
+    private val boundWidths = IntArray(slotCount)
+    private val boundHeights = IntArray(slotCount)
+    private val bound = BooleanArray(slotCount)
+
+    /**
+     * 绑定第 [slot] 个纹理；禁用的配置或没有资源目录时句柄为 null
+     *
+     * @return 本次是否重新解析
+     */
+    fun bind(slot: Int, assetsDir: File?, config: TextureConfig, width: Int, height: Int): Boolean {
+        if (bound[slot] && boundDirs[slot] == assetsDir && boundConfigs[slot] == config &&
+            boundWidths[slot] == width && boundHeights[slot] == height
+        ) {
+            return false
+        }
+        handles[slot] = if (assetsDir != null && config.enabled && config.path.isNotEmpty() && width > 0 && height > 0) {
+            resolver.resolve(assetsDir, config, width, height)
+        } else {
+            null
+        }
+        boundDirs[slot] = assetsDir
+        boundConfigs[slot] = config
+        boundWidths[slot] = width
+        boundHeights[slot] = height
+        bound[slot] = true
+        return true
+    }
+
+    /**
+     * 绘制时使用，只读取数组
+     */
+    @Suppress("UNCHECKED_CAST")
+    operator fun get(slot: Int): T? = handles[slot] as T?
+
+    /**
+     * 丢弃所有句柄，下一次 [bind] 必定重新解析；纹理文件或图集被替换时调用
+     */
+    fun invalidate() {
+        handles.fill(null)
+        bound.fill(false)
+    }
+}
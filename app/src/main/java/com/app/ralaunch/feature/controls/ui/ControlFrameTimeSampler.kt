@@ -0,0 +1,69 @@
+package com.app.ralaunch.feature.controls.ui
+
+import android.os.Handler
+import android.os.Looper
+import android.view.FrameMetrics
+import android.view.Window
+import com.app.ralaunch.core.logging.AppLog
+
+/**
+ * 控件布局所在窗口的 UI 线程帧耗时采样
+ *
+ * 通过 [FrameMetrics] 累加每帧在 UI 线程上的耗时（输入、动画、测量布局、录制显示列表、同步），
+ * 每 [SAMPLE_FRAMES] 帧输出一次平均值和最大值，用于对比叠加层渲染开启前后的帧耗时。
+ * 只在对应标签的 VERBOSE 日志开启时挂载。各进程启动时按设置应用日志级别，默认为 INFO，
+ * 需要在开发者设置的“按标签日志级别”中配置 `ControlFrameTime=V`（或开启详细日志）后重新进入游戏。
+ *
+ * @param describe 附加在日志末尾的布局状态（控件数、实时控件数等）
+ */
+internal class ControlFrameTimeSampler(
+    private val window: Window,
+    private val tag: String,
+    private val describe: () -> String
+) {
+    private var mFrames = 0
+    private var mTotalNanos = 0L
+    private var mMaxNanos = 0L
+
+    private val mListener = Window.OnFrameMetricsAvailableListener { _, metrics, _ ->
+        val uiThreadNanos = metrics.getMetric(FrameMetrics.INPUT_HANDLING_DURATION) +
+            metrics.getMetric(FrameMetrics.ANIMATION_DURATION) +
+            metrics.getMetric(FrameMetrics.LAYOUT_MEASURE_DURATION) +
+            metrics.getMetric(FrameMetrics.DRAW_DURATION) +
+            metrics.getMetric(FrameMetrics.SYNC_DURATION)
+        onFrame(uiThreadNanos)
+    }
+
+    fun start() {
+        window.addOnFrameMetricsAvailableListener(mListener, Handler(Looper.getMainLooper()))
+    }
+
+    fun stop() {
+        try {
+            window.removeOnFrameMetricsAvailableListener(mListener)
+        } catch (e: IllegalArgumentException) {
+            // 未注册过
+        }
+    }
+
+    private fun onFrame(uiThreadNanos: Long) {
+        mFrames++
+        mTotalNanos += uiThreadNanos
+        if (uiThreadNanos > mMaxNanos) mMaxNanos = uiThreadNanos
+        if (mFrames < SAMPLE_FRAMES) return
+
+        val averageMs = mTotalNanos / 1_000_000.0 / mFrames
+        val maxMs = mMaxNanos / 1_000_000.0
+        AppLog.v(tag) {
+            "UI thread frame time: avg %.3f ms, max %.3f ms over %d frames (%s)"
+                .format(averageMs, maxMs, mFrames, describe())
+        }
+        mFrames = 0
+        mTotalNanos = 0L
+        mMaxNanos = 0L
+    }
+
+    private companion object {
+        const val SAMPLE_FRAMES = 600
+    }
+}
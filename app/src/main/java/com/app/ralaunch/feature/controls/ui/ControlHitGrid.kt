@@ -0,0 +1,110 @@
+package com.app.ralaunch.feature.controls.ui
+
+/**
+ * 控件命中测试用的均匀网格索引
+ *
+ * 把布局区域划分为不超过 [MAX_CELLS_PER_AXIS] x [MAX_CELLS_PER_AXIS] 个格子，每个格子按 z 序（上层在前）
+ * 记录与之相交的控件。查询只访问触摸点所在的一个格子，开销取决于该处重叠的控件数，与控件总数无关。
+ * 格子内容以 CSR 形式存放在两个 IntArray 中，只在 [rebuild] 时分配，查询不分配对象。
+ *
+ * 控件以序号标识，序号越大越靠上（与 ViewGroup 子 View 的绘制顺序一致）；
+ * 边界与 [android.graphics.Rect.contains] 语义相同：左、上闭，右、下开。
+ */
+class ControlHitGrid {
+
+    private var width = 0
+    private var height = 0
+    private var cellWidth = 1
+    private var cellHeight = 1
+    private var columns = 0
+    private var rows = 0
+
+    /** 第 c 个格子的控件位于 cellItems[cellStart[c] until cellStart[c + 1]] */
+    private var cellStart = IntArray(1)
+    private var cellItems = IntArray(0)
+    private var bounds = IntArray(0)
+
+    /** 单个格子中最多的控件数，[query] 的输出数组不应小于此值 */
+    var maxCandidates = 0
+        private set
+
+    /**
+     * 重建索引
+     *
+     * @param width 布局宽度
+     * @param height 布局高度
+     * @param count 控件数量
+     * @param controlBounds 第 i 个控件的 left、top、right、bottom 依次位于 4i 到 4i + 3，调用后仍归调用方所有
+     */
+    fun rebuild(width: Int, height: Int, count: Int, controlBounds: IntArray) {
+        this.width = width.coerceAtLeast(0)
+        this.height = height.coerceAtLeast(0)
+        columns = minOf(MAX_CELLS_PER_AXIS, this.width).coerceAtLeast(1)
+        rows = minOf(MAX_CELLS_PER_AXIS, this.height).coerceAtLeast(1)
+        cellWidth = ((this.width + columns - 1) / columns).coerceAtLeast(1)
+        cellHeight = ((this.height + rows - 1) / rows).coerceAtLeast(1)
+        bounds = controlBounds.copyOf(count * 4)
+
+        val cellCount = columns * rows
+        val counts = IntArray(cellCount + 1)
+        forEachCell(count) { _, cell -> counts[cell + 1]++ }
+        for (c in 0 until cellCount) counts[c + 1] += counts[c]
+        maxCandidates = 0
+        for (c in 0 until cellCount) maxCandidates = maxOf(maxCandidates, counts[c + 1] - counts[c])
+
+        // 从上层往下层填充，格子内自然按 z 序排列
+        val items = IntArray(counts[cellCount])
+        val cursor = counts.copyOf()
+        forEachCell(count) { index, cell -> items[cursor[cell]++] = index }
+        cellStart = counts
+        cellItems = items
+    }
+
+    /**
+     * 找出包含 ([x], [y]) 的控件
+     *
+     * @param out 接收控件序号，上层在前
+     * @return 写入 [out] 的数量
+     */
+    fun query(x: Float, y: Float, out: IntArray): Int {
+        val px = x.toInt()
+        val py = y.toInt()
+        if (px < 0 || py < 0 || px >= width || py >= height) return 0
+        val cell = (py / cellHeight).coerceAtMost(rows - 1) * columns + (px / cellWidth).coerceAtMost(columns - 1)
+        var found = 0
+        for (i in cellStart[cell] until cellStart[cell + 1]) {
+            val index = cellItems[i]
+            val base = index * 4
+            if (px >= bounds[base] && py >= bounds[base + 1] && px < bounds[base + 2] && py < bounds[base + 3]) {
+                if (found == out.size) break
+                out[found++] = index
+            }
+        }
+        return found
+    }
+
+    /**
+     * 从上层到下层遍历每个控件覆盖的格子，超出布局的部分被裁掉
+     */
+    private inline fun forEachCell(count: Int, action: (index: Int, cell: Int) -> Unit) {
+        for (index in count - 1 downTo 0) {
+            val base = index * 4
+            val left = maxOf(bounds[base], 0)
+            val top = maxOf(bounds[base + 1], 0)
+            val right = minOf(bounds[base + 2], width)
+            val bottom = minOf(bounds[base + 3], height)
+            if (left >= right || top >= bottom) continue
+            val firstColumn = left / cellWidth
+            val lastColumn = minOf((right - 1) / cellWidth, columns - 1)
+            val firstRow = top / cellHeight
+            val lastRow = minOf((bottom - 1) / cellHeight, rows - 1)
+            for (row in firstRow..lastRow) {
+                for (column in firstColumn..lastColumn) action(index, row * columns + column)
+            }
+        }
+    }
+
+    companion object {
+        const val MAX_CELLS_PER_AXIS = 32
+    }
+}
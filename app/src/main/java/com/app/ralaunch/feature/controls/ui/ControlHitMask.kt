@@ -0,0 +1,178 @@
+package com.app.ralaunch.feature.controls.ui
+
+import kotlin.math.max
+import kotlin.math.min
+
+/**
+ * 控件的降分辨率命中掩码
+ *
+ * 控件区域按 [cellSize] 像素划分为不超过 [DEFAULT_MAX_CELLS_PER_AXIS] x [DEFAULT_MAX_CELLS_PER_AXIS] 个格子，
+ * 每个格子用两个位记录：完全在形状内（[INSIDE]）、完全在形状外（[OUTSIDE]）或跨越边界（[EDGE]）。
+ * 跨越边界的格子另记一位“多数像素在形状内”，供无法精确复算的场景（纹理透明度）直接取用。
+ * 在控件布局或纹理变化时构建一次，查询只是一次位运算，不分配对象。
+ *
+ * 坐标与 [android.graphics.Region.contains] 相同，按 `toInt()` 取整到像素。
+ */
+class ControlHitMask private constructor(
+    val width: Int,
+    val height: Int,
+    private val cellSize: Int,
+    private val columns: Int,
+    private val inside: LongArray,
+    private val edge: LongArray
+) {
+
+    /**
+     * 判断像素 (x, y) 是否在形状内
+     */
+    fun interface PixelPredicate {
+        fun test(x: Int, y: Int): Boolean
+    }
+
+    /**
+     * @return [INSIDE]、[OUTSIDE] 或 [EDGE]；[EDGE] 时需要调用方按原始形状复算
+     */
+    fun classify(x: Float, y: Float): Int {
+        val cell = cellAt(x, y)
+        if (cell < 0) return OUTSIDE
+        val word = cell ushr 6
+        val bit = 1L shl (cell and 63)
+        return when {
+            edge[word] and bit != 0L -> EDGE
+            inside[word] and bit != 0L -> INSIDE
+            else -> OUTSIDE
+        }
+    }
+
+    /**
+     * 按掩码近似判断，跨越边界的格子取多数像素的结果
+     */
+    fun contains(x: Float, y: Float): Boolean {
+        val cell = cellAt(x, y)
+        return cell >= 0 && inside[cell ushr 6] and (1L shl (cell and 63)) != 0L
+    }
+
+    private fun cellAt(x: Float, y: Float): Int {
+        val px = x.toInt()
+        val py = y.toInt()
+        if (px < 0 || py < 0 || px >= width || py >= height) return -1
+        return (py / cellSize) * columns + px / cellSize
+    }
+
+    companion object {
+        const val OUTSIDE = 0
+        const val INSIDE = 1
+        const val EDGE = 2
+
+        const val DEFAULT_MAX_CELLS_PER_AXIS = 64
+
+        /** 与原纹理透明检测相同的 Alpha 阈值，避免边缘问题 */
+        const val DEFAULT_ALPHA_THRESHOLD = 50
+
+        /**
+         * 逐像素求值 [predicate] 构建掩码，开销与控件面积成正比，只应在布局或纹理变化时调用
+         */
+        fun build(
+            width: Int,
+            height: Int,
+            maxCellsPerAxis: Int = DEFAULT_MAX_CELLS_PER_AXIS,
+            predicate: PixelPredicate
+        ): ControlHitMask {
+            val w = max(width, 0)
+            val h = max(height, 0)
+            val cellSize = max(1, (max(w, h) + maxCellsPerAxis - 1) / maxCellsPerAxis)
+            val columns = max(1, (w + cellSize - 1) / cellSize)
+            val rows = max(1, (h + cellSize - 1) / cellSize)
+            val words = (columns * rows + 63) / 64
+            val inside = LongArray(words)
+            val edge = LongArray(words)
+
+            for (row in 0 until rows) {
+                val top = row * cellSize
+                val bottom = min(top + cellSize, h)
+                for (column in 0 until columns) {
+                    val left = column * cellSize
+                    val right = min(left + cellSize, w)
+                    var hits = 0
+                    for (y in top until bottom) {
+                        for (x in left until right) if (predicate.test(x, y)) hits++
+                    }
+                    val total = (right - left) * (bottom - top)
+                    if (hits == 0 || total == 0) continue
+                    val cell = row * columns + column
+                    val bit = 1L shl (cell and 63)
+                    if (hits < total) edge[cell ushr 6] = edge[cell ushr 6] or bit
+                    if (hits * 2 >= total) inside[cell ushr 6] = inside[cell ushr 6] or bit
+                }
+            }
+            return ControlHitMask(w, h, cellSize, columns, inside, edge)
+        }
+
+        /**
+         * 由纹理像素构建透明度掩码；纹理拉伸铺满控件，映射方式与原先逐次采样相同
+         *
+         * @param pixels ARGB 像素，按行存放
+         */
+        fun fromAlpha(
+            pixels: IntArray,
+            textureWidth: Int,
+            textureHeight: Int,
+            width: Int,
+            height: Int,
+            threshold: Int = DEFAULT_ALPHA_THRESHOLD
+        ): ControlHitMask = build(width, height) { x, y ->
+            val texX = ((x.toFloat() / width) * textureWidth).toInt().coerceIn(0, textureWidth - 1)
+            val texY = ((y.toFloat() / height) * textureHeight).toInt().coerceIn(0, textureHeight - 1)
+            (pixels[texY * textureWidth + texX] ushr 24) > threshold
+        }
+
+        /**
+         * 像素中心是否在圆角矩形 (0, 0, [width], [height]) 内，圆角半径按 Path.addRoundRect 的规则截断到短边一半
+         */
+        fun roundRectContains(x: Int, y: Int, width: Int, height: Int, radius: Float): Boolean {
+            val cx = x + 0.5f
+            val cy = y + 0.5f
+            if (cx < 0f || cy < 0f || cx > width || cy > height) return false
+            val r = radius.coerceIn(0f, min(width, height) / 2f)
+            if (r <= 0f) return true
+            val dx = when {
+                cx < r -> r - cx
+                cx > width - r -> cx - (width - r)
+                else -> return true
+            }
+            val dy = when {
+                cy < r -> r - cy
+                cy > height - r -> cy - (height - r)
+                else -> return true
+            }
+            return dx * dx + dy * dy <= r * r
+        }
+
+        /**
+         * 像素中心是否在多边形内，按非零环绕规则（Path 默认的 WINDING 填充）
+         *
+         * @param xs 顶点 X 坐标（像素）
+         * @param ys 顶点 Y 坐标（像素）
+         */
+        fun polygonContains(x: Int, y: Int, xs: FloatArray, ys: FloatArray): Boolean {
+            val n = min(xs.size, ys.size)
+            if (n < 3) return false
+            val px = x + 0.5f
+            val py = y + 0.5f
+            var winding = 0
+            for (i in 0 until n) {
+                val x1 = xs[i]
+                val y1 = ys[i]
+                val x2 = xs[(i + 1) % n]
+                val y2 = ys[(i + 1) % n]
+                val cross = (x2 - x1) * (py - y1) - (px - x1) * (y2 - y1)
+                if (y1 <= py) {
+                    if (y2 > py && cross > 0f) winding++
+                } else {
+                    if (y2 <= py && cross < 0f) winding--
+                }
+            }
+            return winding != 0
+        }
+    }
+}
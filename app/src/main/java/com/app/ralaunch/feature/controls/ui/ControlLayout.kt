@@ -1,21 +1,30 @@
 package com.app.ralaunch.feature.controls.ui
 
 import android.annotation.SuppressLint
+import android.app.Activity
 import android.content.Context
+import android.content.ContextWrapper
 import android.graphics.Canvas
 import android.graphics.DashPathEffect
 import android.graphics.Paint
+import android.graphics.Rect
+import android.os.Build
 import android.util.AttributeSet
 import android.view.MotionEvent
 import android.view.View
+import android.view.Window
 import android.widget.FrameLayout
+import androidx.annotation.RequiresApi
 import com.app.ralaunch.feature.controls.packs.ControlPackManager
+import com.app.ralaunch.feature.controls.textures.TextureAtlasBuilder
+import com.app.ralaunch.feature.controls.textures.TextureLoader
 import com.app.ralaunch.feature.controls.TouchPointerTracker
 import org.koin.java.KoinJavaComponent
 import com.app.ralaunch.feature.controls.bridges.ControlInputBridge
 import com.app.ralaunch.feature.controls.ControlData
 import com.app.ralaunch.feature.controls.packs.ControlLayout as PackControlLayout
 import com.app.ralaunch.core.logging.AppLog
+import com.app.ralaunch.core.logging.LogLevel
 import java.io.File
 import kotlin.math.abs
 import kotlin.math.sqrt
@@ -48,6 +57,26 @@ class ControlLayout : FrameLayout {
      */
     private val mPointerToControl: MutableMap<Int, ControlView> = HashMap()
 
+    /**
+     * 按下时的命中测试索引，子 View 的位置在布局完成后才确定，因此在下一次按下时按需重建
+     */
+    private val mHitGrid = ControlHitGrid()
+    private var mHitIndexDirty = true
+    private var mHitBounds = IntArray(0)
+    private var mHitCandidates = IntArray(0)
+    private val mHitRect = Rect()
+    private val mMoveRect = Rect()
+
+    /**
+     * 叠加层渲染器（API 29+，非编辑模式）：静止控件录制为一个缓存图层，每帧只绘制按下的控件。
+     * 更低版本和编辑模式下按普通子 View 绘制
+     */
+    private val mOverlay: ControlOverlayRenderer? =
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) ControlOverlayRenderer(this) else null
+
+    /** [FRAME_TIME_TAG] 的 VERBOSE 日志开启时挂载的帧耗时采样 */
+    private var mFrameTimeSampler: ControlFrameTimeSampler? = null
+
     /**
      * 获取当前布局
      */
@@ -70,6 +99,7 @@ class ControlLayout : FrameLayout {
     // ===== 拖拽吸附辅助线系统 =====
     companion object SnapGuide {
         private const val TAG = "ControlLayout"
+        private const val FRAME_TIME_TAG = "ControlFrameTime"
         private const val GRID_SIZE = 50
         private const val SNAP_THRESHOLD = 12
     }
@@ -107,13 +137,67 @@ class ControlLayout : FrameLayout {
         if (mIsDraggingAny && mModifiable) {
             drawGrid(canvas)
         }
-        super.dispatchDraw(canvas)
+        val overlay = mOverlay
+        if (overlay != null && !mModifiable && canvas.isHardwareAccelerated &&
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+        ) {
+            overlay.draw(canvas, drawingTime)
+        } else {
+            super.dispatchDraw(canvas)
+        }
         // 拖拽时绘制吸附参考线（在子 View 上方）
         if (mIsDraggingAny && mModifiable) {
             drawSnapGuides(canvas)
         }
     }
 
+    /**
+     * 供 [ControlOverlayRenderer] 把子控件绘制到宿主画布或静态层
+     */
+    internal fun drawControlChild(canvas: Canvas, child: View, drawingTime: Long): Boolean =
+        drawChild(canvas, child, drawingTime)
+
+    @RequiresApi(Build.VERSION_CODES.O)
+    override fun onDescendantInvalidated(child: View, target: View) {
+        super.onDescendantInvalidated(child, target)
+        if (!mModifiable && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mOverlay?.onChildInvalidated(child)
+        }
+    }
+
+    override fun onAttachedToWindow() {
+        super.onAttachedToWindow()
+        if (AppLog.isLoggable(FRAME_TIME_TAG, LogLevel.VERBOSE)) {
+            val window = findWindow() ?: return
+            mFrameTimeSampler = ControlFrameTimeSampler(window, FRAME_TIME_TAG) {
+                val overlay = mOverlay
+                if (overlay != null && !mModifiable && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                    "overlay, ${mControls.size} controls, ${overlay.liveCount} live, ${overlay.staticRecordCount} static records"
+                } else {
+                    "per-view, ${mControls.size} controls, modifiable=$mModifiable"
+                }
+            }.also { it.start() }
+        }
+    }
+
+    override fun onDetachedFromWindow() {
+        mFrameTimeSampler?.stop()
+        mFrameTimeSampler = null
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mOverlay?.release()
+        }
+        super.onDetachedFromWindow()
+    }
+
+    private fun findWindow(): Window? {
+        var ctx: Context? = context
+        while (ctx is ContextWrapper) {
+            if (ctx is Activity) return ctx.window
+            ctx = ctx.baseContext
+        }
+        return null
+    }
+
     private fun drawGrid(canvas: Canvas) {
         val w = width.toFloat()
         val h = height.toFloat()
@@ -269,8 +353,7 @@ class ControlLayout : FrameLayout {
         clipChildren = false
         clipToPadding = false
 
-        // 启用硬件加速层，以支持 RippleDrawable 等需要硬件加速的动画
-        setLayerType(LAYER_TYPE_HARDWARE, null)
+        updateLayerType()
 
         // 不设置 isClickable - ControlLayout 不应该消费触摸事件
         // 它只是一个容器，用于转发事件给子控件和 SDLSurface
@@ -364,25 +447,23 @@ class ControlLayout : FrameLayout {
         val x = event.getX(actionIndex)
         val y = event.getY(actionIndex)
 
-        AppLog.d(TAG, "handlePointerDown: pointerId=$pointerId x=$x y=$y")
+        AppLog.d(TAG) { "handlePointerDown: pointerId=$pointerId x=$x y=$y" }
 
-        // 从后往前遍历控件（后添加的在上层），找到第一个接受触摸的控件
-        for (i in childCount - 1 downTo 0) {
-            val child = getChildAt(i)
+        // 从网格索引取出包含触摸点的控件（后添加的在上层，排在前面），找到第一个接受触摸的控件
+        ensureHitIndex()
+        val candidateCount = mHitGrid.query(x, y, mHitCandidates)
+        for (c in 0 until candidateCount) {
+            val index = mHitCandidates[c]
+            val child = getChildAt(index) ?: continue
             val controlView = child as? ControlView ?: continue
             if (child.visibility != VISIBLE) continue
 
-            // 获取控件边界并检查触摸点是否在内
-            val childRect = android.graphics.Rect()
-            child.getHitRect(childRect)
-            if (!childRect.contains(x.toInt(), y.toInt())) continue
-
             // 转换为本地坐标并尝试让控件接受触摸
-            val localX = x - childRect.left
-            val localY = y - childRect.top
+            val localX = x - mHitBounds[index * 4]
+            val localY = y - mHitBounds[index * 4 + 1]
 
             if (controlView.tryAcquireTouch(pointerId, localX, localY)) {
-                AppLog.d(TAG, "  Control ${controlView.javaClass.simpleName} accepted pointer $pointerId")
+                AppLog.d(TAG) { "  Control ${controlView.javaClass.simpleName} accepted pointer $pointerId" }
                 val wasEmpty = mPointerToControl.isEmpty()
                 mPointerToControl[pointerId] = controlView
 
@@ -399,11 +480,59 @@ class ControlLayout : FrameLayout {
         }
 
         // 没有控件接受，转发给 SDLSurface
-        AppLog.d(TAG, "  No control accepted pointer $pointerId, forwarding to SDL")
+        AppLog.d(TAG) { "  No control accepted pointer $pointerId, forwarding to SDL" }
         mSDLSurface?.dispatchTouchEvent(event)
         return true
     }
 
+    /**
+     * 按当前子 View 的命中区域重建网格索引；布局或尺寸变化后才会重建
+     */
+    private fun ensureHitIndex() {
+        if (!mHitIndexDirty) return
+        val count = childCount
+        if (mHitBounds.size < count * 4) mHitBounds = IntArray(count * 4)
+        for (i in 0 until count) {
+            getChildAt(i).getHitRect(mHitRect)
+            mHitBounds[i * 4] = mHitRect.left
+            mHitBounds[i * 4 + 1] = mHitRect.top
+            mHitBounds[i * 4 + 2] = mHitRect.right
+            mHitBounds[i * 4 + 3] = mHitRect.bottom
+        }
+        mHitGrid.rebuild(width, height, count, mHitBounds)
+        if (mHitCandidates.size < mHitGrid.maxCandidates) mHitCandidates = IntArray(mHitGrid.maxCandidates)
+        mHitIndexDirty = false
+    }
+
+    override fun onLayout(changed: Boolean, left: Int, top: Int, right: Int, bottom: Int) {
+        super.onLayout(changed, left, top, right, bottom)
+        mHitIndexDirty = true
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mOverlay?.onLayoutChanged()
+        }
+    }
+
+    override fun onSizeChanged(w: Int, h: Int, oldw: Int, oldh: Int) {
+        super.onSizeChanged(w, h, oldw, oldh)
+        mHitIndexDirty = true
+    }
+
+    override fun onViewAdded(child: View?) {
+        super.onViewAdded(child)
+        mHitIndexDirty = true
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mOverlay?.onChildrenChanged()
+        }
+    }
+
+    override fun onViewRemoved(child: View?) {
+        super.onViewRemoved(child)
+        mHitIndexDirty = true
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mOverlay?.onChildrenChanged()
+        }
+    }
+
     /**
      * 处理触摸点移动事件
      * 将移动事件分发给拥有对应触摸点的控件
@@ -414,12 +543,11 @@ class ControlLayout : FrameLayout {
             val pointerId = event.getPointerId(i)
             mPointerToControl[pointerId]?.let { controlView ->
                 val view = controlView as View
-                val childRect = android.graphics.Rect()
-                view.getHitRect(childRect)
+                view.getHitRect(mMoveRect)
                 controlView.handleTouchMove(
                     pointerId,
-                    event.getX(i) - childRect.left,
-                    event.getY(i) - childRect.top
+                    event.getX(i) - mMoveRect.left,
+                    event.getY(i) - mMoveRect.top
                 )
             }
         }
@@ -434,10 +562,10 @@ class ControlLayout : FrameLayout {
      * 释放控件的触摸点并清除映射
      */
     private fun handlePointerUp(event: MotionEvent, pointerId: Int): Boolean {
-        AppLog.d(TAG, "handlePointerUp: pointerId=$pointerId")
+        AppLog.d(TAG) { "handlePointerUp: pointerId=$pointerId" }
 
         mPointerToControl.remove(pointerId)?.let { controlView ->
-            AppLog.d(TAG, "  Releasing pointer $pointerId from ${controlView.javaClass.simpleName}")
+            AppLog.d(TAG) { "  Releasing pointer $pointerId from ${controlView.javaClass.simpleName}" }
             if (!controlView.controlData.isPassThrough) {
                 TouchPointerTracker.releasePointer(pointerId)
             }
@@ -458,7 +586,7 @@ class ControlLayout : FrameLayout {
      * 通知所有控件取消并清除所有映射
      */
     private fun handleCancel(event: MotionEvent): Boolean {
-        AppLog.d(TAG, "handleCancel: clearing ${mPointerToControl.size} pointers")
+        AppLog.d(TAG) { "handleCancel: clearing ${mPointerToControl.size} pointers" }
 
         val hadPointers = mPointerToControl.isNotEmpty()
         mPointerToControl.forEach { (pointerId, controlView) ->
@@ -513,10 +641,38 @@ class ControlLayout : FrameLayout {
             return false
         }
 
-        AppLog.d(TAG, "Loaded $addedCount controls from layout: ${layout.name}")
+        AppLog.d(TAG) { "Loaded $addedCount controls from layout: ${layout.name}" }
+        requestTextureAtlas()
         return true
     }
 
+    /**
+     * 为当前布局构建纹理图集，完成后通知控件重新绑定纹理。编辑模式下控件尺寸和纹理频繁变化，等退出编辑后再构建
+     */
+    private fun requestTextureAtlas() {
+        val layout = currentLayout ?: return
+        val assetsDir = currentAssetsDir ?: return
+        if (mModifiable || layout.id.isBlank()) return
+
+        val versionCode = try {
+            val packManager: ControlPackManager =
+                KoinJavaComponent.get(ControlPackManager::class.java)
+            packManager.getPackInfo(layout.id)?.versionCode ?: 0
+        } catch (e: Exception) {
+            0
+        }
+        val spec = TextureAtlasBuilder.Spec(
+            packId = layout.id,
+            versionCode = versionCode,
+            densityDpi = resources.displayMetrics.densityDpi,
+            assetsDir = assetsDir,
+            requests = TextureAtlasBuilder.requestsFor(layout.controls, { widthToPx(it.width) }, { heightToPx(it.height) })
+        )
+        TextureLoader.getInstance(context).buildPackAtlas(spec) {
+            post { mControls.forEach { it.onTexturesChanged() } }
+        }
+    }
+
     /**
      * 从 ControlPackManager 加载当前选中的控制布局
      * @return 是否成功加载布局
@@ -525,7 +681,7 @@ class ControlLayout : FrameLayout {
         val packManager: ControlPackManager = try {
             KoinJavaComponent.get(ControlPackManager::class.java)
         } catch (e: Exception) {
-            AppLog.e(TAG, "Failed to get ControlPackManager: ${e.message}")
+            AppLog.e(TAG) { "Failed to get ControlPackManager: ${e.message}" }
             return false
         }
         
@@ -553,7 +709,7 @@ class ControlLayout : FrameLayout {
                 KoinJavaComponent.get(ControlPackManager::class.java)
             packManager.getPackAssetsDir(packId)
         } catch (e: Exception) {
-            AppLog.w(TAG, "Failed to resolve pack assets dir for '$packId': ${e.message}")
+            AppLog.w(TAG) { "Failed to resolve pack assets dir for '$packId': ${e.message}" }
             null
         }
     }
@@ -602,7 +758,7 @@ class ControlLayout : FrameLayout {
 
         // 强制确保没有 OnTouchListener（调试用）
         view.setOnTouchListener(null)
-        AppLog.d(TAG, "addControlView: ${data.name} - removed any existing OnTouchListener")
+        AppLog.d(TAG) { "addControlView: ${data.name} - removed any existing OnTouchListener" }
 
         val params = LayoutParams(
             widthToPx(data.width),
@@ -802,14 +958,30 @@ class ControlLayout : FrameLayout {
     var isModifiable: Boolean
         get() = mModifiable
         set(modifiable) {
+            val leavingEditMode = mModifiable && !modifiable
             mModifiable = modifiable
             currentLayout?.let { layout ->
                 mControls.forEachIndexed { i, controlView ->
                     setupEditModeListeners(controlView as View, controlView, layout.controls[i])
                 }
             }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                if (modifiable) mOverlay?.release() else mOverlay?.onChildrenChanged()
+            }
+            updateLayerType()
+            invalidate()
+            if (leavingEditMode) requestTextureAtlas()
         }
 
+    /**
+     * 叠加层自带缓存图层，不再需要整个布局的硬件层；
+     * 编辑模式和不支持叠加层的版本仍启用硬件加速层，以支持 RippleDrawable 等需要硬件加速的动画
+     */
+    private fun updateLayerType() {
+        val type = if (mOverlay != null && !mModifiable) LAYER_TYPE_NONE else LAYER_TYPE_HARDWARE
+        if (layerType != type) setLayerType(type, null)
+    }
+
     fun setEditControlListener(listener: EditControlListener?) {
         mEditControlListener = listener
     }
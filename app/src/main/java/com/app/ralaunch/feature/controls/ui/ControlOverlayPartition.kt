@@ -0,0 +1,76 @@
+package com.app.ralaunch.feature.controls.ui
+
+/**
+ * 控件叠加层的静态/实时划分
+ *
+ * 处于静止外观（[ControlView.isAtRest]）且可见的控件归入静态层，静态层只在内容变化时重新录制；
+ * 按下的按钮、拖动中的摇杆等非静止控件每帧实时绘制在静态层之上。
+ *
+ * 只有控件进出静止状态或静止外观变化时才需要重绘宿主，实时控件自身的重绘不影响静态层。
+ * 纯 Kotlin 实现，不持有 View，索引与 [ControlLayout] 的子 View 顺序一致。
+ */
+internal class ControlOverlayPartition {
+    private var mStatic = BooleanArray(0)
+
+    /** 控件数量 */
+    var count = 0
+        private set
+
+    /** 静态层中的控件数量 */
+    var staticCount = 0
+        private set
+
+    /** 静态层需要重新录制 */
+    var isStaticDirty = true
+        private set
+
+    /**
+     * 子控件增删后重置，所有控件先视为实时控件，由下一次 [sync] 归类
+     */
+    fun reset(count: Int) {
+        if (mStatic.size < count) mStatic = BooleanArray(count)
+        mStatic.fill(false, 0, count)
+        this.count = count
+        staticCount = 0
+        isStaticDirty = true
+    }
+
+    /** 控件是否由静态层绘制 */
+    fun isStatic(index: Int): Boolean = index in 0 until count && mStatic[index]
+
+    /**
+     * 绘制前同步控件状态，归属变化时标记静态层需要重新录制
+     */
+    fun sync(index: Int, atRest: Boolean, visible: Boolean) {
+        if (index !in 0 until count) return
+        val static = atRest && visible
+        if (mStatic[index] == static) return
+        mStatic[index] = static
+        staticCount += if (static) 1 else -1
+        isStaticDirty = true
+    }
+
+    /**
+     * 子控件请求重绘
+     *
+     * @param atRest 控件重绘后是否处于静止外观
+     * @return true 表示静态层受影响（控件进出静止状态或静止外观变化），需要重绘宿主；
+     *         false 表示只是实时控件自身内容更新，宿主不需要重新录制
+     */
+    fun onInvalidated(index: Int, atRest: Boolean): Boolean {
+        if (index !in 0 until count) return false
+        if (!atRest && !mStatic[index]) return false
+        isStaticDirty = true
+        return true
+    }
+
+    /** 静态层已按当前划分重新录制 */
+    fun onStaticRecorded() {
+        isStaticDirty = false
+    }
+
+    /** 丢弃静态层（例如进入编辑模式），下次使用时重新录制 */
+    fun invalidateStatic() {
+        isStaticDirty = true
+    }
+}
@@ -0,0 +1,113 @@
+package com.app.ralaunch.feature.controls.ui
+
+import android.graphics.Canvas
+import android.graphics.RenderNode
+import android.os.Build
+import android.view.View
+import androidx.annotation.RequiresApi
+
+/**
+ * 控件叠加层渲染器
+ *
+ * 把整个控件布局当作一个绘制表面：静止的控件录制进一个带合成层的 [RenderNode]，
+ * GPU 只在静态层内容变化时重新栅格化，之后每帧只合成这一张图层；
+ * 按下的按钮、拖动中的摇杆等实时控件绘制在静态层之上，只有它们自己的显示列表每帧更新。
+ *
+ * 静态层引用的是子 View 自身的显示列表，录制静态层不会重新执行控件的 onDraw。
+ * 按下的控件在松开前会临时绘制在所有静止控件之上。
+ *
+ * 需要硬件加速画布，由 [ControlLayout] 在非编辑模式下使用。
+ */
+@RequiresApi(Build.VERSION_CODES.Q)
+internal class ControlOverlayRenderer(private val host: ControlLayout) {
+
+    private val mPartition = ControlOverlayPartition()
+
+    private val mStaticNode = RenderNode("ControlOverlayStatic").apply {
+        // 静态层渲染到离屏图层，内容不变时直接合成
+        setUseCompositingLayer(true, null)
+    }
+
+    /** 静态层重新录制次数（用于帧耗时日志） */
+    var staticRecordCount = 0L
+        private set
+
+    /** 最近一帧实时绘制的控件数 */
+    var liveCount = 0
+        private set
+
+    /**
+     * 子控件增删或进入叠加模式时调用，下一帧重新归类所有控件
+     */
+    fun onChildrenChanged() {
+        mPartition.reset(host.childCount)
+    }
+
+    /**
+     * 控件位置变化时调用，静态层需要重新录制
+     */
+    fun onLayoutChanged() {
+        mPartition.invalidateStatic()
+    }
+
+    /**
+     * 子控件请求重绘；静态层受影响时重绘宿主，否则只更新该控件自身的显示列表
+     */
+    fun onChildInvalidated(child: View) {
+        val index = host.indexOfChild(child)
+        val atRest = (child as? ControlView)?.isAtRest ?: true
+        if (mPartition.onInvalidated(index, atRest)) {
+            host.invalidate()
+        }
+    }
+
+    fun draw(canvas: Canvas, drawingTime: Long) {
+        val count = host.childCount
+        if (count != mPartition.count) mPartition.reset(count)
+        for (i in 0 until count) {
+            val child = host.getChildAt(i)
+            mPartition.sync(i, (child as? ControlView)?.isAtRest ?: true, child.visibility == View.VISIBLE)
+        }
+
+        if (mPartition.isStaticDirty || mStaticNode.width != host.width || mStaticNode.height != host.height) {
+            recordStatic(count, drawingTime)
+        }
+        canvas.drawRenderNode(mStaticNode)
+
+        var live = 0
+        for (i in 0 until count) {
+            if (mPartition.isStatic(i)) continue
+            val child = host.getChildAt(i)
+            if (child.visibility != View.VISIBLE) continue
+            host.drawControlChild(canvas, child, drawingTime)
+            live++
+        }
+        liveCount = live
+    }
+
+    private fun recordStatic(count: Int, drawingTime: Long) {
+        val width = host.width
+        val height = host.height
+        mStaticNode.setPosition(0, 0, width, height)
+        val recordingCanvas = mStaticNode.beginRecording(width, height)
+        try {
+            for (i in 0 until count) {
+                if (mPartition.isStatic(i)) {
+                    host.drawControlChild(recordingCanvas, host.getChildAt(i), drawingTime)
+                }
+            }
+        } finally {
+            mStaticNode.endRecording()
+        }
+        mPartition.onStaticRecorded()
+        staticRecordCount++
+    }
+
+    /**
+     * 离开叠加模式或宿主脱离窗口时释放静态层
+     */
+    fun release() {
+        mStaticNode.discardDisplayList()
+        mPartition.invalidateStatic()
+    }
+}
@@ -1,5 +1,6 @@
 package com.app.ralaunch.feature.controls.ui
 
+import android.view.View
 import com.app.ralaunch.feature.controls.ControlData
 import java.io.File
 
@@ -21,6 +22,22 @@ interface ControlView {
         // 默认不做任何操作
     }
     
+    /**
+     * 控件包纹理已更新（例如纹理图集构建完成），绑定了纹理句柄的控件需要重新解析
+     * 默认实现只重绘
+     */
+    fun onTexturesChanged() {
+        (this as? View)?.invalidate()
+    }
+    
+    /**
+     * 控件当前是否是静止外观（未按下、摇杆头居中、菜单收起等）
+     * 静止的控件由 ControlLayout 录制进叠加层的静态层，非静止的控件每帧单独绘制
+     * 默认实现为 true，绘制内容不随触摸状态变化的控件不需要覆盖
+     */
+    val isAtRest: Boolean
+        get() = true
+
     /**
      * 检查触摸点是否在控件的实际形状内（考虑圆形、矩形等不同形状）
      * @param x 触摸点的X坐标（相对于父视图）
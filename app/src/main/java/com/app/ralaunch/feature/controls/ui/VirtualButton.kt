@@ -7,7 +7,6 @@ import android.graphics.Paint
 import android.graphics.Path
 import android.graphics.Rect
 import android.graphics.RectF
-import android.graphics.Region
 import android.graphics.Typeface
 import android.text.TextPaint
 import com.app.ralaunch.core.logging.AppLog
@@ -18,8 +17,16 @@ import com.app.ralaunch.feature.controls.ControlData
 import com.app.ralaunch.feature.controls.ControlSpecialActionHandler
 import com.app.ralaunch.feature.controls.ControlsSharedState
 import com.app.ralaunch.feature.controls.bridges.ControlInputBridge
+import com.app.ralaunch.feature.controls.textures.TextureAtlas
 import com.app.ralaunch.feature.controls.textures.TextureLoader
 import com.app.ralaunch.feature.controls.textures.TextureRenderer
+import com.app.ralaunch.feature.controls.textures.TextureSlots
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 import java.io.File
 import kotlin.math.max
 import kotlin.math.min
@@ -37,8 +44,29 @@ class VirtualButton(
 
     companion object {
         private const val TAG = "VirtualButton"
+
+        // 纹理槽
+        private const val SLOT_NORMAL = 0
+        private const val SLOT_PRESSED = 1
+        private const val SLOT_TOGGLED = 2
+        private const val TEXTURE_SLOT_COUNT = 3
+
+        // 纹理透明度掩码需要解码纹理并读取像素，在后台构建
+        private val hitMaskScope = CoroutineScope(Dispatchers.IO + SupervisorJob())
     }
 
+    /** 形状掩码的输入，未变化时不重建 */
+    private data class ShapeMaskKey(
+        val shape: ControlData.Button.Shape,
+        val cornerRadius: Float,
+        val polygonPoints: List<ControlData.Button.Point>,
+        val width: Int,
+        val height: Int
+    )
+
+    /** 纹理透明度掩码的输入，未变化时不重建 */
+    private data class AlphaMaskKey(val path: String, val width: Int, val height: Int)
+
     // 使用 Koin 延迟获取 VibrationManagerServiceV1
     private val vibrationManager: VibrationManagerServiceV1? by lazy {
         try {
@@ -60,6 +88,9 @@ class VirtualButton(
         set(value) {
             field = value
             initPaints()
+            rebuildGeometry()
+            rebuildHitMasks()
+            bindTextures()
             invalidate()
         }
     
@@ -69,6 +100,11 @@ class VirtualButton(
     // 纹理相关
     private var textureLoader: TextureLoader? = null
     private var assetsDir: File? = null
+
+    /** 绑定时解析好的纹理句柄，绘制时不再访问文件系统 */
+    private val mTextures = TextureSlots<TextureAtlas.Region>(TEXTURE_SLOT_COUNT) { dir, config, w, h ->
+        textureLoader?.resolvePackTexture(dir, config, w, h)
+    }
     
     /** 设置控件包资源目录（用于加载纹理） */
     override fun setPackAssetsDir(dir: File?) {
@@ -76,15 +112,72 @@ class VirtualButton(
         if (dir != null && textureLoader == null) {
             textureLoader = TextureLoader.getInstance(context)
         }
+        rebuildHitMasks()
+        bindTextures()
         invalidate()
     }
 
+    override fun onTexturesChanged() {
+        mTextures.invalidate()
+        bindTextures()
+        invalidate()
+    }
+
+    /**
+     * 按当前资源目录、纹理配置和尺寸解析四种状态的纹理，未变化的槽不会重新解析
+     */
+    private fun bindTextures() {
+        val texture = castedData.texture
+        val dir = if (texture.hasAnyTexture) assetsDir else null
+        mTextures.bind(SLOT_NORMAL, dir, texture.normal, width, height)
+        mTextures.bind(SLOT_PRESSED, dir, texture.pressed, width, height)
+        mTextures.bind(SLOT_TOGGLED, dir, texture.toggled, width, height)
+    }
+
+    /**
+     * 按 [TextureRenderer.renderButton] 的规则选择当前状态的纹理槽；
+     * 虚拟按钮没有禁用状态，不绑定 disabled 纹理
+     *
+     * @return 槽下标，没有可用的纹理配置时返回 -1
+     */
+    private fun selectTextureSlot(): Int {
+        val texture = castedData.texture
+        return when {
+            mIsToggled && texture.toggled.enabled -> SLOT_TOGGLED
+            mIsPressed && texture.pressed.enabled -> SLOT_PRESSED
+            texture.normal.enabled -> SLOT_NORMAL
+            else -> -1
+        }
+    }
+
     // 绘制相关
     private lateinit var mBackgroundPaint: Paint
     private lateinit var mStrokePaint: Paint
     private lateinit var mTextPaint: TextPaint
+    private lateinit var mGlowPaint: Paint
+    private lateinit var mCorePaint: Paint
     private val mRectF = RectF()
     private val mClipPath = Path()
+    private val mTextClipPath = Path()
+    private val mTextBounds = Rect()
+    private val mHitRect = Rect()
+
+    // 形状几何在尺寸或控件数据变化时重建，绘制时直接使用
+    private var mCornerRadius = 0f
+
+    // 文字排版缓存：显示文本（按引用比较）不变时沿用上次计算的字号和基线
+    private var mLayoutText: String? = null
+    private var mTextBaseline = 0f
+
+    // 命中测试掩码，在尺寸、形状或纹理变化时重建；圆形直接按距离判断，不需要掩码
+    private var mShapeMask: ControlHitMask? = null
+    private var mShapeMaskKey: ShapeMaskKey? = null
+    private var mAlphaMask: ControlHitMask? = null
+    private var mAlphaMaskKey: AlphaMaskKey? = null
+    private var mAlphaMaskJob: Job? = null
+    private var mHitCornerRadius = 0f
+    private var mHitPolygonXs = FloatArray(0)
+    private var mHitPolygonYs = FloatArray(0)
 
     // 按钮状态
     private var mIsPressed = false
@@ -100,8 +193,12 @@ class VirtualButton(
             }
         }
 
+    override val isAtRest: Boolean
+        get() = !mIsPressed && !mIsToggled
+
     init {
         initPaints()
+        rebuildGeometry()
     }
 
     private fun initPaints() {
@@ -146,11 +243,87 @@ class VirtualButton(
                 alpha = (castedData.textOpacity * 255).toInt()
             }
         }
+
+        // 手柄模式圆形按钮的外圈发光与内层核心，颜色随按下状态在绘制时切换
+        mGlowPaint = Paint(mBackgroundPaint)
+        mCorePaint = Paint(mBackgroundPaint)
+        mLayoutText = null
+    }
+
+    /**
+     * 按当前尺寸和形状重建裁剪路径、圆角半径，并使文字排版失效
+     */
+    private fun rebuildGeometry() {
+        val centerX = mRectF.centerX()
+        val centerY = mRectF.centerY()
+        val radius = min(mRectF.width(), mRectF.height()) / 2f
+        mCornerRadius = dpToPx(castedData.cornerRadius)
+
+        mClipPath.reset()
+        when (castedData.shape) {
+            ControlData.Button.Shape.CIRCLE ->
+                mClipPath.addCircle(centerX, centerY, radius, Path.Direction.CW)
+            ControlData.Button.Shape.RECTANGLE ->
+                mClipPath.addRoundRect(mRectF, mCornerRadius, mCornerRadius, Path.Direction.CW)
+            ControlData.Button.Shape.POLYGON -> {
+                if (castedData.polygonPoints.size >= 3) {
+                    val points = castedData.polygonPoints
+                    mClipPath.moveTo(
+                        mRectF.left + points[0].x * mRectF.width(),
+                        mRectF.top + points[0].y * mRectF.height()
+                    )
+                    for (i in 1 until points.size) {
+                        mClipPath.lineTo(
+                            mRectF.left + points[i].x * mRectF.width(),
+                            mRectF.top + points[i].y * mRectF.height()
+                        )
+                    }
+                    mClipPath.close()
+                } else {
+                    // 默认矩形
+                    mClipPath.addRect(mRectF, Path.Direction.CW)
+                }
+            }
+        }
+
+        mTextClipPath.reset()
+        mTextClipPath.addCircle(centerX, centerY, radius, Path.Direction.CW)
+        mLayoutText = null
+    }
+
+    /**
+     * 计算文字大小和基线，只在显示文本或尺寸变化后调用
+     */
+    private fun layoutText(displayText: String) {
+        when {
+            castedData.mode == ControlData.Button.Mode.GAMEPAD -> {
+                mTextPaint.textSize = 20f
+                mTextPaint.getTextBounds(displayText, 0, displayText.length, mTextBounds)
+                val textAspectRatio = mTextBounds.width() / max(mTextBounds.height(), 1).toFloat()
+                mTextPaint.textSize = min(height / 2f, width / max(textAspectRatio, 1f))
+            }
+            castedData.keycode == ControlData.KeyCode.SPECIAL_TOUCHPAD_RIGHT_BUTTON -> {
+                mTextPaint.textSize = dpToPx(32f)
+            }
+            else -> {
+                mTextPaint.textSize = dpToPx(16f)
+                val textWidth = mTextPaint.measureText(displayText)
+                val availableWidth = width - dpToPx(4f)
+                if (textWidth > availableWidth) {
+                    mTextPaint.textSize = mTextPaint.textSize * (availableWidth / textWidth)
+                }
+            }
+        }
+        mTextBaseline = height / 2f - ((mTextPaint.descent() + mTextPaint.ascent()) / 2)
+        mLayoutText = displayText
     }
 
     override fun onSizeChanged(w: Int, h: Int, oldw: Int, oldh: Int) {
         super.onSizeChanged(w, h, oldw, oldh)
         mRectF.set(0f, 0f, w.toFloat(), h.toFloat())
+        rebuildGeometry()
+        rebuildHitMasks()
+        bindTextures()
     }
 
     override fun onDetachedFromWindow() {
@@ -162,47 +335,131 @@ class VirtualButton(
         // 重置所有状态
         mActivePointerId = -1
         mIsPressed = false
+        // 未完成的透明度掩码构建随视图分离取消，重新附加时再构建
+        if (mAlphaMaskJob?.isActive == true) {
+            mAlphaMaskJob?.cancel()
+            mAlphaMaskKey = null
+        }
+        mAlphaMaskJob = null
+    }
+
+    override fun onAttachedToWindow() {
+        super.onAttachedToWindow()
+        rebuildHitMasks()
     }
 
     override fun isTouchInBounds(x: Float, y: Float): Boolean {
         // 将父视图坐标转换为本地坐标
-        val childRect = Rect()
-        getHitRect(childRect)
-        val localX = x - childRect.left
-        val localY = y - childRect.top
+        getHitRect(mHitRect)
+        val localX = x - mHitRect.left
+        val localY = y - mHitRect.top
         
         return isLocalTouchInBounds(localX, localY)
     }
 
+    /**
+     * 重建形状与纹理透明度掩码
+     * 逐像素求值一次，之后的触摸检测只查表；输入未变化的掩码不重建（编辑器修改颜色、文字等时沿用）
+     */
+    private fun rebuildHitMasks() {
+        val w = width
+        val h = height
+        if (w <= 0 || h <= 0) {
+            mShapeMask = null
+            mShapeMaskKey = null
+            setAlphaMaskKey(null)
+            return
+        }
+
+        val shapeKey = ShapeMaskKey(castedData.shape, castedData.cornerRadius, castedData.polygonPoints, w, h)
+        if (shapeKey != mShapeMaskKey) {
+            mShapeMaskKey = shapeKey
+            mShapeMask = buildShapeMask(w, h)
+        }
+        setAlphaMaskKey(alphaMaskKey(w, h))
+    }
+
+    private fun buildShapeMask(w: Int, h: Int): ControlHitMask? =
+        when (castedData.shape) {
+            ControlData.Button.Shape.CIRCLE -> null
+            ControlData.Button.Shape.RECTANGLE -> {
+                mHitCornerRadius = dpToPx(castedData.cornerRadius)
+                ControlHitMask.build(w, h, predicate = ::isPixelInShape)
+            }
+            ControlData.Button.Shape.POLYGON -> {
+                val points = castedData.polygonPoints
+                if (points.size >= 3) {
+                    mHitPolygonXs = FloatArray(points.size) { points[it].x * w }
+                    mHitPolygonYs = FloatArray(points.size) { points[it].y * h }
+                    ControlHitMask.build(w, h, predicate = ::isPixelInShape)
+                } else {
+                    null
+                }
+            }
+        }
+
+    /**
+     * 纹理透明度掩码的输入；未启用透明检测或没有纹理时返回 null（视为不透明）
+     */
+    private fun alphaMaskKey(w: Int, h: Int): AlphaMaskKey? {
+        if (!castedData.useTextureAlphaHitTest) return null
+        val normal = castedData.texture.normal
+        if (normal.path.isEmpty() || !normal.enabled) return null
+        val assetsPath = assetsDir ?: return null
+        if (textureLoader == null) return null
+        return AlphaMaskKey(File(assetsPath, normal.path).absolutePath, w, h)
+    }
+
+    /**
+     * 输入变化时在后台重新构建纹理透明度掩码，构建完成前按不透明处理
+     */
+    private fun setAlphaMaskKey(key: AlphaMaskKey?) {
+        if (key == mAlphaMaskKey) return
+        mAlphaMaskKey = key
+        mAlphaMaskJob?.cancel()
+        mAlphaMaskJob = null
+        mAlphaMask = null
+        val loader = textureLoader
+        if (key == null || loader == null) return
+        mAlphaMaskJob = hitMaskScope.launch {
+            val mask = buildAlphaMask(loader, key)
+            withContext(Dispatchers.Main) {
+                if (mAlphaMaskKey == key) mAlphaMask = mask
+            }
+        }
+    }
+
+    /**
+     * 按纹理透明度构建掩码，在后台线程执行；纹理不可用时返回 null（视为不透明）
+     */
+    private fun buildAlphaMask(loader: TextureLoader, key: AlphaMaskKey): ControlHitMask? {
+        val bitmap = loader.loadTexture(key.path, key.width, key.height) ?: return null
+        val pixels = IntArray(bitmap.width * bitmap.height)
+        bitmap.getPixels(pixels, 0, bitmap.width, 0, 0, bitmap.width, bitmap.height)
+        return ControlHitMask.fromAlpha(pixels, bitmap.width, bitmap.height, key.width, key.height)
+    }
+
+    /**
+     * 像素是否在圆角矩形或多边形内，与 Region.setPath 的结果一致（取像素中心）
+     */
+    private fun isPixelInShape(x: Int, y: Int): Boolean = when (castedData.shape) {
+        ControlData.Button.Shape.RECTANGLE ->
+            ControlHitMask.roundRectContains(x, y, width, height, mHitCornerRadius)
+        ControlData.Button.Shape.POLYGON ->
+            ControlHitMask.polygonContains(x, y, mHitPolygonXs, mHitPolygonYs)
+        ControlData.Button.Shape.CIRCLE -> false
+    }
+
     /**
      * 检查纹理透明度
      * 当启用纹理透明点击检测时，检查触摸点对应的纹理像素是否为透明
      * @return true 如果点击位置不透明（可点击），false 如果透明（穿透）
      */
     private fun checkTextureAlpha(localX: Float, localY: Float): Boolean {
-        // 如果没有启用透明检测，直接返回 true
-        if (!castedData.useTextureAlphaHitTest) return true
-        
-        // 检查是否有纹理
-        val texturePath = castedData.texture.normal.path
-        if (texturePath.isEmpty() || !castedData.texture.normal.enabled) return true
-        
-        // 获取纹理 Bitmap
-        val loader = textureLoader ?: return true
-        val assetsPath = assetsDir ?: return true
-        val fullPath = File(assetsPath, texturePath).absolutePath
-        val bitmap = loader.loadTexture(fullPath, width, height) ?: return true
-        
-        // 将触摸坐标映射到纹理坐标
-        val texX = ((localX / width) * bitmap.width).toInt().coerceIn(0, bitmap.width - 1)
-        val texY = ((localY / height) * bitmap.height).toInt().coerceIn(0, bitmap.height - 1)
-        
-        // 检查像素 Alpha 值 (阈值 50，避免边缘问题)
-        val pixel = bitmap.getPixel(texX, texY)
-        val alpha = (pixel shr 24) and 0xFF
-        return alpha > 50
+        val mask = mAlphaMask ?: return true
+        return mask.contains(localX, localY)
     }
-    
+
     /**
      * 检查本地坐标是否在控件形状内
      * @param localX 本地 X 坐标
@@ -213,7 +470,7 @@ class VirtualButton(
         if (!checkTextureAlpha(localX, localY)) {
             return false
         }
-        
+
         return when (castedData.shape) {
             ControlData.Button.Shape.CIRCLE -> {
                 val centerX = width / 2f
@@ -224,30 +481,11 @@ class VirtualButton(
                 val distance = sqrt((dx * dx + dy * dy).toDouble()).toFloat()
                 distance <= radius
             }
-            ControlData.Button.Shape.RECTANGLE -> {
-                // 使用圆角矩形路径检查触摸点
-                val cornerRadius = dpToPx(castedData.cornerRadius)
-                val path = Path()
-                path.addRoundRect(0f, 0f, width.toFloat(), height.toFloat(), cornerRadius, cornerRadius, Path.Direction.CW)
-                val region = Region()
-                region.setPath(path, Region(0, 0, width, height))
-                region.contains(localX.toInt(), localY.toInt())
-            }
+            ControlData.Button.Shape.RECTANGLE -> isInShapeMask(localX, localY)
             ControlData.Button.Shape.POLYGON -> {
                 // 检查多边形触摸区域
                 if (castedData.polygonPoints.size >= 3) {
-                    val path = Path()
-                    val w = width.toFloat()
-                    val h = height.toFloat()
-                    val points = castedData.polygonPoints
-                    path.moveTo(points[0].x * w, points[0].y * h)
-                    for (i in 1 until points.size) {
-                        path.lineTo(points[i].x * w, points[i].y * h)
-                    }
-                    path.close()
-                    val region = Region()
-                    region.setPath(path, Region(0, 0, width, height))
-                    region.contains(localX.toInt(), localY.toInt())
+                    isInShapeMask(localX, localY)
                 } else {
                     // 默认矩形检查
                     localX >= 0 && localX <= width && localY >= 0 && localY <= height
@@ -256,6 +494,18 @@ class VirtualButton(
         }
     }
 
+    /**
+     * 查表判断，只有落在跨越边界的格子时才按原始形状复算一个像素
+     */
+    private fun isInShapeMask(localX: Float, localY: Float): Boolean {
+        val mask = mShapeMask ?: return false
+        return when (mask.classify(localX, localY)) {
+            ControlHitMask.INSIDE -> true
+            ControlHitMask.EDGE -> isPixelInShape(localX.toInt(), localY.toInt())
+            else -> false
+        }
+    }
+
     // ==================== ControlView 接口方法 ====================
 
     override fun tryAcquireTouch(pointerId: Int, x: Float, y: Float): Boolean {
@@ -316,6 +566,7 @@ class VirtualButton(
         val centerYDraw = mRectF.centerY()
         val radius = min(mRectF.width(), mRectF.height()) / 2f
         val hasTexture = castedData.texture.hasAnyTexture && assetsDir != null && textureLoader != null
+        val textureSlot = if (hasTexture) selectTextureSlot() else -1
 
         // 动态计算阴影和发光效果 (适配深浅主题)
         val elevation = if (mIsPressed || mIsToggled) dpToPx(2f) else dpToPx(4f)
@@ -330,51 +581,11 @@ class VirtualButton(
         // 使用用户设置的文本颜色
         val textColorValue = castedData.textColor
 
-        // 更新裁剪路径
-        mClipPath.reset()
         when (shape) {
-            ControlData.Button.Shape.CIRCLE ->
-                mClipPath.addCircle(centerXDraw, centerYDraw, radius, Path.Direction.CW)
             ControlData.Button.Shape.RECTANGLE -> {
-                val cornerRadius = dpToPx(castedData.cornerRadius)
-                mClipPath.addRoundRect(mRectF, cornerRadius, cornerRadius, Path.Direction.CW)
-            }
-            ControlData.Button.Shape.POLYGON -> {
-                if (castedData.polygonPoints.size >= 3) {
-                    val points = castedData.polygonPoints
-                    mClipPath.moveTo(
-                        mRectF.left + points[0].x * mRectF.width(),
-                        mRectF.top + points[0].y * mRectF.height()
-                    )
-                    for (i in 1 until points.size) {
-                        mClipPath.lineTo(
-                            mRectF.left + points[i].x * mRectF.width(),
-                            mRectF.top + points[i].y * mRectF.height()
-                        )
-                    }
-                    mClipPath.close()
-                } else {
-                    // 默认矩形
-                    mClipPath.addRect(mRectF, Path.Direction.CW)
-                }
-            }
-        }
-
-        when (shape) {
-            ControlData.Button.Shape.RECTANGLE -> {
-                val cornerRadius = dpToPx(castedData.cornerRadius)
+                val cornerRadius = mCornerRadius
                 if (hasTexture) {
-                    TextureRenderer.renderButton(
-                        canvas = canvas,
-                        textureLoader = textureLoader!!,
-                        assetsDir = assetsDir,
-                        textureConfig = castedData.texture,
-                        bounds = mRectF,
-                        isPressed = mIsPressed,
-                        isToggled = mIsToggled,
-                        clipPath = mClipPath,
-                        opacityMultiplier = castedData.opacity
-                    )
+                    drawTexture(canvas, textureSlot)
                 } else {
                     // 绘制具有深度感的背景
                     mBackgroundPaint.alpha = min(255, (castedData.opacity * 255 * alphaMultiplier).toInt())
@@ -397,17 +608,7 @@ class VirtualButton(
             }
             ControlData.Button.Shape.CIRCLE -> {
                 if (hasTexture) {
-                    TextureRenderer.renderButton(
-                        canvas = canvas,
-                        textureLoader = textureLoader!!,
-                        assetsDir = assetsDir,
-                        textureConfig = castedData.texture,
-                        bounds = mRectF,
-                        isPressed = mIsPressed,
-                        isToggled = mIsToggled,
-                        clipPath = mClipPath,
-                        opacityMultiplier = castedData.opacity
-                    )
+                    drawTexture(canvas, textureSlot)
                     canvas.drawCircle(centerXDraw, centerYDraw, radius, mStrokePaint)
                 } else {
                     when (castedData.mode) {
@@ -434,35 +635,25 @@ class VirtualButton(
                             val innerRadius = radius * (1.0f - 2.5f * margin)
 
                             // 绘制外圈发光感
-                            val glowPaint = Paint(mBackgroundPaint).apply {
+                            mGlowPaint.apply {
                                 color = if (mIsPressed || mIsToggled) castedData.bgColor else 0x327D7D7D
                                 alpha = (castedData.opacity * 255 * 0.4f).toInt()
                             }
-                            canvas.drawCircle(centerXDraw, centerYDraw, outerRadius, glowPaint)
+                            canvas.drawCircle(centerXDraw, centerYDraw, outerRadius, mGlowPaint)
 
                             // 绘制内层核心
-                            val corePaint = Paint(mBackgroundPaint).apply {
+                            mCorePaint.apply {
                                 color = if (mIsPressed || mIsToggled) -0x1 else -0x828283
                                 alpha = (castedData.opacity * 255).toInt()
                             }
-                            canvas.drawCircle(centerXDraw, centerYDraw, innerRadius, corePaint)
+                            canvas.drawCircle(centerXDraw, centerYDraw, innerRadius, mCorePaint)
                         }
                     }
                 }
             }
             ControlData.Button.Shape.POLYGON -> {
                 if (hasTexture) {
-                    TextureRenderer.renderButton(
-                        canvas = canvas,
-                        textureLoader = textureLoader!!,
-                        assetsDir = assetsDir,
-                        textureConfig = castedData.texture,
-                        bounds = mRectF,
-                        isPressed = mIsPressed,
-                        isToggled = mIsToggled,
-                        clipPath = mClipPath,
-                        opacityMultiplier = castedData.opacity
-                    )
+                    drawTexture(canvas, textureSlot)
                 } else {
                     // 绘制多边形背景
                     mBackgroundPaint.alpha = min(255, (castedData.opacity * 255 * alphaMultiplier).toInt())
@@ -506,9 +697,7 @@ class VirtualButton(
 
             // 根据控件形状设置裁剪区域
             if (shape == ControlData.Button.Shape.CIRCLE) {
-                canvas.clipPath(Path().apply {
-                    addCircle(centerXDraw, centerYDraw, radius, Path.Direction.CW)
-                })
+                canvas.clipPath(mTextClipPath)
             } else {
                 val padding = dpToPx(2f)
                 canvas.clipRect(padding, padding, width - padding, height - padding)
@@ -518,30 +707,12 @@ class VirtualButton(
             mTextPaint.color = textColorValue
             mTextPaint.alpha = (castedData.textOpacity * 255).toInt()
 
-            // 计算文字大小
-            when {
-                castedData.mode == ControlData.Button.Mode.GAMEPAD -> {
-                    mTextPaint.textSize = 20f
-                    val textBounds = Rect()
-                    mTextPaint.getTextBounds(displayText, 0, displayText.length, textBounds)
-                    val textAspectRatio = textBounds.width() / max(textBounds.height(), 1).toFloat()
-                    mTextPaint.textSize = min(height / 2f, width / max(textAspectRatio, 1f))
-                }
-                castedData.keycode == ControlData.KeyCode.SPECIAL_TOUCHPAD_RIGHT_BUTTON -> {
-                    mTextPaint.textSize = dpToPx(32f)
-                }
-                else -> {
-                    mTextPaint.textSize = dpToPx(16f)
-                    val textWidth = mTextPaint.measureText(displayText)
-                    val availableWidth = width - dpToPx(4f)
-                    if (textWidth > availableWidth) {
-                        mTextPaint.textSize = mTextPaint.textSize * (availableWidth / textWidth)
-                    }
-                }
+            // 计算文字大小（文本不变时沿用上次的结果）
+            if (displayText !== mLayoutText) {
+                layoutText(displayText)
             }
 
-            val textY = height / 2f - ((mTextPaint.descent() + mTextPaint.ascent()) / 2)
-            canvas.drawText(displayText, width / 2f, textY, mTextPaint)
+            canvas.drawText(displayText, width / 2f, mTextBaseline, mTextPaint)
             canvas.restore()
         }
 
@@ -551,6 +722,18 @@ class VirtualButton(
         }
     }
 
+    private fun drawTexture(canvas: Canvas, slot: Int) {
+        if (slot < 0) return
+        val region = mTextures[slot] ?: return
+        val texture = castedData.texture
+        val config = when (slot) {
+            SLOT_TOGGLED -> texture.toggled
+            SLOT_PRESSED -> texture.pressed
+            else -> texture.normal
+        }
+        TextureRenderer.render(canvas, region, config, mRectF, mClipPath, castedData.opacity)
+    }
+
     private fun handlePress() {
         mIsPressed = true
 
@@ -3,6 +3,7 @@ package com.app.ralaunch.feature.controls.ui
 import android.content.Context
 import android.graphics.Canvas
 import android.graphics.Paint
+import android.graphics.Path
 import android.graphics.RectF
 import com.app.ralaunch.core.logging.AppLog
 import android.view.View
@@ -34,6 +35,18 @@ class VirtualDPad(
         private const val DIR_RIGHT = 1
         private const val DIR_DOWN = 2
         private const val DIR_LEFT = 3
+
+        private const val MASK_UP = 1 shl DIR_UP
+        private const val MASK_RIGHT = 1 shl DIR_RIGHT
+        private const val MASK_DOWN = 1 shl DIR_DOWN
+        private const val MASK_LEFT = 1 shl DIR_LEFT
+
+        /** 3x3 网格每个单元格（按行优先）对应的方向位掩码，对角单元格同时包含两个方向 */
+        private val CELL_DIRECTIONS = intArrayOf(
+            MASK_UP or MASK_LEFT, MASK_UP, MASK_UP or MASK_RIGHT,
+            MASK_LEFT, 0, MASK_RIGHT,
+            MASK_DOWN or MASK_LEFT, MASK_DOWN, MASK_DOWN or MASK_RIGHT
+        )
     }
 
     // 震动管理器
@@ -50,6 +63,7 @@ class VirtualDPad(
         set(value) {
             field = value
             initPaints()
+            rebuildGeometry()
             invalidate()
         }
 
@@ -74,15 +88,23 @@ class VirtualDPad(
     private lateinit var buttonPaint: Paint
     private lateinit var buttonPressedPaint: Paint
     private lateinit var buttonStrokePaint: Paint
-    private val paintRect: RectF = RectF()
-    private val cornerPath: android.graphics.Path = android.graphics.Path()
+
+    // 网格几何在尺寸或控件数据变化时重建：9 个单元格矩形，四角单元格另有只圆角化外侧角的路径
+    private val cellRects = Array(9) { RectF() }
+    private val cellPaths = arrayOfNulls<Path>(9)
+    private val borderRect = RectF()
+    private var cornerRadiusPx = 0f
 
     // 按钮状态 - 4个方向
     private val buttonPressed = BooleanArray(4) { false }
     private var activePointerId = -1
 
+    override val isAtRest: Boolean
+        get() = buttonPressed.none { it }
+
     init {
         initPaints()
+        rebuildGeometry()
     }
 
     private fun initPaints() {
@@ -124,7 +146,69 @@ class VirtualDPad(
 
     override fun onSizeChanged(w: Int, h: Int, oldw: Int, oldh: Int) {
         super.onSizeChanged(w, h, oldw, oldh)
-        paintRect.set(0f, 0f, w.toFloat(), h.toFloat())
+        rebuildGeometry()
+    }
+
+    private fun rebuildGeometry() {
+        val cellWidth = width / 3f
+        val cellHeight = height / 3f
+        val cornerRadius = dpToPx(controlData.cornerRadius)
+        cornerRadiusPx = cornerRadius
+
+        for (row in 0..2) {
+            for (col in 0..2) {
+                val cell = row * 3 + col
+                val left = col * cellWidth
+                val top = row * cellHeight
+                val right = left + cellWidth
+                val bottom = top + cellHeight
+                cellRects[cell].set(left, top, right, bottom)
+
+                // 角落单元格使用Path绘制，只圆角化外侧角
+                val path = when {
+                    row == 0 && col == 0 -> Path().apply { // 左上角
+                        moveTo(left + cornerRadius, top)
+                        lineTo(right, top)
+                        lineTo(right, bottom)
+                        lineTo(left, bottom)
+                        lineTo(left, top + cornerRadius)
+                        arcTo(left, top, left + cornerRadius * 2, top + cornerRadius * 2, 180f, 90f, false)
+                        close()
+                    }
+                    row == 0 && col == 2 -> Path().apply { // 右上角
+                        moveTo(left, top)
+                        lineTo(right - cornerRadius, top)
+                        arcTo(right - cornerRadius * 2, top, right, top + cornerRadius * 2, 270f, 90f, false)
+                        lineTo(right, bottom)
+                        lineTo(left, bottom)
+                        close()
+                    }
+                    row == 2 && col == 0 -> Path().apply { // 左下角
+                        moveTo(left, top)
+                        lineTo(right, top)
+                        lineTo(right, bottom)
+                        lineTo(left + cornerRadius, bottom)
+                        arcTo(left, bottom - cornerRadius * 2, left + cornerRadius * 2, bottom, 90f, 90f, false)
+                        lineTo(left, top)
+                        close()
+                    }
+                    row == 2 && col == 2 -> Path().apply { // 右下角
+                        moveTo(left, top)
+                        lineTo(right, top)
+                        lineTo(right, bottom - cornerRadius)
+                        arcTo(right - cornerRadius * 2, bottom - cornerRadius * 2, right, bottom, 0f, 90f, false)
+                        lineTo(left, bottom)
+                        close()
+                    }
+                    else -> null
+                }
+                cellPaths[cell] = path
+            }
+        }
+
+        // 外边框（带圆角）
+        val halfStroke = dpToPx(controlData.strokeWidth) / 2f
+        borderRect.set(halfStroke, halfStroke, width.toFloat() - halfStroke, height.toFloat() - halfStroke)
     }
 
     // ==================== ControlView 接口方法 ====================
@@ -169,7 +253,7 @@ class VirtualDPad(
         val row = min(2, max(0, (y / cellHeight).toInt()))
 
         // 映射到方向（对角方向会激活两个方向键）
-        val activeDirections = getCellDirections(row, col)
+        val activeDirections = CELL_DIRECTIONS[row * 3 + col]
 
         // 更新按钮状态
         updateButtonStates(activeDirections)
@@ -177,24 +261,12 @@ class VirtualDPad(
         invalidate()
     }
 
-    private fun getCellDirections(row: Int, col: Int): Set<Int> {
-        return when {
-            row == 0 && col == 0 -> setOf(DIR_UP, DIR_LEFT)     // 左上
-            row == 0 && col == 1 -> setOf(DIR_UP)                // 上
-            row == 0 && col == 2 -> setOf(DIR_UP, DIR_RIGHT)     // 右上
-            row == 1 && col == 0 -> setOf(DIR_LEFT)              // 左
-            row == 1 && col == 1 -> emptySet()                   // 中心，无方向
-            row == 1 && col == 2 -> setOf(DIR_RIGHT)             // 右
-            row == 2 && col == 0 -> setOf(DIR_DOWN, DIR_LEFT)    // 左下
-            row == 2 && col == 1 -> setOf(DIR_DOWN)              // 下
-            row == 2 && col == 2 -> setOf(DIR_DOWN, DIR_RIGHT)   // 右下
-            else -> emptySet()
-        }
-    }
-
-    private fun updateButtonStates(activeDirections: Set<Int>) {
+    /**
+     * @param activeDirections 方向位掩码，见 [CELL_DIRECTIONS]
+     */
+    private fun updateButtonStates(activeDirections: Int) {
         for (i in buttonPressed.indices) {
-            val shouldBePressed = i in activeDirections
+            val shouldBePressed = activeDirections and (1 shl i) != 0
             if (buttonPressed[i] != shouldBePressed) {
                 buttonPressed[i] = shouldBePressed
 
@@ -281,75 +353,28 @@ class VirtualDPad(
             canvas.rotate(controlData.rotation, centerX, centerY)
         }
 
-        val cornerRadius = dpToPx(controlData.cornerRadius)
+        // 当前按下的方向位掩码
+        var pressedMask = 0
+        for (i in buttonPressed.indices) {
+            if (buttonPressed[i]) pressedMask = pressedMask or (1 shl i)
+        }
 
         // 绘制3x3网格的9个单元格
         val cellWidth = width / 3f
         val cellHeight = height / 3f
 
-        for (row in 0..2) {
-            for (col in 0..2) {
-                val left = col * cellWidth
-                val top = row * cellHeight
-                val right = left + cellWidth
-                val bottom = top + cellHeight
-
-                // 判断该单元格是否应该高亮
-                val directions = getCellDirections(row, col)
-                val isPressed = directions.isNotEmpty() && directions.all { buttonPressed[it] }
-
-                val btnPaint = if (isPressed) buttonPressedPaint else buttonPaint
+        for (cell in 0 until 9) {
+            // 判断该单元格是否应该高亮
+            val directions = CELL_DIRECTIONS[cell]
+            val isPressed = directions != 0 && (directions and pressedMask) == directions
 
-                paintRect.set(left, top, right, bottom)
+            val btnPaint = if (isPressed) buttonPressedPaint else buttonPaint
 
-                // 角落单元格使用Path绘制，只圆角化外侧角
-                when {
-                    row == 0 && col == 0 -> { // 左上角
-                        cornerPath.reset()
-                        cornerPath.moveTo(left + cornerRadius, top)
-                        cornerPath.lineTo(right, top)
-                        cornerPath.lineTo(right, bottom)
-                        cornerPath.lineTo(left, bottom)
-                        cornerPath.lineTo(left, top + cornerRadius)
-                        cornerPath.arcTo(left, top, left + cornerRadius * 2, top + cornerRadius * 2, 180f, 90f, false)
-                        cornerPath.close()
-                        canvas.drawPath(cornerPath, btnPaint)
-                    }
-                    row == 0 && col == 2 -> { // 右上角
-                        cornerPath.reset()
-                        cornerPath.moveTo(left, top)
-                        cornerPath.lineTo(right - cornerRadius, top)
-                        cornerPath.arcTo(right - cornerRadius * 2, top, right, top + cornerRadius * 2, 270f, 90f, false)
-                        cornerPath.lineTo(right, bottom)
-                        cornerPath.lineTo(left, bottom)
-                        cornerPath.close()
-                        canvas.drawPath(cornerPath, btnPaint)
-                    }
-                    row == 2 && col == 0 -> { // 左下角
-                        cornerPath.reset()
-                        cornerPath.moveTo(left, top)
-                        cornerPath.lineTo(right, top)
-                        cornerPath.lineTo(right, bottom)
-                        cornerPath.lineTo(left + cornerRadius, bottom)
-                        cornerPath.arcTo(left, bottom - cornerRadius * 2, left + cornerRadius * 2, bottom, 90f, 90f, false)
-                        cornerPath.lineTo(left, top)
-                        cornerPath.close()
-                        canvas.drawPath(cornerPath, btnPaint)
-                    }
-                    row == 2 && col == 2 -> { // 右下角
-                        cornerPath.reset()
-                        cornerPath.moveTo(left, top)
-                        cornerPath.lineTo(right, top)
-                        cornerPath.lineTo(right, bottom - cornerRadius)
-                        cornerPath.arcTo(right - cornerRadius * 2, bottom - cornerRadius * 2, right, bottom, 0f, 90f, false)
-                        cornerPath.lineTo(left, bottom)
-                        cornerPath.close()
-                        canvas.drawPath(cornerPath, btnPaint)
-                    }
-                    else -> { // 其他单元格：矩形
-                        canvas.drawRect(paintRect, btnPaint)
-                    }
-                }
+            val path = cellPaths[cell]
+            if (path != null) {
+                canvas.drawPath(path, btnPaint)
+            } else {
+                canvas.drawRect(cellRects[cell], btnPaint)
             }
         }
 
@@ -364,14 +389,7 @@ class VirtualDPad(
             canvas.drawLine(0f, cellHeight * 2, width.toFloat(), cellHeight * 2, buttonStrokePaint)
 
             // 外边框（带圆角）
-            val halfStroke = dpToPx(controlData.strokeWidth) / 2f
-            paintRect.set(
-                halfStroke,
-                halfStroke,
-                width.toFloat() - halfStroke,
-                height.toFloat() - halfStroke
-            )
-            canvas.drawRoundRect(paintRect, cornerRadius, cornerRadius, strokePaint)
+            canvas.drawRoundRect(borderRect, cornerRadiusPx, cornerRadiusPx, strokePaint)
         }
 
         if (controlData.rotation != 0f) {
@@ -12,8 +12,10 @@ import com.app.ralaunch.core.di.service.VibrationManagerServiceV1
 import com.app.ralaunch.feature.controls.ControlData
 import org.koin.java.KoinJavaComponent
 import com.app.ralaunch.feature.controls.bridges.ControlInputBridge
+import com.app.ralaunch.feature.controls.textures.TextureAtlas
 import com.app.ralaunch.feature.controls.textures.TextureLoader
 import com.app.ralaunch.feature.controls.textures.TextureRenderer
+import com.app.ralaunch.feature.controls.textures.TextureSlots
 import com.app.ralaunch.core.common.SettingsAccess
 import java.io.File
 import kotlin.math.atan2
@@ -41,6 +43,8 @@ class VirtualJoystick(
                 // 直接使用 stickKnobSize，0是有效值（可以让摇杆圆心不可见）
                 mStickRadius = mRadius * castedData.stickKnobSize
             }
+            rebuildTextureGeometry()
+            bindTextures()
             invalidate()
         }
 
@@ -54,6 +58,12 @@ class VirtualJoystick(
     private val knobBoundsRectF = RectF()
     private val bgClipPath = Path()
     private val knobClipPath = Path()
+    private val mHitRect = android.graphics.Rect()
+    
+    /** 绑定时解析好的纹理句柄，绘制时不再访问文件系统 */
+    private val mTextures = TextureSlots<TextureAtlas.Region>(TEXTURE_SLOT_COUNT) { dir, config, w, h ->
+        textureLoader?.resolvePackTexture(dir, config, w, h)
+    }
     
     /** 设置控件包资源目录（用于加载纹理） */
     override fun setPackAssetsDir(dir: File?) {
@@ -61,12 +71,60 @@ class VirtualJoystick(
         if (dir != null && textureLoader == null) {
             textureLoader = TextureLoader.getInstance(context)
         }
+        bindTextures()
         invalidate()
     }
+    
+    override fun onTexturesChanged() {
+        mTextures.invalidate()
+        bindTextures()
+        invalidate()
+    }
+    
+    /**
+     * 按当前资源目录、纹理配置和尺寸解析纹理，未变化的槽不会重新解析
+     */
+    private fun bindTextures() {
+        val texture = castedData.texture
+        val dir = if (texture.hasAnyTexture) assetsDir else null
+        val backgroundSize = (mRadius * STICK_BACKGROUND_SIZE * 2f).toInt()
+        val knobSize = (mStickRadius * 2f).toInt()
+        mTextures.bind(SLOT_BACKGROUND, dir, texture.background, backgroundSize, backgroundSize)
+        mTextures.bind(SLOT_BACKGROUND_PRESSED, dir, texture.backgroundPressed, backgroundSize, backgroundSize)
+        mTextures.bind(SLOT_KNOB, dir, texture.knob, knobSize, knobSize)
+        mTextures.bind(SLOT_KNOB_PRESSED, dir, texture.knobPressed, knobSize, knobSize)
+    }
+
+    /**
+     * 纹理的绘制区域和裁剪路径只随尺寸和摇杆头大小变化；
+     * 摇杆头以原点为中心构建，绘制时平移画布到摇杆位置
+     */
+    private fun rebuildTextureGeometry() {
+        val backgroundRadius = mRadius * STICK_BACKGROUND_SIZE
+        bgBoundsRectF.set(
+            mCenterX - backgroundRadius,
+            mCenterY - backgroundRadius,
+            mCenterX + backgroundRadius,
+            mCenterY + backgroundRadius
+        )
+        bgClipPath.reset()
+        bgClipPath.addCircle(mCenterX, mCenterY, backgroundRadius, Path.Direction.CW)
+
+        knobBoundsRectF.set(-mStickRadius, -mStickRadius, mStickRadius, mStickRadius)
+        knobClipPath.reset()
+        knobClipPath.addCircle(0f, 0f, mStickRadius, Path.Direction.CW)
+    }
 
     companion object {
         private const val TAG = "VirtualJoystick"
 
+        // 纹理槽
+        private const val SLOT_BACKGROUND = 0
+        private const val SLOT_BACKGROUND_PRESSED = 1
+        private const val SLOT_KNOB = 2
+        private const val SLOT_KNOB_PRESSED = 3
+        private const val TEXTURE_SLOT_COUNT = 4
+
         // 8个方向常量（对应游戏中的实际方向）
         const val DIR_NONE: Int = -1
         const val DIR_UP: Int = 0 // 上 (W)
@@ -131,6 +189,9 @@ class VirtualJoystick(
     private var mIsTouching = false
     private var mActivePointerId = -1 // 跟踪的触摸点 ID
 
+    override val isAtRest: Boolean
+        get() = !mIsTouching && mStickX == mCenterX && mStickY == mCenterY
+
     // 屏幕尺寸（用于右摇杆绝对位置计算）
     private var mScreenWidth = 0
     private var mScreenHeight = 0
@@ -256,6 +317,8 @@ class VirtualJoystick(
         // RadialGamePad 风格：摇杆圆心是半径的 50%（0.5f * radius）
         // 直接使用 stickKnobSize，0是有效值（可以让摇杆圆心不可见）
         mStickRadius = mRadius * castedData.stickKnobSize
+        rebuildTextureGeometry()
+        bindTextures()
         resetStick()
     }
 
@@ -278,40 +341,33 @@ class VirtualJoystick(
         val hasTexture = castedData.texture.hasAnyTexture && assetsDir != null && textureLoader != null
         
         if (hasTexture) {
-            // 更新背景边界和裁剪路径
-            bgBoundsRectF.set(
-                mCenterX - backgroundRadius,
-                mCenterY - backgroundRadius,
-                mCenterX + backgroundRadius,
-                mCenterY + backgroundRadius
-            )
-            bgClipPath.reset()
-            bgClipPath.addCircle(mCenterX, mCenterY, backgroundRadius, Path.Direction.CW)
-            
-            // 更新摇杆头边界和裁剪路径
-            knobBoundsRectF.set(
-                mStickX - mStickRadius,
-                mStickY - mStickRadius,
-                mStickX + mStickRadius,
-                mStickY + mStickRadius
-            )
-            knobClipPath.reset()
-            knobClipPath.addCircle(mStickX, mStickY, mStickRadius, Path.Direction.CW)
-            
-            // 使用纹理渲染
-            TextureRenderer.renderJoystick(
-                canvas = canvas,
-                textureLoader = textureLoader!!,
-                assetsDir = assetsDir,
-                textureConfig = castedData.texture,
-                backgroundBounds = bgBoundsRectF,
-                knobBounds = knobBoundsRectF,
-                isPressed = mIsTouching,
-                backgroundClipPath = bgClipPath,
-                knobClipPath = knobClipPath,
-                backgroundOpacityMultiplier = castedData.opacity,
-                knobOpacityMultiplier = castedData.stickOpacity
-            )
+            // 使用绑定时解析好的纹理和预先构建的边界、裁剪路径渲染
+            val texture = castedData.texture
+            val bgPressed = mIsTouching && texture.backgroundPressed.enabled
+            mTextures[if (bgPressed) SLOT_BACKGROUND_PRESSED else SLOT_BACKGROUND]?.let {
+                TextureRenderer.render(
+                    canvas,
+                    it,
+                    if (bgPressed) texture.backgroundPressed else texture.background,
+                    bgBoundsRectF,
+                    bgClipPath,
+                    castedData.opacity
+                )
+            }
+            val knobPressed = mIsTouching && texture.knobPressed.enabled
+            mTextures[if (knobPressed) SLOT_KNOB_PRESSED else SLOT_KNOB]?.let {
+                canvas.save()
+                canvas.translate(mStickX, mStickY)
+                TextureRenderer.render(
+                    canvas,
+                    it,
+                    if (knobPressed) texture.knobPressed else texture.knob,
+                    knobBoundsRectF,
+                    knobClipPath,
+                    castedData.stickOpacity
+                )
+                canvas.restore()
+            }
             
             // 如果纹理没有完全覆盖，仍然绘制默认形状作为fallback
             if (!castedData.texture.background.enabled) {
@@ -379,10 +435,9 @@ class VirtualJoystick(
 
     override fun isTouchInBounds(x: Float, y: Float): Boolean {
         // 将父视图坐标转换为本地坐标
-        val childRect = android.graphics.Rect()
-        getHitRect(childRect)
-        val localX = x - childRect.left
-        val localY = y - childRect.top
+        getHitRect(mHitRect)
+        val localX = x - mHitRect.left
+        val localY = y - mHitRect.top
         
         // 检查触摸点是否在圆形区域内
         // 注意：虽然绘制时背景圆使用75%半径（backgroundRadius），但触摸区域使用100%半径（mRadius）
@@ -70,6 +70,8 @@ class VirtualRadialMenu(
                 }
             }
             initPaints()
+            rebuildSectors()
+            rebuildGeometry()
             invalidate()
         }
 
@@ -85,6 +87,7 @@ class VirtualRadialMenu(
         if (dir != null && textureLoader == null) {
             textureLoader = TextureLoader.getInstance(context)
         }
+        loadSectorIcons()
         invalidate()
     }
 
@@ -100,9 +103,27 @@ class VirtualRadialMenu(
     private lateinit var mEditorSelectedPaint: Paint       // 编辑器选中扇区画笔
     private lateinit var mEditorSelectedGlowPaint: Paint   // 编辑器选中扇区发光画笔
     private lateinit var mSectorIndexPaint: TextPaint       // 扇区序号画笔
+    private lateinit var mHintPaint: Paint                  // 收起时的扇区暗示线画笔
+    private lateinit var mIconPaint: Paint                  // 扇区图标画笔
+    private lateinit var mIndexBgPaint: Paint               // 扇区序号背景画笔
+    private lateinit var mDeadZonePaint: Paint              // 中心死区画笔（单位半径渐变，绘制时缩放画布）
+    private lateinit var mIndicatorPaint: Paint             // 触摸位置指示画笔（以原点为中心，绘制时平移画布）
     private val mRectF = RectF()
+    private val mIconRect = RectF()
     private val mSectorPath = Path()
 
+    // 收起状态的渐变背景，随尺寸和控件数据重建
+    private var mCollapsedGradient: RadialGradient? = null
+
+    // 扇区几何与文字，随控件数据重建：扇区中线与起始边的方向余弦/正弦，以及各扇区的显示文本
+    private var mMidCos = FloatArray(0)
+    private var mMidSin = FloatArray(0)
+    private var mEdgeCos = FloatArray(0)
+    private var mEdgeSin = FloatArray(0)
+    private var mSectorLabels = emptyArray<String>()
+    private var mSectorIndexLabels = emptyArray<String>()
+    private var mEditorCenterLabels = emptyArray<String>()
+
     // 状态
     private var mIsExpanded = false
     private var mExpandProgress = 0f // 0.0 = 收起, 1.0 = 展开
@@ -114,16 +135,21 @@ class VirtualRadialMenu(
     private var mCurrentTouchX = 0f
     private var mCurrentTouchY = 0f
 
-    // 图标缓存
-    private val mIconCache = mutableMapOf<String, Bitmap?>()
+    // 扇区图标，按展开后的尺寸加载一次，展开动画中缩放绘制
+    private var mSectorIcons = arrayOfNulls<Bitmap>(0)
 
     // 动画
     private var mExpandAnimator: ValueAnimator? = null
     private var mSectorHighlightProgress = 0f // 选中扇区高亮过渡
     private var mSectorHighlightAnimator: ValueAnimator? = null
 
+    // 收起状态的绘制只取决于配置，展开动画和编辑器预览期间每帧单独绘制
+    override val isAtRest: Boolean
+        get() = mExpandProgress == 0f && !castedData.editorPreviewExpanded
+
     init {
         initPaints()
+        rebuildSectors()
     }
 
     private fun initPaints() {
@@ -219,22 +245,109 @@ class VirtualRadialMenu(
             textAlign = Paint.Align.CENTER
             typeface = Typeface.DEFAULT
         }
+
+        mHintPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+            style = Paint.Style.STROKE
+            color = Color.argb((data.opacity * 80).toInt(), 255, 255, 255)
+            strokeWidth = dpToPx(0.5f)
+        }
+        mIconPaint = Paint(Paint.ANTI_ALIAS_FLAG or Paint.FILTER_BITMAP_FLAG)
+        mIndexBgPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+            style = Paint.Style.FILL
+        }
+        mDeadZonePaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+            style = Paint.Style.FILL
+            shader = RadialGradient(
+                0f, 0f, 1f,
+                intArrayOf(
+                    Color.argb((data.opacity * 255).toInt(), Color.red(data.bgColor), Color.green(data.bgColor), Color.blue(data.bgColor)),
+                    Color.argb((data.opacity * 220).toInt(), Color.red(data.bgColor), Color.green(data.bgColor), Color.blue(data.bgColor))
+                ),
+                floatArrayOf(0.5f, 1f),
+                Shader.TileMode.CLAMP
+            )
+        }
+        mIndicatorPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+            style = Paint.Style.FILL
+            shader = RadialGradient(
+                0f, 0f, dpToPx(12f),
+                intArrayOf(Color.argb(180, 255, 255, 255), Color.TRANSPARENT),
+                null, Shader.TileMode.CLAMP
+            )
+        }
+    }
+
+    /**
+     * 重建收起状态的渐变背景，尺寸或控件数据变化时调用
+     */
+    private fun rebuildGeometry() {
+        val data = castedData
+        val radius = min(width, height) / 2f
+        mCollapsedGradient = if (radius > 0f) {
+            RadialGradient(
+                width / 2f, height / 2f, radius,
+                intArrayOf(
+                    Color.argb((data.opacity * 255).toInt(), Color.red(data.bgColor), Color.green(data.bgColor), Color.blue(data.bgColor)),
+                    Color.argb((data.opacity * 200).toInt(), Color.red(data.bgColor), Color.green(data.bgColor), Color.blue(data.bgColor))
+                ),
+                floatArrayOf(0.3f, 1f),
+                Shader.TileMode.CLAMP
+            )
+        } else {
+            null
+        }
+    }
+
+    /**
+     * 重建扇区方向和显示文本，控件数据变化时调用
+     */
+    private fun rebuildSectors() {
+        val data = castedData
+        val sectorCount = data.sectorCount
+        val sectorAngle = 360.0 / sectorCount
+        mMidCos = FloatArray(sectorCount) { cos(Math.toRadians(-90.0 + it * sectorAngle)).toFloat() }
+        mMidSin = FloatArray(sectorCount) { sin(Math.toRadians(-90.0 + it * sectorAngle)).toFloat() }
+        mEdgeCos = FloatArray(sectorCount) { cos(Math.toRadians(-90.0 + it * sectorAngle - sectorAngle / 2)).toFloat() }
+        mEdgeSin = FloatArray(sectorCount) { sin(Math.toRadians(-90.0 + it * sectorAngle - sectorAngle / 2)).toFloat() }
+
+        val sectors = data.sectors
+        mSectorLabels = Array(sectors.size) { i ->
+            sectors[i].label.ifEmpty {
+                sectors[i].keycode.name
+                    .removePrefix("KEYBOARD_")
+                    .removePrefix("MOUSE_")
+                    .removePrefix("XBOX_BUTTON_")
+            }
+        }
+        mSectorIndexLabels = Array(sectors.size) { "${it + 1}" }
+        // 编辑器模式下中心显示 "扇区N: 标签"
+        mEditorCenterLabels = Array(sectors.size) { "#${it + 1} ${mSectorLabels[it]}" }
+        loadSectorIcons()
     }
 
     /**
-     * 加载扇区图标（带缓存）
+     * 按展开后的尺寸加载扇区图标，资源目录或控件数据变化时调用
      */
-    private fun loadSectorIcon(iconPath: String, size: Int): Bitmap? {
-        if (iconPath.isEmpty()) return null
-        val cacheKey = "${iconPath}_${size}"
-        return mIconCache.getOrPut(cacheKey) {
-            val loader = textureLoader ?: return@getOrPut null
-            val dir = assetsDir ?: return@getOrPut null
-            val fullPath = File(dir, iconPath).absolutePath
-            loader.loadTexture(fullPath, size, size)
+    private fun loadSectorIcons() {
+        val sectors = castedData.sectors
+        val loader = textureLoader
+        val dir = assetsDir
+        val size = dpToPx(20f).toInt().coerceAtLeast(1)
+        mSectorIcons = Array(sectors.size) { i ->
+            val iconPath = sectors[i].iconPath
+            if (iconPath.isEmpty() || loader == null || dir == null) {
+                null
+            } else {
+                loader.loadTexture(File(dir, iconPath).absolutePath, size, size)
+            }
         }
     }
 
+    override fun onSizeChanged(w: Int, h: Int, oldw: Int, oldh: Int) {
+        super.onSizeChanged(w, h, oldw, oldh)
+        rebuildGeometry()
+    }
+
     private fun dpToPx(dp: Float): Float {
         return dp * resources.displayMetrics.density
     }
@@ -266,35 +379,18 @@ class VirtualRadialMenu(
         val data = castedData
 
         // 绘制渐变背景圆
-        val bgGradient = RadialGradient(
-            centerX, centerY, radius,
-            intArrayOf(
-                Color.argb((data.opacity * 255).toInt(), Color.red(data.bgColor), Color.green(data.bgColor), Color.blue(data.bgColor)),
-                Color.argb((data.opacity * 200).toInt(), Color.red(data.bgColor), Color.green(data.bgColor), Color.blue(data.bgColor))
-            ),
-            floatArrayOf(0.3f, 1f),
-            Shader.TileMode.CLAMP
-        )
-        mBackgroundPaint.shader = bgGradient
+        mBackgroundPaint.shader = mCollapsedGradient
         canvas.drawCircle(centerX, centerY, radius, mBackgroundPaint)
         mBackgroundPaint.shader = null
 
         // 绘制扇区暗示线（收起时提示这是轮盘）
-        val hintAlpha = (data.opacity * 80).toInt()
-        val hintPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
-            style = Paint.Style.STROKE
-            color = Color.argb(hintAlpha, 255, 255, 255)
-            strokeWidth = dpToPx(0.5f)
-        }
         val hintRadius = radius * 0.6f
-        val sectorCount = data.sectorCount
-        for (i in 0 until sectorCount) {
-            val angle = Math.toRadians((-90.0 + i * 360.0 / sectorCount))
-            val x1 = centerX + (hintRadius * 0.3f * cos(angle)).toFloat()
-            val y1 = centerY + (hintRadius * 0.3f * sin(angle)).toFloat()
-            val x2 = centerX + (hintRadius * cos(angle)).toFloat()
-            val y2 = centerY + (hintRadius * sin(angle)).toFloat()
-            canvas.drawLine(x1, y1, x2, y2, hintPaint)
+        for (i in mMidCos.indices) {
+            val x1 = centerX + hintRadius * 0.3f * mMidCos[i]
+            val y1 = centerY + hintRadius * 0.3f * mMidSin[i]
+            val x2 = centerX + hintRadius * mMidCos[i]
+            val y2 = centerY + hintRadius * mMidSin[i]
+            canvas.drawLine(x1, y1, x2, y2, mHintPaint)
         }
 
         // 绘制边框
@@ -394,41 +490,34 @@ class VirtualRadialMenu(
 
             // 扇区分隔线
             if (data.showDividers) {
-                val angleRad = Math.toRadians(startAngle.toDouble())
-                val lineStartX = centerX + (deadZoneRadius * cos(angleRad)).toFloat()
-                val lineStartY = centerY + (deadZoneRadius * sin(angleRad)).toFloat()
-                val lineEndX = centerX + (expandedRadius * 0.95f * cos(angleRad)).toFloat()
-                val lineEndY = centerY + (expandedRadius * 0.95f * sin(angleRad)).toFloat()
+                val lineStartX = centerX + deadZoneRadius * mEdgeCos[i]
+                val lineStartY = centerY + deadZoneRadius * mEdgeSin[i]
+                val lineEndX = centerX + expandedRadius * 0.95f * mEdgeCos[i]
+                val lineEndY = centerY + expandedRadius * 0.95f * mEdgeSin[i]
                 mDividerPaint.alpha = (255 * mExpandProgress).toInt()
                 canvas.drawLine(lineStartX, lineStartY, lineEndX, lineEndY, mDividerPaint)
             }
 
             // 扇区内容（图标或文本）
-            if (i < data.sectors.size) {
+            if (i < data.sectors.size && i < mSectorLabels.size) {
                 val sector = data.sectors[i]
-                val midAngle = startAngle + sectorAngle / 2
-                val midAngleRad = Math.toRadians(midAngle.toDouble())
                 val labelRadius = (deadZoneRadius + expandedRadius) / 2
-                val labelX = centerX + (labelRadius * cos(midAngleRad)).toFloat()
-                val labelY = centerY + (labelRadius * sin(midAngleRad)).toFloat()
+                val labelX = centerX + labelRadius * mMidCos[i]
+                val labelY = centerY + labelRadius * mMidSin[i]
 
-                // 尝试加载图标
-                val iconSize = (dpToPx(20f) * mExpandProgress).toInt().coerceAtLeast(1)
-                val icon = if (sector.iconPath.isNotEmpty()) loadSectorIcon(sector.iconPath, iconSize) else null
+                // 预先加载的图标随展开进度缩放
+                val icon = mSectorIcons.getOrNull(i)
 
                 val isHighlighted = isSelected || isEditorSelected
 
                 if (icon != null && !icon.isRecycled) {
                     // 绘制图标
-                    val iconPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
-                        alpha = (255 * mExpandProgress).toInt()
-                    }
-                    canvas.drawBitmap(
-                        icon,
-                        labelX - icon.width / 2f,
-                        labelY - icon.height / 2f - dpToPx(4f),
-                        iconPaint
-                    )
+                    val iconWidth = icon.width * mExpandProgress
+                    val iconHeight = icon.height * mExpandProgress
+                    val iconTop = labelY - iconHeight / 2f - dpToPx(4f)
+                    mIconRect.set(labelX - iconWidth / 2f, iconTop, labelX + iconWidth / 2f, iconTop + iconHeight)
+                    mIconPaint.alpha = (255 * mExpandProgress).toInt()
+                    canvas.drawBitmap(icon, null, mIconRect, mIconPaint)
                     // 图标下方绘制标签
                     val label = sector.label
                     if (label.isNotEmpty()) {
@@ -437,18 +526,13 @@ class VirtualRadialMenu(
                         if (isHighlighted) {
                             mTextPaint.typeface = Typeface.DEFAULT_BOLD
                         }
-                        val textYPos = labelY + icon.height / 2f + dpToPx(2f)
+                        val textYPos = labelY + iconHeight / 2f + dpToPx(2f)
                         canvas.drawText(label, labelX, textYPos, mTextPaint)
                         mTextPaint.typeface = Typeface.DEFAULT_BOLD
                     }
                 } else {
                     // 纯文本模式
-                    val label = sector.label.ifEmpty {
-                        sector.keycode.name
-                            .removePrefix("KEYBOARD_")
-                            .removePrefix("MOUSE_")
-                            .removePrefix("XBOX_BUTTON_")
-                    }
+                    val label = mSectorLabels[i]
 
                     val fontSize = if (isHighlighted) dpToPx(13f) else dpToPx(11f)
                     mTextPaint.textSize = fontSize * mExpandProgress
@@ -466,44 +550,35 @@ class VirtualRadialMenu(
                 // 编辑器预览模式下绘制扇区序号（靠近外圈边缘）
                 if (isEditorPreview) {
                     val indexRadius = expandedRadius * 0.88f
-                    val indexX = centerX + (indexRadius * cos(midAngleRad)).toFloat()
-                    val indexY = centerY + (indexRadius * sin(midAngleRad)).toFloat()
+                    val indexX = centerX + indexRadius * mMidCos[i]
+                    val indexY = centerY + indexRadius * mMidSin[i]
                     
                     // 序号背景圆
-                    val indexBgPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
-                        style = Paint.Style.FILL
-                        color = if (isEditorSelected) {
-                            Color.argb(200, 66, 165, 245) // 选中时蓝色
-                        } else {
-                            Color.argb(120, 0, 0, 0) // 未选中时黑色半透明
-                        }
+                    mIndexBgPaint.color = if (isEditorSelected) {
+                        Color.argb(200, 66, 165, 245) // 选中时蓝色
+                    } else {
+                        Color.argb(120, 0, 0, 0) // 未选中时黑色半透明
                     }
                     val indexCircleRadius = dpToPx(7f)
-                    canvas.drawCircle(indexX, indexY, indexCircleRadius, indexBgPaint)
+                    canvas.drawCircle(indexX, indexY, indexCircleRadius, mIndexBgPaint)
                     
                     // 序号文字
                     mSectorIndexPaint.textSize = dpToPx(8f)
                     mSectorIndexPaint.color = Color.WHITE
                     val indexTextY = indexY - (mSectorIndexPaint.descent() + mSectorIndexPaint.ascent()) / 2
-                    canvas.drawText("${i + 1}", indexX, indexTextY, mSectorIndexPaint)
+                    canvas.drawText(mSectorIndexLabels[i], indexX, indexTextY, mSectorIndexPaint)
                 }
             }
         }
 
-        // 中心死区（渐变填充）
-        val deadZoneGradient = RadialGradient(
-            centerX, centerY, deadZoneRadius,
-            intArrayOf(
-                Color.argb((data.opacity * 255).toInt(), Color.red(data.bgColor), Color.green(data.bgColor), Color.blue(data.bgColor)),
-                Color.argb((data.opacity * 220).toInt(), Color.red(data.bgColor), Color.green(data.bgColor), Color.blue(data.bgColor))
-            ),
-            floatArrayOf(0.5f, 1f),
-            Shader.TileMode.CLAMP
-        )
-        mBackgroundPaint.shader = deadZoneGradient
-        mBackgroundPaint.alpha = 255
-        canvas.drawCircle(centerX, centerY, deadZoneRadius, mBackgroundPaint)
-        mBackgroundPaint.shader = null
+        // 中心死区（渐变填充，渐变按单位半径构建，缩放画布到死区半径）
+        if (deadZoneRadius > 0f) {
+            canvas.save()
+            canvas.translate(centerX, centerY)
+            canvas.scale(deadZoneRadius, deadZoneRadius)
+            canvas.drawCircle(0f, 0f, 1f, mDeadZonePaint)
+            canvas.restore()
+        }
 
         // 中心文字 (选中扇区的标签或轮盘名)
         // 优先显示游戏选中扇区，其次编辑器选中扇区
@@ -513,20 +588,16 @@ class VirtualRadialMenu(
             else -> -1
         }
         
-        if (displaySector >= 0) {
-            val selectedLabel = data.sectors[displaySector].label.ifEmpty {
-                data.sectors[displaySector].keycode.name
-                    .removePrefix("KEYBOARD_").removePrefix("MOUSE_").removePrefix("XBOX_BUTTON_")
-            }
+        if (displaySector >= 0 && displaySector < mSectorLabels.size) {
             mTextPaint.textSize = dpToPx(11f) * mExpandProgress
             mTextPaint.alpha = (255 * mExpandProgress).toInt()
             mTextPaint.typeface = Typeface.DEFAULT_BOLD
             
             // 编辑器模式下显示 "扇区N: 标签"
             val centerLabel = if (isEditorPreview && mSelectedSector < 0) {
-                "#${displaySector + 1} $selectedLabel"
+                mEditorCenterLabels[displaySector]
             } else {
-                selectedLabel
+                mSectorLabels[displaySector]
             }
             val textY = centerY - (mTextPaint.descent() + mTextPaint.ascent()) / 2
             canvas.drawText(centerLabel, centerX, textY, mTextPaint)
@@ -549,15 +620,10 @@ class VirtualRadialMenu(
 
         // 触摸位置指示（柔和光点）
         if (mActivePointerId >= 0 && mSelectedSector >= 0) {
-            val indicatorPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
-                style = Paint.Style.FILL
-                shader = RadialGradient(
-                    mCurrentTouchX, mCurrentTouchY, dpToPx(12f),
-                    intArrayOf(Color.argb(180, 255, 255, 255), Color.TRANSPARENT),
-                    null, Shader.TileMode.CLAMP
-                )
-            }
-            canvas.drawCircle(mCurrentTouchX, mCurrentTouchY, dpToPx(12f), indicatorPaint)
+            canvas.save()
+            canvas.translate(mCurrentTouchX, mCurrentTouchY)
+            canvas.drawCircle(0f, 0f, dpToPx(12f), mIndicatorPaint)
+            canvas.restore()
         }
     }
 
@@ -3,10 +3,8 @@ package com.app.ralaunch.feature.controls.ui
 import android.content.Context
 import android.graphics.Canvas
 import android.graphics.Paint
-import android.graphics.Path
 import android.graphics.Rect
 import android.graphics.RectF
-import android.graphics.Region
 import android.text.TextPaint
 import android.view.MotionEvent
 import android.view.View
@@ -46,6 +44,13 @@ class VirtualText(
     private lateinit var mStrokePaint: Paint
     private lateinit var mTextPaint: TextPaint
     private val mRectF: RectF
+    private val mHitRect = Rect()
+    private val mTextBounds = Rect()
+    private var mCornerRadius = 0f // 圆角半径（像素），随控件数据更新
+
+    // 文字排版缓存：显示文本（按引用比较）和尺寸不变时沿用上次计算的字号和基线
+    private var mLayoutText: String? = null
+    private var mTextBaseline = 0f
 
     init {
         mRectF = RectF()
@@ -53,6 +58,9 @@ class VirtualText(
     }
 
     private fun initPaints() {
+        mCornerRadius = dpToPx(controlData.cornerRadius)
+        mLayoutText = null
+
         mBackgroundPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
             color = controlData.bgColor
             style = Paint.Style.FILL
@@ -79,14 +87,14 @@ class VirtualText(
     override fun onSizeChanged(w: Int, h: Int, oldw: Int, oldh: Int) {
         super.onSizeChanged(w, h, oldw, oldh)
         mRectF.set(0f, 0f, w.toFloat(), h.toFloat())
+        mLayoutText = null
     }
 
     override fun isTouchInBounds(x: Float, y: Float): Boolean {
         // 将父视图坐标转换为本地坐标
-        val childRect = Rect()
-        getHitRect(childRect)
-        val localX = x - childRect.left
-        val localY = y - childRect.top
+        getHitRect(mHitRect)
+        val localX = x - mHitRect.left
+        val localY = y - mHitRect.top
         
         when (castedData.shape) {
             ControlData.Text.Shape.CIRCLE -> {
@@ -99,13 +107,8 @@ class VirtualText(
                 return distance <= radius
             }
             ControlData.Text.Shape.RECTANGLE -> {
-                // 使用圆角矩形路径检查触摸点
-                val cornerRadius = dpToPx(controlData.cornerRadius)
-                val path = Path()
-                path.addRoundRect(0f, 0f, width.toFloat(), height.toFloat(), cornerRadius, cornerRadius, Path.Direction.CW)
-                val region = Region()
-                region.setPath(path, Region(0, 0, width, height))
-                return region.contains(localX.toInt(), localY.toInt())
+                // 按圆角矩形检查触摸点（与 Region.setPath 的结果一致）
+                return ControlHitMask.roundRectContains(localX.toInt(), localY.toInt(), width, height, mCornerRadius)
             }
         }
     }
@@ -154,24 +157,19 @@ class VirtualText(
                     canvas.drawCircle(centerX, centerY, radius, mStrokePaint)
                 }
                 ControlData.Text.Shape.RECTANGLE -> {
-                    val cornerRadius = dpToPx(controlData.cornerRadius)
-                    canvas.drawRoundRect(mRectF, cornerRadius, cornerRadius, mBackgroundPaint)
-                    canvas.drawRoundRect(mRectF, cornerRadius, cornerRadius, mStrokePaint)
+                    canvas.drawRoundRect(mRectF, mCornerRadius, mCornerRadius, mBackgroundPaint)
+                    canvas.drawRoundRect(mRectF, mCornerRadius, mCornerRadius, mStrokePaint)
                 }
             }
         }
 
-        // 自动计算文字大小以适应区域
-        mTextPaint.textSize = 20f // 临时设置用于测量
-        val textBounds = Rect()
-        mTextPaint.getTextBounds(displayText, 0, displayText.length, textBounds)
-        val textAspectRatio = textBounds.width() / max(textBounds.height(), 1).toFloat()
-
-        mTextPaint.textSize = min(height / 2f, width / max(textAspectRatio, 1f))
+        // 自动计算文字大小以适应区域（文本不变时沿用上次的结果）
+        if (displayText !== mLayoutText) {
+            layoutText(displayText)
+        }
 
         // 居中显示文本
-        val textY = height / 2f - ((mTextPaint.descent() + mTextPaint.ascent()) / 2)
-        canvas.drawText(displayText, width / 2f, textY, mTextPaint)
+        canvas.drawText(displayText, width / 2f, mTextBaseline, mTextPaint)
 
         // 恢复旋转
         if (controlData.rotation != 0f) {
@@ -179,5 +177,18 @@ class VirtualText(
         }
     }
 
+    /**
+     * 计算适应区域的字号和居中基线，只在显示文本或尺寸变化后调用
+     */
+    private fun layoutText(displayText: String) {
+        mTextPaint.textSize = 20f // 临时设置用于测量
+        mTextPaint.getTextBounds(displayText, 0, displayText.length, mTextBounds)
+        val textAspectRatio = mTextBounds.width() / max(mTextBounds.height(), 1).toFloat()
+
+        mTextPaint.textSize = min(height / 2f, width / max(textAspectRatio, 1f))
+        mTextBaseline = height / 2f - ((mTextPaint.descent() + mTextPaint.ascent()) / 2)
+        mLayoutText = displayText
+    }
+
     override fun onTouchEvent(event: MotionEvent?) = false
 }
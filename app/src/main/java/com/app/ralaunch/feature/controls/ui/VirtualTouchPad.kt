@@ -3,9 +3,8 @@ package com.app.ralaunch.feature.controls.ui
 import android.content.Context
 import android.graphics.Canvas
 import android.graphics.Paint
-import android.graphics.Path
+import android.graphics.Rect
 import android.graphics.RectF
-import android.graphics.Region
 import android.os.Handler
 import android.text.TextPaint
 import com.app.ralaunch.core.logging.AppLog
@@ -86,6 +85,8 @@ class VirtualTouchPad(
     private lateinit var strokePaint: Paint
     private lateinit var textPaint: TextPaint
     private val paintRect: RectF = RectF()
+    private val hitRect = Rect()
+    private var cornerRadiusPx = 0f // 圆角半径（像素），随控件数据更新
 
     // 按钮状态
     private var mIsPressed = false
@@ -126,6 +127,8 @@ class VirtualTouchPad(
     }
 
     private fun initPaints() {
+        cornerRadiusPx = dpToPx(castedData.cornerRadius)
+
         backgroundPaint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
             color = castedData.bgColor
             style = Paint.Style.FILL
@@ -154,10 +157,9 @@ class VirtualTouchPad(
 
     override fun isTouchInBounds(x: Float, y: Float): Boolean {
         // 将父视图坐标转换为本地坐标
-        val childRect = android.graphics.Rect()
-        getHitRect(childRect)
-        val localX = x - childRect.left
-        val localY = y - childRect.top
+        getHitRect(hitRect)
+        val localX = x - hitRect.left
+        val localY = y - hitRect.top
         
         return isLocalTouchInBounds(localX, localY)
     }
@@ -168,13 +170,8 @@ class VirtualTouchPad(
      * @param localY 本地 Y 坐标
      */
     private fun isLocalTouchInBounds(localX: Float, localY: Float): Boolean {
-        // 使用圆角矩形路径检查触摸点
-        val cornerRadius = dpToPx(castedData.cornerRadius)
-        val path = Path()
-        path.addRoundRect(0f, 0f, width.toFloat(), height.toFloat(), cornerRadius, cornerRadius, Path.Direction.CW)
-        val region = Region()
-        region.setPath(path, Region(0, 0, width, height))
-        return region.contains(localX.toInt(), localY.toInt())
+        // 按圆角矩形检查触摸点（与 Region.setPath 的结果一致）
+        return ControlHitMask.roundRectContains(localX.toInt(), localY.toInt(), width, height, cornerRadiusPx)
     }
 
     // ==================== ControlView 接口方法 ====================
@@ -281,9 +278,8 @@ class VirtualTouchPad(
         }
 
         // 绘制矩形（圆角矩形）
-        val cornerRadius = dpToPx(castedData.cornerRadius)
-        canvas.drawRoundRect(paintRect, cornerRadius, cornerRadius, backgroundPaint)
-        canvas.drawRoundRect(paintRect, cornerRadius, cornerRadius, strokePaint)
+        canvas.drawRoundRect(paintRect, cornerRadiusPx, cornerRadiusPx, backgroundPaint)
+        canvas.drawRoundRect(paintRect, cornerRadiusPx, cornerRadiusPx, strokePaint)
 
         // 恢复旋转
         if (castedData.rotation != 0f) {
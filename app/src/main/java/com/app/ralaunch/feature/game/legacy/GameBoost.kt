@@ -1,33 +1,20 @@
 package com.app.ralaunch.feature.game.legacy
 
-import android.app.ActivityManager
 import android.content.Context
 import android.os.Build
 import android.os.Process
 import android.system.Os
 import android.util.Log
-import java.nio.ByteBuffer
-import java.nio.channels.FileChannel
-import java.nio.file.*
-import java.util.stream.Collectors
+import com.app.ralaunch.core.platform.runtime.dotnet.CoreCLRConfig
 
 object GameBoost {
 
     private const val TAG = "GameBoost"
 
+    /**
+     * 低内存调整由游戏级运行时配置决定，在 GameLauncher 中通过 [applyLowMemoryGc] 应用
+     */
     fun ignite(context: Context) {
-        val am = context.getSystemService(Context.ACTIVITY_SERVICE) as ActivityManager
-        val memInfo = ActivityManager.MemoryInfo()
-        am.getMemoryInfo(memInfo)
-
-        val totalRamGB = memInfo.totalMem / (1024.0 * 1024.0 * 1024.0)
-
-        optimizeFileSystemNio(context)
-
-        if (totalRamGB < 4.0) {
-            applyLowMemoryGc()
-        }
-
         if (Build.VERSION.SDK_INT <= Build.VERSION_CODES.N_MR1) {
             applyAndroid7LegacyTweaks()
         }
@@ -43,27 +30,6 @@ object GameBoost {
         } catch (t: Throwable) {}
     }
 
-    private fun optimizeFileSystemNio(context: Context) {
-        try {
-            val gameDir = context.getExternalFilesDir(null)?.toPath() ?: return
-            if (Files.exists(gameDir)) {
-                Files.walk(gameDir, 2).use { stream ->
-                    val mods = stream.filter { it.toString().endsWith(".tmod") }.collect(Collectors.toList())
-                    mods.forEach { path ->
-                        try {
-                            FileChannel.open(path, StandardOpenOption.READ).use { ch ->
-                                val buf = ByteBuffer.allocateDirect(4096)
-                                ch.read(buf)
-                            }
-                        } catch (e: Exception) {}
-                    }
-                }
-            }
-        } catch (t: Throwable) {
-            Log.e(TAG, "NIO error", t)
-        }
-    }
-
     private fun applyAndroid7LegacyTweaks() {
         try {
             Os.setenv("SDL_AUDIODRIVER", "android", true)
@@ -85,10 +51,10 @@ object GameBoost {
         }
     }
 
-    private fun applyLowMemoryGc() {
+    fun applyLowMemoryGc() {
         try {
-            Os.setenv("DOTNET_gcServer", "0", true)
-            Os.setenv("DOTNET_GCConcurrent", "1", true)
+            Os.setenv(CoreCLRConfig.ENV_GC_SERVER, "0", true)
+            Os.setenv(CoreCLRConfig.ENV_GC_CONCURRENT, "1", true)
             Os.setenv("MONO_GC_PARAMS", "nursery-size=16m,soft-heap-limit=1024m,evacuation-threshold=60", true)
             Os.setenv("MONO_THREADS_PER_CPU", "30", true)
         } catch (t: Throwable) {}
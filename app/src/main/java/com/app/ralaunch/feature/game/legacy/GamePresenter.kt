@@ -4,6 +4,7 @@ package com.app.ralaunch.feature.game.legacy
 import android.os.Build
 import android.os.Build.VERSION_CODES // ADDED IMPORT
 import com.app.ralaunch.R
+import com.app.ralaunch.core.model.RuntimeProfile
 import com.app.ralaunch.core.platform.runtime.GameLauncher
 import com.app.ralaunch.feature.patch.data.Patch
 import com.app.ralaunch.feature.patch.data.PatchManager
@@ -128,7 +129,9 @@ class GamePresenter : GameContract.Presenter {
             enabledPatches = enabledPatches,
             rendererOverride = normalizeOptional(game.rendererOverride),
             dotNetRuntimeVersionOverride = normalizeOptional(game.dotNetRuntimeVersionOverride),
-            gameEnvVars = game.gameEnvVars
+            gameEnvVars = game.gameEnvVars,
+            runtimeProfile = game.runtimeProfile,
+            metricsKey = game.id
         )
     }
 
@@ -171,7 +174,9 @@ class GamePresenter : GameContract.Presenter {
             enabledPatches = enabledPatches,
             rendererOverride = gameRendererOverride,
             dotNetRuntimeVersionOverride = null,
-            gameEnvVars = gameEnvVars
+            gameEnvVars = gameEnvVars,
+            runtimeProfile = null,
+            metricsKey = gameId
         )
     }
 
@@ -181,7 +186,9 @@ class GamePresenter : GameContract.Presenter {
         enabledPatches: List<Patch>,
         rendererOverride: String?,
         dotNetRuntimeVersionOverride: String?,
-        gameEnvVars: Map<String, String?>
+        gameEnvVars: Map<String, String?>,
+        runtimeProfile: RuntimeProfile?,
+        metricsKey: String?
     ): Int {
         val exitCode = GameLauncher.launchDotNetAssembly(
             assemblyPath = assemblyPath,
@@ -189,7 +196,9 @@ class GamePresenter : GameContract.Presenter {
             enabledPatches = enabledPatches,
             rendererOverride = rendererOverride,
             dotNetRuntimeVersionOverride = dotNetRuntimeVersionOverride,
-            gameEnvVars = gameEnvVars
+            gameEnvVars = gameEnvVars,
+            runtimeProfile = runtimeProfile,
+            metricsKey = metricsKey
         ).also { code ->
             onGameExit(code, GameLauncher.getLastErrorMessage())
         }
@@ -30,6 +30,9 @@ import com.app.ralaunch.core.error.ErrorHandler
 import com.app.ralaunch.core.model.ThemeMode
 import org.libsdl.app.SDLActivity
 import com.app.ralaunch.core.platform.runtime.BlackBoxLogger
+import com.app.ralaunch.core.platform.runtime.NativeLibraryPreloader
+import com.app.ralaunch.core.platform.runtime.RendererEnvironmentConfigurator
+import com.app.ralaunch.core.platform.runtime.RendererRegistry
 import com.app.ralaunch.feature.game.legacy.GameBoost
 
 class GameActivity : SDLActivity(), GameContract.View {
@@ -182,6 +185,18 @@ class GameActivity : SDLActivity(), GameContract.View {
         }
     }
 
+    /**
+     * SDLActivity 在主线程加载 SDL2/main；这里先等待后台预加载完成，
+     * 之后的 System.loadLibrary 只是对已加载库的空操作。
+     */
+    override fun loadLibraries() {
+        val rendererOverride = intent?.getStringExtra(EXTRA_GAME_RENDERER_OVERRIDE)
+        val renderer = rendererOverride?.takeIf { RendererRegistry.isKnownRendererId(it) }
+            ?: RendererEnvironmentConfigurator.getEffectiveRenderer()
+        NativeLibraryPreloader.awaitReady(renderer)
+        super.loadLibraries()
+    }
+
     override fun onResume() {
         super.onResume()
         hideNavigationBarDefinitively()
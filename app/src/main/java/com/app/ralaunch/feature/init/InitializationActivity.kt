@@ -13,6 +13,7 @@ import androidx.activity.enableEdgeToEdge
 import androidx.core.view.WindowCompat
 import androidx.core.view.WindowInsetsCompat
 import androidx.core.view.WindowInsetsControllerCompat
+import androidx.lifecycle.lifecycleScope
 import com.app.ralaunch.R
 import com.app.ralaunch.core.common.PermissionManager
 import com.app.ralaunch.shared.core.platform.AppConstants
@@ -22,10 +23,13 @@ import com.app.ralaunch.feature.main.MainActivityCompose
 import com.app.ralaunch.core.common.util.AppLogger
 import com.app.ralaunch.core.common.util.ArchiveExtractor
 import com.app.ralaunch.core.common.ErrorHandler
+import com.app.ralaunch.core.platform.runtime.RendererEnvironmentConfigurator
+import com.app.ralaunch.core.platform.runtime.RendererRegistry
 import com.app.ralaunch.core.platform.runtime.RuntimeLibraryLoader
-import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
 import java.io.File
-import java.util.concurrent.Executors
 import java.util.concurrent.atomic.AtomicBoolean
 
 class InitializationActivity : ComponentActivity() {
@@ -33,7 +37,6 @@ class InitializationActivity : ComponentActivity() {
     private lateinit var permissionManager: PermissionManager
     private lateinit var prefs: SharedPreferences
 
-    private val executor = Executors.newSingleThreadExecutor()
     private val mainHandler = Handler(Looper.getMainLooper())
     private val isExtracting = AtomicBoolean(false)
 
@@ -98,7 +101,7 @@ class InitializationActivity : ComponentActivity() {
     ) {
         if (isExtracting.getAndSet(true)) return
 
-        executor.execute {
+        lifecycleScope.launch(Dispatchers.IO) {
             try {
                 extractAll(components, onUpdate)
                 mainHandler.post {
@@ -109,7 +112,7 @@ class InitializationActivity : ComponentActivity() {
                         ).apply()
 
                     Toast.makeText(
-                        this,
+                        this@InitializationActivity,
                         getString(R.string.init_dotnet_install_success),
                         Toast.LENGTH_SHORT
                     ).show()
@@ -119,6 +122,8 @@ class InitializationActivity : ComponentActivity() {
                         1000
                     )
                 }
+            } catch (e: CancellationException) {
+                throw e
             } catch (e: Exception) {
                 AppLogger.error("InitActivity", "Extraction failed", e)
                 mainHandler.post {
@@ -134,7 +139,7 @@ class InitializationActivity : ComponentActivity() {
         }
     }
 
-    private fun extractAll(
+    private suspend fun extractAll(
         components: List<ComponentState>,
         onUpdate: (Int, Int, Boolean, String) -> Unit
     ) {
@@ -245,20 +250,20 @@ class InitializationActivity : ComponentActivity() {
         extractRuntimeLibsIfNeeded()
     }
 
-    private fun extractRuntimeLibsIfNeeded() {
+    private suspend fun extractRuntimeLibsIfNeeded() {
         try {
-            val hasRuntimeLibs =
-                assets.list("")?.contains("runtime_libs.tar.xz") == true
-
-            if (hasRuntimeLibs &&
-                !RuntimeLibraryLoader.isExtracted(this)
-            ) {
-                runBlocking {
-                    RuntimeLibraryLoader.extractRuntimeLibs(
-                        this@InitializationActivity
-                    ) { _, _ -> }
-                }
+            // 运行时库按渲染器分包解压，这里只准备当前选择的渲染器，其它渲染器在首次选择或启动时解压
+            if (RuntimeLibraryLoader.hasMonolithicArchive(this)) {
+                RendererRegistry.ensureRendererLibraries(
+                    RendererEnvironmentConfigurator.getEffectiveRenderer()
+                )
             }
+            AppLogger.info(
+                "InitActivity",
+                "Runtime bundles: ${RuntimeLibraryLoader.getBundleStatusSummary(this)}"
+            )
+        } catch (e: CancellationException) {
+            throw e
         } catch (e: Exception) {
             AppLogger.error(
                 "InitActivity",
@@ -266,10 +271,4 @@ class InitializationActivity : ComponentActivity() {
             )
         }
     }
-
-    override fun onDestroy() {
-        super.onDestroy()
-        if (!executor.isShutdown)
-            executor.shutdownNow()
-    }
 }
@@ -15,6 +15,7 @@ import androidx.compose.material.icons.Icons
 import androidx.compose.material.icons.automirrored.filled.ArrowBack
 import androidx.compose.material3.Button
 import androidx.compose.material3.ExperimentalMaterial3Api
+import androidx.compose.material3.FilterChip
 import androidx.compose.material3.LocalContentColor
 import androidx.compose.material3.OutlinedButton
 import androidx.compose.material3.MaterialTheme
@@ -26,12 +27,14 @@ import androidx.compose.runtime.Composable
 import androidx.compose.runtime.collectAsState
 import androidx.compose.runtime.getValue
 import androidx.compose.runtime.mutableStateOf
+import androidx.compose.runtime.produceState
 import androidx.compose.runtime.remember
 import androidx.compose.runtime.setValue
 import androidx.compose.material3.TopAppBar
 import androidx.compose.material3.Icon
 import androidx.compose.material3.IconButton
 import androidx.compose.ui.Modifier
+import androidx.compose.ui.platform.LocalContext
 import androidx.compose.ui.res.stringResource
 import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.unit.dp
@@ -41,7 +44,12 @@ import com.app.ralaunch.core.ui.dialog.DotNetRuntimeSelectDialog
 import com.app.ralaunch.core.ui.dialog.RendererOption
 import com.app.ralaunch.core.ui.dialog.RendererSelectDialog
 import com.app.ralaunch.core.model.GameItemUi
+import com.app.ralaunch.core.model.RuntimeProfile
+import com.app.ralaunch.core.platform.runtime.ProfileMetricsSummary
+import com.app.ralaunch.core.platform.runtime.SessionMetricsStore
 import com.app.ralaunch.feature.main.vm.GameInfoEditViewModel
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.withContext
 import org.koin.compose.viewmodel.koinViewModel
 
 @Composable
@@ -68,6 +76,13 @@ fun GameInfoEditSubScreen(
         mutableStateOf(game.dotNetRuntimeVersionOverride?.trim()?.takeIf { it.isNotEmpty() })
     }
     var showDotNetRuntimeDialog by remember { mutableStateOf(false) }
+    var editedRuntimeProfile by remember(game.id) { mutableStateOf(game.runtimeProfile) }
+    val context = LocalContext.current
+    val profileSummaries by produceState(emptyList<ProfileMetricsSummary>(), game.id) {
+        value = withContext(Dispatchers.IO) {
+            SessionMetricsStore.forContext(context).summarize(game.id)
+        }
+    }
 
     val rendererDisplayName = remember(editedRendererOverride, rendererOptions) {
         editedRendererOverride?.let { rendererId ->
@@ -223,6 +238,73 @@ fun GameInfoEditSubScreen(
 
             Spacer(modifier = Modifier.height(8.dp))
 
+            Text(
+                text = stringResource(R.string.main_runtime_profile_optional),
+                style = MaterialTheme.typography.titleMedium,
+                fontWeight = FontWeight.SemiBold
+            )
+
+            RuntimeProfileOverrideRow(
+                label = stringResource(R.string.runtime_profile_server_gc),
+                value = editedRuntimeProfile.serverGc,
+                onValueChange = { editedRuntimeProfile = editedRuntimeProfile.copy(serverGc = it) }
+            )
+            RuntimeProfileOverrideRow(
+                label = stringResource(R.string.runtime_profile_concurrent_gc),
+                value = editedRuntimeProfile.concurrentGc,
+                onValueChange = { editedRuntimeProfile = editedRuntimeProfile.copy(concurrentGc = it) }
+            )
+            RuntimeProfileOverrideRow(
+                label = stringResource(R.string.runtime_profile_tiered_compilation),
+                value = editedRuntimeProfile.tieredCompilation,
+                onValueChange = { editedRuntimeProfile = editedRuntimeProfile.copy(tieredCompilation = it) }
+            )
+            RuntimeProfileOverrideRow(
+                label = stringResource(R.string.runtime_profile_quick_jit),
+                value = editedRuntimeProfile.quickJit,
+                onValueChange = { editedRuntimeProfile = editedRuntimeProfile.copy(quickJit = it) }
+            )
+            RuntimeProfileOverrideRow(
+                label = stringResource(R.string.runtime_profile_low_memory),
+                value = editedRuntimeProfile.lowMemoryTweaks,
+                onValueChange = { editedRuntimeProfile = editedRuntimeProfile.copy(lowMemoryTweaks = it) }
+            )
+            RuntimeProfileOverrideRow(
+                label = stringResource(R.string.runtime_profile_big_cores),
+                value = editedRuntimeProfile.bigCoreAffinity,
+                onValueChange = { editedRuntimeProfile = editedRuntimeProfile.copy(bigCoreAffinity = it) }
+            )
+
+            OutlinedButton(
+                onClick = { editedRuntimeProfile = RuntimeProfile() },
+                enabled = !editedRuntimeProfile.isEmpty,
+                modifier = Modifier.fillMaxWidth()
+            ) {
+                Text(stringResource(R.string.runtime_follow_global))
+            }
+
+            Spacer(modifier = Modifier.height(8.dp))
+
+            Text(
+                text = stringResource(R.string.runtime_profile_metrics_title),
+                style = MaterialTheme.typography.titleMedium,
+                fontWeight = FontWeight.SemiBold
+            )
+
+            if (profileSummaries.isEmpty()) {
+                Text(
+                    text = stringResource(R.string.runtime_profile_metrics_empty),
+                    style = MaterialTheme.typography.bodySmall,
+                    color = LocalContentColor.current.copy(alpha = 0.7f)
+                )
+            } else {
+                profileSummaries.forEach { summary ->
+                    ProfileMetricsSummaryItem(summary)
+                }
+            }
+
+            Spacer(modifier = Modifier.height(8.dp))
+
             Row(
                 modifier = Modifier.fillMaxWidth(),
                 horizontalArrangement = Arrangement.End
@@ -236,7 +318,8 @@ fun GameInfoEditSubScreen(
                             displayedName = editedName.trim(),
                             displayedDescription = editedDescription.trim().ifEmpty { null },
                             rendererOverride = editedRendererOverride,
-                            dotNetRuntimeVersionOverride = editedDotNetRuntimeVersionOverride
+                            dotNetRuntimeVersionOverride = editedDotNetRuntimeVersionOverride,
+                            runtimeProfile = editedRuntimeProfile
                         )
                         onSave(updated)
                         onBack()
@@ -272,3 +355,61 @@ fun GameInfoEditSubScreen(
         )
     }
 }
+
+/**
+ * 单项运行时配置覆盖：跟随全局 / 开启 / 关闭
+ */
+@Composable
+private fun RuntimeProfileOverrideRow(
+    label: String,
+    value: Boolean?,
+    onValueChange: (Boolean?) -> Unit
+) {
+    Column(verticalArrangement = Arrangement.spacedBy(4.dp)) {
+        Text(label, style = MaterialTheme.typography.labelMedium)
+        Row(horizontalArrangement = Arrangement.spacedBy(8.dp)) {
+            FilterChip(
+                selected = value == null,
+                onClick = { onValueChange(null) },
+                label = { Text(stringResource(R.string.runtime_follow_global)) }
+            )
+            FilterChip(
+                selected = value == true,
+                onClick = { onValueChange(true) },
+                label = { Text(stringResource(R.string.runtime_profile_on)) }
+            )
+            FilterChip(
+                selected = value == false,
+                onClick = { onValueChange(false) },
+                label = { Text(stringResource(R.string.runtime_profile_off)) }
+            )
+        }
+    }
+}
+
+@Composable
+private fun ProfileMetricsSummaryItem(summary: ProfileMetricsSummary) {
+    val none = "—"
+    Column(verticalArrangement = Arrangement.spacedBy(2.dp)) {
+        Text(
+            text = stringResource(
+                R.string.runtime_profile_metrics_header,
+                summary.profileDescription,
+                summary.sessions
+            ),
+            style = MaterialTheme.typography.bodyMedium
+        )
+        Text(
+            text = stringResource(
+                R.string.runtime_profile_metrics_line,
+                summary.loadTimeMedianMs?.let { "%.1f s".format(it / 1000.0) } ?: none,
+                summary.frameTimeAvgMs?.let { "%.1f ms".format(it) } ?: none,
+                summary.frameTimeP95Ms?.let { "%.1f ms".format(it) } ?: none,
+                summary.gcPauseAvgMs?.let { "%.0f ms".format(it) } ?: none,
+                summary.peakRssMaxKb?.let { "%d MB".format(it / 1024) } ?: none
+            ),
+            style = MaterialTheme.typography.bodySmall,
+            color = LocalContentColor.current.copy(alpha = 0.7f)
+        )
+    }
+}
@@ -14,8 +14,12 @@ import android.view.MotionEvent
 import android.view.View
 import com.app.ralaunch.feature.controls.bridges.SDLInputBridge
 import com.app.ralaunch.core.common.SettingsAccess
-import java.io.BufferedReader
-import java.io.FileReader
+import com.app.ralaunch.core.platform.runtime.DeviceTopologyProbe
+import com.app.ralaunch.core.platform.runtime.FrameTimeStats
+import com.app.ralaunch.core.platform.runtime.NativeTelemetry
+import com.app.ralaunch.core.platform.runtime.SessionMetricsRecorder
+import com.app.ralaunch.core.platform.runtime.SystemStatsSampler
+import com.app.ralaunch.core.platform.runtime.TelemetryBlock
 import kotlin.math.max
 import kotlin.math.min
 import kotlin.math.sqrt
@@ -32,6 +36,8 @@ class FPSDisplayView @JvmOverloads constructor(
 
     companion object {
         private const val UPDATE_INTERVAL = 200L  // 更频繁更新 FPS 显示
+        // 环境变量由发布方按秒级窗口刷新，每 5 次刷新（1 秒）才重新读取一次
+        private const val ENV_REFRESH_TICKS = 5
         private const val DRAG_THRESHOLD = 10f
     }
 
@@ -69,23 +75,23 @@ class FPSDisplayView @JvmOverloads constructor(
     private var glSleepMs = -1f
     private var glMapRatio = -1f
     private var glHintLine = ""
+
+    // 与 GameLauncher 设置 RAL_GL_DIAGNOSTICS 的条件相同；start() 可能早于游戏启动，直接从设置读取一次
+    private var glDiagnosticsEnabled = false
+    // 共享遥测块发布后不再回退读取 RAL_FPS / RAL_FRAME_TIME
+    private var telemetryPublished = false
+    private var envTick = 0
+
+    // 共享遥测块（libmain）；libmain 加载前为空，每次更新重新获取，未发布时退回读取环境变量
+    private val frameSnapshot = TelemetryBlock.FrameSnapshot()
     
-    // CPU 频率估算（兼容 Android 8+，无需 root）
-    private val numCpuCores = Runtime.getRuntime().availableProcessors()
-    private val cpuMinFreqs = IntArray(numCpuCores)
-    private val cpuMaxFreqs = IntArray(numCpuCores)
-    private var cpuFreqInited = false
-    
-    // GPU 频率估算 fallback
-    private var gpuFreqPath: String? = null       // 缓存找到的 GPU 频率路径
-    private var gpuMinFreq = 0L
-    private var gpuMaxFreq = 0L
-    private var gpuFreqInited = false
-    
-    // 直接读取 GPU 利用率的已知可用路径（缓存，避免每次扫描）
-    private var knownGpuUtilPath: String? = null
-    private var knownGpuUtilParser: ((String) -> Float)? = null
-    private var gpuPathScanned = false
+    // sysfs 采样在后台线程进行，UI 线程只读取最新快照
+    private val statsSampler = SystemStatsSampler(
+        topology = { DeviceTopologyProbe.get(context, queryGpu = false) }
+    )
+    private var frameStats: FrameTimeStats? = null
+    private var cpuTempC = Float.NaN
+    private var gpuTempC = Float.NaN
 
     private val handler = Handler(Looper.getMainLooper())
     private var inputBridge: SDLInputBridge? = null
@@ -129,12 +135,17 @@ class FPSDisplayView @JvmOverloads constructor(
     }
 
     fun start() {
+        glDiagnosticsEnabled = settingsManager.isFnaGlPerfDiagnosticsEnabled && settingsManager.isFPSDisplayEnabled
+        if (!glDiagnosticsEnabled) clearGlDiagnostics()
+        envTick = 0
         updateVisibility()
+        statsSampler.start()
         handler.post(updateRunnable)   
     }
 
     fun stop() {
         handler.removeCallbacks(updateRunnable)
+        statsSampler.stop()
     }
 
     fun refreshVisibility() {
@@ -144,230 +155,46 @@ class FPSDisplayView @JvmOverloads constructor(
 
     /** 更新所有数据 */
     private fun updateData() {
-        try {
-            // 从 SDL 底层读取 FPS（滑动窗口平均）
-            Os.getenv("RAL_FPS")?.takeIf { it.isNotEmpty() }?.let {
-                currentFPS = it.toFloatOrNull() ?: currentFPS
-            }
-            // 从 SDL 底层读取帧时间
-            Os.getenv("RAL_FRAME_TIME")?.takeIf { it.isNotEmpty() }?.let {
-                frameTimeMs = it.toFloatOrNull() ?: frameTimeMs
-            }
-        } catch (_: Exception) { }
+        val refreshEnv = envTick++ % ENV_REFRESH_TICKS == 0
+        val block = NativeTelemetry.block()
+        if (block != null && block.readFrame(frameSnapshot) && frameSnapshot.isPublished) {
+            telemetryPublished = true
+            if (frameSnapshot.fps > 0f) currentFPS = frameSnapshot.fps
+            if (frameSnapshot.avgFrameMs > 0f) frameTimeMs = frameSnapshot.avgFrameMs
+        } else if (!telemetryPublished && refreshEnv) {
+            updateFrameDataFromEnv()
+        }
+        // 逐帧统计由会话采集线程计算，这里只取最新结果
+        frameStats = SessionMetricsRecorder.current?.liveFrameStats?.takeIf { it.frames > 0 }
         
         // 更新 CPU/GPU/RAM 使用率
-        updateCpuUsage()
-        updateGpuUsage()
+        updateSystemStats()
         updateRamUsage()
-        updateGlDiagnostics()
+        if (glDiagnosticsEnabled && refreshEnv) updateGlDiagnostics()
         updateVisibility()
     }
 
-    /** 
-     * 更新 CPU 使用率（基于核心频率估算，和 Winlator/AndroidCPU 相同方案）
-     * 原理：读取每个核心的当前频率，相对于最小/最大频率估算负载
-     * 兼容 Android 8+ (Oreo)，无需 root 权限
-     */
-    private fun updateCpuUsage() {
+    /** 旧版渲染层仍通过环境变量发布帧数据 */
+    private fun updateFrameDataFromEnv() {
         try {
-            // 初始化每个核心的最小/最大频率
-            if (!cpuFreqInited) {
-                for (i in 0 until numCpuCores) {
-                    cpuMinFreqs[i] = readIntFromFile("/sys/devices/system/cpu/cpu$i/cpufreq/cpuinfo_min_freq")
-                    cpuMaxFreqs[i] = readIntFromFile("/sys/devices/system/cpu/cpu$i/cpufreq/cpuinfo_max_freq")
-                }
-                cpuFreqInited = true
-            }
-            
-            var totalUsage = 0f
-            var activeCores = 0
-            for (i in 0 until numCpuCores) {
-                val curFreq = readIntFromFile("/sys/devices/system/cpu/cpu$i/cpufreq/scaling_cur_freq")
-                val minFreq = cpuMinFreqs[i]
-                val maxFreq = cpuMaxFreqs[i]
-                
-                // 核心可能离线，min/max 为 0
-                if (minFreq == 0 || maxFreq == 0) {
-                    cpuMinFreqs[i] = readIntFromFile("/sys/devices/system/cpu/cpu$i/cpufreq/cpuinfo_min_freq")
-                    cpuMaxFreqs[i] = readIntFromFile("/sys/devices/system/cpu/cpu$i/cpufreq/cpuinfo_max_freq")
-                }
-                
-                if (maxFreq > minFreq && curFreq > 0) {
-                    val coreUsage = ((curFreq - minFreq).toFloat() / (maxFreq - minFreq).toFloat()) * 100f
-                    totalUsage += coreUsage.coerceIn(0f, 100f)
-                    activeCores++
-                }
+            // 从 SDL 底层读取 FPS（滑动窗口平均）
+            Os.getenv("RAL_FPS")?.takeIf { it.isNotEmpty() }?.let {
+                currentFPS = it.toFloatOrNull() ?: currentFPS
             }
-            
-            if (activeCores > 0) {
-                cpuUsage = (totalUsage / activeCores).coerceIn(0f, 100f)
+            // 从 SDL 底层读取帧时间
+            Os.getenv("RAL_FRAME_TIME")?.takeIf { it.isNotEmpty() }?.let {
+                frameTimeMs = it.toFloatOrNull() ?: frameTimeMs
             }
         } catch (_: Exception) { }
     }
-    
-    /** 读取 sysfs 整数文件，失败返回 0 */
-    private fun readIntFromFile(path: String): Int {
-        return try {
-            BufferedReader(FileReader(path)).use { it.readLine()?.trim()?.toIntOrNull() ?: 0 }
-        } catch (_: Exception) { 0 }
-    }
-    
-    /** 读取 sysfs 长整数文件，失败返回 0 */
-    private fun readLongFromFile(path: String): Long {
-        return try {
-            BufferedReader(FileReader(path)).use { it.readLine()?.trim()?.toLongOrNull() ?: 0L }
-        } catch (_: Exception) { 0L }
-    }
 
-    /** 
-     * 更新 GPU 使用率
-     * 策略1: 直接读取 GPU 利用率文件（部分设备可用）
-     * 策略2: 通过 GPU 频率估算负载（和 CPU 频率估算同理，兼容性更好）
-     */
-    private fun updateGpuUsage() {
-        // 策略1: 尝试直接读取 GPU 利用率
-        if (tryReadGpuUtilization()) return
-        
-        // 策略2: GPU 频率估算
-        tryGpuFreqEstimation()
-    }
-    
-    /** 尝试直接读取 GPU 利用率文件，成功返回 true */
-    private fun tryReadGpuUtilization(): Boolean {
-        // 如果之前已经找到可用路径，直接读
-        knownGpuUtilPath?.let { path ->
-            try {
-                BufferedReader(FileReader(path)).use { reader ->
-                    val line = reader.readLine()
-                    if (line != null) {
-                        val result = knownGpuUtilParser?.invoke(line) ?: -1f
-                        if (result >= 0f) {
-                            gpuUsage = result.coerceIn(0f, 100f)
-                            return true
-                        }
-                    }
-                }
-            } catch (_: Exception) {
-                knownGpuUtilPath = null // 路径失效，下次重新扫描
-                knownGpuUtilParser = null
-                gpuPathScanned = false
-            }
-        }
-        
-        // 只扫描一次
-        if (gpuPathScanned) return false
-        gpuPathScanned = true
-        
-        val gpuPaths = listOf(
-            // Adreno GPU (Qualcomm)
-            "/sys/class/kgsl/kgsl-3d0/gpubusy" to ::parseAdrenoGpuBusy,
-            "/sys/class/kgsl/kgsl-3d0/gpu_busy_percentage" to ::parsePercentage,
-            // Mali GPU (ARM)
-            "/sys/kernel/gpu/gpu_busy" to ::parsePercentage,
-            "/sys/class/misc/mali0/device/utilization" to ::parsePercentage,
-            // 联发科 (MediaTek)
-            "/sys/kernel/ged/hal/gpu_utilization" to ::parsePercentage,
-            "/sys/module/ged/parameters/gpu_loading" to ::parsePercentage,
-            // Samsung Exynos
-            "/sys/devices/platform/17500000.g3d/utilization" to ::parsePercentage,
-            "/sys/devices/platform/18500000.g3d/utilization" to ::parsePercentage,
-        )
-        
-        for ((path, parser) in gpuPaths) {
-            try {
-                val file = java.io.File(path)
-                if (file.exists() && file.canRead()) {
-                    BufferedReader(FileReader(path)).use { reader ->
-                        val line = reader.readLine()
-                        if (line != null) {
-                            val result = parser(line)
-                            if (result >= 0f) {
-                                knownGpuUtilPath = path
-                                knownGpuUtilParser = parser
-                                gpuUsage = result.coerceIn(0f, 100f)
-                                return true
-                            }
-                        }
-                    }
-                }
-            } catch (_: Exception) { }
-        }
-        return false
-    }
-    
-    /** 通过 GPU 频率估算负载（cur_freq 相对于 min/max 的位置） */
-    private fun tryGpuFreqEstimation() {
-        try {
-            if (!gpuFreqInited) {
-                initGpuFreqPaths()
-                gpuFreqInited = true
-            }
-            
-            val path = gpuFreqPath ?: return
-            val curFreq = readLongFromFile("$path/cur_freq")
-            if (curFreq > 0 && gpuMaxFreq > gpuMinFreq) {
-                gpuUsage = ((curFreq - gpuMinFreq).toFloat() / (gpuMaxFreq - gpuMinFreq).toFloat() * 100f)
-                    .coerceIn(0f, 100f)
-            }
-        } catch (_: Exception) { }
-    }
-    
-    /** 初始化 GPU 频率路径（自动检测 GPU 类型） */
-    private fun initGpuFreqPaths() {
-        // Adreno (Qualcomm) - devfreq 路径
-        val adrenoPath = "/sys/class/kgsl/kgsl-3d0/devfreq"
-        if (java.io.File(adrenoPath, "cur_freq").let { it.exists() && it.canRead() }) {
-            gpuFreqPath = adrenoPath
-            gpuMinFreq = readLongFromFile("$adrenoPath/min_freq")
-            gpuMaxFreq = readLongFromFile("$adrenoPath/max_freq")
-            if (gpuMaxFreq > 0) return
-        }
-        
-        // 通用 devfreq: 扫描 /sys/class/devfreq/ 下包含 gpu/mali/kgsl/g3d 的设备
-        try {
-            val devfreqDir = java.io.File("/sys/class/devfreq")
-            if (devfreqDir.exists() && devfreqDir.isDirectory) {
-                devfreqDir.listFiles()?.forEach { device ->
-                    val name = device.name.lowercase()
-                    if (name.contains("gpu") || name.contains("mali") || name.contains("kgsl") || name.contains("g3d")) {
-                        val curFile = java.io.File(device, "cur_freq")
-                        if (curFile.exists() && curFile.canRead()) {
-                            gpuFreqPath = device.absolutePath
-                            gpuMinFreq = readLongFromFile("${device.absolutePath}/min_freq")
-                            gpuMaxFreq = readLongFromFile("${device.absolutePath}/max_freq")
-                            if (gpuMaxFreq > 0) return
-                        }
-                    }
-                }
-            }
-        } catch (_: Exception) { }
-        
-        // Adreno 备用路径
-        val kgslPath = "/sys/class/kgsl/kgsl-3d0"
-        if (java.io.File(kgslPath, "gpuclk").let { it.exists() && it.canRead() }) {
-            gpuFreqPath = kgslPath
-            gpuMinFreq = readLongFromFile("$kgslPath/min_pwrlevel").let { 
-                if (it > 0) readLongFromFile("$kgslPath/gpu_available_frequencies")
-                    .toString().split("\\s+".toRegex()).lastOrNull()?.toLongOrNull() ?: 0L
-                else 0L
-            }
-            gpuMaxFreq = readLongFromFile("$kgslPath/max_gpuclk")
-        }
-    }
-    
-    private fun parseAdrenoGpuBusy(line: String): Float {
-        val parts = line.split("\\s+".toRegex())
-        if (parts.size >= 2) {
-            val busy = parts[0].toLongOrNull() ?: return -1f
-            val total = parts[1].toLongOrNull() ?: return -1f
-            if (total > 0) return (busy.toFloat() / total.toFloat()) * 100f
-        }
-        return -1f
-    }
-    
-    private fun parsePercentage(line: String): Float {
-        val cleaned = line.trim().replace("%", "").replace("@", " ").split("\\s+".toRegex())[0]
-        return cleaned.toFloatOrNull() ?: -1f
+    /** 读取后台采样器发布的 CPU/GPU 快照 */
+    private fun updateSystemStats() {
+        val snapshot = statsSampler.latest
+        cpuUsage = snapshot.cpuLoadPercent
+        gpuUsage = snapshot.gpuLoadPercent
+        cpuTempC = snapshot.cpuTempC
+        gpuTempC = snapshot.gpuTempC
     }
 
     /** 更新 RAM 使用 */
@@ -383,13 +210,13 @@ class FPSDisplayView @JvmOverloads constructor(
         }
     }
 
-    /** 更新 OpenGL/FNA3D 诊断信息（由 native 侧定期写入环境变量） */
+    /**
+     * 更新 OpenGL/FNA3D 诊断信息（由子模块中的 FNA3D 渲染层定期写入环境变量）
+     *
+     * 仅在启用诊断时按 [ENV_REFRESH_TICKS] 节流调用
+     */
     private fun updateGlDiagnostics() {
         try {
-            if (Os.getenv("RAL_GL_DIAGNOSTICS") != "1") {
-                clearGlDiagnostics()
-                return
-            }
             glDiagLine = Os.getenv("RAL_GL_DIAG") ?: ""
             glPathLine = Os.getenv("RAL_GL_PATH") ?: ""
             glTimingLine = Os.getenv("RAL_GL_TIMING") ?: ""
@@ -541,7 +368,18 @@ class FPSDisplayView @JvmOverloads constructor(
         // CPU 和 GPU 使用率 - 无数据时显示 N/A
         val cpuStr = if (cpuUsage >= 0f) String.format("%.0f%%", cpuUsage) else "N/A"
         val gpuStr = if (gpuUsage >= 0f) String.format("%.0f%%", gpuUsage) else "N/A"
-        lines.add("CPU: $cpuStr  GPU: $gpuStr")
+        val cpuTempStr = if (!cpuTempC.isNaN()) String.format(" %.0f°C", cpuTempC) else ""
+        val gpuTempStr = if (!gpuTempC.isNaN()) String.format(" %.0f°C", gpuTempC) else ""
+        lines.add("CPU: $cpuStr$cpuTempStr  GPU: $gpuStr$gpuTempStr")
+        frameStats?.let { stats ->
+            lines.add(String.format("1%% low %.1f  0.1%% low %.1f FPS", stats.low1PercentFps, stats.low01PercentFps))
+            lines.add(
+                String.format(
+                    "P50 %.1f  P95 %.1f  P99 %.1fms  Stutter %d",
+                    stats.p50Ms, stats.p95Ms, stats.p99Ms, stats.stutters
+                )
+            )
+        }
         if (ramUsage.isNotEmpty()) lines.add("RAM: $ramUsage")
         if (glDiagLine.isNotEmpty()) lines.add("GL: $glDiagLine")
         if (glTimingLine.isNotEmpty()) lines.add(glTimingLine)
@@ -334,6 +334,7 @@ class MainViewModel(
         }
 
         viewModelScope.launch {
+            gameLaunchManager.prepareRendererLibraries(game)
             val success = withContext(Dispatchers.Main) {
                 gameLaunchManager.launchGame(game)
             }
@@ -2,26 +2,40 @@ package com.app.ralaunch.feature.settings.ui
 
 import androidx.activity.compose.rememberLauncherForActivityResult
 import androidx.activity.result.contract.ActivityResultContracts
+import androidx.compose.foundation.clickable
+import androidx.compose.foundation.horizontalScroll
 import androidx.compose.foundation.layout.Arrangement
 import androidx.compose.foundation.layout.Box
+import androidx.compose.foundation.layout.Column
+import androidx.compose.foundation.layout.Row
 import androidx.compose.foundation.layout.fillMaxSize
 import androidx.compose.foundation.layout.fillMaxWidth
 import androidx.compose.foundation.layout.padding
 import androidx.compose.foundation.lazy.LazyColumn
-import androidx.compose.foundation.lazy.items
+import androidx.compose.foundation.lazy.LazyListState
+import androidx.compose.foundation.lazy.rememberLazyListState
+import androidx.compose.foundation.rememberScrollState
 import androidx.compose.material.icons.Icons
 import androidx.compose.material.icons.automirrored.filled.ArrowBack
+import androidx.compose.material3.DropdownMenu
+import androidx.compose.material3.DropdownMenuItem
 import androidx.compose.material3.ExperimentalMaterial3Api
+import androidx.compose.material3.FilterChip
 import androidx.compose.material3.Icon
 import androidx.compose.material3.IconButton
+import androidx.compose.material3.LinearProgressIndicator
 import androidx.compose.material3.MaterialTheme
+import androidx.compose.material3.OutlinedTextField
 import androidx.compose.material3.Scaffold
 import androidx.compose.material3.Text
 import androidx.compose.material3.TextButton
 import androidx.compose.material3.TopAppBar
 import androidx.compose.runtime.Composable
+import androidx.compose.runtime.DisposableEffect
 import androidx.compose.runtime.LaunchedEffect
 import androidx.compose.runtime.getValue
+import androidx.compose.runtime.mutableIntStateOf
+import androidx.compose.runtime.mutableStateListOf
 import androidx.compose.runtime.mutableStateOf
 import androidx.compose.runtime.remember
 import androidx.compose.runtime.rememberCoroutineScope
@@ -31,11 +45,30 @@ import androidx.compose.ui.Modifier
 import androidx.compose.ui.platform.LocalContext
 import androidx.compose.ui.res.stringResource
 import androidx.compose.ui.text.font.FontFamily
+import androidx.compose.ui.text.style.TextOverflow
 import androidx.compose.ui.unit.dp
 import com.app.ralaunch.R
 import com.app.ralaunch.core.logging.LogFilePolicy
+import com.app.ralaunch.core.logging.LogLevel
+import com.app.ralaunch.core.logging.LogLine
+import com.app.ralaunch.core.logging.LogLinePager
+import com.app.ralaunch.core.logging.LogSearchQuery
+import com.app.ralaunch.core.logging.MappedLogFile
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.isActive
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
+import java.io.File
+import java.io.IOException
 
+/**
+ * 日志查看器
+ *
+ * 日志文件以内存映射方式打开：先倒序读取末尾的行立即显示，同时在后台建立行索引，
+ * 索引完成后切换为可滚动整个文件的分页列表。列表使用 reverseLayout，第 0 项是最新的一行。
+ */
 @Composable
 @OptIn(ExperimentalMaterial3Api::class)
 fun LogViewerSubScreen(
@@ -44,69 +77,305 @@ fun LogViewerSubScreen(
 ) {
     val context = LocalContext.current
     val scope = rememberCoroutineScope()
-    var logs by remember { mutableStateOf<List<String>>(emptyList()) }
+    var files by remember { mutableStateOf<List<File>>(emptyList()) }
+    var selectedFile by remember { mutableStateOf<File?>(null) }
+    var fileMenuExpanded by remember { mutableStateOf(false) }
+    var log by remember { mutableStateOf<MappedLogFile?>(null) }
+    var loadError by remember { mutableStateOf<String?>(null) }
+    var tailLines by remember { mutableStateOf<List<LogLine>>(emptyList()) }
+    // 索引进度，null 表示未在建立索引
+    var indexProgress by remember { mutableStateOf<Float?>(null) }
+    var indexedLineCount by remember { mutableIntStateOf(0) }
+    var searchInput by remember { mutableStateOf("") }
+    var minLevel by remember { mutableStateOf<LogLevel?>(null) }
+    // 搜索结果按批次追加，避免每批复制整个列表
+    val searchResults = remember { mutableStateListOf<LogLine>() }
+    var searchProgress by remember { mutableStateOf<Float?>(null) }
+    var searchTruncated by remember { mutableStateOf(false) }
+    val listState = rememberLazyListState()
+    val searchListState = rememberLazyListState()
+    // 导出进度，null 表示未在导出
+    var exportProgress by remember { mutableStateOf<Float?>(null) }
     val exportLauncher = rememberLauncherForActivityResult(
-        contract = ActivityResultContracts.CreateDocument("text/plain")
+        contract = ActivityResultContracts.CreateDocument("application/zip")
     ) { uri ->
         uri?.let { exportUri ->
             scope.launch {
-                exportLogs(context, exportUri)
+                exportProgress = 0f
+                exportLogs(context, exportUri) { progress -> exportProgress = progress.fraction }
+                exportProgress = null
             }
         }
     }
 
     LaunchedEffect(Unit) {
-        logs = loadLogs(context)
+        files = withContext(Dispatchers.IO) { listViewableLogFiles() }
+        selectedFile = files.firstOrNull()
     }
 
+    DisposableEffect(Unit) {
+        onDispose {
+            CoroutineScope(Dispatchers.IO).launch { clearLogViewerCache(context) }
+        }
+    }
+
+    LaunchedEffect(selectedFile) {
+        val file = selectedFile ?: return@LaunchedEffect
+        log = null
+        tailLines = emptyList()
+        indexedLineCount = 0
+        loadError = null
+        val opened = try {
+            withContext(Dispatchers.IO) {
+                openLogForViewing(context, file).also { tailLines = it.tail(TAIL_LINES) }
+            }
+        } catch (e: IOException) {
+            loadError = context.getString(R.string.settings_logs_read_failed, e.message ?: "")
+            return@LaunchedEffect
+        }
+        log = opened
+        listState.scrollToItem(0)
+
+        indexProgress = 0f
+        withContext(Dispatchers.IO) {
+            var reported = 0f
+            opened.buildIndex(isCancelled = { !isActive }) { indexedBytes, _ ->
+                val fraction = indexedBytes.toFloat() / opened.length
+                if (fraction - reported >= PROGRESS_STEP) {
+                    reported = fraction
+                    indexProgress = fraction
+                }
+            }
+        }
+        indexProgress = null
+        indexedLineCount = opened.indexedLineCount
+    }
+
+    val query = remember(searchInput, minLevel) { LogSearchQuery.parse(searchInput, minLevel) }
+    LaunchedEffect(log, query) {
+        searchResults.clear()
+        searchTruncated = false
+        searchProgress = null
+        val target = log ?: return@LaunchedEffect
+        if (query.isEmpty) return@LaunchedEffect
+        delay(SEARCH_DEBOUNCE_MS)
+
+        searchProgress = 0f
+        withContext(Dispatchers.IO) {
+            target.search(query, isCancelled = { !isActive }, maxResults = MAX_SEARCH_RESULTS) { batch ->
+                searchResults.addAll(batch.matches)
+                searchTruncated = batch.truncated
+                searchProgress = if (batch.done) null else batch.scannedBytes.toFloat() / batch.totalBytes
+            }
+        }
+    }
+
+    val pager = remember(log, indexedLineCount) {
+        log?.takeIf { it.isIndexComplete }?.let { LogLinePager(it) }
+    }
+    val searchActive = !query.isEmpty
+
     Scaffold(
         modifier = modifier.fillMaxSize(),
         topBar = {
-            TopAppBar(
-                title = { Text(stringResource(R.string.settings_logs_title)) },
-                navigationIcon = {
-                    IconButton(onClick = onBack) {
-                        Icon(
-                            imageVector = Icons.AutoMirrored.Filled.ArrowBack,
-                            contentDescription = stringResource(R.string.back)
-                        )
-                    }
-                },
-                actions = {
-                    TextButton(onClick = { exportLauncher.launch(LogFilePolicy.appLogFileName()) }) {
-                        Text(stringResource(R.string.export))
+            Column {
+                TopAppBar(
+                    title = { Text(stringResource(R.string.settings_logs_title)) },
+                    navigationIcon = {
+                        IconButton(onClick = onBack) {
+                            Icon(
+                                imageVector = Icons.AutoMirrored.Filled.ArrowBack,
+                                contentDescription = stringResource(R.string.back)
+                            )
+                        }
+                    },
+                    actions = {
+                        Box {
+                            TextButton(
+                                onClick = { fileMenuExpanded = true },
+                                enabled = files.size > 1
+                            ) {
+                                Text(
+                                    text = selectedFile?.name.orEmpty(),
+                                    maxLines = 1,
+                                    overflow = TextOverflow.Ellipsis
+                                )
+                            }
+                            DropdownMenu(
+                                expanded = fileMenuExpanded,
+                                onDismissRequest = { fileMenuExpanded = false }
+                            ) {
+                                files.forEach { file ->
+                                    DropdownMenuItem(
+                                        text = { Text(file.name) },
+                                        onClick = {
+                                            fileMenuExpanded = false
+                                            selectedFile = file
+                                        }
+                                    )
+                                }
+                            }
+                        }
+                        TextButton(
+                            onClick = { exportLauncher.launch(LogFilePolicy.exportArchiveFileName()) },
+                            enabled = exportProgress == null
+                        ) {
+                            Text(stringResource(R.string.export))
+                        }
                     }
+                )
+                (exportProgress ?: searchProgress ?: indexProgress)?.let { progress ->
+                    LinearProgressIndicator(
+                        progress = { progress },
+                        modifier = Modifier.fillMaxWidth()
+                    )
                 }
-            )
+            }
         }
     ) { padding ->
-        if (logs.isEmpty()) {
-            Box(
-                modifier = Modifier
-                    .fillMaxSize()
-                    .padding(padding),
-                contentAlignment = Alignment.Center
-            ) {
+        Column(
+            modifier = Modifier
+                .fillMaxSize()
+                .padding(padding)
+        ) {
+            LogSearchBar(
+                input = searchInput,
+                onInputChange = { searchInput = it },
+                minLevel = minLevel,
+                onMinLevelChange = { minLevel = it }
+            )
+
+            val status = when {
+                searchActive && searchTruncated ->
+                    stringResource(R.string.settings_logs_match_count_truncated, searchResults.size)
+                searchActive && searchProgress == null && searchResults.isEmpty() ->
+                    stringResource(R.string.settings_logs_no_matches)
+                searchActive -> stringResource(R.string.settings_logs_match_count, searchResults.size)
+                indexProgress != null -> stringResource(R.string.settings_logs_indexing)
+                else -> null
+            }
+            status?.let {
                 Text(
-                    text = stringResource(R.string.settings_logs_empty),
-                    color = MaterialTheme.colorScheme.onSurfaceVariant
+                    text = it,
+                    style = MaterialTheme.typography.labelSmall,
+                    color = MaterialTheme.colorScheme.onSurfaceVariant,
+                    modifier = Modifier.padding(horizontal = 12.dp, vertical = 4.dp)
                 )
             }
-        } else {
-            LazyColumn(
-                modifier = Modifier
-                    .fillMaxSize()
-                    .padding(padding),
-                verticalArrangement = Arrangement.spacedBy(2.dp)
-            ) {
-                items(logs) { log ->
-                    Text(
-                        text = log,
-                        style = MaterialTheme.typography.bodySmall,
-                        fontFamily = FontFamily.Monospace
-                    )
-                }
+
+            val currentLog = log
+            when {
+                loadError != null -> LogViewerMessage(loadError.orEmpty())
+                searchActive -> LogLineList(
+                    state = searchListState,
+                    count = searchResults.size,
+                    lineAt = { index -> searchResults[searchResults.size - 1 - index] },
+                    showNumbers = true,
+                    onLineClick = { line ->
+                        if (pager != null && line.number >= 0) {
+                            searchInput = ""
+                            minLevel = null
+                            scope.launch { listState.scrollToItem(pager.lineCount - 1 - line.number) }
+                        }
+                    }
+                )
+                pager != null && pager.lineCount > 0 -> LogLineList(
+                    state = listState,
+                    count = pager.lineCount,
+                    lineAt = { index -> pager.line(pager.lineCount - 1 - index) }
+                )
+                tailLines.isNotEmpty() -> LogLineList(
+                    state = listState,
+                    count = tailLines.size,
+                    lineAt = { index -> tailLines[tailLines.size - 1 - index] }
+                )
+                currentLog != null || selectedFile == null -> LogViewerMessage(stringResource(R.string.settings_logs_empty))
+            }
+        }
+    }
+}
+
+@Composable
+private fun LogSearchBar(
+    input: String,
+    onInputChange: (String) -> Unit,
+    minLevel: LogLevel?,
+    onMinLevelChange: (LogLevel?) -> Unit
+) {
+    Row(
+        modifier = Modifier
+            .fillMaxWidth()
+            .padding(horizontal = 12.dp, vertical = 4.dp),
+        verticalAlignment = Alignment.CenterVertically,
+        horizontalArrangement = Arrangement.spacedBy(8.dp)
+    ) {
+        OutlinedTextField(
+            value = input,
+            onValueChange = onInputChange,
+            placeholder = { Text(stringResource(R.string.settings_logs_search_hint)) },
+            singleLine = true,
+            textStyle = MaterialTheme.typography.bodySmall,
+            modifier = Modifier.weight(1f)
+        )
+        Row(
+            modifier = Modifier.horizontalScroll(rememberScrollState()),
+            horizontalArrangement = Arrangement.spacedBy(4.dp)
+        ) {
+            LEVEL_FILTERS.forEach { level ->
+                FilterChip(
+                    selected = minLevel == level,
+                    onClick = { onMinLevelChange(level) },
+                    label = { Text(level?.label ?: stringResource(R.string.settings_logs_level_all)) }
+                )
             }
         }
     }
 }
+
+@Composable
+private fun LogLineList(
+    state: LazyListState,
+    count: Int,
+    lineAt: (Int) -> LogLine?,
+    showNumbers: Boolean = false,
+    onLineClick: ((LogLine) -> Unit)? = null
+) {
+    LazyColumn(
+        state = state,
+        reverseLayout = true,
+        modifier = Modifier.fillMaxSize(),
+        verticalArrangement = Arrangement.spacedBy(2.dp)
+    ) {
+        items(count) { index ->
+            val line = lineAt(index) ?: return@items
+            Text(
+                text = if (showNumbers) "${line.number + 1}: ${line.text}" else line.text,
+                style = MaterialTheme.typography.bodySmall,
+                fontFamily = FontFamily.Monospace,
+                modifier = Modifier
+                    .fillMaxWidth()
+                    .then(if (onLineClick != null) Modifier.clickable { onLineClick(line) } else Modifier)
+                    .padding(horizontal = 8.dp)
+            )
+        }
+    }
+}
+
+@Composable
+private fun LogViewerMessage(text: String) {
+    Box(
+        modifier = Modifier.fillMaxSize(),
+        contentAlignment = Alignment.Center
+    ) {
+        Text(
+            text = text,
+            color = MaterialTheme.colorScheme.onSurfaceVariant
+        )
+    }
+}
+
+private const val TAIL_LINES = 500
+private const val MAX_SEARCH_RESULTS = 10_000
+private const val SEARCH_DEBOUNCE_MS = 300L
+private const val PROGRESS_STEP = 0.01f
+private val LEVEL_FILTERS = listOf(null, LogLevel.DEBUG, LogLevel.INFO, LogLevel.WARN, LogLevel.ERROR)
@@ -236,3 +236,52 @@ internal fun ForceAssetReinstallDialog(
         }
     )
 }
+
+/**
+ * 按标签设置日志级别的对话框，格式如 `ControlFrameTime=V,SDLInputBridge=off`
+ */
+@Composable
+internal fun LogTagLevelsDialog(
+    initialSpec: String,
+    onConfirm: (String) -> Unit,
+    onDismiss: () -> Unit
+) {
+    var spec by remember { mutableStateOf(initialSpec) }
+    AlertDialog(
+        onDismissRequest = onDismiss,
+        title = {
+            Text(
+                text = stringResource(R.string.settings_developer_log_tag_levels_title),
+                style = MaterialTheme.typography.headlineSmall
+            )
+        },
+        text = {
+            Column(
+                verticalArrangement = Arrangement.spacedBy(12.dp)
+            ) {
+                Text(
+                    text = stringResource(R.string.settings_developer_log_tag_levels_hint),
+                    style = MaterialTheme.typography.bodySmall,
+                    color = MaterialTheme.colorScheme.onSurfaceVariant
+                )
+                OutlinedTextField(
+                    value = spec,
+                    onValueChange = { spec = it },
+                    placeholder = { Text("ControlFrameTime=V") },
+                    singleLine = true,
+                    modifier = Modifier.fillMaxWidth()
+                )
+            }
+        },
+        confirmButton = {
+            TextButton(onClick = { onConfirm(spec) }) {
+                Text(stringResource(R.string.confirm))
+            }
+        },
+        dismissButton = {
+            TextButton(onClick = onDismiss) {
+                Text(stringResource(R.string.cancel))
+            }
+        }
+    )
+}
@@ -11,7 +11,10 @@ import com.app.ralaunch.core.common.util.FileUtils
 import com.app.ralaunch.feature.patch.data.PatchManager
 import com.app.ralaunch.core.platform.runtime.AndroidRendererRegistry
 import com.app.ralaunch.core.logging.LogFilePolicy
+import com.app.ralaunch.core.logging.MappedLogFile
+import com.app.ralaunch.core.logging.LogSegmentReader
 import com.app.ralaunch.core.logging.service.LogExportHelper
+import com.app.ralaunch.core.logging.service.LogExportProgress
 import com.app.ralaunch.core.platform.android.provider.RaLaunchFileProvider
 import com.app.ralaunch.core.ui.dialog.RendererOption
 import com.app.ralaunch.core.model.BackgroundType
@@ -27,6 +30,7 @@ import kotlinx.coroutines.withContext
 import org.koin.java.KoinJavaComponent
 import java.io.File
 import java.io.FileOutputStream
+import java.io.IOException
 
 internal const val RESTORE_SETTINGS_AFTER_RECREATE_KEY = "restore_settings_after_recreate"
 
@@ -142,21 +146,59 @@ internal fun openSponsorsPage(context: Context) {
     }
 }
 
-internal fun loadLogs(context: Context): List<String> {
-    return try {
-        logExportHelper().getAppLogFiles().firstOrNull()?.readLines()?.takeLast(LOG_VIEW_LIMIT) ?: emptyList()
-    } catch (e: Exception) {
-        listOf(context.getString(R.string.settings_logs_read_failed, e.message ?: ""))
+/**
+ * 查看器可选的日志文件：应用日志在前，logcat 日志在后，各自从新到旧
+ */
+internal fun listViewableLogFiles(): List<File> =
+    logExportHelper().getLogFiles().sortedWith(
+        compareBy<File> { LogFilePolicy.isLogcatLogFile(it) }
+            .thenByDescending { it.lastModified() }
+            .thenBy { LogFilePolicy.segmentIndex(it) }
+    )
+
+/**
+ * 内存映射日志文件供查看器使用；已压缩的分段先解压到 cacheDir/log_viewer/，源文件未变时复用。
+ * 目录中只保留当前查看的一份解压副本，查看器关闭时由 [clearLogViewerCache] 删除
+ */
+internal fun openLogForViewing(context: Context, file: File): MappedLogFile {
+    if (!LogFilePolicy.isCompressed(file)) return MappedLogFile.open(file)
+    val viewerDir = File(context.cacheDir, LOG_VIEWER_CACHE_DIR).apply { mkdirs() }
+    val target = File(viewerDir, file.name.removeSuffix(LogFilePolicy.COMPRESSED_EXTENSION))
+    viewerDir.listFiles()?.forEach { if (it != target) it.delete() }
+    if (!target.isFile || target.lastModified() != file.lastModified()) {
+        val partial = File(viewerDir, target.name + ".tmp")
+        LogSegmentReader.openStream(file).use { input ->
+            FileOutputStream(partial).use { output -> input.copyTo(output, LOG_VIEWER_COPY_BUFFER) }
+        }
+        if (!partial.renameTo(target)) {
+            partial.delete()
+            throw IOException("Cannot decompress ${file.name}")
+        }
+        target.setLastModified(file.lastModified())
     }
+    return MappedLogFile.open(target)
 }
 
-internal suspend fun exportLogs(context: Context, uri: Uri) {
+/**
+ * 删除查看器解压的日志副本；已映射的副本在解除映射前仍可读取
+ */
+internal fun clearLogViewerCache(context: Context) {
+    File(context.cacheDir, LOG_VIEWER_CACHE_DIR).deleteRecursively()
+}
+
+/**
+ * 把日志导出包以 zip 流式写入用户选择的位置（SAF URI）
+ */
+internal suspend fun exportLogs(
+    context: Context,
+    uri: Uri,
+    onProgress: (LogExportProgress) -> Unit = {}
+) {
     withContext(Dispatchers.IO) {
         try {
-            val logs = logExportHelper().buildExportContent()
-            context.contentResolver.openOutputStream(uri)?.use { output ->
-                output.write(logs.toByteArray(Charsets.UTF_8))
-            }
+            val output = context.contentResolver.openOutputStream(uri)
+                ?: throw IOException("Cannot open $uri")
+            logExportHelper().writeExportArchive(output, onProgress)
             withContext(Dispatchers.Main) {
                 Toast.makeText(context, context.getString(R.string.log_exported), Toast.LENGTH_SHORT).show()
             }
@@ -171,27 +213,24 @@ internal suspend fun exportLogs(context: Context, uri: Uri) {
 internal suspend fun shareLogs(context: Context) {
     withContext(Dispatchers.IO) {
         try {
-            val logs = logExportHelper().buildExportContent()
-
             val shareDir = File(context.cacheDir, "shared_logs").apply {
                 mkdirs()
             }
-            shareDir.listFiles { file ->
-                LogFilePolicy.isManagedLogFile(file)
-            }?.forEach(File::delete)
+            // 只保留本次分享的导出包；目录中其它文件不是这里创建的，不做处理
+            shareDir.listFiles(LogFilePolicy::isExportArchive)?.forEach(File::delete)
 
-            val logFile = File(shareDir, LogFilePolicy.appLogFileName())
-            logFile.writeText(logs, Charsets.UTF_8)
+            val archiveFile = File(shareDir, LogFilePolicy.exportArchiveFileName())
+            logExportHelper().writeExportArchive(FileOutputStream(archiveFile))
 
             val fileUri = FileProvider.getUriForFile(
                 context,
                 RaLaunchFileProvider.AUTHORITY,
-                logFile
+                archiveFile
             )
 
             val shareTitle = context.getString(R.string.export_share_log)
             val shareIntent = Intent(Intent.ACTION_SEND).apply {
-                type = "text/plain"
+                type = "application/zip"
                 putExtra(Intent.EXTRA_STREAM, fileUri)
                 putExtra(
                     Intent.EXTRA_SUBJECT,
@@ -215,7 +254,8 @@ internal suspend fun shareLogs(context: Context) {
     }
 }
 
-private const val LOG_VIEW_LIMIT = 500
+private const val LOG_VIEWER_CACHE_DIR = "log_viewer"
+private const val LOG_VIEWER_COPY_BUFFER = 64 * 1024
 
 private fun logExportHelper(): LogExportHelper =
     KoinJavaComponent.get(LogExportHelper::class.java)
@@ -97,6 +97,7 @@ import com.app.ralaunch.core.navigation.NavState
 import com.app.ralaunch.core.navigation.navigateToLogViewer
 import com.app.ralaunch.core.navigation.navigateToPatchManagement
 import com.app.ralaunch.core.platform.runtime.AndroidRendererRegistry
+import com.app.ralaunch.core.platform.runtime.RendererRegistry
 import com.app.ralaunch.core.ui.dialog.DotNetRuntimeOption
 import com.app.ralaunch.core.ui.dialog.DotNetRuntimeSelectDialog
 import com.app.ralaunch.core.ui.dialog.LanguageSelectDialog
@@ -543,7 +544,13 @@ private fun GameSettingsPane(
                     subtitle = androidStringResource(R.string.renderer_desc),
                     value = AndroidRendererRegistry.getRendererDisplayName(rendererType),
                     icon = Icons.Default.Tv,
-                    onClick = { showRendererDialog = true }
+                    onClick = {
+                        showRendererDialog = true
+                        // 后台解压对话框中可选的渲染器，选择后不必等待从压缩包中解压
+                        RendererRegistry.prefetchRendererLibraries(
+                            availableRenderers.map { it.renderer }.filter { it != rendererType }
+                        )
+                    }
                 )
             }
 
@@ -807,8 +814,9 @@ private fun DeveloperSettingsPane(
 ) {
     val context = LocalContext.current
     val scope = rememberCoroutineScope()
+    var showLogTagLevelsDialog by remember { mutableStateOf(false) }
     val logExportLauncher = rememberLauncherForActivityResult(
-        contract = ActivityResultContracts.CreateDocument("text/plain")
+        contract = ActivityResultContracts.CreateDocument("application/zip")
     ) { uri ->
         uri?.let { exportUri ->
             scope.launch {
@@ -840,6 +848,17 @@ private fun DeveloperSettingsPane(
 
                 SettingsDivider()
 
+                ClickableSettingItem(
+                    title = androidStringResource(R.string.settings_developer_log_tag_levels_title),
+                    subtitle = logTagLevels.ifEmpty {
+                        androidStringResource(R.string.settings_developer_log_tag_levels_subtitle)
+                    },
+                    icon = Icons.Default.FilterAlt,
+                    onClick = { showLogTagLevelsDialog = true }
+                )
+
+                SettingsDivider()
+
                 ClickableSettingItem(
                     title = androidStringResource(R.string.settings_developer_view_logs_title),
                     subtitle = androidStringResource(R.string.settings_developer_view_logs_subtitle),
@@ -853,7 +872,7 @@ private fun DeveloperSettingsPane(
                     title = androidStringResource(R.string.settings_developer_export_logs_title),
                     subtitle = androidStringResource(R.string.settings_developer_export_logs_subtitle),
                     icon = Icons.Default.Download,
-                    onClick = { logExportLauncher.launch(LogFilePolicy.appLogFileName()) }
+                    onClick = { logExportLauncher.launch(LogFilePolicy.exportArchiveFileName()) }
                 )
 
                 SettingsDivider()
@@ -979,6 +998,16 @@ private fun DeveloperSettingsPane(
             }
         }
 
+        if (showLogTagLevelsDialog) {
+            LogTagLevelsDialog(
+                initialSpec = logTagLevels,
+                onConfirm = {
+                    viewModel.onEvent(SettingsEvent.SetLogTagLevels(it))
+                    showLogTagLevelsDialog = false
+                },
+                onDismiss = { showLogTagLevelsDialog = false }
+            )
+        }
     }
 }
 
@@ -64,6 +64,7 @@ data class SettingsUiState(
     // 开发者设置
     val loggingEnabled: Boolean = false,
     val verboseLogging: Boolean = false,
+    val logTagLevels: String = "",
     val killLauncherUIEnabled: Boolean = false,
     val serverGCEnabled: Boolean = true,
     val concurrentGCEnabled: Boolean = true,
@@ -117,6 +118,7 @@ sealed class SettingsEvent {
     // 开发者
     data class SetLoggingEnabled(val enabled: Boolean) : SettingsEvent()
     data class SetVerboseLogging(val enabled: Boolean) : SettingsEvent()
+    data class SetLogTagLevels(val spec: String) : SettingsEvent()
     data class SetKillLauncherUI(val enabled: Boolean) : SettingsEvent()
     data class SetServerGC(val enabled: Boolean) : SettingsEvent()
     data class SetConcurrentGC(val enabled: Boolean) : SettingsEvent()
@@ -194,6 +196,7 @@ class SettingsViewModel(
             // 开发者
             is SettingsEvent.SetLoggingEnabled -> setLoggingEnabled(event.enabled)
             is SettingsEvent.SetVerboseLogging -> setVerboseLogging(event.enabled)
+            is SettingsEvent.SetLogTagLevels -> setLogTagLevels(event.spec)
             is SettingsEvent.SetKillLauncherUI -> setKillLauncherUI(event.enabled)
             is SettingsEvent.SetServerGC -> setServerGC(event.enabled)
             is SettingsEvent.SetConcurrentGC -> setConcurrentGC(event.enabled)
@@ -247,6 +250,7 @@ class SettingsViewModel(
                     // 开发者
                     loggingEnabled = settings.logSystemEnabled,
                     verboseLogging = settings.verboseLogging,
+                    logTagLevels = settings.logTagLevels,
                     killLauncherUIEnabled = settings.killLauncherUIAfterLaunch,
                     serverGCEnabled = settings.serverGC,
                     concurrentGCEnabled = settings.concurrentGC,
@@ -394,6 +398,8 @@ class SettingsViewModel(
         viewModelScope.launch {
             settingsRepository.update { fnaRenderer = normalized }
             _uiState.update { it.copy(rendererType = normalized) }
+            // 首次选择该渲染器时解压其运行时库
+            RendererRegistry.ensureRendererLibraries(normalized)
         }
     }
 
@@ -499,6 +505,15 @@ class SettingsViewModel(
         }
     }
 
+    private fun setLogTagLevels(spec: String) {
+        viewModelScope.launch {
+            val trimmed = spec.trim()
+            settingsRepository.update { logTagLevels = trimmed }
+            fileLogger?.refreshConfiguration()
+            _uiState.update { it.copy(logTagLevels = trimmed) }
+        }
+    }
+
     private fun setKillLauncherUI(enabled: Boolean) {
         viewModelScope.launch {
             settingsRepository.update { killLauncherUIAfterLaunch = enabled }
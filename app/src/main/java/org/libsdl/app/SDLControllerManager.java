@@ -17,6 +17,9 @@ import android.view.View;
 
 import androidx.annotation.Nullable;
 
+import com.app.ralaunch.feature.controls.bridges.InputEventRing;
+import com.app.ralaunch.feature.controls.bridges.NativeInputQueue;
+
 public class SDLControllerManager
 {
 
@@ -518,8 +521,15 @@ class SDLJoyStickHandler_API19_VirtualJoystick extends SDLJoystickHandler_API19
 
         // Set up event listener to forward controller events to SDL
         controller.setEventListener(new VirtualXboxController.ControllerEventListener() {
+            // 优先写入 libmain 的输入事件缓冲区，每帧统一派发，不在 UI 线程进入 SDL；
+            // 缓冲区可用时不再回退到直接调用，避免与已写入的事件乱序
             @Override
             public void onAxisChanged(int axis, float value) {
+                InputEventRing inputRing = NativeInputQueue.ring();
+                if (inputRing != null) {
+                    inputRing.pushAxis(VirtualXboxController.VIRTUAL_DEVICE_ID, axis, value);
+                    return;
+                }
                 SDLControllerManager.onNativeJoy(VirtualXboxController.VIRTUAL_DEVICE_ID, axis, value);
             }
 
@@ -527,6 +537,11 @@ class SDLJoyStickHandler_API19_VirtualJoystick extends SDLJoystickHandler_API19
             public void onButtonChanged(int button, boolean pressed) {
                 int keycode = VirtualXboxController.mapButtonToKeycode(button);
                 if (keycode != -1) {
+                    InputEventRing inputRing = NativeInputQueue.ring();
+                    if (inputRing != null) {
+                        inputRing.pushPadButton(VirtualXboxController.VIRTUAL_DEVICE_ID, keycode, pressed);
+                        return;
+                    }
                     if (pressed) {
                         SDLControllerManager.onNativePadDown(VirtualXboxController.VIRTUAL_DEVICE_ID, keycode);
                     } else {
@@ -0,0 +1,77 @@
+package com.app.ralaunch.core.common
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class ConsoleHintMatcherTest {
+
+    @Test
+    fun defaultRulesMatchPreviousKeywordChecks() {
+        val samples = listOf(
+            "1\t\tNew World",
+            "Choose World: n for new world",
+            "Server Port (press enter for 7777):",
+            "Enter port 7777 or press enter",
+            "Max players (press enter for 8):",
+            "MaxPlayers set to 16",
+            "Server password (press enter for none):",
+            "Listening on port 7777",
+            "Listening on Port: 7778",
+            "Server started",
+            "Auto-forwarding port...",
+            "UPnP mapping complete",
+            "Loading mods...",
+            "Loading Mod: CalamityMod",
+            "Generating world terrain",
+            "Resetting game objects for World Generation",
+            "Saving world data: 40%",
+            "Unrelated output from FNA",
+            "Выход из сервера",
+            ""
+        )
+
+        for (sample in samples) {
+            assertEquals(sample, legacyHintKey(sample), ConsoleHintMatcher.DEFAULT.match(sample))
+        }
+    }
+
+    @Test
+    fun overlappingKeywordsAreAllFound() {
+        val matcher = ConsoleHintMatcher(
+            listOf(
+                ConsoleHintMatcher.Rule("both", listOf("he", "she")),
+                ConsoleHintMatcher.Rule("hers", listOf("hers"))
+            )
+        )
+
+        assertEquals("both", matcher.match("USHERS"))
+        assertEquals("hers", matcher.match("h-hers"))
+        assertNull(matcher.match("hs"))
+    }
+
+    @Test
+    fun extractPortFindsFirstNumberAfterPortKeyword() {
+        assertEquals("7777", ConsoleHintMatcher.extractPort("Listening on port 7777"))
+        assertEquals("7778", ConsoleHintMatcher.extractPort("Server started, Port : 7778"))
+        assertEquals("25565", ConsoleHintMatcher.extractPort("report ready; port:25565"))
+        assertNull(ConsoleHintMatcher.extractPort("Server started"))
+    }
+
+    /** 原 ConsoleManager.checkAndShowHint 的判断顺序 */
+    private fun legacyHintKey(msg: String): String? {
+        val m = msg.trim().lowercase()
+        return when {
+            m.contains("new world") && m.contains("n") -> ConsoleHintMatcher.WORLD_SELECT
+            m.contains("server port") || (m.contains("port") && m.contains("7777")) -> ConsoleHintMatcher.PORT
+            m.contains("max player") || m.contains("maxplayers") -> ConsoleHintMatcher.MAX_PLAYERS
+            m.contains("server password") -> ConsoleHintMatcher.PASSWORD
+            m.contains("listening on port") || m.contains("server started") -> ConsoleHintMatcher.SERVER_READY
+            m.contains("auto-forwarding port") || m.contains("upnp") -> ConsoleHintMatcher.UPNP
+            m.contains("loading mods") || m.contains("loading mod") -> ConsoleHintMatcher.MODS_LOADING
+            m.contains("generating world") || m.contains("world generation") -> ConsoleHintMatcher.WORLD_GENERATING
+            m.contains("saving world") -> ConsoleHintMatcher.SAVING
+            else -> null
+        }
+    }
+}
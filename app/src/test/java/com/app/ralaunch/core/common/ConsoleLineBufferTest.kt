@@ -0,0 +1,102 @@
+package com.app.ralaunch.core.common
+
+import com.app.ralaunch.core.common.ConsoleManager.LogEntry
+import com.app.ralaunch.core.common.ConsoleManager.LogLevel
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class ConsoleLineBufferTest {
+
+    @Test
+    fun idsStayMonotonicAcrossOverwriteAndClear() {
+        val buffer = ConsoleLineBuffer(3)
+        repeat(5) { buffer.append("00:00:00", LogLevel.I, "T", "line-$it") }
+
+        assertEquals(4L, buffer.lastId)
+        assertEquals(listOf(2L, 3L, 4L), buffer.tail(10).map { it.id })
+        assertEquals(listOf("line-3", "line-4"), buffer.tail(2).map { it.message })
+
+        buffer.clear()
+        assertEquals(0, buffer.size)
+        assertEquals(5L, buffer.append("00:00:01", LogLevel.W, "T", "after-clear").id)
+    }
+
+    @Test
+    fun diffSinceReturnsOnlyNewLinesAndSkipsOverwrittenOnes() {
+        val buffer = ConsoleLineBuffer(4)
+        repeat(3) { buffer.append("t", LogLevel.I, "T", "$it") }
+        val first = buffer.diffSince(-1L)
+        assertEquals(listOf("0", "1", "2"), first.appended.map { it.message })
+
+        assertTrue(buffer.diffSince(first.lastId).appended.isEmpty())
+
+        // 两次读取之间写入超过容量，被覆盖的行不会出现在差异中
+        repeat(6) { buffer.append("t", LogLevel.I, "T", "${it + 3}") }
+        val second = buffer.diffSince(first.lastId)
+        assertEquals(listOf("5", "6", "7", "8"), second.appended.map { it.message })
+        assertEquals(5L, second.firstRetainedId)
+    }
+
+    @Test
+    fun applyToKeepsNewestLinesAndDropsEvictedOrClearedOnes() {
+        val buffer = ConsoleLineBuffer(5)
+        repeat(3) { buffer.append("t", LogLevel.I, "T", "$it") }
+        val shown = buffer.diffSince(-1L).let { it.applyTo(emptyList(), 4) to it.lastId }
+        assertEquals(listOf("0", "1", "2"), shown.first.map { it.message })
+
+        repeat(3) { buffer.append("t", LogLevel.I, "T", "${it + 3}") }
+        val next = buffer.diffSince(shown.second)
+        val updated = next.applyTo(shown.first, 4)
+        assertEquals(listOf("2", "3", "4", "5"), updated.map { it.message })
+        assertSame("unchanged list is reused", updated, buffer.diffSince(next.lastId).applyTo(updated, 4))
+
+        buffer.clear()
+        assertTrue(buffer.diffSince(next.lastId).applyTo(updated, 4).isEmpty())
+    }
+
+    /**
+     * 10k 行/秒、约 60 fps 时每帧一次增量发布：每行恰好被提示匹配看到一次，显示列表保留最新的行
+     */
+    @Test
+    fun perFramePublishingAtTenThousandLinesPerSecondSeesEveryLineOnce() {
+        val linesPerSecond = 10_000
+        val linesPerFrame = linesPerSecond / 60
+        val matcher = ConsoleHintMatcher.DEFAULT
+        val buffer = ConsoleLineBuffer(500)
+        var logs = emptyList<LogEntry>()
+        var recent = emptyList<LogEntry>()
+        var publishedId = -1L
+        var hintCursor = -1L
+        var hints = 0
+        val seenIds = ArrayList<Long>(linesPerSecond)
+
+        for (i in 0 until linesPerSecond) {
+            val message = when (i % 500) {
+                0 -> "Listening on port 7777"
+                250 -> "Saving world data: ${i / 500}%"
+                else -> "[Mod$i] Loading content pack item $i of $linesPerSecond"
+            }
+            buffer.append("12:00:00", LogLevel.I, "dotnet", message)
+            if (i % linesPerFrame == linesPerFrame - 1 || i == linesPerSecond - 1) {
+                val diff = buffer.diffSince(publishedId)
+                publishedId = diff.lastId
+                logs = diff.applyTo(logs, 500)
+                recent = diff.applyTo(recent, 30)
+
+                val pending = buffer.diffSince(hintCursor)
+                hintCursor = pending.lastId
+                for (entry in pending.appended) {
+                    seenIds.add(entry.id)
+                    if (matcher.match(entry.message) != null) hints++
+                }
+            }
+        }
+
+        assertEquals((0L until linesPerSecond).toList(), seenIds)
+        assertEquals(40, hints)
+        assertEquals((linesPerSecond - 500L until linesPerSecond).toList(), logs.map { it.id })
+        assertEquals((linesPerSecond - 30L until linesPerSecond).toList(), recent.map { it.id })
+    }
+}
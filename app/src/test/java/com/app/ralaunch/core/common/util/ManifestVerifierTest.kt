@@ -0,0 +1,154 @@
+package com.app.ralaunch.core.common.util
+
+import kotlinx.coroutines.runBlocking
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.nio.file.Files
+import java.util.zip.CRC32
+
+class ManifestVerifierTest {
+
+    private val contents = linkedMapOf(
+        "dotnet/host/fxr/8.0.0/libhostfxr.so" to ByteArray(4096) { (it % 251).toByte() },
+        "dotnet/shared/Microsoft.NETCore.App/8.0.0/libcoreclr.so" to ByteArray(10000) { (it % 13).toByte() },
+        "dotnet/LICENSE.txt" to "license".toByteArray()
+    )
+
+    @Test
+    fun intactExtractionPassesFastAndDeepVerification() = withExtractedTree { root, verifier ->
+        verifier.writeStamp()
+
+        assertTrue(verifier.verifyFast().isEmpty())
+        assertTrue(runBlocking { verifier.verifyDeep() }.isEmpty())
+        assertEquals(manifest().version, verifier.installedVersion())
+    }
+
+    @Test
+    fun fastVerificationDetectsMissingAndTruncatedFiles() = withExtractedTree { root, verifier ->
+        verifier.writeStamp()
+        File(root, "LICENSE.txt").delete()
+        File(root, "shared/Microsoft.NETCore.App/8.0.0/libcoreclr.so").writeBytes(ByteArray(100))
+
+        val failures = verifier.verifyFast().associate { it.entry.path to it.reason }
+
+        assertEquals(
+            mapOf(
+                "dotnet/LICENSE.txt" to ManifestVerifier.Reason.MISSING,
+                "dotnet/shared/Microsoft.NETCore.App/8.0.0/libcoreclr.so" to ManifestVerifier.Reason.SIZE_MISMATCH
+            ),
+            failures
+        )
+    }
+
+    @Test
+    fun sameSizeCorruptionIsOnlyVisibleToDeepVerification() = withExtractedTree { root, verifier ->
+        verifier.writeStamp()
+        val target = File(root, "host/fxr/8.0.0/libhostfxr.so")
+        val mtime = target.lastModified()
+        target.writeBytes(ByteArray(4096))
+        target.setLastModified(mtime)
+
+        assertTrue(verifier.verifyFast().isEmpty())
+        val failure = runBlocking { verifier.verifyDeep() }.single()
+        assertEquals("dotnet/host/fxr/8.0.0/libhostfxr.so", failure.entry.path)
+        assertEquals(ManifestVerifier.Reason.CHECKSUM_MISMATCH, failure.reason)
+    }
+
+    @Test
+    fun fastVerificationDetectsModifiedMtime() = withExtractedTree { root, verifier ->
+        verifier.writeStamp()
+        val target = File(root, "LICENSE.txt")
+        target.setLastModified(target.lastModified() - 60_000L)
+
+        assertEquals(ManifestVerifier.Reason.MTIME_CHANGED, verifier.verifyFast().single().reason)
+    }
+
+    @Test
+    fun repairRewritesOnlyFailingFiles() = withExtractedTree { root, verifier ->
+        verifier.writeStamp()
+        val untouched = File(root, "LICENSE.txt")
+        val untouchedMtime = untouched.lastModified() - 120_000L
+        untouched.setLastModified(untouchedMtime)
+        verifier.writeStamp()
+        File(root, "shared/Microsoft.NETCore.App/8.0.0/libcoreclr.so").writeBytes(ByteArray(5))
+        File(root, "host/fxr/8.0.0/libhostfxr.so").delete()
+
+        val failures = verifier.verifyFast()
+        val result = verifier.repairFromTar(ByteArrayInputStream(buildTar(contents)), failures)
+
+        assertTrue(result.isSuccess)
+        assertEquals(2, result.repaired.size)
+        assertEquals(untouchedMtime, untouched.lastModified())
+        assertTrue(verifier.verifyFast().isEmpty())
+        assertTrue(runBlocking { verifier.verifyDeep() }.isEmpty())
+    }
+
+    @Test
+    fun repairReportsEntriesMissingFromArchive() = withExtractedTree { root, verifier ->
+        File(root, "LICENSE.txt").delete()
+        val failures = verifier.verifyFast()
+
+        val result = verifier.repairFromTar(
+            ByteArrayInputStream(buildTar(contents.filterKeys { it != "dotnet/LICENSE.txt" })),
+            failures
+        )
+
+        assertEquals("dotnet/LICENSE.txt", result.failed.single().entry.path)
+    }
+
+    @Test
+    fun manifestParsesGeneratorOutput() {
+        val parsed = ComponentManifest.parse(
+            """{"archive":"dotnet.tar.xz","archiveSize":204,"archiveCrc32":1843605732,""" +
+                """"entries":[{"path":"dotnet/x/f.txt","size":3,"crc32":3983506042}]}"""
+        )
+
+        assertEquals("dotnet.tar.xz", parsed.archive)
+        assertEquals(3983506042L, parsed.entries.single().crc32)
+        assertEquals("m1_204_${1843605732L.toString(16)}", parsed.version)
+    }
+
+    private fun manifest(): ComponentManifest = ComponentManifest(
+        archive = "dotnet.tar.xz",
+        archiveSize = 1234,
+        archiveCrc32 = 42,
+        entries = contents.map { (path, bytes) ->
+            ComponentManifest.Entry(path, bytes.size.toLong(), CRC32().apply { update(bytes) }.value)
+        }
+    )
+
+    private fun withExtractedTree(block: (File, ManifestVerifier) -> Unit) {
+        val root = Files.createTempDirectory("ralaunch-manifest").toFile()
+        try {
+            contents.forEach { (path, bytes) ->
+                File(root, path.removePrefix("dotnet/")).apply {
+                    parentFile?.mkdirs()
+                    writeBytes(bytes)
+                }
+            }
+            block(root, ManifestVerifier(root, manifest(), "dotnet/"))
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    private fun buildTar(files: Map<String, ByteArray>): ByteArray {
+        val out = ByteArrayOutputStream()
+        files.forEach { (path, bytes) ->
+            val header = ByteArray(512)
+            path.toByteArray().copyInto(header, 0)
+            "0000644".toByteArray().copyInto(header, 100)
+            String.format("%011o", bytes.size).toByteArray().copyInto(header, 124)
+            header[156] = '0'.code.toByte()
+            out.write(header)
+            out.write(bytes)
+            out.write(ByteArray((512 - bytes.size % 512) % 512))
+        }
+        out.write(ByteArray(1024))
+        return out.toByteArray()
+    }
+}
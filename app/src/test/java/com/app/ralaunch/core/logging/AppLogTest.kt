@@ -4,13 +4,17 @@ import com.app.ralaunch.core.logging.contract.Logger
 import org.junit.After
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
 import org.junit.Test
+import java.lang.management.ManagementFactory
 
 class AppLogTest {
 
     @After
     fun tearDown() {
         AppLog.reset()
+        LogTagLevels.shared.reset()
     }
 
     @Test
@@ -40,6 +44,80 @@ class AppLogTest {
         assertSame(throwable, call.throwable)
     }
 
+    @Test
+    fun lazyOverloadsSkipMessageConstructionWhenTagLevelIsOff() {
+        val logger = RecordingLogger()
+        AppLog.install(logger)
+        AppLog.tagLevels.setLevel("Quiet", LogLevel.WARN)
+        var built = 0
+
+        assertEquals(0, AppLog.d("Quiet") { built++; "debug" })
+        assertEquals(0, AppLog.i("Quiet", "eager info"))
+        assertEquals(7, AppLog.w("Quiet") { built++; "warn" })
+        assertEquals(7, AppLog.d("Loud") { built++; "other tag" })
+
+        assertEquals(2, built)
+        assertEquals(listOf("warn", "other tag"), logger.calls.map { it.message })
+    }
+
+    @Test
+    fun lazyThrowableOverloadForwardsThrowable() {
+        val logger = RecordingLogger()
+        val throwable = IllegalStateException("boom")
+        AppLog.install(logger)
+
+        AppLog.e("TestTag", throwable) { "failed ${1 + 1}" }
+
+        assertEquals(LogCall("e", "TestTag", "failed 2", throwable), logger.calls.single())
+    }
+
+    @Test
+    fun tagLevelChangesApplyImmediately() {
+        val logger = RecordingLogger()
+        AppLog.install(logger)
+
+        AppLog.tagLevels.defaultLevel = LogLevel.INFO
+        AppLog.d("Tag") { "hidden" }
+        AppLog.tagLevels.setLevel("Tag", LogLevel.DEBUG)
+        AppLog.d("Tag") { "shown" }
+        AppLog.tagLevels.setLevel("Tag", null)
+        AppLog.e("Tag") { "off" }
+        AppLog.tagLevels.clear("Tag")
+        AppLog.i("Tag") { "default" }
+
+        assertEquals(listOf("shown", "default"), logger.calls.map { it.message })
+    }
+
+    /**
+     * 关闭级别时 lambda 重载不构造消息，也不分配对象
+     */
+    @Test
+    fun disabledLazyCallsSkipMessageAndDoNotAllocate() {
+        val logger = RecordingLogger()
+        AppLog.install(logger)
+        AppLog.tagLevels.defaultLevel = LogLevel.INFO
+        val threadBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        assumeTrue(threadBean != null && threadBean.isThreadAllocatedMemorySupported)
+        val threadId = Thread.currentThread().id
+        val calls = 100_000
+        var evaluated = 0
+
+        fun lazy() {
+            for (i in 0 until calls) {
+                AppLog.d("Bench") { evaluated++; "handlePointerDown: pointerId=$i x=${i * 0.5f} y=${i * 0.25f}" }
+            }
+        }
+
+        lazy()
+        val allocatedBefore = threadBean!!.getThreadAllocatedBytes(threadId)
+        lazy()
+        val allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore
+
+        assertEquals(0, evaluated)
+        assertTrue(logger.calls.isEmpty())
+        assertTrue("lazy path allocated $allocated bytes for $calls calls", allocated < calls)
+    }
+
     private data class LogCall(
         val level: String,
         val tag: String,
@@ -3,6 +3,8 @@ package com.app.ralaunch.core.logging
 import com.app.ralaunch.core.di.contract.IGameRepositoryServiceV3
 import com.app.ralaunch.core.logging.contract.Logger
 import com.app.ralaunch.core.logging.service.LogExportHelper
+import com.app.ralaunch.core.logging.service.LogExportProgress
+import com.app.ralaunch.core.logging.service.LogSegmentMaintainer
 import com.app.ralaunch.core.model.GameItem
 import com.app.ralaunch.feature.patch.data.PatchManager
 import com.app.ralaunch.feature.patch.data.PatchManagerConfig
@@ -12,12 +14,18 @@ import org.junit.After
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertFalse
 import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
 import org.junit.Before
 import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
 import java.io.File
+import java.io.OutputStream
+import java.lang.management.ManagementFactory
 import java.nio.file.Files
 import java.nio.file.Path
 import java.nio.file.Paths
+import java.util.zip.ZipInputStream
 
 class LogExportHelperTest {
 
@@ -63,27 +71,101 @@ class LogExportHelperTest {
     }
 
     @Test
-    fun combinedExportContentIncludesDiagnosticsThenPrioritizedLogFiles() = withTempLogDir { dir ->
+    fun exportArchiveHasDiagnosticsThenPrioritizedLogFiles() = withTempLogDir { dir ->
         dir.createLogFile("ralaunch_2026-04-26.log", "middle\n", modified = 2_000L)
         dir.createLogFile("ralaunch_2026-04-25.log", "oldest", modified = 1_000L)
         dir.createLogFile("ralaunch_2026-04-27_logcat.log", "newest", modified = 3_000L)
 
-        val content = helperFor(dir).buildExportContent()
-
-        val repositoryIndex = content.indexOf("=============== Game Repository Information ===============")
-        val patchIndex = content.indexOf("=============== Patch Management Information ===============")
-        val logcatIndex = content.indexOf("=============== ralaunch_2026-04-27_logcat.log ===============")
-        val oldestIndex = content.indexOf("=============== ralaunch_2026-04-25.log ===============")
-        val middleIndex = content.indexOf("=============== ralaunch_2026-04-26.log ===============")
-
-        assertTrue(repositoryIndex >= 0)
-        assertTrue(patchIndex > repositoryIndex)
-        assertTrue(oldestIndex > patchIndex)
-        assertTrue(middleIndex > oldestIndex)
-        assertTrue(logcatIndex > middleIndex)
-        assertTrue(content.contains("newest"))
-        assertTrue(content.contains("oldest"))
-        assertTrue(content.contains("middle\n"))
+        val entries = helperFor(dir).exportEntries()
+
+        // device_info.txt 依赖 Android 运行环境，单元测试中可能为空而被省略
+        assertEquals(
+            listOf(
+                "game_repository.txt",
+                "patches.txt",
+                "logs/ralaunch_2026-04-25.log",
+                "logs/ralaunch_2026-04-26.log",
+                "logs/ralaunch_2026-04-27_logcat.log"
+            ),
+            entries.keys.filter { it != "device_info.txt" }
+        )
+        assertTrue(entries.getValue("game_repository.txt").contains("Game Repository Information"))
+        assertTrue(entries.getValue("patches.txt").contains("Patch Management Information"))
+        assertEquals("oldest", entries["logs/ralaunch_2026-04-25.log"])
+        assertEquals("middle\n", entries["logs/ralaunch_2026-04-26.log"])
+        assertEquals("newest", entries["logs/ralaunch_2026-04-27_logcat.log"])
+    }
+
+    @Test
+    fun exportArchiveIncludesSettingsAndCrashDumps() = withTempLogDir { dir ->
+        dir.createLogFile("ralaunch_2026-04-25.log", "app", modified = 1_000L)
+        val settings = dir.createLogFile("settings.json", "{\"theme\":1}", modified = 1_000L)
+        val crashDir = File(dir, "crash_logs").apply { mkdirs() }
+        val crash = crashDir.createLogFile("crash_20260425_120000.log", "stack", modified = 1_000L)
+
+        val helper = LogExportHelper(
+            logsDirPathProvider = { dir.absolutePath },
+            settingsFilePathProvider = { settings.absolutePath },
+            crashDumpFilesProvider = { listOf(crash) }
+        )
+        val entries = helper.exportEntries()
+
+        assertEquals("{\"theme\":1}", entries["settings.json"])
+        assertEquals("stack", entries["crash/crash_logs/crash_20260425_120000.log"])
+        assertTrue(entries.keys.indexOf("logs/ralaunch_2026-04-25.log") < entries.keys.indexOf("crash/crash_logs/crash_20260425_120000.log"))
+    }
+
+    @Test
+    fun exportProgressIsMonotonicAndEndsAtTotal() = withTempLogDir { dir ->
+        dir.createLogFile("ralaunch_2026-04-25.log", "x".repeat(300_000), modified = 1_000L)
+        dir.createLogFile("ralaunch_2026-04-26_logcat.log", "y".repeat(10_000), modified = 2_000L)
+        val updates = ArrayList<LogExportProgress>()
+
+        helperFor(dir).writeExportArchive(ByteArrayOutputStream()) { updates.add(it) }
+
+        assertTrue(updates.size > 5)
+        updates.zipWithNext().forEach { (previous, next) ->
+            assertTrue(next.bytesDone >= previous.bytesDone)
+            assertTrue(next.entryIndex >= previous.entryIndex)
+        }
+        val last = updates.last()
+        assertEquals(last.entryCount - 1, last.entryIndex)
+        assertEquals(last.bytesTotal, last.bytesDone)
+        assertEquals(1f, last.fraction, 0f)
+    }
+
+    @Test
+    fun exportingLargeLogUsesConstantMemory() = withTempLogDir { dir ->
+        val threadBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        assumeTrue(
+            "per-thread allocation counters are unavailable",
+            threadBean != null && threadBean.isThreadAllocatedMemorySupported
+        )
+        val line = "[12:00:00.000] [I] [Bench] ${"payload ".repeat(12)}\n".toByteArray(Charsets.UTF_8)
+        val large = File(dir, "ralaunch_2026-04-25.log")
+        large.outputStream().buffered().use { out ->
+            var written = 0L
+            while (written + line.size <= LARGE_LOG_BYTES) {
+                out.write(line)
+                written += line.size
+            }
+        }
+        large.setLastModified(1_000L)
+        val threadId = Thread.currentThread().id
+        val helper = helperFor(dir)
+        val sink = object : OutputStream() {
+            var count = 0L
+            override fun write(b: Int) { count++ }
+            override fun write(b: ByteArray, off: Int, len: Int) { count += len }
+        }
+
+        val allocatedBefore = threadBean!!.getThreadAllocatedBytes(threadId)
+        helper.writeExportArchive(sink)
+        val allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore
+
+        assertTrue(sink.count > 0L)
+        // 旧实现把全部日志拼成一个字符串，至少分配日志大小的两倍
+        assertTrue("allocated $allocated bytes", allocated < LARGE_LOG_BYTES / 8)
     }
 
     @Test
@@ -179,11 +261,40 @@ class LogExportHelperTest {
     }
 
     @Test
-    fun emptyLogDirectoryStillReturnsDiagnosticContent() = withTempLogDir { dir ->
-        val content = helperFor(dir).buildExportContent()
+    fun compressedSegmentsAreListedInOrderAndExportedDecompressed() = withTempLogDir { dir ->
+        val segment = dir.createLogFile("ralaunch_2026-04-25.1.log", "first segment\n", modified = 1_000L)
+        val compressed = LogSegmentMaintainer.compress(segment)
+        dir.createLogFile("ralaunch_2026-04-25.log", "active segment\n", modified = 2_000L)
+
+        val helper = helperFor(dir)
+        assertEquals(listOf("ralaunch_2026-04-25.1.log.gz", "ralaunch_2026-04-25.log"), helper.getAppLogFiles().map { it.name })
+        assertEquals(1_000L, compressed.lastModified())
+
+        val entries = helper.exportEntries()
+        assertEquals("first segment\n", entries["logs/ralaunch_2026-04-25.1.log"])
+        assertTrue(entries.keys.indexOf("logs/ralaunch_2026-04-25.1.log") < entries.keys.indexOf("logs/ralaunch_2026-04-25.log"))
+        assertEquals("first segment\n", LogSegmentReader.readText(compressed))
+    }
 
-        assertTrue(content.contains("Game Repository Information"))
-        assertTrue(content.contains("Patch Management Information"))
+    @Test
+    fun emptyLogDirectoryStillExportsDiagnostics() = withTempLogDir { dir ->
+        val entries = helperFor(dir).exportEntries()
+
+        assertTrue(entries.getValue("game_repository.txt").contains("Game Repository Information"))
+        assertTrue(entries.getValue("patches.txt").contains("Patch Management Information"))
+        assertTrue(entries.keys.none { it.startsWith("logs/") })
+    }
+
+    private fun LogExportHelper.exportEntries(): LinkedHashMap<String, String> {
+        val bytes = ByteArrayOutputStream().also { writeExportArchive(it) }.toByteArray()
+        val entries = LinkedHashMap<String, String>()
+        ZipInputStream(ByteArrayInputStream(bytes)).use { zip ->
+            while (true) {
+                val entry = zip.nextEntry ?: break
+                entries[entry.name] = zip.readBytes().toString(Charsets.UTF_8)
+            }
+        }
+        return entries
     }
 
     private fun withTempLogDir(block: (File) -> Unit) {
@@ -299,4 +410,8 @@ class LogExportHelperTest {
         override fun e(tag: String, message: String): Int = 0
         override fun e(tag: String, message: String, throwable: Throwable?): Int = 0
     }
+
+    private companion object {
+        const val LARGE_LOG_BYTES = 8L * 1024 * 1024
+    }
 }
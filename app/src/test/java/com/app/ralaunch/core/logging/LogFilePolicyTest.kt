@@ -35,6 +35,8 @@ class LogFilePolicyTest {
             val appLog = File(dir, "ralaunch_2026-04-25.log").apply { writeText("app") }
             val logcatLog = File(dir, "ralaunch_2026-04-25_logcat.log").apply { writeText("logcat") }
             val legacyLog = File(dir, "ralaunch_2026-04-25_1234.log").apply { writeText("legacy") }
+            val archive = File(dir, LogFilePolicy.exportArchiveFileName()).apply { writeText("zip") }
+            val foreignZip = File(dir, "shared.zip").apply { writeText("zip") }
 
             assertTrue(LogFilePolicy.isAppLogFile(appLog))
             assertFalse(LogFilePolicy.isLogcatLogFile(appLog))
@@ -47,6 +49,11 @@ class LogFilePolicyTest {
             assertFalse(LogFilePolicy.isAppLogFile(legacyLog))
             assertFalse(LogFilePolicy.isLogcatLogFile(legacyLog))
             assertFalse(LogFilePolicy.isManagedLogFile(legacyLog))
+
+            assertTrue(LogFilePolicy.isExportArchive(archive))
+            assertFalse(LogFilePolicy.isManagedLogFile(archive))
+            assertFalse(LogFilePolicy.isExportArchive(foreignZip))
+            assertFalse(LogFilePolicy.isExportArchive(appLog))
         } finally {
             dir.deleteRecursively()
         }
@@ -110,4 +117,74 @@ class LogFilePolicyTest {
             dir.deleteRecursively()
         }
     }
+
+    @Test
+    fun segmentsAndCompressedSegmentsAreManagedAndNumberedAfterExistingOnes() {
+        val dir = Files.createTempDirectory("ralaunch-log-policy-segments").toFile()
+        try {
+            val active = File(dir, "ralaunch_2026-04-25.log").apply { writeText("active") }
+            val segment = File(dir, "ralaunch_2026-04-25.1.log").apply { writeText("one") }
+            val compressed = File(dir, "ralaunch_2026-04-25.2.log.gz").apply { writeText("two") }
+            val logcatSegment = File(dir, "ralaunch_2026-04-25_logcat.3.log.gz").apply { writeText("logcat") }
+
+            assertTrue(LogFilePolicy.isAppLogFile(segment))
+            assertTrue(LogFilePolicy.isAppLogFile(compressed))
+            assertFalse(LogFilePolicy.isLogcatLogFile(compressed))
+            assertTrue(LogFilePolicy.isLogcatLogFile(logcatSegment))
+            assertFalse(LogFilePolicy.isAppLogFile(logcatSegment))
+
+            assertEquals("ralaunch_2026-04-25.3.log", LogFilePolicy.nextSegmentFile(active).name)
+            assertEquals(
+                "ralaunch_2026-04-25_logcat.4.log",
+                LogFilePolicy.nextSegmentFile(File(dir, "ralaunch_2026-04-25_logcat.log")).name
+            )
+            assertEquals(
+                listOf(segment),
+                LogFilePolicy.closedFilesToCompress(dir, activeFileNames = setOf(active.name))
+            )
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun budgetKeepsNewestSegmentsAndAlwaysKeepsActiveFiles() {
+        val dir = Files.createTempDirectory("ralaunch-log-policy-budget").toFile()
+        try {
+            val megabyte = 1024 * 1024
+            // 模拟一个长会话：100 个 1 MB 的分段，外加一个很旧但仍在写入的活动文件
+            val segments = (1..100).map { index ->
+                File(dir, "ralaunch_2026-04-25.$index.log.gz").apply {
+                    writeBytes(ByteArray(megabyte))
+                    setLastModified(1_000_000L + index * 1000L)
+                }
+            }
+            val active = File(dir, "ralaunch_2026-04-25_logcat.log").apply {
+                writeBytes(ByteArray(4 * megabyte))
+                setLastModified(0L)
+            }
+            File(dir, "unrelated.log").apply { writeBytes(ByteArray(megabyte)) }
+
+            val overBudget = LogFilePolicy.filesOverBudget(
+                dir,
+                activeFileNames = setOf(active.name),
+                budgetBytes = 20L * megabyte,
+                maxFiles = 48
+            )
+
+            // 活动文件占 4 MB，剩余 16 MB 留给最新的 16 个分段
+            assertEquals(segments.take(84), overBudget)
+            assertFalse(active in overBudget)
+
+            val byCount = LogFilePolicy.filesOverBudget(
+                dir,
+                activeFileNames = setOf(active.name),
+                budgetBytes = Long.MAX_VALUE,
+                maxFiles = 11
+            )
+            assertEquals(segments.take(90), byCount)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
 }
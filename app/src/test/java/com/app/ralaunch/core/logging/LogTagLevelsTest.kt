@@ -0,0 +1,55 @@
+package com.app.ralaunch.core.logging
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class LogTagLevelsTest {
+
+    @Test
+    fun overridesTakePrecedenceOverDefaultLevel() {
+        val levels = LogTagLevels(defaultLevel = LogLevel.INFO)
+        levels.setLevel("Verbose", LogLevel.VERBOSE)
+        levels.setLevel("Muted", null)
+
+        assertFalse(levels.isEnabled("Other", LogLevel.DEBUG))
+        assertTrue(levels.isEnabled("Other", LogLevel.INFO))
+        assertTrue(levels.isEnabled("Verbose", LogLevel.VERBOSE))
+        assertFalse(levels.isEnabled("Muted", LogLevel.ERROR))
+        assertNull(levels.levelOf("Muted"))
+        assertEquals(LogLevel.INFO, levels.levelOf("Other"))
+
+        levels.clear("Muted")
+        assertTrue(levels.isEnabled("Muted", LogLevel.ERROR))
+    }
+
+    @Test
+    fun specStringSetsDefaultAndTagLevels() {
+        val levels = LogTagLevels()
+        levels.apply("*=W, SDLInputBridge=d, ControlLayout=off, Broken, Bad=X")
+
+        assertEquals(LogLevel.WARN, levels.defaultLevel)
+        assertEquals(LogLevel.DEBUG, levels.levelOf("SDLInputBridge"))
+        assertNull(levels.levelOf("ControlLayout"))
+        assertEquals(LogLevel.WARN, levels.levelOf("Bad"))
+
+        levels.reset()
+        assertEquals(LogLevel.VERBOSE, levels.defaultLevel)
+        assertTrue(levels.isEnabled("ControlLayout", LogLevel.VERBOSE))
+    }
+
+    @Test
+    fun replaceDropsPreviousOverrides() {
+        val levels = LogTagLevels()
+        levels.apply("SDLInputBridge=d, ControlLayout=off")
+
+        levels.replace(LogLevel.INFO, "ControlFrameTime=V")
+
+        assertEquals(LogLevel.INFO, levels.defaultLevel)
+        assertEquals(LogLevel.INFO, levels.levelOf("ControlLayout"))
+        assertFalse(levels.isEnabled("SDLInputBridge", LogLevel.DEBUG))
+        assertTrue(levels.isEnabled("ControlFrameTime", LogLevel.VERBOSE))
+    }
+}
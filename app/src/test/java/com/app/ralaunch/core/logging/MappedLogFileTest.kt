@@ -0,0 +1,220 @@
+package com.app.ralaunch.core.logging
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.File
+import java.nio.file.Files
+import java.util.Random
+
+class MappedLogFileTest {
+
+    @Test
+    fun indexFindsEveryLineAcrossRegionsAndChunks() {
+        val dir = Files.createTempDirectory("ralaunch-mapped-log").toFile()
+        try {
+            val lines = generateLines(5_000, seed = 1)
+            val file = dir.write("app.log", lines.joinToString("\n", postfix = "\n"))
+
+            // 4 KB 映射区，保证有行跨越映射区边界
+            val log = MappedLogFile.open(file, stride = 16, regionBytes = 4096)
+            assertEquals(0, log.indexedLineCount)
+            log.buildIndex()
+
+            assertTrue(log.isIndexComplete)
+            assertEquals(lines.size, log.indexedLineCount)
+            val random = Random(7)
+            repeat(200) {
+                val from = random.nextInt(lines.size)
+                val page = log.readLines(from, 25)
+                assertEquals(lines.subList(from, minOf(from + 25, lines.size)), page.map { it.text })
+                assertEquals(from, page.first().number)
+            }
+            assertEquals(expectedOffset(lines, 4_321), log.lineOffset(4_321))
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun indexHandlesEmptyLinesCrLfAndMissingTrailingNewline() {
+        val dir = Files.createTempDirectory("ralaunch-mapped-log").toFile()
+        try {
+            val file = dir.write("edge.log", "first\r\n\r\nthird\n\nlast")
+            val log = MappedLogFile.open(file, stride = 2)
+            log.buildIndex()
+
+            assertEquals(5, log.indexedLineCount)
+            assertEquals(listOf("first", "", "third", "", "last"), log.readLines(0, 10).map { it.text })
+            assertEquals(listOf("", "last"), log.tail(2).map { it.text })
+            assertEquals(listOf(3, 4), log.tail(2).map { it.number })
+
+            val single = MappedLogFile.open(dir.write("newline.log", "\n"))
+            single.buildIndex()
+            assertEquals(1, single.indexedLineCount)
+            assertEquals(listOf(""), single.tail(5).map { it.text })
+
+            val empty = MappedLogFile.open(dir.write("empty.log", ""))
+            empty.buildIndex()
+            assertEquals(0, empty.indexedLineCount)
+            assertTrue(empty.tail(5).isEmpty())
+            assertTrue(empty.readLines(0, 5).isEmpty())
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun cancelledIndexResumesWhereItStopped() {
+        val dir = Files.createTempDirectory("ralaunch-mapped-log").toFile()
+        try {
+            val lines = generateLines(40_000, seed = 2)
+            val file = dir.write("big.log", lines.joinToString("\n", postfix = "\n"))
+            val log = MappedLogFile.open(file, stride = 64)
+
+            var chunks = 0
+            log.buildIndex(isCancelled = { chunks >= 2 }) { _, _ -> chunks++ }
+            assertFalse(log.isIndexComplete)
+            val partial = log.indexedLineCount
+            assertTrue(partial in 1 until lines.size)
+            assertEquals(lines.subList(partial - 3, partial), log.readLines(partial - 3, 3).map { it.text })
+
+            log.buildIndex()
+            assertTrue(log.isIndexComplete)
+            assertEquals(lines.size, log.indexedLineCount)
+            assertEquals(lines.takeLast(2), log.readLines(lines.size - 2, 5).map { it.text })
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun tailReadsLatestLinesWithoutIndex() {
+        val dir = Files.createTempDirectory("ralaunch-mapped-log").toFile()
+        try {
+            val lines = generateLines(100_000, seed = 3)
+            val file = dir.write("large.log", lines.joinToString("\n", postfix = "\n"))
+            val log = MappedLogFile.open(file)
+
+            val tail = log.tail(500)
+
+            assertEquals(lines.takeLast(500), tail.map { it.text })
+            assertTrue(tail.all { it.number == -1 })
+            assertEquals(0, log.indexedLineCount)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun searchFiltersByTextLevelAndTagIncrementally() {
+        val dir = Files.createTempDirectory("ralaunch-mapped-log").toFile()
+        try {
+            val file = dir.write(
+                "search.log",
+                """
+                [04-25 12:00:00.000] [I] [GameLauncher] Starting Celeste
+                [04-25 12:00:00.100] [W] [SDLInputBridge] Controller missing
+                [04-25 12:00:00.200] [E] [GameLauncher] Launch failed: FileNotFound
+                java.io.FileNotFoundException: Celeste.exe
+                	at Launcher.run(Launcher.kt:10)
+                [04-25 12:00:00.300] [D] [Renderer] frame
+                [04-25 12:00:00.400] [E] [Renderer] GL error 0x502
+                """.trimIndent()
+            )
+            val log = MappedLogFile.open(file)
+
+            fun collect(query: LogSearchQuery, batchSize: Int = 256): List<Int> {
+                val found = ArrayList<Int>()
+                var batches = 0
+                var done = false
+                log.search(query, batchSize = batchSize) { batch ->
+                    assertFalse("no batches after done", done)
+                    batches++
+                    found.addAll(batch.matches.map { it.number })
+                    done = batch.done
+                }
+                assertTrue(done)
+                if (batchSize == 1) assertTrue(batches >= found.size)
+                return found
+            }
+
+            assertEquals(listOf(0, 3), collect(LogSearchQuery(text = "celeste")))
+            assertEquals(listOf(3), collect(LogSearchQuery(text = "Celeste.exe", ignoreCase = false)))
+            assertTrue(collect(LogSearchQuery(text = "celeste.exe", ignoreCase = false)).isEmpty())
+            // 续行沿用上一条 E 级别日志的级别与标签
+            assertEquals(listOf(2, 3, 4, 6), collect(LogSearchQuery(minLevel = LogLevel.ERROR), batchSize = 1))
+            assertEquals(listOf(1, 2, 3, 4, 6), collect(LogSearchQuery(minLevel = LogLevel.WARN)))
+            assertEquals(listOf(0, 2, 3, 4), collect(LogSearchQuery.parse("tag:gamelauncher")))
+            assertEquals(listOf(6), collect(LogSearchQuery.parse("tag:Render GL", minLevel = LogLevel.WARN)))
+            assertTrue(collect(LogSearchQuery(text = "nothing here")).isEmpty())
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun searchStopsAtMaxResultsAndOnCancel() {
+        val dir = Files.createTempDirectory("ralaunch-mapped-log").toFile()
+        try {
+            val lines = List(10_000) { "[04-25 12:00:00.000] [I] [Tag] match $it" }
+            val log = MappedLogFile.open(dir.write("many.log", lines.joinToString("\n")))
+
+            val batches = ArrayList<LogSearchBatch>()
+            log.search(LogSearchQuery(text = "match"), batchSize = 100, maxResults = 250) { batches.add(it) }
+            assertEquals(250, batches.sumOf { it.matches.size })
+            assertTrue(batches.last().done)
+            assertTrue(batches.last().truncated)
+
+            var delivered = 0
+            var calls = 0
+            log.search(LogSearchQuery(text = "match"), isCancelled = { ++calls > 2 }, batchSize = 100) {
+                delivered += it.matches.size
+                assertFalse(it.done)
+            }
+            assertTrue(delivered < lines.size)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun pagerServesLinesFromBoundedPageCache() {
+        val dir = Files.createTempDirectory("ralaunch-mapped-log").toFile()
+        try {
+            val lines = generateLines(3_000, seed = 4)
+            val log = MappedLogFile.open(dir.write("paged.log", lines.joinToString("\n")))
+            log.buildIndex()
+            val pager = LogLinePager(log, pageLines = 100, maxPages = 2)
+
+            assertEquals(lines.size, pager.lineCount)
+            for (number in listOf(0, 99, 100, 2_999, 1_234, 0)) {
+                assertEquals(lines[number], pager.line(number)?.text)
+            }
+            assertEquals(null, pager.line(3_000))
+            assertEquals(null, pager.line(-1))
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    private fun generateLines(count: Int, seed: Long): List<String> {
+        val random = Random(seed)
+        val levels = "VDIWE"
+        return List(count) { i ->
+            when (random.nextInt(20)) {
+                0 -> ""
+                1 -> "\tat Frame$i.method(Source.kt:${random.nextInt(500)})"
+                2 -> "[04-25 12:00:00.000] [I] [Wide] 日志 ${"x".repeat(random.nextInt(3_000))}"
+                else -> "[04-25 12:00:00.000] [${levels[random.nextInt(5)]}] [Tag${random.nextInt(8)}] line $i"
+            }
+        }
+    }
+
+    private fun expectedOffset(lines: List<String>, line: Int): Long =
+        lines.subList(0, line).sumOf { it.toByteArray(Charsets.UTF_8).size + 1L }
+
+    private fun File.write(name: String, content: String): File =
+        File(this, name).apply { writeText(content, Charsets.UTF_8) }
+}
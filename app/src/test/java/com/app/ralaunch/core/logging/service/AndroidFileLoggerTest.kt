@@ -1,13 +1,20 @@
 package com.app.ralaunch.core.logging.service
 
+import com.app.ralaunch.core.logging.LogFilePolicy
 import com.app.ralaunch.core.logging.LogLevel
+import com.app.ralaunch.core.logging.LogSegmentReader
 import org.junit.Assert.assertEquals
 import org.junit.Assert.assertFalse
 import org.junit.Assert.assertNull
 import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
 import org.junit.Test
+import java.io.PrintWriter
+import java.lang.management.ManagementFactory
 import java.nio.file.Files
+import java.util.Collections
 import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
 
 class AndroidFileLoggerTest {
 
@@ -326,6 +333,188 @@ class AndroidFileLoggerTest {
         }
     }
 
+    @Test
+    fun droppedRecordsAreCountedExplicitly() {
+        val dir = Files.createTempDirectory("ralaunch-dropped-count-file-logger").toFile()
+        val startGate = CountDownLatch(1)
+        try {
+            val logger = AndroidFileLogger(
+                fileNameProvider = { "dropped.log" },
+                emitToAndroidLog = false,
+                queueCapacity = 4,
+                writerStartGate = startGate
+            )
+
+            logger.configure(dir, enabled = true)
+            repeat(10) { index -> logger.i("TestTag", "line $index") }
+            assertEquals(6L, logger.droppedRecordCount())
+
+            val logFile = logger.currentLogFile()
+            requireNotNull(logFile)
+            startGate.countDown()
+            logger.close()
+
+            val content = logFile.readText()
+            assertEquals(4, content.lines().count { it.contains("[I] [TestTag] line") })
+            assertTrue(content.contains("Dropped 6 log lines because the async log queue was full"))
+        } finally {
+            startGate.countDown()
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun oversizedFileIsRotatedIntoCompressedSegmentsWithinBudget() {
+        val dir = Files.createTempDirectory("ralaunch-rotating-file-logger").toFile()
+        try {
+            val maintainer = LogSegmentMaintainer(
+                budgetBytes = 64L * 1024,
+                maxFiles = 100,
+                executor = Executor { it.run() }
+            )
+            val logger = AndroidFileLogger(
+                fileNameProvider = { "ralaunch_2026-04-25.log" },
+                emitToAndroidLog = false,
+                segmentMaxBytes = 2048,
+                segmentMaintainer = maintainer
+            )
+
+            logger.configure(dir, enabled = true)
+            repeat(200) { index -> logger.i("TestTag", "rotating line ${index.toString().padStart(3, '0')} " + "x".repeat(40)) }
+            assertTrue(logger.drainForTest())
+            logger.close()
+            maintainer.maintain(dir)
+
+            val files = dir.listFiles()!!.filter { LogFilePolicy.isAppLogFile(it) }
+                .sortedBy { LogFilePolicy.segmentIndex(it) }
+            assertTrue(files.size > 5)
+            // 活动文件关闭后也被压缩
+            assertTrue(files.all { LogFilePolicy.isCompressed(it) })
+
+            val lines = files.flatMap { LogSegmentReader.openReader(it).readLines() }
+            assertEquals(200, lines.size)
+            assertTrue(lines.first().endsWith("rotating line 000 " + "x".repeat(40)))
+            assertTrue(lines.last().contains("rotating line 199"))
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    /**
+     * 调用方线程只写入记录：既不分配对象，也不格式化消息或异常，这些都在写线程完成
+     */
+    @Test
+    fun callerThreadNeitherAllocatesNorFormats() {
+        val dir = Files.createTempDirectory("ralaunch-caller-cost-file-logger").toFile()
+        val startGate = CountDownLatch(1)
+        try {
+            val threadBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+            assumeTrue(threadBean != null && threadBean.isThreadAllocatedMemorySupported)
+            val calls = 10_000
+            val logger = AndroidFileLogger(
+                fileNameProvider = { "caller.log" },
+                emitToAndroidLog = false,
+                queueCapacity = 1 shl 14,
+                writerStartGate = startGate
+            )
+            logger.configure(dir, enabled = true)
+            val threadId = Thread.currentThread().id
+
+            // 首次调用登记 tag，不计入
+            logger.i("Bench", "warmup")
+            threadBean!!.getThreadAllocatedBytes(threadId)
+            val allocatedBefore = threadBean.getThreadAllocatedBytes(threadId)
+            for (i in 0 until calls) {
+                logger.i("Bench", "benchmark line")
+            }
+            val allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore
+            assertTrue("caller allocated $allocated bytes for $calls calls", allocated < calls)
+
+            val probe = FormattingProbe()
+            logger.e("Bench", "with throwable", probe)
+            assertTrue(probe.formattedOn.isEmpty())
+            assertEquals(0L, logger.droppedRecordCount())
+
+            startGate.countDown()
+            assertTrue(logger.drainForTest())
+            val callerThread = Thread.currentThread().name
+            assertTrue(probe.formattedOn.isNotEmpty())
+            assertTrue(probe.formattedOn.none { it == callerThread })
+            assertTrue(probe.formattedOn.all { it.startsWith("AndroidFileLogger-") })
+
+            val lines = logger.currentLogFile()!!.readLines()
+            assertEquals(calls, lines.count { it.endsWith("[I] [Bench] benchmark line") })
+            assertTrue(lines.any { it.endsWith("[E] [Bench] with throwable") })
+            logger.close()
+        } finally {
+            startGate.countDown()
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun fullRingCountsDroppedAndReplacedRecords() {
+        val dir = Files.createTempDirectory("ralaunch-full-ring-file-logger").toFile()
+        val startGate = CountDownLatch(1)
+        try {
+            val logger = AndroidFileLogger(
+                fileNameProvider = { "full-ring.log" },
+                emitToAndroidLog = false,
+                queueCapacity = 4,
+                writerStartGate = startGate
+            )
+            logger.configure(dir, enabled = true)
+
+            repeat(4) { index -> logger.d("TestTag", "low $index") }
+            assertEquals(0L, logger.droppedRecordCount())
+
+            // 已满：低优先级记录直接丢弃
+            repeat(2) { index -> logger.d("TestTag", "low ${index + 4}") }
+            assertEquals(2L, logger.droppedRecordCount())
+            assertEquals(0L, logger.replacedRecordCount())
+
+            // 高优先级记录依次丢弃队首的 low 0..3
+            repeat(4) { index -> logger.e("TestTag", "high $index") }
+            assertEquals(6L, logger.droppedRecordCount())
+            assertEquals(4L, logger.replacedRecordCount())
+
+            // 缓冲里只剩高优先级记录，新记录无论优先级都被丢弃
+            logger.e("TestTag", "high 4")
+            logger.d("TestTag", "low 6")
+            assertEquals(8L, logger.droppedRecordCount())
+            assertEquals(4L, logger.replacedRecordCount())
+
+            val logFile = logger.currentLogFile()
+            requireNotNull(logFile)
+            startGate.countDown()
+            logger.close()
+
+            val lines = logFile.readLines()
+            assertEquals(
+                listOf("high 0", "high 1", "high 2", "high 3"),
+                lines.filter { it.contains("[TestTag]") }.map { it.substringAfter("[TestTag] ") }
+            )
+            assertTrue(lines.single { it.contains("Dropped") }.endsWith(
+                "Dropped 8 log lines because the async log queue was full"
+            ))
+        } finally {
+            startGate.countDown()
+            dir.deleteRecursively()
+        }
+    }
+
+    /**
+     * 记录异常在哪个线程被格式化（stackTraceToString 经由 printStackTrace）
+     */
+    private class FormattingProbe : RuntimeException("probe") {
+        val formattedOn: MutableList<String> = Collections.synchronizedList(ArrayList())
+
+        override fun printStackTrace(s: PrintWriter) {
+            formattedOn.add(Thread.currentThread().name)
+            super.printStackTrace(s)
+        }
+    }
+
     private fun eventually(
         timeoutMillis: Long = 5_000L,
         condition: () -> Boolean
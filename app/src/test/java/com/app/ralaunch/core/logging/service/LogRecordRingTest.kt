@@ -0,0 +1,114 @@
+package com.app.ralaunch.core.logging.service
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.concurrent.thread
+
+class LogRecordRingTest {
+
+    @Test
+    fun capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(1, LogRecordRing(1).capacity)
+        assertEquals(8, LogRecordRing(5).capacity)
+        assertEquals(2048, LogRecordRing(2048).capacity)
+    }
+
+    @Test
+    fun fullRingRejectsLowPriorityAndHighPriorityDropsOldestLowRecord() {
+        val ring = LogRecordRing(4)
+        assertEquals(LogRecordRing.OFFERED, offer(ring, "low-1", high = false))
+        assertEquals(LogRecordRing.OFFERED, offer(ring, "low-2", high = false))
+        assertEquals(LogRecordRing.OFFERED, offer(ring, "high-1", high = true))
+        assertEquals(LogRecordRing.OFFERED, offer(ring, "low-3", high = false))
+        assertEquals(LogRecordRing.FULL, offer(ring, "low-4", high = false))
+
+        // 丢弃的是队首的低优先级记录，新记录排在队尾
+        assertEquals(LogRecordRing.REPLACED, offer(ring, "high-2", high = true))
+        assertEquals(LogRecordRing.REPLACED, offer(ring, "high-3", high = true))
+        // 队首是高优先级记录时只能丢弃新记录
+        assertEquals(LogRecordRing.FULL, offer(ring, "high-4", high = true))
+
+        val record = LogRecordRing.Record()
+        val polled = ArrayList<String?>()
+        while (ring.poll(record)) polled.add(record.message)
+        assertEquals(listOf("high-1", "low-3", "high-2", "high-3"), polled)
+        assertTrue(ring.isEmpty())
+        assertFalse(ring.poll(record))
+    }
+
+    @Test
+    fun droppingFromFullRingKeepsSlotsReusable() {
+        val ring = LogRecordRing(1)
+        assertEquals(LogRecordRing.OFFERED, offer(ring, "low", high = false))
+        assertEquals(LogRecordRing.REPLACED, offer(ring, "high", high = true))
+        assertEquals(1, ring.size())
+
+        val record = LogRecordRing.Record()
+        assertTrue(ring.poll(record))
+        assertEquals("high", record.message)
+        assertFalse(ring.poll(record))
+        assertEquals(LogRecordRing.OFFERED, offer(ring, "next", high = false))
+        assertTrue(ring.poll(record))
+        assertEquals("next", record.message)
+    }
+
+    @Test
+    fun concurrentProducersNeitherLoseNorDuplicateRecords() {
+        val ring = LogRecordRing(256)
+        val producers = 4
+        val perProducer = 50_000
+        val messages = Array(producers) { p -> Array(perProducer) { i -> "$p:$i" } }
+        val rejected = AtomicLong(0L)
+        val start = CountDownLatch(1)
+
+        val threads = (0 until producers).map { p ->
+            thread(name = "producer-$p") {
+                start.await()
+                for (i in 0 until perProducer) {
+                    if (offer(ring, messages[p][i], high = false, level = p, tagId = i) != LogRecordRing.OFFERED) {
+                        rejected.incrementAndGet()
+                    }
+                }
+            }
+        }
+
+        val lastSeen = IntArray(producers) { -1 }
+        var received = 0L
+        val record = LogRecordRing.Record()
+        start.countDown()
+        while (threads.any { it.isAlive } || !ring.isEmpty()) {
+            while (ring.poll(record)) {
+                val producer = record.level
+                // 同一生产者的记录保持顺序，且消息与字段来自同一次写入
+                assertTrue(record.tagId > lastSeen[producer])
+                assertEquals("$producer:${record.tagId}", record.message)
+                lastSeen[producer] = record.tagId
+                received++
+            }
+        }
+        threads.forEach { it.join() }
+        while (ring.poll(record)) received++
+
+        assertEquals(producers.toLong() * perProducer, received + rejected.get())
+    }
+
+    private fun offer(
+        ring: LogRecordRing,
+        message: String,
+        high: Boolean,
+        level: Int = 0,
+        tagId: Int = 0
+    ): Int = ring.offer(
+        timestampMillis = 0L,
+        level = level,
+        tagId = tagId,
+        message = message,
+        throwable = null,
+        high = high,
+        replaceLowPriority = high
+    )
+}
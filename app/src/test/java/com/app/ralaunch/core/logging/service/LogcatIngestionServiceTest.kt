@@ -0,0 +1,269 @@
+package com.app.ralaunch.core.logging.service
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
+class LogcatIngestionServiceTest {
+
+    @Test
+    fun decoderReadsAllHeaderVersionsAndSkipsEventsAndMalformedPayloads() {
+        val bytes = ByteArrayOutputStream().apply {
+            write(encode(pid = 1, seconds = 10, priority = LogcatEntry.INFO, tag = "Old", message = "v1", headerSize = 20))
+            write(encode(pid = 2, seconds = 11, priority = LogcatEntry.INFO, tag = "Evt", message = "x", buffer = 2))
+            write(encode(pid = 3, seconds = 12, priority = 42, tag = "Bad", message = "priority"))
+            write(encode(pid = 4, seconds = 13, nanos = 5_000_000, priority = LogcatEntry.ERROR, tag = "Crash", message = "崩溃\n", buffer = 4))
+            write(encode(pid = 5, seconds = 14, priority = LogcatEntry.WARN, tag = "Cut", message = "truncated").copyOf(30))
+        }.toByteArray()
+        val decoder = LogcatBinaryDecoder(ByteArrayInputStream(bytes))
+
+        val first = decoder.next()!!
+        assertEquals(1, first.pid)
+        assertEquals("Old", first.tag)
+        assertEquals("v1", first.message)
+        assertEquals(LogcatEntry.BUFFER_UNKNOWN, first.buffer)
+
+        val crash = decoder.next()!!
+        assertEquals(4, crash.pid)
+        assertEquals(LogcatEntry.BUFFER_CRASH, crash.buffer)
+        assertEquals('E', crash.levelChar)
+        assertEquals("崩溃", crash.message)
+        assertEquals(13_005L, crash.timeMillis)
+
+        // 结尾不完整的记录视为流结束
+        assertNull(decoder.next())
+    }
+
+    @Test(expected = IOException::class)
+    fun decoderRejectsDesynchronizedHeader() {
+        val bytes = encode(pid = 1, seconds = 1, priority = LogcatEntry.INFO, tag = "T", message = "m", headerSize = 12)
+        LogcatBinaryDecoder(ByteArrayInputStream(bytes)).next()
+    }
+
+    @Test
+    fun decoderReusesTagInstances() {
+        val bytes = ByteArrayOutputStream().apply {
+            write(encode(pid = 1, seconds = 1, priority = LogcatEntry.INFO, tag = "SDL", message = "a"))
+            write(encode(pid = 1, seconds = 2, priority = LogcatEntry.INFO, tag = "SDL", message = "b"))
+        }.toByteArray()
+        val decoder = LogcatBinaryDecoder(ByteArrayInputStream(bytes))
+
+        assertTrue(decoder.next()!!.tag === decoder.next()!!.tag)
+    }
+
+    @Test
+    fun entriesAreFannedOutWithPerSubscriberFilters() {
+        val source = FeedStream()
+        var opens = 0
+        val service = LogcatIngestionService(openStream = { opens++; source })
+        val ownProcess = Collector(expected = 2)
+        val sdlWarnings = Collector(expected = 1)
+
+        val first = service.subscribe("own", LogcatFilter(pid = 1), subscriber = ownProcess)
+        val second = service.subscribe(
+            "sdl",
+            LogcatFilter(minPriority = LogcatEntry.WARN, tagKeywords = listOf("sdl")),
+            subscriber = sdlWarnings
+        )
+        source.feed(encode(pid = 1, seconds = 1, priority = LogcatEntry.INFO, tag = "SDL", message = "info"))
+        source.feed(encode(pid = 2, seconds = 2, priority = LogcatEntry.WARN, tag = "libSDL2", message = "warn"))
+        source.feed(encode(pid = 1, seconds = 3, priority = LogcatEntry.ERROR, tag = "GameLauncher", message = "error"))
+
+        ownProcess.await()
+        sdlWarnings.await()
+        assertEquals(listOf("info", "error"), ownProcess.messages)
+        assertEquals(listOf("warn"), sdlWarnings.messages)
+        assertEquals(1, opens)
+
+        first.close()
+        second.close()
+    }
+
+    @Test
+    fun slowSubscriberDropsOnlyItsOwnBacklog() {
+        val source = FeedStream()
+        val service = LogcatIngestionService(openStream = { source })
+        val entered = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val slowMessages = Collections.synchronizedList(ArrayList<String>())
+        val slowDone = CountDownLatch(3)
+        var droppedReported = 0L
+        val fast = Collector(expected = 10)
+
+        val slow = service.subscribe(
+            "slow",
+            LogcatFilter(),
+            capacity = 2,
+            overflow = LogcatOverflow.DROP_OLDEST,
+            subscriber = object : LogcatSubscriber {
+                override fun onEntry(entry: LogcatEntry) {
+                    entered.countDown()
+                    release.await()
+                    slowMessages.add(entry.message)
+                    slowDone.countDown()
+                }
+
+                override fun onDropped(count: Long) {
+                    droppedReported += count
+                }
+            }
+        )
+        val other = service.subscribe("fast", LogcatFilter(), subscriber = fast)
+
+        source.feed(encode(pid = 1, seconds = 0, priority = LogcatEntry.INFO, tag = "T", message = "0"))
+        assertTrue(entered.await(5, TimeUnit.SECONDS))
+        for (i in 1 until 10) {
+            source.feed(encode(pid = 1, seconds = i.toLong(), priority = LogcatEntry.INFO, tag = "T", message = "$i"))
+        }
+        fast.await()
+        release.countDown()
+        assertTrue(slowDone.await(5, TimeUnit.SECONDS))
+
+        assertEquals((0 until 10).map { "$it" }, fast.messages)
+        assertEquals(listOf("0", "8", "9"), slowMessages.toList())
+        assertEquals(7L, slow.droppedCount)
+        assertEquals(7L, droppedReported)
+
+        slow.close()
+        other.close()
+    }
+
+    @Test
+    fun lateSubscribersReplayRecentEntriesAndLastCloseStopsLogcat() {
+        val source = FeedStream()
+        val service = LogcatIngestionService(openStream = { source })
+        val early = Collector(expected = 3)
+        val first = service.subscribe("early", LogcatFilter(), subscriber = early)
+        for (i in 1..3) {
+            source.feed(encode(pid = 1, seconds = i.toLong(), priority = LogcatEntry.INFO, tag = "T", message = "$i"))
+        }
+        early.await()
+
+        val late = Collector(expected = 2)
+        val second = service.subscribe("late", LogcatFilter(), replay = 2, subscriber = late)
+        late.await()
+        assertEquals(listOf("2", "3"), late.messages)
+
+        first.close()
+        assertTrue(service.isReading)
+        second.close()
+        assertFalse(service.isReading)
+        assertTrue(source.closed)
+    }
+
+    @Test
+    fun restartedLogcatSkipsBacklogAlreadyDelivered() {
+        val backlog = ByteArrayOutputStream().apply {
+            write(encode(pid = 1, seconds = 1, priority = LogcatEntry.INFO, tag = "T", message = "a"))
+            write(encode(pid = 1, seconds = 2, priority = LogcatEntry.INFO, tag = "T", message = "b"))
+        }.toByteArray()
+        val streams = ArrayDeque<InputStream>().apply {
+            add(ByteArrayInputStream(backlog))
+            add(ByteArrayInputStream(backlog + encode(pid = 1, seconds = 3, priority = LogcatEntry.INFO, tag = "T", message = "c")))
+            add(FeedStream())
+        }
+        val service = LogcatIngestionService(openStream = { synchronized(streams) { streams.removeFirst() } }, restartDelayMillis = 1L)
+        val collector = Collector(expected = 3)
+
+        val subscription = service.subscribe("restart", LogcatFilter(), subscriber = collector)
+        collector.await()
+
+        assertEquals(listOf("a", "b", "c"), collector.messages)
+        subscription.close()
+    }
+
+    private class Collector(expected: Int) : LogcatSubscriber {
+        private val latch = CountDownLatch(expected)
+        private val received = Collections.synchronizedList(ArrayList<String>())
+
+        val messages: List<String> get() = synchronized(received) { received.toList() }
+
+        override fun onEntry(entry: LogcatEntry) {
+            received.add(entry.message)
+            latch.countDown()
+        }
+
+        fun await() {
+            assertTrue("timed out waiting for logcat entries", latch.await(5, TimeUnit.SECONDS))
+        }
+    }
+
+    /** 模拟持续输出的 logcat 进程，[close] 后读取返回 EOF */
+    private class FeedStream : InputStream() {
+        private val chunks = LinkedBlockingQueue<ByteArray>()
+        private var current = ByteArray(0)
+        private var position = 0
+
+        @Volatile
+        var closed = false
+            private set
+
+        fun feed(bytes: ByteArray) {
+            chunks.put(bytes)
+        }
+
+        override fun read(): Int {
+            val single = ByteArray(1)
+            return if (read(single, 0, 1) < 0) -1 else single[0].toInt() and 0xFF
+        }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            while (position == current.size) {
+                if (closed) return -1
+                current = chunks.poll(50, TimeUnit.MILLISECONDS) ?: continue
+                position = 0
+                if (current.isEmpty()) return -1
+            }
+            val count = minOf(len, current.size - position)
+            System.arraycopy(current, position, b, off, count)
+            position += count
+            return count
+        }
+
+        override fun close() {
+            closed = true
+            chunks.offer(ByteArray(0))
+        }
+    }
+
+    private fun encode(
+        pid: Int,
+        seconds: Long,
+        priority: Int,
+        tag: String,
+        message: String,
+        nanos: Int = 0,
+        headerSize: Int = LogcatBinaryDecoder.V4_HEADER_SIZE,
+        buffer: Int = 0
+    ): ByteArray {
+        val payload = ByteArrayOutputStream().apply {
+            write(priority)
+            write(tag.toByteArray(Charsets.UTF_8))
+            write(0)
+            write(message.toByteArray(Charsets.UTF_8))
+            write(0)
+        }.toByteArray()
+        val header = ByteBuffer.allocate(maxOf(headerSize, LogcatBinaryDecoder.V1_HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN)
+        header.putShort(payload.size.toShort())
+        header.putShort(if (headerSize == LogcatBinaryDecoder.V1_HEADER_SIZE) 0 else headerSize.toShort())
+        header.putInt(pid)
+        header.putInt(pid + 100)
+        header.putInt(seconds.toInt())
+        header.putInt(nanos)
+        if (headerSize >= LogcatBinaryDecoder.V3_HEADER_SIZE) header.putInt(buffer)
+        if (headerSize >= LogcatBinaryDecoder.V4_HEADER_SIZE) header.putInt(10_123)
+        return header.array() + payload
+    }
+}
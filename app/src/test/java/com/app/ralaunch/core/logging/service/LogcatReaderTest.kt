@@ -7,12 +7,14 @@ import org.junit.Assert.assertFalse
 import org.junit.Assert.assertTrue
 import org.junit.Test
 import java.nio.file.Files
+import java.text.SimpleDateFormat
+import java.util.Locale
 
 class LogcatReaderTest {
 
     @Test
     fun tagBlacklistUsesExactMatchesSoActivityNamedAppTagsAreKept() {
-        val reader = LogcatReader(RecordingLogger(), disabledFileLogger())
+        val reader = LogcatReader(RecordingLogger(), disabledFileLogger(), unusedIngestion())
 
         assertFalse(reader.shouldFilterTag("MainActivityCompose"))
         assertFalse(reader.shouldFilterTag("GameActivity"))
@@ -20,7 +22,7 @@ class LogcatReaderTest {
     }
 
     @Test
-    fun processLogLineWritesFirstPartyActivityTags() {
+    fun processEntryWritesFirstPartyActivityTags() {
         val dir = Files.createTempDirectory("ralaunch-logcat-reader").toFile()
         try {
             val fileLogger = AndroidFileLogger(
@@ -28,13 +30,13 @@ class LogcatReaderTest {
                 emitToAndroidLog = false
             )
             fileLogger.configure(dir, enabled = true)
-            val reader = LogcatReader(RecordingLogger(), fileLogger)
+            val reader = LogcatReader(RecordingLogger(), fileLogger, unusedIngestion())
 
-            reader.processLogLine("04-25 12:00:00.000 I/MainActivityCompose( 123): app message")
+            reader.processEntry(entry("2026-04-25 12:00:00", 0, LogcatEntry.INFO, "MainActivityCompose", "app message"))
             assertTrue(fileLogger.drainForTest())
 
             val content = fileLogger.currentLogFile()?.readText().orEmpty()
-            assertTrue(content.contains("[04-25 12:00:00.000] [I] [MainActivityCompose] [123] app message"))
+            assertTrue(content.contains("[04-25 12:00:00.000] [I] [MainActivityCompose] [123:456] app message"))
             fileLogger.close()
         } finally {
             dir.deleteRecursively()
@@ -42,56 +44,45 @@ class LogcatReaderTest {
     }
 
     @Test
-    fun processLogLineParsesThreadtimeLinesWithPaddedTags() {
-        val dir = Files.createTempDirectory("ralaunch-logcat-threadtime").toFile()
-        try {
-            val fileLogger = AndroidFileLogger(
-                fileNameProvider = { "logcat.log" },
-                emitToAndroidLog = false
-            )
-            fileLogger.configure(dir, enabled = true)
-            val reader = LogcatReader(RecordingLogger(), fileLogger)
+    fun formatUsesThreadtimeStyleWithMillisecondsAndTrimmedTag() {
+        val reader = LogcatReader(RecordingLogger(), disabledFileLogger(), unusedIngestion())
 
-            reader.processLogLine(
-                "04-25 23:31:03.760  2174  2625 I SDM     : " +
+        assertEquals(
+            "[04-25 23:31:03.007] [E] [SDM] [123:456] " +
+                "DisplayBuiltIn::IdlePowerCollapse: IPC received, disabling partial update for one frame",
+            reader.format(
+                entry(
+                    "2026-04-25 23:31:03",
+                    7_000_000,
+                    LogcatEntry.ERROR,
+                    "SDM     ",
                     "DisplayBuiltIn::IdlePowerCollapse: IPC received, disabling partial update for one frame"
-            )
-            assertTrue(fileLogger.drainForTest())
-
-            val content = fileLogger.currentLogFile()?.readText().orEmpty()
-            assertTrue(
-                content.contains(
-                    "[04-25 23:31:03.760] [I] [SDM] [2174:2625] " +
-                        "DisplayBuiltIn::IdlePowerCollapse: IPC received, disabling partial update for one frame"
                 )
             )
-            fileLogger.close()
-        } finally {
-            dir.deleteRecursively()
-        }
+        )
+        assertEquals(
+            "[04-25 23:31:03.760] [W] [Tag] [123:456] next",
+            reader.format(entry("2026-04-25 23:31:03", 760_000_000, LogcatEntry.WARN, "Tag", "next"))
+        )
     }
 
     @Test
-    fun parseLineHandlesOptionalUidInThreadtimeOutput() {
-        val reader = LogcatReader(RecordingLogger(), disabledFileLogger())
-
-        val parsed = reader.parseLine("04-25 23:31:03.758 u0_a123 2206 2270 E PERFHAL-PERFCTRL: limit reached")
-
-        assertEquals(
-            LogcatReader.ParsedLogLine(
-                timestamp = "04-25 23:31:03.758",
-                pid = 2206,
-                tid = 2270,
-                level = "E",
-                tag = "PERFHAL-PERFCTRL",
-                message = "limit reached"
-            ),
-            parsed
-        )
+    fun filterKeepsOwnProcessAtConfiguredLevelAndDropsBlacklistedTags() {
+        val reader = LogcatReader(RecordingLogger(), disabledFileLogger(), unusedIngestion())
+        val filter = reader.buildFilter(123, minLevel = LogLevel.INFO)
+
+        assertTrue(filter.matches(entry("2026-04-25 12:00:00", 0, LogcatEntry.INFO, "GameLauncher", "m")))
+        assertFalse(filter.matches(entry("2026-04-25 12:00:00", 0, LogcatEntry.DEBUG, "GameLauncher", "m")))
+        assertFalse(filter.matches(entry("2026-04-25 12:00:00", 0, LogcatEntry.INFO, "Activity", "m")))
+        assertFalse(filter.matches(entry("2026-04-25 12:00:00", 0, LogcatEntry.INFO, "GameLauncher", "m", pid = 7)))
+
+        val tagged = reader.buildFilter(123, filterTags = arrayOf("SDL"), minLevel = LogLevel.VERBOSE)
+        assertTrue(tagged.matches(entry("2026-04-25 12:00:00", 0, LogcatEntry.VERBOSE, "SDL", "m")))
+        assertFalse(tagged.matches(entry("2026-04-25 12:00:00", 0, LogcatEntry.VERBOSE, "GameLauncher", "m")))
     }
 
     @Test
-    fun processLogLineDropsExactSystemBlacklistTag() {
+    fun processEntryDropsExactSystemBlacklistTag() {
         val dir = Files.createTempDirectory("ralaunch-logcat-filter").toFile()
         try {
             val fileLogger = AndroidFileLogger(
@@ -99,9 +90,9 @@ class LogcatReaderTest {
                 emitToAndroidLog = false
             )
             fileLogger.configure(dir, enabled = true)
-            val reader = LogcatReader(RecordingLogger(), fileLogger)
+            val reader = LogcatReader(RecordingLogger(), fileLogger, unusedIngestion())
 
-            reader.processLogLine("04-25 12:00:00.000 I/Activity( 123): framework message")
+            reader.processEntry(entry("2026-04-25 12:00:00", 0, LogcatEntry.INFO, "Activity", "framework message"))
             assertTrue(fileLogger.drainForTest())
 
             assertTrue(fileLogger.currentLogFile()?.readText().orEmpty().isEmpty())
@@ -112,22 +103,41 @@ class LogcatReaderTest {
     }
 
     @Test
-    fun buildCommandUsesVerbosePriorityWhenRequested() {
-        val reader = LogcatReader(RecordingLogger(), disabledFileLogger())
+    fun ingestionCommandUsesSingleBinaryLogcatWithoutClearingBuffers() {
+        val command = LogcatIngestionService.logcatCommand()
 
-        assertEquals(
-            "logcat --pid=123 -v threadtime *:V",
-            reader.buildCommand(123, minLevel = LogLevel.VERBOSE)
-        )
-        assertEquals(
-            "logcat --pid=123 -v threadtime *:I",
-            reader.buildCommand(123, minLevel = LogLevel.INFO)
-        )
+        assertEquals("logcat", command.first())
+        assertTrue(command.contains("-B"))
+        assertFalse(command.contains("-c"))
     }
 
     private fun disabledFileLogger(): AndroidFileLogger =
         AndroidFileLogger(emitToAndroidLog = false)
 
+    private fun unusedIngestion(): LogcatIngestionService =
+        LogcatIngestionService(openStream = { throw IllegalStateException("not started in tests") })
+
+    private fun entry(
+        localTime: String,
+        nanos: Int,
+        priority: Int,
+        tag: String,
+        message: String,
+        pid: Int = 123
+    ): LogcatEntry {
+        val millis = SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US).parse(localTime)!!.time
+        return LogcatEntry(
+            pid = pid,
+            tid = 456,
+            seconds = millis / 1000L,
+            nanos = nanos,
+            priority = priority,
+            buffer = 0,
+            tag = tag,
+            message = message
+        )
+    }
+
     private class RecordingLogger : Logger {
         override fun v(tag: String, message: String): Int = 0
         override fun v(tag: String, message: String, throwable: Throwable?): Int = 0
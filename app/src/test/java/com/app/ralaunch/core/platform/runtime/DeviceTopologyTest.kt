@@ -0,0 +1,177 @@
+package com.app.ralaunch.core.platform.runtime
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.File
+import java.nio.file.Files
+
+class DeviceTopologyTest {
+
+    @Test
+    fun readsClustersCachesFeaturesAndMemory() {
+        val root = Files.createTempDirectory("ralaunch-topology").toFile()
+        try {
+            writePolicy(root, 0, "0-3", 1_804_800)
+            writePolicy(root, 4, "4-6", 2_419_200)
+            writePolicy(root, 7, "7", 3_187_200)
+            write(root, "sys/devices/system/cpu/cpufreq/policy0/cpuinfo_min_freq", "300000\n")
+            write(root, "sys/devices/system/cpu/cpu0/cpu_capacity", "325\n")
+            write(root, "sys/devices/system/cpu/cpu4/cpu_capacity", "828\n")
+            write(root, "sys/devices/system/cpu/cpu7/cpu_capacity", "1024\n")
+            for (cpu in 0 until 8) {
+                writeCache(root, cpu, 0, 1, "Data", "64K", "$cpu")
+                writeCache(root, cpu, 1, 1, "Instruction", "64K", "$cpu")
+                writeCache(root, cpu, 2, 3, "Unified", "8192K", "0-7")
+            }
+            write(root, "proc/cpuinfo", "processor\t: 0\nFeatures\t: fp asimd aes pmull sha1 sha2 crc32 atomics fphp asimdhp asimddp\nCPU implementer\t: 0x41\n\nprocessor\t: 1\nFeatures\t: fp asimd\n")
+            write(root, "proc/meminfo", "MemTotal:        7645184 kB\nMemFree:          312000 kB\nMemAvailable:    3145728 kB\n")
+            write(root, "proc/sys/kernel/random/boot_id", "3f2a1c9e-0000-4b1d-9a7e-5d2c11aa0f10\n")
+
+            val topology = DeviceTopology.read(root, cpuCount = 8)
+
+            assertEquals("3f2a1c9e-0000-4b1d-9a7e-5d2c11aa0f10", topology.bootId)
+            assertEquals(listOf(listOf(0, 1, 2, 3), listOf(4, 5, 6), listOf(7)), topology.clusters.map { it.cpus })
+            assertEquals(listOf(325L, 828L, 1024L), topology.clusters.map { it.capacity })
+            assertEquals(3_187_200L, topology.clusters.last().maxFreqKhz)
+            assertEquals(300_000L, topology.clusterOf(2)!!.minFreqKhz)
+            assertEquals(0L, topology.clusterOf(7)!!.minFreqKhz)
+            assertEquals(8, topology.cpuCount)
+
+            // 8 个核心各自的 L1 数据/指令缓存 + 一个共享的 L3
+            assertEquals(17, topology.caches.size)
+            val l3 = topology.caches.single { it.level == 3 }
+            assertEquals(8192, l3.sizeKb)
+            assertEquals((0..7).toList(), l3.sharedCpus)
+
+            assertTrue(topology.hasFeature("asimddp"))
+            assertTrue(topology.hasFeature("ATOMICS"))
+            assertFalse(topology.hasFeature("sve"))
+
+            assertEquals(7_645_184L * 1024, topology.totalRamBytes)
+            assertEquals(3_145_728L * 1024, topology.availableRamBytes)
+            assertEquals(RamClass.MID, topology.ramClass)
+            assertFalse(topology.isLowRam)
+            assertEquals(GpuFamily.UNKNOWN, topology.gpuFamily)
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun capacityTakesPrecedenceOverFrequencyWhenOrdering() {
+        val root = Files.createTempDirectory("ralaunch-topology").toFile()
+        try {
+            // 部分设备的大核簇最大频率反而更低，应以容量为准
+            writePolicy(root, 0, "0-3", 2_000_000)
+            writePolicy(root, 4, "4-7", 1_900_000)
+            write(root, "sys/devices/system/cpu/cpu0/cpu_capacity", "400\n")
+            write(root, "sys/devices/system/cpu/cpu4/cpu_capacity", "1024\n")
+
+            val layout = DeviceTopology.read(root, cpuCount = 8).clusterLayout()
+
+            assertEquals(listOf(4, 5, 6, 7), layout.cpusFor(CoreClass.PRIME))
+            assertEquals(listOf(0, 1, 2, 3), layout.cpusFor(CoreClass.LITTLE))
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun missingSysfsFallsBackToSingleClusterAndUnknownRam() {
+        val root = Files.createTempDirectory("ralaunch-topology").toFile()
+        try {
+            val topology = DeviceTopology.read(root, cpuCount = 4)
+
+            assertEquals(listOf(listOf(0, 1, 2, 3)), topology.clusters.map { it.cpus })
+            assertTrue(topology.caches.isEmpty())
+            assertTrue(topology.isaFeatures.isEmpty())
+            assertEquals(RamClass.UNKNOWN, topology.ramClass)
+            assertFalse(topology.isLowRam)
+            assertEquals("", topology.bootId)
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun parsesSizesFlagsAndClassifiesDevices() {
+        assertEquals(32, DeviceTopology.parseCacheSizeKb("32K\n"))
+        assertEquals(2048, DeviceTopology.parseCacheSizeKb("2M"))
+        assertEquals(64, DeviceTopology.parseCacheSizeKb("65536"))
+        assertEquals(null, DeviceTopology.parseCacheSizeKb("big"))
+        assertEquals(listOf(0, 1, 2, 3, 6), DeviceTopology.parseCpuList("0-3,6\n"))
+
+        assertEquals(
+            listOf("fpu", "sse4_2", "avx2"),
+            DeviceTopology.parseIsaFeatures("model name\t: x86\nflags\t\t: fpu sse4_2 avx2 fpu\n")
+        )
+
+        assertEquals(RamClass.LOW, RamClass.of(3L * 1024 * 1024 * 1024))
+        assertEquals(RamClass.HIGH, RamClass.of(12L * 1024 * 1024 * 1024))
+
+        assertEquals(GpuFamily.ADRENO, GpuFamily.of("Qualcomm", "Adreno (TM) 740"))
+        assertEquals(GpuFamily.MALI, GpuFamily.of("ARM", "Mali-G710 MC10"))
+        assertEquals(GpuFamily.POWERVR, GpuFamily.of("Imagination Technologies", "PowerVR Rogue GE8320"))
+        assertEquals(GpuFamily.XCLIPSE, GpuFamily.of("Samsung Electronics Co., Ltd.", "ANGLE (Samsung Xclipse 920)"))
+        assertEquals(GpuFamily.UNKNOWN, GpuFamily.of("<Unknown>", "<Unknown>"))
+    }
+
+    @Test
+    fun persistedTopologyIsReusedOnlyWithinSameBoot() {
+        val dir = Files.createTempDirectory("ralaunch-topology").toFile()
+        try {
+            val file = File(dir, "device_topology.json")
+            var probes = 0
+            val probe = {
+                probes++
+                DeviceTopology(
+                    bootId = "boot-a",
+                    clusters = listOf(CpuCluster(listOf(0, 1), 1_800_000), CpuCluster(listOf(2, 3), 2_800_000, 1024)),
+                    totalRamBytes = 3L * 1024 * 1024 * 1024,
+                    gpuVendor = "Qualcomm",
+                    gpuRenderer = "Adreno (TM) 650"
+                )
+            }
+
+            val first = DeviceTopologyProbe.loadOrProbe(file, "boot-a", requireGpu = true, probe = probe)
+            val second = DeviceTopologyProbe.loadOrProbe(file, "boot-a", requireGpu = true, probe = probe)
+            assertEquals(1, probes)
+            assertEquals(first, second)
+            assertEquals(listOf("device_topology.json"), dir.list()!!.toList())
+            assertTrue(second.isLowRam)
+            assertEquals(GpuFamily.ADRENO, second.gpuFamily)
+            assertEquals(listOf(2, 3), second.clusterLayout().cpusFor(CoreClass.PRIME))
+
+            DeviceTopologyProbe.loadOrProbe(file, "boot-b", requireGpu = true, probe = probe)
+            assertEquals(2, probes)
+
+            // 缓存缺少 GPU 信息时，只有需要 GPU 的调用方才会重新探测
+            file.writeText(file.readText().replace("Qualcomm", "").replace("Adreno (TM) 650", ""))
+            DeviceTopologyProbe.loadOrProbe(file, "boot-a", requireGpu = false, probe = probe)
+            assertEquals(2, probes)
+            DeviceTopologyProbe.loadOrProbe(file, "boot-a", requireGpu = true, probe = probe)
+            assertEquals(3, probes)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    private fun writePolicy(root: File, index: Int, cpus: String, maxFreq: Int) {
+        write(root, "sys/devices/system/cpu/cpufreq/policy$index/related_cpus", "$cpus\n")
+        write(root, "sys/devices/system/cpu/cpufreq/policy$index/cpuinfo_max_freq", "$maxFreq\n")
+    }
+
+    private fun writeCache(root: File, cpu: Int, index: Int, level: Int, type: String, size: String, shared: String) {
+        val dir = "sys/devices/system/cpu/cpu$cpu/cache/index$index"
+        write(root, "$dir/level", "$level\n")
+        write(root, "$dir/type", "$type\n")
+        write(root, "$dir/size", "$size\n")
+        write(root, "$dir/shared_cpu_list", "$shared\n")
+    }
+
+    private fun write(root: File, path: String, content: String) {
+        File(root, path).apply { parentFile?.mkdirs() }.writeText(content)
+    }
+}
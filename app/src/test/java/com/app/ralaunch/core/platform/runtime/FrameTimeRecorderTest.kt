@@ -0,0 +1,173 @@
+package com.app.ralaunch.core.platform.runtime
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.file.Files
+import kotlin.math.abs
+
+class FrameTimeRecorderTest {
+
+    @Test
+    fun bucketsAreContiguousAndWithinThreePercent() {
+        var previousIndex = -1
+        var value = 1L
+        while (value <= FrameTimeRecorder.MAX_TRACKABLE_US) {
+            val index = FrameTimeRecorder.bucketIndex(value)
+            assertTrue(index == previousIndex || index == previousIndex + 1)
+            val low = FrameTimeRecorder.bucketLow(index)
+            val high = FrameTimeRecorder.bucketLow(index + 1)
+            assertTrue(value in low until high)
+            assertTrue((high - low).toDouble() / low.coerceAtLeast(1L) <= 1.0 / 32 || high - low == 1L)
+            previousIndex = index
+            value = if (value < 4096) value + 1 else value + value / 97
+        }
+        assertEquals(FrameTimeRecorder.BUCKET_COUNT - 1, FrameTimeRecorder.bucketIndex(FrameTimeRecorder.MAX_TRACKABLE_US))
+    }
+
+    @Test
+    fun percentilesAndLowsFollowSlowestFrames() {
+        val recorder = FrameTimeRecorder()
+        repeat(980) { recorder.record(16_667) }
+        repeat(19) { recorder.record(33_333) }
+        recorder.record(100_000)
+
+        val stats = recorder.stats()
+
+        assertEquals(1000L, stats.frames)
+        assertClose(16.667, stats.p50Ms, 0.03)
+        assertClose(16.667, stats.p95Ms, 0.03)
+        assertClose(33.333, stats.p99Ms, 0.03)
+        assertEquals(100.0, stats.maxMs, 1e-9)
+        // 最慢 1%：1 帧 100 ms + 9 帧 33.3 ms
+        assertClose(1000.0 / ((100.0 + 9 * 33.333) / 10), stats.low1PercentFps, 0.03)
+        assertClose(10.0, stats.low01PercentFps, 0.03)
+    }
+
+    @Test
+    fun countsSpikesAsStuttersButNotSteadyLowFrameRate() {
+        val steady = FrameTimeRecorder()
+        repeat(600) { steady.record(33_333) }
+        assertEquals(0L, steady.stats().stutters)
+
+        val spiky = FrameTimeRecorder()
+        repeat(200) { i -> spiky.record(if (i % 50 == 49) 60_000 else 16_667) }
+        assertEquals(4L, spiky.stats().stutters)
+    }
+
+    @Test
+    fun recentFramesKeepNewestInOrder() {
+        val recorder = FrameTimeRecorder(recentCapacity = 4)
+        for (i in 1..10) recorder.record(i * 1000L)
+        val out = IntArray(8)
+
+        assertEquals(4, recorder.copyRecent(out))
+        assertEquals(listOf(7000, 8000, 9000, 10000), out.take(4))
+    }
+
+    @Test
+    fun ringDrainSkipsPreviousSessionAndCountsOverwrittenFrames() {
+        val ring = FakeRing(capacity = 8)
+        ring.write(1, 2, 3)
+        val reader = TelemetryFrameRing(ring.buffer)
+        val out = IntArray(16)
+        assertTrue(reader.isValid)
+
+        assertEquals(0, reader.drain(out))
+        ring.write(10, 20)
+        assertEquals(2, reader.drain(out))
+        assertEquals(listOf(10, 20), out.take(2))
+
+        ring.write(*IntArray(11) { 100 + it })
+        assertEquals(8, reader.drain(out))
+        assertEquals(103, out[0])
+        assertEquals(3L, reader.lostFrames)
+    }
+
+    @Test
+    fun ringValuesAreUnsignedMicroseconds() {
+        val recorder = FrameTimeRecorder()
+        recorder.recordAll(intArrayOf(-1), 1)
+        assertEquals(FrameTimeRecorder.MAX_TRACKABLE_US / 1000.0, recorder.stats().maxMs, 1e-9)
+    }
+
+    @Test
+    fun sessionRecorderUsesRingAndExportsCsvAndJson() {
+        val dir = Files.createTempDirectory("ralaunch-frametimes").toFile()
+        try {
+            val ring = FakeRing(capacity = 64)
+            val exportDir = File(dir, "frametimes")
+            val profile = EffectiveRuntimeProfile(
+                serverGc = true,
+                concurrentGc = true,
+                tieredCompilation = true,
+                quickJit = true,
+                lowMemoryTweaks = false,
+                bigCoreAffinity = false,
+                renderer = "zink"
+            )
+            val recorder = SessionMetricsRecorder(
+                profile = profile,
+                store = SessionMetricsStore(File(dir, "metrics")),
+                gameKey = "game",
+                startNanos = 0L,
+                telemetry = { null },
+                statusFile = File(dir, "missing"),
+                frameRing = TelemetryFrameRing(ring.buffer),
+                exportDir = exportDir
+            )
+
+            recorder.sample(1_000_000_000L)
+            ring.write(*IntArray(30) { 16_000 })
+            recorder.sample(2_000_000_000L)
+            assertEquals(30L, recorder.liveFrameStats!!.frames)
+            val metrics = recorder.finish(0)
+
+            assertEquals(2000L, metrics.loadTimeMs)
+            assertEquals(30, metrics.frameSamples)
+            assertEquals(0L, metrics.stutterCount)
+            assertNull(recorder.liveFrameStats)
+
+            val files = exportDir.listFiles()!!.map { it.name }.sorted()
+            assertEquals(2, files.size)
+            assertTrue(files[0].startsWith("frametimes_") && files[0].endsWith(".csv"))
+            val csv = File(exportDir, files[0]).readLines()
+            assertEquals("frame,frame_time_ms", csv.first())
+            assertEquals("29,16.000", csv.last())
+            val json = File(exportDir, files[1]).readText()
+            assertTrue(json.contains("renderer=zink"))
+            assertTrue(json.contains("\"frames\": 30"))
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    private fun assertClose(expected: Double, actual: Double, relative: Double) {
+        assertTrue("expected $expected but was $actual", abs(actual - expected) <= expected * relative)
+    }
+
+    /**
+     * 按 ral_telemetry.cpp 写入协议模拟帧 hook
+     */
+    private class FakeRing(private val capacity: Int) {
+        val buffer: ByteBuffer = ByteBuffer.allocateDirect(TelemetryFrameRing.OFFSET_FRAMES + capacity * 4)
+            .order(ByteOrder.LITTLE_ENDIAN)
+
+        init {
+            buffer.putInt(TelemetryFrameRing.OFFSET_MAGIC, TelemetryFrameRing.MAGIC)
+            buffer.putInt(TelemetryFrameRing.OFFSET_CAPACITY, capacity)
+        }
+
+        fun write(vararg framesUs: Int) {
+            for (frame in framesUs) {
+                val index = buffer.getLong(TelemetryFrameRing.OFFSET_WRITE_INDEX)
+                buffer.putInt(TelemetryFrameRing.OFFSET_FRAMES + (index % capacity).toInt() * 4, frame)
+                buffer.putLong(TelemetryFrameRing.OFFSET_WRITE_INDEX, index + 1)
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.app.ralaunch.core.platform.runtime
+
+import kotlinx.coroutines.runBlocking
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.File
+import java.nio.file.Files
+import java.util.concurrent.ConcurrentHashMap
+
+class LaunchPrefetcherTest {
+
+    @Test
+    fun recorderCapturesFdsAndMappingsUnderRoots() {
+        val dir = Files.createTempDirectory("ralaunch-prefetch").toFile()
+        try {
+            val game = File(dir, "game").apply { mkdirs() }
+            val content = File(game, "Content/Images.xnb").apply { parentFile?.mkdirs(); writeBytes(ByteArray(1_000_000)) }
+            val assembly = File(game, "Terraria.dll").apply { writeBytes(ByteArray(300_000)) }
+            val outside = File(dir, "outside.bin").apply { writeBytes(ByteArray(8192)) }
+
+            val proc = File(dir, "proc").apply { File(this, "fd").mkdirs(); File(this, "fdinfo").mkdirs() }
+            fakeFd(proc, 7, content, pos = 500_000)
+            fakeFd(proc, 8, outside, pos = 8192)
+            File(proc, "maps").writeText(
+                "7f0000000000-7f0000002000 r--p 00010000 fd:01 1234 ${assembly.canonicalPath}\n" +
+                    "7f0000003000-7f0000004000 rw-p 00000000 00:00 0 [anon:dalvik]\n" +
+                    "7f0000005000-7f0000006000 r--p 00000000 fd:01 99 ${content.canonicalPath} (deleted)\n"
+            )
+
+            val recorder = LaunchTraceRecorder(listOf(game), procDir = proc)
+            recorder.sample()
+            val trace = recorder.toTrace(assembly.path, 1000)
+
+            assertEquals(listOf(content.canonicalPath, assembly.canonicalPath), trace.entries.map { it.path })
+            assertEquals(listOf(LaunchTrace.Range(0, 503_808)), trace.entries[0].ranges)
+            assertEquals(listOf(LaunchTrace.Range(0x10000, 0x2000)), trace.entries[1].ranges)
+            assertEquals(1_000_000L, trace.entries[0].size)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun recorderUsesHeadWindowForFreshlyOpenedFiles() {
+        val dir = Files.createTempDirectory("ralaunch-prefetch").toFile()
+        try {
+            val file = File(dir, "mod.tmod").apply { writeBytes(ByteArray(50_000)) }
+            val proc = File(dir, "proc").apply { File(this, "fd").mkdirs(); File(this, "fdinfo").mkdirs() }
+            fakeFd(proc, 3, file, pos = 0)
+
+            val recorder = LaunchTraceRecorder(listOf(dir), procDir = proc, headBytes = 16_384)
+            recorder.sample()
+
+            assertEquals(listOf(LaunchTrace.Range(0, 16_384)), recorder.toTrace("x", 0).entries.single().ranges)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun rangesAreMergedInOrder() {
+        val ranges = mutableListOf<LongArray>()
+        LaunchTraceRecorder.mergeRange(ranges, 8192, 12288)
+        LaunchTraceRecorder.mergeRange(ranges, 0, 4096)
+        LaunchTraceRecorder.mergeRange(ranges, 4096, 8192)
+        LaunchTraceRecorder.mergeRange(ranges, 20480, 24576)
+
+        assertEquals(listOf(0L to 12288L, 20480L to 24576L), ranges.map { it[0] to it[1] })
+    }
+
+    @Test
+    fun storageAliasesAreNormalized() {
+        assertEquals(
+            "/storage/emulated/0/RALauncher/a.tmod",
+            LaunchTraceRecorder.normalizePath("/data/media/0/RALauncher/a.tmod")
+        )
+        assertEquals(
+            "/storage/emulated/10/x",
+            LaunchTraceRecorder.normalizePath("/mnt/user/10/emulated/10/x")
+        )
+        assertEquals("/data/app/x.so", LaunchTraceRecorder.normalizePath("/data/app/x.so"))
+    }
+
+    @Test
+    fun parseMapsLineRejectsAnonymousMappings() {
+        assertNull(LaunchTraceRecorder.parseMapsLine("7f00-7f10 rw-p 00000000 00:00 0"))
+        val mapping = LaunchTraceRecorder.parseMapsLine("1000-3000 r-xp 0000a000 fd:01 42   /data/a b.so")!!
+        assertEquals(0xa000L, mapping.offset)
+        assertEquals(0x2000L, mapping.length)
+        assertEquals("/data/a b.so", mapping.path)
+    }
+
+    @Test
+    fun replaySkipsStaleFilesAndRespectsBudget() {
+        val dir = Files.createTempDirectory("ralaunch-prefetch").toFile()
+        try {
+            val files = (0 until 3).map { File(dir, "f$it.bin").apply { writeBytes(ByteArray(8192)) } }
+            val trace = traceOf(files)
+            files[1].appendBytes(ByteArray(10))
+
+            val traceFile = File(dir, "traces/t.json")
+            trace.save(traceFile)
+            val loaded = LaunchTrace.load(traceFile)!!
+            assertEquals(trace, loaded)
+
+            val stats = runBlocking { LaunchPrefetcher.replay(loaded, maxBytes = 8192, useFadvise = false) }
+
+            assertEquals(1, stats.files)
+            assertEquals(1, stats.skippedStale)
+            assertEquals(1, stats.skippedBudget)
+            assertEquals(8192L, stats.bytes)
+            assertFalse(stats.usedFadvise)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    /**
+     * 合成文件集上的冷启动对比：游戏按顺序读取全部文件，统计未被预取、需要在启动路径上从磁盘读取的字节数。
+     * 轨迹录制后有一个文件被修改、另有一个新文件不在轨迹中，这两者在回放后仍然需要冷读取。
+     */
+    @Test
+    fun replayLeavesOnlyUntracedAndChangedFilesForColdLoad() {
+        val dir = Files.createTempDirectory("ralaunch-prefetch").toFile()
+        try {
+            val sizes = listOf(262_144, 65_536, 131_072, 16_384, 196_608)
+            val content = File(dir, "content").apply { mkdirs() }
+            val traced = sizes.mapIndexed { i, size -> File(content, "f$i.xnb").apply { writeBytes(ByteArray(size)) } }
+            val trace = traceOf(traced)
+            traced[2].appendBytes(ByteArray(4096))
+            val untraced = File(content, "new.xnb").apply { writeBytes(ByteArray(32_768)) }
+            val gameReads = traced + untraced
+
+            // 模拟页缓存：预取完成的范围视为已缓存
+            fun coldBytes(cached: Map<String, List<LaunchTrace.Range>>): Long = gameReads.sumOf { file ->
+                val ranges = cached[file.path].orEmpty()
+                file.length() - ranges.sumOf { minOf(it.length, file.length() - it.offset).coerceAtLeast(0L) }
+            }
+
+            val withoutReplay = coldBytes(emptyMap())
+
+            val cached = ConcurrentHashMap<String, List<LaunchTrace.Range>>()
+            val stats = runBlocking {
+                LaunchPrefetcher.replay(trace, useFadvise = false) { cached[it.path] = it.ranges }
+            }
+            val withReplay = coldBytes(cached)
+
+            assertEquals(gameReads.sumOf { it.length() }, withoutReplay)
+            assertEquals(traced[2].length() + untraced.length(), withReplay)
+            assertEquals(withoutReplay - withReplay, stats.bytes)
+            assertEquals(4, stats.files)
+            assertEquals(1, stats.skippedStale)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    private fun traceOf(files: List<File>) = LaunchTrace(
+        assemblyPath = "Game.dll",
+        recordedAt = System.currentTimeMillis(),
+        durationMs = 1000,
+        entries = files.map {
+            LaunchTrace.Entry(it.path, it.length(), it.lastModified(), listOf(LaunchTrace.Range(0, it.length())))
+        }
+    )
+
+    private fun fakeFd(proc: File, fd: Int, target: File, pos: Long) {
+        Files.createSymbolicLink(File(proc, "fd/$fd").toPath(), target.toPath())
+        File(proc, "fdinfo/$fd").writeText("pos:\t$pos\nflags:\t0100000\nmnt_id:\t20\n")
+    }
+}
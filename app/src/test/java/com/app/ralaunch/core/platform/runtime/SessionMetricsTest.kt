@@ -0,0 +1,173 @@
+package com.app.ralaunch.core.platform.runtime
+
+import com.app.ralaunch.core.model.RuntimeProfile
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.File
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.file.Files
+
+class SessionMetricsTest {
+
+    private val defaults = EffectiveRuntimeProfile(
+        serverGc = true,
+        concurrentGc = true,
+        tieredCompilation = true,
+        quickJit = true,
+        lowMemoryTweaks = false,
+        bigCoreAffinity = false,
+        renderer = "gl4es"
+    )
+
+    @Test
+    fun emptyProfileFollowsGlobalSettings() {
+        assertSame(defaults, EffectiveRuntimeProfile.resolve(RuntimeProfile(), defaults))
+        assertSame(defaults, EffectiveRuntimeProfile.resolve(null, defaults))
+    }
+
+    @Test
+    fun profileOverridesOnlySpecifiedValues() {
+        val resolved = EffectiveRuntimeProfile.resolve(
+            RuntimeProfile(tieredCompilation = false, bigCoreAffinity = true),
+            defaults
+        )
+
+        assertFalse(resolved.tieredCompilation)
+        assertTrue(resolved.bigCoreAffinity)
+        assertTrue(resolved.serverGc)
+        assertTrue(resolved.isCustom)
+        assertNotEquals(defaults.id, resolved.id)
+    }
+
+    @Test
+    fun lowMemoryProfileDisablesServerGcUnlessExplicit() {
+        assertFalse(EffectiveRuntimeProfile.resolve(RuntimeProfile(lowMemoryTweaks = true), defaults).serverGc)
+        assertTrue(
+            EffectiveRuntimeProfile.resolve(RuntimeProfile(lowMemoryTweaks = true, serverGc = true), defaults).serverGc
+        )
+    }
+
+    @Test
+    fun histogramReportsPercentilesAtBucketResolution() {
+        val histogram = SessionMetricsRecorder.FrameTimeHistogram()
+        repeat(90) { histogram.record(16.6) }
+        repeat(9) { histogram.record(33.3) }
+        histogram.record(400.0)
+
+        assertEquals(16.75, histogram.percentile(0.50)!!, 1e-9)
+        assertEquals(33.5, histogram.percentile(0.95)!!, 1e-9)
+        assertEquals(250.0, histogram.percentile(1.0)!!, 1e-9)
+        assertEquals((90 * 16.6 + 9 * 33.3 + 400.0) / 100, histogram.mean()!!, 1e-9)
+        assertNull(SessionMetricsRecorder.FrameTimeHistogram().percentile(0.5))
+    }
+
+    @Test
+    fun recorderMeasuresLoadTimeAndIgnoresFramesBeforeFirstFrame() {
+        val dir = Files.createTempDirectory("ralaunch-metrics").toFile()
+        try {
+            val buffer = ByteBuffer.allocateDirect(TelemetryBlock.BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN).apply {
+                putInt(TelemetryBlock.OFFSET_MAGIC, TelemetryBlock.MAGIC)
+                putInt(TelemetryBlock.OFFSET_VERSION, TelemetryBlock.VERSION)
+            }
+            val block = TelemetryBlock(buffer)
+            val status = File(dir, "status").apply { writeText("Name:\tralaunch\nVmHWM:\t  812345 kB\nVmRSS:\t 700000 kB\n") }
+            val store = SessionMetricsStore(File(dir, "metrics"))
+            val start = 1_000_000_000L
+            val recorder = SessionMetricsRecorder(
+                profile = defaults,
+                store = store,
+                gameKey = "game-1",
+                startNanos = start,
+                telemetry = { block },
+                statusFile = status
+            )
+
+            recorder.sample(start + 2_000_000_000L)
+            buffer.putLong(TelemetryBlock.OFFSET_FRAME_COUNT, 30L)
+            buffer.putFloat(TelemetryBlock.OFFSET_AVG_FRAME_MS, 17f)
+            buffer.putInt(TelemetryBlock.OFFSET_FRAME_SEQ, 2)
+            recorder.sample(start + 4_500_000_000L)
+            recorder.sample(start + 4_750_000_000L)
+            buffer.putInt(TelemetryBlock.OFFSET_RUNTIME_GC_COUNT, 42)
+            buffer.putDouble(TelemetryBlock.OFFSET_RUNTIME_GC_PAUSE_MS, 123.4)
+            buffer.putInt(TelemetryBlock.OFFSET_RUNTIME_SEQ, 2)
+            recorder.sample(start + 5_000_000_000L)
+
+            val metrics = recorder.snapshot(exitCode = 0)
+
+            assertEquals(4500L, metrics.loadTimeMs)
+            assertEquals(3, metrics.frameSamples)
+            assertEquals(17.0, metrics.frameTimeAvgMs!!, 1e-9)
+            assertEquals(123.4, metrics.gcPauseTotalMs!!, 1e-9)
+            assertEquals(42, metrics.gcCount)
+            assertEquals(812345L, metrics.peakRssKb)
+            assertEquals(defaults.id, metrics.profileId)
+            assertEquals(defaults.describe(), metrics.profileDescription)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun storeReplacesCheckpointedSessionAndKeepsLatest() {
+        val dir = Files.createTempDirectory("ralaunch-metrics").toFile()
+        try {
+            val store = SessionMetricsStore(dir)
+            store.save("game", session("a", startedAt = 1, loadTimeMs = 100))
+            store.save("game", session("a", startedAt = 1, loadTimeMs = 90))
+            repeat(SessionMetricsStore.MAX_SESSIONS) { store.save("game", session("s$it", startedAt = 10L + it)) }
+
+            val sessions = store.load("game")
+
+            assertEquals(SessionMetricsStore.MAX_SESSIONS, sessions.size)
+            assertTrue(sessions.none { it.sessionId == "a" })
+            assertEquals("s0", sessions.first().sessionId)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun summaryGroupsByProfileAndWeightsFrameTimesBySamples() {
+        val sessions = listOf(
+            session("1", profileId = "p1", startedAt = 1, loadTimeMs = 9000, avg = 20.0, samples = 100, rss = 900_000),
+            session("2", profileId = "p1", startedAt = 2, loadTimeMs = 7000, avg = 10.0, samples = 300, rss = 1_000_000),
+            session("3", profileId = "p1", startedAt = 3, loadTimeMs = 8000, avg = null, samples = 0),
+            session("4", profileId = "p2", startedAt = 4, loadTimeMs = 5000, avg = 16.0, samples = 50)
+        )
+
+        val summaries = SessionMetricsStore.summarize(sessions)
+
+        assertEquals(listOf("p2", "p1"), summaries.map { it.profileId })
+        val p1 = summaries[1]
+        assertEquals(3, p1.sessions)
+        assertEquals(8000L, p1.loadTimeMedianMs)
+        assertEquals(12.5, p1.frameTimeAvgMs!!, 1e-9)
+        assertEquals(1_000_000L, p1.peakRssMaxKb)
+    }
+
+    private fun session(
+        id: String,
+        profileId: String = "p",
+        startedAt: Long,
+        loadTimeMs: Long? = null,
+        avg: Double? = null,
+        samples: Int = 0,
+        rss: Long? = null
+    ) = SessionMetrics(
+        sessionId = id,
+        profileId = profileId,
+        profileDescription = "desc-$profileId",
+        startedAt = startedAt,
+        loadTimeMs = loadTimeMs,
+        frameTimeAvgMs = avg,
+        frameSamples = samples,
+        peakRssKb = rss
+    )
+}
@@ -0,0 +1,169 @@
+package com.app.ralaunch.core.platform.runtime
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.File
+import java.nio.file.Files
+
+class SystemStatsSamplerTest {
+
+    @Test
+    fun readsCpuGpuAndThermalValuesFromSysfsTree() {
+        val root = Files.createTempDirectory("ralaunch-sysfs").toFile()
+        try {
+            writeCpu(root, 0, cur = 1_300_000, min = 300_000, max = 2_300_000)
+            writeCpu(root, 1, cur = 300_000, min = 300_000, max = 2_300_000)
+            write(root, "sys/class/kgsl/kgsl-3d0/gpubusy", "  250  1000\n")
+            write(root, "sys/class/kgsl/kgsl-3d0/devfreq/cur_freq", "585000000\n")
+            write(root, "sys/class/kgsl/kgsl-3d0/devfreq/min_freq", "257000000\n")
+            write(root, "sys/class/kgsl/kgsl-3d0/devfreq/max_freq", "900000000\n")
+            writeZone(root, 0, "battery", "31000")
+            writeZone(root, 1, "cpu-0-0-usr", "61500")
+            writeZone(root, 2, "gpuss-0-usr", "48")
+
+            val snapshot = SystemStatsSampler(root, cpuCount = 2).sampleOnce(nowNanos = 42L)
+
+            assertEquals(42L, snapshot.timestampNanos)
+            assertEquals(listOf(1_300_000, 300_000), snapshot.cpuFreqsKhz)
+            assertEquals(25f, snapshot.cpuLoadPercent, 1e-4f)
+            assertEquals(25f, snapshot.gpuLoadPercent, 1e-4f)
+            assertEquals(585_000_000L, snapshot.gpuFreqHz)
+            assertEquals(61.5f, snapshot.cpuTempC, 1e-4f)
+            assertEquals(48f, snapshot.gpuTempC, 1e-4f)
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun rereadsOpenFilesOnEverySample() {
+        val root = Files.createTempDirectory("ralaunch-sysfs").toFile()
+        try {
+            writeCpu(root, 0, cur = 300_000, min = 300_000, max = 1_300_000)
+            val sampler = SystemStatsSampler(root, cpuCount = 1)
+            assertEquals(0f, sampler.sampleOnce().cpuLoadPercent, 1e-4f)
+
+            write(root, "sys/devices/system/cpu/cpu0/cpufreq/scaling_cur_freq", "1300000\n")
+            val snapshot = sampler.sampleOnce()
+
+            assertEquals(100f, snapshot.cpuLoadPercent, 1e-4f)
+            assertTrue(snapshot === sampler.latest)
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun cpuFrequencyRangeComesFromTopology() {
+        val root = Files.createTempDirectory("ralaunch-sysfs").toFile()
+        try {
+            // sysfs 中只有当前频率，范围来自拓扑缓存
+            write(root, "sys/devices/system/cpu/cpu0/cpufreq/scaling_cur_freq", "800000\n")
+            val topology = DeviceTopology(
+                clusters = listOf(CpuCluster(listOf(0), maxFreqKhz = 1_300_000, minFreqKhz = 300_000))
+            )
+
+            val snapshot = SystemStatsSampler(root, cpuCount = 1, topology = { topology }).sampleOnce()
+
+            assertEquals(50f, snapshot.cpuLoadPercent, 1e-4f)
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun gpuLoadFallsBackToDevfreqEstimate() {
+        val root = Files.createTempDirectory("ralaunch-sysfs").toFile()
+        try {
+            write(root, "sys/class/devfreq/13000000.mali/cur_freq", "600000000\n")
+            write(root, "sys/class/devfreq/13000000.mali/min_freq", "200000000\n")
+            write(root, "sys/class/devfreq/13000000.mali/max_freq", "1000000000\n")
+
+            val snapshot = SystemStatsSampler(root, cpuCount = 1).sampleOnce()
+
+            assertEquals(50f, snapshot.gpuLoadPercent, 1e-4f)
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun gpuLoadFallsBackToAdrenoGpuclkWithoutDevfreq() {
+        val root = Files.createTempDirectory("ralaunch-sysfs").toFile()
+        try {
+            write(root, "sys/class/kgsl/kgsl-3d0/gpuclk", "400000000\n")
+            write(root, "sys/class/kgsl/kgsl-3d0/max_gpuclk", "600000000\n")
+            write(root, "sys/class/kgsl/kgsl-3d0/gpu_available_frequencies", "600000000 400000000 200000000\n")
+
+            val snapshot = SystemStatsSampler(root, cpuCount = 1).sampleOnce()
+
+            assertEquals(400_000_000L, snapshot.gpuFreqHz)
+            assertEquals(50f, snapshot.gpuLoadPercent, 1e-4f)
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun missingFilesReportNoData() {
+        val root = Files.createTempDirectory("ralaunch-sysfs").toFile()
+        try {
+            writeCpu(root, 1, cur = 800_000, min = 300_000, max = 1_300_000)
+
+            val snapshot = SystemStatsSampler(root, cpuCount = 2).sampleOnce()
+
+            assertEquals(listOf(-1, 800_000), snapshot.cpuFreqsKhz)
+            assertEquals(50f, snapshot.cpuLoadPercent, 1e-4f)
+            assertEquals(-1f, snapshot.gpuLoadPercent, 0f)
+            assertEquals(-1L, snapshot.gpuFreqHz)
+            assertTrue(snapshot.cpuTempC.isNaN())
+            assertTrue(snapshot.gpuTempC.isNaN())
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun coreComingOnlineIsPickedUpAfterRetry() {
+        val root = Files.createTempDirectory("ralaunch-sysfs").toFile()
+        try {
+            val sampler = SystemStatsSampler(root, cpuCount = 1)
+            assertEquals(-1f, sampler.sampleOnce().cpuLoadPercent, 0f)
+
+            writeCpu(root, 0, cur = 1_300_000, min = 300_000, max = 1_300_000)
+            var load = -1f
+            repeat(16) { if (load < 0f) load = sampler.sampleOnce().cpuLoadPercent }
+
+            assertEquals(100f, load, 1e-4f)
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun parsersHandleVendorFormats() {
+        assertEquals(25f, SystemStatsSampler.parseAdrenoGpuBusy("250 1000"), 1e-4f)
+        assertEquals(-1f, SystemStatsSampler.parseAdrenoGpuBusy("0 0"), 0f)
+        assertEquals(37f, SystemStatsSampler.parsePercentage("37%"), 1e-4f)
+        assertEquals(12f, SystemStatsSampler.parsePercentage("12 @ 500000"), 1e-4f)
+        assertEquals(45.2f, SystemStatsSampler.toCelsius(45200), 1e-4f)
+        assertEquals(45f, SystemStatsSampler.toCelsius(45), 1e-4f)
+    }
+
+    private fun writeCpu(root: File, index: Int, cur: Int, min: Int, max: Int) {
+        val dir = "sys/devices/system/cpu/cpu$index/cpufreq"
+        write(root, "$dir/scaling_cur_freq", "$cur\n")
+        write(root, "$dir/cpuinfo_min_freq", "$min\n")
+        write(root, "$dir/cpuinfo_max_freq", "$max\n")
+    }
+
+    private fun writeZone(root: File, index: Int, type: String, temp: String) {
+        write(root, "sys/class/thermal/thermal_zone$index/type", "$type\n")
+        write(root, "sys/class/thermal/thermal_zone$index/temp", "$temp\n")
+    }
+
+    private fun write(root: File, path: String, content: String) {
+        File(root, path).apply { parentFile?.mkdirs() }.writeText(content)
+    }
+}
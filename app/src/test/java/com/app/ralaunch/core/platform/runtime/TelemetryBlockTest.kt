@@ -0,0 +1,180 @@
+package com.app.ralaunch.core.platform.runtime
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicReference
+
+class TelemetryBlockTest {
+
+    @Test
+    fun rejectsBufferWithoutHeader() {
+        assertFalse(TelemetryBlock(ByteBuffer.allocateDirect(TelemetryBlock.BLOCK_SIZE)).isValid)
+        assertFalse(TelemetryBlock(ByteBuffer.allocateDirect(64)).isValid)
+        assertTrue(TelemetryBlock(FakeWriter().buffer).isValid)
+    }
+
+    @Test
+    fun unpublishedSectionsReportSeqZero() {
+        val block = TelemetryBlock(FakeWriter().buffer)
+        val frame = TelemetryBlock.FrameSnapshot()
+        val runtime = TelemetryBlock.RuntimeSnapshot()
+
+        assertTrue(block.readFrame(frame))
+        assertTrue(block.readRuntime(runtime))
+        assertFalse(frame.isPublished)
+        assertFalse(runtime.isPublished)
+    }
+
+    @Test
+    fun readsFrameSectionAtHeaderOffsets() {
+        val writer = FakeWriter()
+        writer.writeFrame(7)
+        val block = TelemetryBlock(writer.buffer)
+        val frame = TelemetryBlock.FrameSnapshot()
+
+        assertTrue(block.readFrame(frame))
+
+        assertTrue(frame.isPublished)
+        assertEquals(TelemetryBlock.SOURCE_MANAGED, frame.source)
+        assertEquals(7L, frame.frameCount)
+        assertEquals(14L, frame.lastFrameNs)
+        assertEquals(21L, frame.totalFrameNs)
+        assertEquals(7f, frame.fps, 0f)
+        assertEquals(7, frame.histogram[TelemetryBlock.HISTOGRAM_BUCKETS - 1])
+    }
+
+    @Test
+    fun readsGcStatsFromRuntimeSection() {
+        val writer = FakeWriter()
+        val block = TelemetryBlock(writer.buffer)
+        val runtime = TelemetryBlock.RuntimeSnapshot()
+
+        assertTrue(block.readRuntime(runtime))
+        assertFalse(runtime.isPublished)
+
+        writer.writeRuntime(gcCount = 42, gcPauseMs = 123.4)
+        assertTrue(block.readRuntime(runtime))
+        assertTrue(runtime.isPublished)
+        assertEquals(42, runtime.gcCount)
+        assertEquals(123.4, runtime.gcPauseMs, 0.0)
+    }
+
+    @Test
+    fun oddSequenceIsNeverReturned() {
+        val writer = FakeWriter()
+        writer.writeFrame(3)
+        val block = TelemetryBlock(writer.buffer)
+        val frame = TelemetryBlock.FrameSnapshot()
+        assertTrue(block.readFrame(frame))
+
+        writer.buffer.putInt(TelemetryBlock.OFFSET_FRAME_SEQ, writer.buffer.getInt(TelemetryBlock.OFFSET_FRAME_SEQ) + 1)
+        writer.buffer.putLong(TelemetryBlock.OFFSET_FRAME_COUNT, 999L)
+
+        assertFalse(block.readFrame(frame))
+        assertEquals(3L, frame.frameCount)
+    }
+
+    @Test
+    fun histogramPercentilesUseBucketUpperEdge() {
+        val frame = TelemetryBlock.FrameSnapshot()
+        assertEquals(-1f, frame.percentileMs(0.5), 0f)
+
+        frame.histogram[16] = 90
+        frame.histogram[33] = 9
+        frame.histogram[TelemetryBlock.HISTOGRAM_BUCKETS - 1] = 1
+
+        assertEquals(17f, frame.percentileMs(0.50), 0f)
+        assertEquals(34f, frame.percentileMs(0.95), 0f)
+        assertEquals(64f, frame.percentileMs(1.0), 0f)
+    }
+
+    @Test
+    fun concurrentReaderNeverObservesTornFrame() {
+        val writer = FakeWriter()
+        val block = TelemetryBlock(writer.buffer)
+        val running = AtomicBoolean(true)
+        val failure = AtomicReference<String?>(null)
+
+        val writerThread = Thread {
+            var k = 1L
+            while (running.get()) {
+                writer.writeFrame(k++)
+            }
+        }
+        writerThread.start()
+
+        val frame = TelemetryBlock.FrameSnapshot()
+        var reads = 0
+        val deadline = System.nanoTime() + 500_000_000L
+        try {
+            while (System.nanoTime() < deadline) {
+                if (!block.readFrame(frame) || !frame.isPublished) continue
+                reads++
+                val k = frame.frameCount
+                val consistent = frame.lastFrameNs == k * 2 &&
+                    frame.totalFrameNs == k * 3 &&
+                    frame.fps == k.toFloat() &&
+                    frame.histogram.all { it == k.toInt() }
+                if (!consistent) {
+                    failure.set("torn read at frameCount=$k")
+                    break
+                }
+            }
+        } finally {
+            running.set(false)
+            writerThread.join()
+        }
+
+        assertEquals(null, failure.get())
+        assertTrue(reads > 0)
+    }
+
+    /**
+     * 按 ral_telemetry.cpp 的写入协议操作 DirectByteBuffer 的测试写者
+     */
+    private class FakeWriter {
+        val buffer: ByteBuffer = ByteBuffer.allocateDirect(TelemetryBlock.BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+
+        @Volatile
+        private var fence = 0
+
+        init {
+            buffer.putInt(TelemetryBlock.OFFSET_MAGIC, TelemetryBlock.MAGIC)
+            buffer.putInt(TelemetryBlock.OFFSET_VERSION, TelemetryBlock.VERSION)
+            buffer.putInt(TelemetryBlock.OFFSET_SIZE, TelemetryBlock.BLOCK_SIZE)
+            buffer.putInt(TelemetryBlock.OFFSET_HISTOGRAM_BUCKETS, TelemetryBlock.HISTOGRAM_BUCKETS)
+        }
+
+        /** 所有字段都由 k 推导，读者可据此检测撕裂 */
+        fun writeFrame(k: Long) {
+            val seq = buffer.getInt(TelemetryBlock.OFFSET_FRAME_SEQ)
+            buffer.putInt(TelemetryBlock.OFFSET_FRAME_SEQ, seq + 1)
+            fence = seq
+            buffer.putInt(TelemetryBlock.OFFSET_FRAME_SOURCE, TelemetryBlock.SOURCE_MANAGED)
+            buffer.putLong(TelemetryBlock.OFFSET_FRAME_COUNT, k)
+            buffer.putLong(TelemetryBlock.OFFSET_LAST_FRAME_NS, k * 2)
+            buffer.putLong(TelemetryBlock.OFFSET_TOTAL_FRAME_NS, k * 3)
+            buffer.putFloat(TelemetryBlock.OFFSET_FPS, k.toFloat())
+            for (i in 0 until TelemetryBlock.HISTOGRAM_BUCKETS) {
+                buffer.putInt(TelemetryBlock.OFFSET_HISTOGRAM + i * 4, k.toInt())
+            }
+            fence = seq
+            buffer.putInt(TelemetryBlock.OFFSET_FRAME_SEQ, seq + 2)
+        }
+
+        fun writeRuntime(gcCount: Int, gcPauseMs: Double) {
+            val seq = buffer.getInt(TelemetryBlock.OFFSET_RUNTIME_SEQ)
+            buffer.putInt(TelemetryBlock.OFFSET_RUNTIME_SEQ, seq + 1)
+            fence = seq
+            buffer.putInt(TelemetryBlock.OFFSET_RUNTIME_GC_COUNT, gcCount)
+            buffer.putDouble(TelemetryBlock.OFFSET_RUNTIME_GC_PAUSE_MS, gcPauseMs)
+            fence = seq
+            buffer.putInt(TelemetryBlock.OFFSET_RUNTIME_SEQ, seq + 2)
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.app.ralaunch.core.platform.runtime
+
+import com.app.ralaunch.core.logging.AppLog
+import com.app.ralaunch.core.logging.contract.Logger
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.io.File
+import java.nio.file.Files
+
+class ThreadAffinityPolicyTest {
+
+    private val logged = mutableListOf<String>()
+
+    @Before
+    fun setUp() {
+        AppLog.install(object : Logger {
+            override fun v(tag: String, message: String) = record(message)
+            override fun v(tag: String, message: String, throwable: Throwable?) = record(message)
+            override fun d(tag: String, message: String) = record(message)
+            override fun d(tag: String, message: String, throwable: Throwable?) = record(message)
+            override fun i(tag: String, message: String) = record(message)
+            override fun i(tag: String, message: String, throwable: Throwable?) = record(message)
+            override fun w(tag: String, message: String) = record(message)
+            override fun w(tag: String, message: String, throwable: Throwable?) = record(message)
+            override fun e(tag: String, message: String) = record(message)
+            override fun e(tag: String, message: String, throwable: Throwable?) = record(message)
+        })
+    }
+
+    @After
+    fun tearDown() {
+        AppLog.reset()
+    }
+
+    @Test
+    fun classifiesThreadsByName() {
+        assertEquals(ThreadRole.MAIN, ThreadClassifier.classify(100, "anything", mainTid = 100))
+        assertEquals(ThreadRole.MAIN, ThreadClassifier.classify(101, "SDLThread", mainTid = 100))
+        assertEquals(ThreadRole.GC, ThreadClassifier.classify(102, ".NET BGC", mainTid = 100))
+        assertEquals(ThreadRole.GC, ThreadClassifier.classify(103, ".NET Server GC", mainTid = 100))
+        assertEquals(ThreadRole.WORKER, ThreadClassifier.classify(104, ".NET TP Worker", mainTid = 100))
+        assertEquals(ThreadRole.AUDIO, ThreadClassifier.classify(105, "SDLAudioP2", mainTid = 100))
+        assertEquals(ThreadRole.AUDIO, ThreadClassifier.classify(106, "AudioTrack", mainTid = 100))
+        assertEquals(ThreadRole.RENDER, ThreadClassifier.classify(107, "RenderThread", mainTid = 100))
+        assertEquals(ThreadRole.RENDER, ThreadClassifier.classify(108, "mali-cmar-backe", mainTid = 100))
+        assertEquals(ThreadRole.OTHER, ThreadClassifier.classify(109, "Binder:1234_2", mainTid = 100))
+    }
+
+    @Test
+    fun parsesPolicyOverridesAndReportsInvalidEntries() {
+        val invalid = mutableListOf<String>()
+        val policy = ThreadAffinityPolicy.parse("gc=little, worker=big;bogus=big,audio=huge") { invalid.add(it) }
+
+        assertEquals(CoreClass.LITTLE, policy.classFor(ThreadRole.GC))
+        assertEquals(CoreClass.BIG, policy.classFor(ThreadRole.WORKER))
+        assertEquals(CoreClass.PRIME, policy.classFor(ThreadRole.MAIN))
+        assertEquals(CoreClass.BIG, policy.classFor(ThreadRole.AUDIO))
+        assertEquals(listOf("bogus=big", "audio=huge"), invalid)
+        assertEquals(ThreadAffinityPolicy.DEFAULT, ThreadAffinityPolicy.parse(" "))
+    }
+
+    @Test
+    fun readsClustersFromCpufreqPoliciesOrderedByCapacity() {
+        val root = Files.createTempDirectory("ralaunch-affinity").toFile()
+        try {
+            writePolicy(root, 0, "0-3", 1_800_000)
+            writePolicy(root, 7, "7", 3_200_000)
+            writePolicy(root, 4, "4-6", 2_800_000)
+
+            val layout = DeviceTopology.read(root, cpuCount = 8).clusterLayout()
+
+            assertEquals(listOf(listOf(0, 1, 2, 3), listOf(4, 5, 6), listOf(7)), layout.clusters)
+            assertEquals(listOf(7), layout.cpusFor(CoreClass.PRIME))
+            assertEquals(listOf(4, 5, 6), layout.cpusFor(CoreClass.BIG))
+            assertEquals(listOf(0, 1, 2, 3), layout.cpusFor(CoreClass.LITTLE))
+            assertEquals(0xFFL, layout.maskFor(CoreClass.ALL))
+            assertEquals(0x70L, layout.maskFor(CoreClass.BIG))
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun fallsBackToPerCpuFrequenciesAndSingleCluster() {
+        val root = Files.createTempDirectory("ralaunch-affinity").toFile()
+        try {
+            for (cpu in 0 until 4) {
+                write(root, "sys/devices/system/cpu/cpu$cpu/cpufreq/cpuinfo_max_freq", if (cpu < 2) "1000000" else "2000000")
+            }
+            val twoClusters = DeviceTopology.read(root, cpuCount = 4).clusterLayout()
+            assertEquals(listOf(2, 3), twoClusters.cpusFor(CoreClass.BIG))
+            assertEquals(listOf(2, 3), twoClusters.cpusFor(CoreClass.PRIME))
+
+            val empty = DeviceTopology.read(File(root, "missing"), cpuCount = 2).clusterLayout()
+            assertEquals(listOf(0, 1), empty.cpusFor(CoreClass.PRIME))
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun controllerAppliesNewAndRenamedThreadsOnlyOnce() {
+        val dir = Files.createTempDirectory("ralaunch-affinity").toFile()
+        try {
+            val tasks = File(dir, "task")
+            writeTask(tasks, 100, "SDLThread")
+            writeTask(tasks, 101, ".NET BGC")
+            writeTask(tasks, 102, "Thread-7")
+            val calls = mutableListOf<Pair<Int, Long>>()
+            val layout = CpuClusterLayout(listOf(listOf(0, 1, 2, 3), listOf(4, 5, 6), listOf(7)))
+            val controller = ThreadAffinityController(
+                policy = ThreadAffinityPolicy.DEFAULT,
+                layout = layout,
+                mainTid = 100,
+                taskDir = tasks
+            ) { tid, mask ->
+                calls.add(tid to mask)
+                0
+            }
+
+            val first = controller.applyOnce()
+            assertEquals(3, first.size)
+            assertTrue(calls.contains(100 to 0x80L))
+            assertTrue(calls.contains(101 to 0x70L))
+            assertTrue(calls.contains(102 to 0xFFL))
+
+            calls.clear()
+            assertTrue(controller.applyOnce().isEmpty())
+            assertTrue(calls.isEmpty())
+
+            // 线程启动后改名为音频线程，需要重新绑定；新线程也会被处理
+            writeTask(tasks, 102, "SDLAudioP2")
+            writeTask(tasks, 103, ".NET TP Worker")
+            val second = controller.applyOnce()
+            assertEquals(listOf(ThreadRole.AUDIO, ThreadRole.WORKER), second.sortedBy { it.tid }.map { it.role })
+            assertTrue(calls.contains(102 to 0x70L))
+            assertTrue(logged.any { it.contains("tid=102") && it.contains("AUDIO") })
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun exitedThreadsAreNotRecorded() {
+        val dir = Files.createTempDirectory("ralaunch-affinity").toFile()
+        try {
+            val tasks = File(dir, "task")
+            writeTask(tasks, 200, "worker")
+            val controller = ThreadAffinityController(
+                policy = ThreadAffinityPolicy.DEFAULT,
+                layout = CpuClusterLayout(listOf(listOf(0, 1))),
+                mainTid = 1,
+                taskDir = tasks
+            ) { _, _ -> -3 }
+
+            assertTrue(controller.applyOnce().isEmpty())
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    private fun record(message: String): Int {
+        logged.add(message)
+        return 0
+    }
+
+    private fun writePolicy(root: File, index: Int, cpus: String, maxFreq: Int) {
+        write(root, "sys/devices/system/cpu/cpufreq/policy$index/related_cpus", "$cpus\n")
+        write(root, "sys/devices/system/cpu/cpufreq/policy$index/cpuinfo_max_freq", "$maxFreq\n")
+    }
+
+    private fun writeTask(tasks: File, tid: Int, name: String) {
+        File(tasks, "$tid").mkdirs()
+        File(tasks, "$tid/comm").writeText("$name\n")
+    }
+
+    private fun write(root: File, path: String, content: String) {
+        File(root, path).apply { parentFile?.mkdirs() }.writeText(content)
+    }
+}
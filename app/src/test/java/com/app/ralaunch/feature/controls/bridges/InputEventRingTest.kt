@@ -0,0 +1,189 @@
+package com.app.ralaunch.feature.controls.bridges
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.lang.management.ManagementFactory
+
+class InputEventRingTest {
+
+    @Test
+    fun eventsAreDrainedInOrderWithPackedFields() {
+        val ring = InputEventRing.allocate(capacity = 16)
+        assertTrue(ring.isValid)
+
+        assertTrue(ring.pushKey(29, isDown = true))
+        assertTrue(ring.pushPadButton(999_999, 96, isDown = false))
+        assertTrue(ring.pushAxis(999_999, 1, -0.75f))
+        assertTrue(ring.pushMouse(1, 2, 12.5f, -3f, relative = true))
+        assertTrue(ring.pushTouch(7, 3, 0, 100f, 200f, 0.5f))
+        assertTrue(ring.pushMouseWheel(-1f))
+        assertEquals(6, ring.pending)
+
+        val sink = RecordingSink()
+        assertEquals(6, ring.drain(sink))
+        assertEquals(0, ring.pending)
+        assertEquals(
+            listOf(
+                Event(InputEventRing.TYPE_KEY, 1, 29, 0, 0f, 0f, 0f),
+                Event(InputEventRing.TYPE_PAD_BUTTON, 0, 96, 999_999, 0f, 0f, 0f),
+                Event(InputEventRing.TYPE_AXIS, 0, 1, 999_999, -0.75f, 0f, 0f),
+                Event(InputEventRing.TYPE_MOUSE, 2, 1, 1, 12.5f, -3f, 0f),
+                Event(InputEventRing.TYPE_TOUCH, 0, 3, 7, 100f, 200f, 0.5f),
+                Event(InputEventRing.TYPE_MOUSE_WHEEL, 0, 0, 0, 0f, -1f, 0f)
+            ),
+            sink.events
+        )
+        assertEquals(0, ring.drain(sink))
+    }
+
+    @Test
+    fun wrapsAroundWithoutLosingEvents() {
+        val ring = InputEventRing.allocate(capacity = 8)
+        val sink = RecordingSink()
+        var next = 0
+        repeat(20) { round ->
+            repeat(round % 8 + 1) { ring.pushAxis(0, next++, 0f) }
+            ring.drain(sink)
+        }
+        assertEquals(List(next) { it }, sink.events.map { it.code })
+    }
+
+    @Test
+    fun drainIsRequestedOnceWhenRingBecomesNonEmpty() {
+        val requests = ArrayList<Boolean>()
+        val ring = InputEventRing.allocate(capacity = 8) { immediate -> requests.add(immediate) }
+
+        ring.pushKey(1, true)
+        ring.pushKey(1, false)
+        ring.pushKey(2, true)
+        assertEquals(listOf(false), requests)
+
+        ring.drain(RecordingSink())
+        ring.pushKey(2, false)
+        assertEquals(listOf(false, false), requests)
+    }
+
+    @Test
+    fun fullRingDrainsImmediatelyOrDropsAndCounts() {
+        val sink = RecordingSink()
+        lateinit var draining: InputEventRing
+        draining = InputEventRing.allocate(capacity = 4) { immediate -> if (immediate) draining.drain(sink) }
+        repeat(10) { assertTrue(draining.pushAxis(0, it, 0f)) }
+        draining.drain(sink)
+        assertEquals(List(10) { it }, sink.events.map { it.code })
+
+        // 派发方暂时无法派发（例如其它线程正在派发）时写入端等待，而不是绕过缓冲区
+        val waitingSink = RecordingSink()
+        var requests = 0
+        lateinit var busy: InputEventRing
+        busy = InputEventRing.allocate(capacity = 4) { immediate ->
+            if (immediate && ++requests % 3 == 0) busy.drain(waitingSink)
+        }
+        repeat(12) { assertTrue(busy.pushKey(it, it % 2 == 0)) }
+        busy.drain(waitingSink)
+        assertEquals(List(12) { it }, waitingSink.events.map { it.code })
+        assertEquals(6, requests)
+
+        val stalled = InputEventRing.allocate(capacity = 4)
+        repeat(4) { assertTrue(stalled.pushKey(it, true)) }
+        assertFalse(stalled.pushKey(4, true))
+        assertFalse(stalled.pushKey(5, true))
+
+        val stats = InputEventRing.LatencySnapshot()
+        stalled.readLatency(stats)
+        assertEquals(2L, stats.dropped)
+        assertEquals(4, stalled.pending)
+    }
+
+    @Test
+    fun consumerDrainsUpToPublishedWriteIndexAndHandsBackReadIndex() {
+        val requests = ArrayList<Boolean>()
+        lateinit var ring: InputEventRing
+        // 模拟 native 消费方：只拿到 writeIndex，每次派发两个事件后交回新的 read index
+        ring = InputEventRing.allocate(capacity = 4) { immediate ->
+            requests.add(immediate)
+            if (immediate) ring.onDrained(minOf(ring.readIndex + 2, ring.writeIndex))
+        }
+
+        repeat(5) { assertTrue(ring.pushKey(it, true)) }
+
+        assertEquals(5L, ring.writeIndex)
+        assertEquals(2L, ring.readIndex)
+        assertEquals(3, ring.pending)
+        // 第一个事件时缓冲区为空，第五个事件时缓冲区已满，等消费方派发到 2 后才写入
+        assertEquals(listOf(false, true), requests)
+
+        // 并发派发方交回的旧值不会让 read index 回退
+        ring.onDrained(1L)
+        assertEquals(2L, ring.readIndex)
+    }
+
+    @Test
+    fun latencyStatsRecordDispatchDelay() {
+        val ring = InputEventRing.allocate(capacity = 16)
+        repeat(4) { ring.pushKey(it, true) }
+        Thread.sleep(3)
+        ring.drain(RecordingSink())
+
+        val stats = InputEventRing.LatencySnapshot()
+        ring.readLatency(stats)
+        assertEquals(4L, stats.drained)
+        assertEquals(4, stats.histogram.sum())
+        assertTrue(stats.maxNs >= 3_000_000L)
+        assertTrue(stats.averageMs >= 3f)
+        assertTrue(stats.percentileMs(0.5) >= 4f)
+        assertEquals(0, stats.histogram[0] + stats.histogram[1] + stats.histogram[2])
+    }
+
+    @Test
+    fun pushingEventsDoesNotAllocate() {
+        val ring = InputEventRing.allocate()
+        val sink = object : InputEventRing.Sink {
+            var count = 0L
+            override fun onEvent(type: Int, action: Int, code: Int, device: Int, x: Float, y: Float, pressure: Float) {
+                count++
+            }
+        }
+        val frames = 20_000
+        // 每帧：两个按键、一次摇杆（两个轴）、一次鼠标移动，然后整帧派发
+        fun run() {
+            for (frame in 0 until frames) {
+                ring.pushKey(frame and 0xFF, isDown = true)
+                ring.pushKey(frame and 0xFF, isDown = false)
+                ring.pushAxis(999_999, 0, (frame and 63) / 63f)
+                ring.pushAxis(999_999, 1, -(frame and 63) / 63f)
+                ring.pushMouse(0, 2, frame.toFloat(), frame.toFloat(), relative = false)
+                ring.drain(sink)
+            }
+        }
+
+        repeat(3) { run() }
+        val threadBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        val threadId = Thread.currentThread().id
+        val allocatedBefore = threadBean?.getThreadAllocatedBytes(threadId) ?: 0L
+        run()
+        val allocatedAfter = threadBean?.getThreadAllocatedBytes(threadId) ?: 0L
+
+        val events = frames * 5
+        val allocated = allocatedAfter - allocatedBefore
+        assertEquals(4L * events, sink.count)
+        if (threadBean != null) {
+            // 旧实现每次按键分配一个 Handler 和一个 Runnable
+            assertTrue("allocated $allocated bytes", allocated < 4 * 1024)
+        }
+    }
+
+    private data class Event(
+        val type: Int, val action: Int, val code: Int, val device: Int,
+        val x: Float, val y: Float, val pressure: Float
+    )
+
+    private class RecordingSink : InputEventRing.Sink {
+        val events = ArrayList<Event>()
+        override fun onEvent(type: Int, action: Int, code: Int, device: Int, x: Float, y: Float, pressure: Float) {
+            events.add(Event(type, action, code, device, x, y, pressure))
+        }
+    }
+}
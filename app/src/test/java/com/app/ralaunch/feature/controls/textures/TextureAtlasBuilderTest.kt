@@ -0,0 +1,40 @@
+package com.app.ralaunch.feature.controls.textures
+
+import com.app.ralaunch.feature.controls.textures.TextureAtlasBuilder.Request
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class TextureAtlasBuilderTest {
+
+    @Test
+    fun sharedTextureKeepsOneRegionPerAspectRatio() {
+        val merged = TextureAtlasBuilder.merge(
+            listOf(
+                Request("b.png", 100, 200),
+                Request("a.png", 200, 100),
+                Request("a.png", 100, 200),
+                Request("a.png", 100, 50),
+                Request("a.png", 0, 50)
+            )
+        )
+
+        // 同一宽高比取最大尺寸，宽高比不同的各保留一份，不会合成 200x200
+        assertEquals(
+            listOf(Request("a.png", 100, 200), Request("a.png", 200, 100), Request("b.png", 100, 200)),
+            merged
+        )
+    }
+
+    @Test
+    fun mergeIgnoresControlOrder() {
+        val requests = listOf(
+            Request("knob.png", 96, 96),
+            Request("bg.png", 160, 160),
+            Request("knob.png", 120, 120),
+            Request("button.png", 150, 100)
+        )
+
+        assertEquals(TextureAtlasBuilder.merge(requests), TextureAtlasBuilder.merge(requests.reversed()))
+        assertEquals(Request("knob.png", 120, 120), TextureAtlasBuilder.merge(requests).last())
+    }
+}
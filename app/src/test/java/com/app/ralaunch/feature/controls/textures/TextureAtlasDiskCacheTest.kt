@@ -0,0 +1,152 @@
+package com.app.ralaunch.feature.controls.textures
+
+import com.app.ralaunch.core.logging.AppLog
+import com.app.ralaunch.core.logging.contract.Logger
+import com.app.ralaunch.feature.controls.textures.TextureAtlasBuilder.Request
+import com.app.ralaunch.feature.controls.textures.TextureAtlasBuilder.Spec
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.io.File
+import java.io.IOException
+import java.nio.file.Files
+
+class TextureAtlasDiskCacheTest {
+
+    @Before
+    fun setUp() {
+        AppLog.install(NoOpLogger)
+    }
+
+    @After
+    fun tearDown() {
+        AppLog.reset()
+    }
+
+    @Test
+    fun keyChangesWithTextureFileSizeVersionAndDensity() {
+        val root = Files.createTempDirectory("ralaunch-atlas").toFile()
+        try {
+            val assets = File(root, "assets").apply { mkdirs() }
+            val texture = File(assets, "a.png").apply { writeBytes(ByteArray(16)) }
+            texture.setLastModified(1_000_000L)
+            val cache = TextureAtlasDiskCache(File(root, "cache"))
+            val requests = listOf(Request("a.png", 120, 80))
+            val key = cache.keyOf(spec(assets, requests), requests)
+
+            assertEquals(key, cache.keyOf(spec(assets, requests), requests))
+            assertNotEquals(key, cache.keyOf(spec(assets, requests, versionCode = 2), requests))
+            assertNotEquals(key, cache.keyOf(spec(assets, requests, densityDpi = 480), requests))
+            val resized = listOf(Request("a.png", 120, 90))
+            assertNotEquals(key, cache.keyOf(spec(assets, resized), resized))
+
+            // 编辑纹理：大小或修改时间变化都会使缓存失效
+            texture.setLastModified(2_000_000L)
+            val touched = cache.keyOf(spec(assets, requests), requests)
+            assertNotEquals(key, touched)
+            texture.writeBytes(ByteArray(32))
+            texture.setLastModified(2_000_000L)
+            assertNotEquals(touched, cache.keyOf(spec(assets, requests), requests))
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun writtenCacheReadsBackAndReplacesOlderCachesOfSamePack() {
+        val root = Files.createTempDirectory("ralaunch-atlas").toFile()
+        try {
+            val cache = TextureAtlasDiskCache(root)
+            val entries = listOf(
+                TextureAtlasDiskCache.Entry("a.png", 0, 2, 2, 122, 82),
+                TextureAtlasDiskCache.Entry("a.png", 0, 126, 2, 206, 122),
+                TextureAtlasDiskCache.Entry("b.png", 1, 2, 2, 66, 66)
+            )
+            val old = cache.dirOf("pack", "v1_old")
+            val other = cache.dirOf("other", "v1_other")
+            assertTrue(cache.write(old, 1, entries.take(1), ::writePage))
+            assertTrue(cache.write(other, 1, entries.take(1), ::writePage))
+
+            val current = cache.dirOf("pack", "v1_new")
+            assertTrue(cache.write(current, 2, entries, ::writePage))
+
+            val index = cache.read(current)
+            assertEquals(TextureAtlasDiskCache.Index(TextureAtlasDiskCache.FORMAT, 2, entries), index)
+            assertEquals("page 1", cache.pageFile(current, 1).readText())
+            // 同一控件包只保留最新一份，不留下临时目录；其他控件包不受影响
+            assertEquals(listOf("v1_new"), File(root, "pack").list()?.toList())
+            assertTrue(cache.pageFile(other, 0).isFile)
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun failedWriteKeepsPreviousCache() {
+        val root = Files.createTempDirectory("ralaunch-atlas").toFile()
+        try {
+            val cache = TextureAtlasDiskCache(root)
+            val entries = listOf(TextureAtlasDiskCache.Entry("a.png", 0, 0, 0, 64, 64))
+            val previous = cache.dirOf("pack", "v1_previous")
+            assertTrue(cache.write(previous, 1, entries, ::writePage))
+
+            val failed = cache.dirOf("pack", "v1_failed")
+            assertFalse(cache.write(failed, 2, entries) { page, file ->
+                if (page == 1) throw IOException("disk full")
+                writePage(page, file)
+            })
+
+            assertEquals(listOf("v1_previous"), File(root, "pack").list()?.toList())
+            assertEquals(1, cache.read(previous)?.pages)
+            assertNull(cache.read(failed))
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun unreadableOrOutdatedIndexIsNotUsed() {
+        val root = Files.createTempDirectory("ralaunch-atlas").toFile()
+        try {
+            val cache = TextureAtlasDiskCache(root)
+
+            val corrupt = cache.dirOf("pack", "v1_corrupt").apply { mkdirs() }
+            File(corrupt, "index.json").writeText("{\"format\":")
+            assertNull(cache.read(corrupt))
+            assertFalse(corrupt.exists())
+
+            val outdated = cache.dirOf("pack", "v1_outdated").apply { mkdirs() }
+            File(outdated, "index.json").writeText("{\"format\":1,\"pages\":0,\"entries\":[]}")
+            assertNull(cache.read(outdated))
+
+            assertNull(cache.read(cache.dirOf("pack", "v1_missing")))
+        } finally {
+            root.deleteRecursively()
+        }
+    }
+
+    private fun spec(assetsDir: File, requests: List<Request>, versionCode: Int = 1, densityDpi: Int = 320) =
+        Spec("pack", versionCode, densityDpi, assetsDir, requests)
+
+    private fun writePage(page: Int, file: File) {
+        file.writeText("page $page")
+    }
+
+    private object NoOpLogger : Logger {
+        override fun v(tag: String, message: String): Int = 0
+        override fun v(tag: String, message: String, throwable: Throwable?): Int = 0
+        override fun d(tag: String, message: String): Int = 0
+        override fun d(tag: String, message: String, throwable: Throwable?): Int = 0
+        override fun i(tag: String, message: String): Int = 0
+        override fun i(tag: String, message: String, throwable: Throwable?): Int = 0
+        override fun w(tag: String, message: String): Int = 0
+        override fun w(tag: String, message: String, throwable: Throwable?): Int = 0
+        override fun e(tag: String, message: String): Int = 0
+        override fun e(tag: String, message: String, throwable: Throwable?): Int = 0
+    }
+}
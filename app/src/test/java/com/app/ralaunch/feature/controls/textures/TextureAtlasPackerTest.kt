@@ -0,0 +1,111 @@
+package com.app.ralaunch.feature.controls.textures
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Random
+
+class TextureAtlasPackerTest {
+
+    @Test
+    fun placementsStayInsidePagesWithoutOverlap() {
+        val random = Random(47)
+        repeat(30) { round ->
+            val count = 1 + random.nextInt(80)
+            val widths = IntArray(count) { 16 + random.nextInt(400) }
+            val heights = IntArray(count) { 16 + random.nextInt(400) }
+            val padding = 2
+            val result = TextureAtlasPacker.pack(widths, heights, 1024, padding)
+
+            assertEquals("round $round", count, result.packedCount)
+            for (i in 0 until count) {
+                val page = result.page[i]
+                assertTrue(result.x[i] >= padding && result.y[i] >= padding)
+                assertTrue(result.x[i] + widths[i] + padding <= result.pageWidth[page])
+                assertTrue(result.y[i] + heights[i] + padding <= result.pageHeight[page])
+                assertTrue(result.pageWidth[page] <= 1024 && result.pageHeight[page] <= 1024)
+                for (j in 0 until i) {
+                    if (result.page[j] != page) continue
+                    // 两者之间至少隔 padding 像素
+                    val apart = result.x[i] >= result.x[j] + widths[j] + padding ||
+                        result.x[j] >= result.x[i] + widths[i] + padding ||
+                        result.y[i] >= result.y[j] + heights[j] + padding ||
+                        result.y[j] >= result.y[i] + heights[i] + padding
+                    assertTrue("round $round: $i overlaps $j", apart)
+                }
+            }
+        }
+    }
+
+    @Test
+    fun typicalLayoutFitsOnePage() {
+        // 60 个控件、十几种纹理，尺寸与 1080p 屏幕上的按钮、摇杆相近
+        val widths = IntArray(16) { if (it < 2) 360 else 120 + it * 8 }
+        val heights = IntArray(16) { if (it < 2) 360 else 120 + it * 8 }
+        val result = TextureAtlasPacker.pack(widths, heights, 2048)
+
+        assertEquals(1, result.pageCount)
+        assertEquals(16, result.packedCount)
+    }
+
+    @Test
+    fun oversizedAndEmptyRectanglesAreLeftOut() {
+        val result = TextureAtlasPacker.pack(
+            intArrayOf(100, 2048, 0, 2044, 100),
+            intArrayOf(100, 10, 50, 2044, 2045),
+            maxPageSize = 2048,
+            padding = 2
+        )
+
+        // 按高度降序放置，最大的先占满第 0 页
+        assertArrayEquals(intArrayOf(1, -1, -1, 0, -1), result.page)
+        assertEquals(2, result.pageCount)
+        assertEquals(2048, result.pageWidth[0])
+        assertEquals(2048, result.pageHeight[0])
+    }
+
+    @Test
+    fun overflowOpensPagesUpToLimit() {
+        val widths = IntArray(10) { 500 }
+        val heights = IntArray(10) { 500 }
+
+        val unlimited = TextureAtlasPacker.pack(widths, heights, 1024, padding = 2)
+        assertEquals(10, unlimited.packedCount)
+        assertEquals(3, unlimited.pageCount)
+
+        val limited = TextureAtlasPacker.pack(widths, heights, 1024, padding = 2, maxPages = 2)
+        assertEquals(2, limited.pageCount)
+        assertEquals(8, limited.packedCount)
+    }
+
+    @Test
+    fun shortRectanglesReuseTallerShelves() {
+        val result = TextureAtlasPacker.pack(
+            intArrayOf(200, 100, 100),
+            intArrayOf(200, 80, 60),
+            maxPageSize = 1024,
+            padding = 2
+        )
+
+        assertEquals(1, result.pageCount)
+        assertEquals(2, result.y[1])
+        assertEquals(2, result.y[2])
+        assertEquals(306, result.x[2])
+        assertEquals(204, result.pageHeight[0])
+    }
+
+    @Test
+    fun resultIsDeterministic() {
+        val random = Random(7)
+        val widths = IntArray(40) { 20 + random.nextInt(300) }
+        val heights = IntArray(40) { 20 + random.nextInt(300) }
+
+        val first = TextureAtlasPacker.pack(widths, heights, 1024)
+        val second = TextureAtlasPacker.pack(widths.copyOf(), heights.copyOf(), 1024)
+
+        assertArrayEquals(first.page, second.page)
+        assertArrayEquals(first.x, second.x)
+        assertArrayEquals(first.y, second.y)
+    }
+}
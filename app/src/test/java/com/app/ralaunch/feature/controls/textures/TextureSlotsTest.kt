@@ -0,0 +1,168 @@
+package com.app.ralaunch.feature.controls.textures
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.File
+import java.lang.management.ManagementFactory
+import java.nio.file.Files
+
+class TextureSlotsTest {
+
+    private class Handle(val path: String, val width: Int, val height: Int)
+
+    /**
+     * 模拟 [TextureLoader.resolvePackTexture]：每次解析都检查文件是否存在，并记录文件系统访问次数
+     */
+    private class CountingResolver : TextureSlots.Resolver<Handle> {
+        var fileChecks = 0
+
+        override fun resolve(assetsDir: File, config: TextureConfig, width: Int, height: Int): Handle? {
+            fileChecks++
+            if (!File(assetsDir, config.path).exists()) return null
+            return Handle(config.path, width, height)
+        }
+    }
+
+    private val background = TextureConfig(path = "base.png", enabled = true)
+    private val knob = TextureConfig(path = "knob.png", enabled = true)
+    private val knobPressed = TextureConfig(path = "knob_pressed.png", enabled = true)
+
+    @Test
+    fun bindResolvesOnceAndRebindingIsFree() = withPack { dir ->
+        val resolver = CountingResolver()
+        val slots = TextureSlots(3, resolver)
+
+        assertTrue(slots.bind(0, dir, background, 300, 300))
+        assertTrue(slots.bind(1, dir, knob, 150, 150))
+        assertTrue(slots.bind(2, dir, knobPressed, 150, 150))
+        assertEquals(3, resolver.fileChecks)
+
+        // 同样的参数再次绑定（例如重复 layout）不访问文件系统
+        assertFalse(slots.bind(0, dir, background.copy(), 300, 300))
+        assertFalse(slots.bind(1, dir, knob, 150, 150))
+        assertEquals(3, resolver.fileChecks)
+
+        assertEquals("base.png", slots[0]!!.path)
+        assertEquals(150, slots[1]!!.width)
+    }
+
+    @Test
+    fun drawingTouchesNeitherFilesystemNorHeap() = withPack { dir ->
+        val resolver = CountingResolver()
+        val slots = TextureSlots(4, resolver)
+        // 按下底盘已启用但文件缺失：句柄为 null
+        val backgroundPressed = TextureConfig(path = "missing.png", enabled = true)
+        slots.bind(SLOT_BACKGROUND, dir, background, 300, 300)
+        slots.bind(SLOT_BACKGROUND_PRESSED, dir, backgroundPressed, 300, 300)
+        slots.bind(SLOT_KNOB, dir, knob, 150, 150)
+        slots.bind(SLOT_KNOB_PRESSED, dir, knobPressed, 150, 150)
+        val checksAfterBind = resolver.fileChecks
+
+        // 与 VirtualJoystick.onDraw 相同的选择逻辑：按纹理配置是否启用选择槽，槽中没有句柄时不绘制
+        fun frame(touching: Boolean): Int {
+            var drawn = 0
+            val bg = slots[if (touching && backgroundPressed.enabled) SLOT_BACKGROUND_PRESSED else SLOT_BACKGROUND]
+            if (bg != null) drawn += bg.width
+            val k = slots[if (touching && knobPressed.enabled) SLOT_KNOB_PRESSED else SLOT_KNOB]
+            if (k != null) drawn += k.width
+            return drawn
+        }
+
+        assertEquals(450, frame(false))
+        assertEquals(150, frame(true))
+        repeat(20_000) { frame(it % 3 == 0) }
+
+        val frames = 99_999
+        val threadBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        val threadId = Thread.currentThread().id
+        val allocatedBefore = threadBean?.getThreadAllocatedBytes(threadId) ?: 0L
+        var total = 0L
+        for (i in 0 until frames) total += frame(i % 3 == 0)
+        val allocated = (threadBean?.getThreadAllocatedBytes(threadId) ?: 0L) - allocatedBefore
+
+        assertEquals(0, resolver.fileChecks - checksAfterBind)
+        assertEquals(frames / 3 * (150L + 450L + 450L), total)
+        if (threadBean != null) {
+            assertTrue("allocated $allocated bytes", allocated < 1024)
+        }
+    }
+
+    @Test
+    fun packOrConfigChangeRebindsOnlyAffectedSlots() = withPack { dir ->
+        val otherPack = File(dir, "other").apply { mkdirs() }
+        File(otherPack, "base.png").writeText("png")
+        val resolver = CountingResolver()
+        val slots = TextureSlots(2, resolver)
+        slots.bind(0, dir, background, 300, 300)
+        slots.bind(1, dir, knob, 150, 150)
+        val original = slots[0]
+
+        // 修改摇杆头纹理配置只重新解析该槽
+        assertFalse(slots.bind(0, dir, background, 300, 300))
+        assertTrue(slots.bind(1, dir, knob.copy(opacity = 0.5f), 150, 150))
+        assertEquals(3, resolver.fileChecks)
+        assertSame(original, slots[0])
+
+        // 尺寸变化
+        assertTrue(slots.bind(1, dir, knob.copy(opacity = 0.5f), 120, 120))
+        assertEquals(120, slots[1]!!.width)
+
+        // 切换控件包：两个槽都重新解析，新包中没有的纹理句柄为 null
+        assertTrue(slots.bind(0, otherPack, background, 300, 300))
+        assertTrue(slots.bind(1, otherPack, knob, 150, 150))
+        assertEquals(6, resolver.fileChecks)
+        assertNotSame(original, slots[0])
+        assertNull(slots[1])
+    }
+
+    @Test
+    fun disabledConfigsAndMissingPackResolveToNullWithoutFileAccess() = withPack { dir ->
+        val resolver = CountingResolver()
+        val slots = TextureSlots(3, resolver)
+
+        slots.bind(0, null, background, 300, 300)
+        slots.bind(1, dir, background.copy(enabled = false), 300, 300)
+        slots.bind(2, dir, knob, 0, 0)
+
+        assertEquals(0, resolver.fileChecks)
+        assertNull(slots[0])
+        assertNull(slots[1])
+        assertNull(slots[2])
+    }
+
+    @Test
+    fun invalidateForcesResolveOnNextBind() = withPack { dir ->
+        val resolver = CountingResolver()
+        val slots = TextureSlots(1, resolver)
+        slots.bind(0, dir, background, 300, 300)
+        val first = slots[0]
+
+        slots.invalidate()
+        assertNull(slots[0])
+        assertTrue(slots.bind(0, dir, background, 300, 300))
+        assertEquals(2, resolver.fileChecks)
+        assertNotSame(first, slots[0])
+    }
+
+    private fun withPack(block: (File) -> Unit) {
+        val dir = Files.createTempDirectory("ralaunch-texture-slots").toFile()
+        try {
+            for (name in listOf("base.png", "knob.png", "knob_pressed.png")) File(dir, name).writeText("png")
+            block(dir)
+        } finally {
+            dir.deleteRecursively()
+        }
+    }
+
+    private companion object {
+        const val SLOT_BACKGROUND = 0
+        const val SLOT_BACKGROUND_PRESSED = 1
+        const val SLOT_KNOB = 2
+        const val SLOT_KNOB_PRESSED = 3
+    }
+}
@@ -0,0 +1,321 @@
+package com.app.ralaunch.feature.controls.ui
+
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.DataInputStream
+
+/**
+ * 检查每种控件的 onDraw 不分配对象
+ *
+ * 单元测试中 android.jar 只有桩实现，无法真正创建 View 和 Canvas，因此直接读取编译后的 class 文件：
+ * 从 onDraw 出发，沿调用链进入本应用的所有方法（包括 [com.app.ralaunch.feature.controls.textures.TextureRenderer]），
+ * 记录对 Canvas 的调用，并把 new、数组创建、invokedynamic（字符串模板、lambda）、装箱等分配字节码视为失败。
+ * 几何、画笔、着色器应在尺寸或控件数据变化时预先构建，绘制时只读取。
+ */
+class ControlDrawAllocationTest {
+
+    private val scanner = DrawPathScanner(javaClass.classLoader!!)
+
+    @Test
+    fun buttonDrawsWithoutAllocating() = assertDrawAllocationFree("VirtualButton")
+
+    @Test
+    fun joystickDrawsWithoutAllocating() = assertDrawAllocationFree("VirtualJoystick")
+
+    @Test
+    fun dpadDrawsWithoutAllocating() = assertDrawAllocationFree("VirtualDPad")
+
+    @Test
+    fun radialMenuDrawsWithoutAllocating() = assertDrawAllocationFree("VirtualRadialMenu")
+
+    @Test
+    fun mouseWheelDrawsWithoutAllocating() = assertDrawAllocationFree("VirtualMouseWheel")
+
+    @Test
+    fun touchPadDrawsWithoutAllocating() = assertDrawAllocationFree("VirtualTouchPad")
+
+    @Test
+    fun textDrawsWithoutAllocating() = assertDrawAllocationFree("VirtualText")
+
+    @Test
+    fun scannerReportsAllocationsOutsideDrawPath() {
+        // 重建几何时允许分配，扫描器必须能发现这些分配，否则上面的检查没有意义
+        val rebuild = scanner.scan("$UI_PACKAGE/VirtualDPad", "rebuildGeometry", "()V")
+        assertTrue(rebuild.allocations.toString(), rebuild.allocations.any { "android/graphics/Path" in it })
+
+        val prepare = scanner.scan(
+            "com/app/ralaunch/feature/controls/textures/TextureRenderer",
+            "prepare",
+            "(Lcom/app/ralaunch/feature/controls/textures/TextureAtlas\$Region;" +
+                "Lcom/app/ralaunch/feature/controls/textures/TextureConfig;)V"
+        )
+        assertTrue(prepare.allocations.toString(), prepare.allocations.any { "PorterDuffColorFilter" in it })
+    }
+
+    private fun assertDrawAllocationFree(control: String) {
+        val report = scanner.scan("$UI_PACKAGE/$control", "onDraw", "(Landroid/graphics/Canvas;)V")
+        assertTrue("$control.onDraw was not found", report.methodCount > 0)
+        assertTrue("$control.onDraw draws nothing", report.canvasCalls.any { it.startsWith("draw") })
+        assertTrue(
+            "$control.onDraw allocates per frame:\n" + report.allocations.joinToString("\n"),
+            report.allocations.isEmpty()
+        )
+    }
+
+    private companion object {
+        const val UI_PACKAGE = "com/app/ralaunch/feature/controls/ui"
+    }
+}
+
+/**
+ * 遍历方法调用图的 class 文件扫描器，只进入 [APP_PACKAGE] 下的类
+ */
+private class DrawPathScanner(private val classLoader: ClassLoader) {
+
+    class Report(
+        /** 分配位置，形如 `VirtualButton.onDraw@12: new android/graphics/Path` */
+        val allocations: List<String>,
+        /** 调用过的 Canvas 方法名 */
+        val canvasCalls: Set<String>,
+        /** 遍历到的方法数 */
+        val methodCount: Int
+    )
+
+    private class Method(val owner: String, val name: String, val desc: String, val code: ByteArray?)
+
+    private val classes = HashMap<String, ClassFile?>()
+
+    fun scan(owner: String, name: String, desc: String): Report {
+        val allocations = ArrayList<String>()
+        val canvasCalls = HashSet<String>()
+        val visited = HashSet<String>()
+        val queue = ArrayDeque<Triple<String, String, String>>()
+        queue.add(Triple(owner, name, desc))
+
+        while (queue.isNotEmpty()) {
+            val (o, n, d) = queue.removeFirst()
+            val method = resolve(o, n, d) ?: continue
+            if (!visited.add("${method.owner}.${method.name}${method.desc}")) continue
+            val code = method.code ?: continue
+            val cp = load(method.owner)!!
+            val site = "${method.owner.substringAfterLast('/')}.${method.name}"
+
+            var pc = 0
+            while (pc < code.size) {
+                val op = code[pc].toInt() and 0xFF
+                when (op) {
+                    NEW -> {
+                        val type = cp.className(u2(code, pc + 1))
+                        // 异常只在出错时创建，不算每帧分配
+                        if (!type.endsWith("Exception") && !type.endsWith("Error")) {
+                            allocations.add("$site@$pc: new $type")
+                        }
+                    }
+                    NEWARRAY -> allocations.add("$site@$pc: newarray")
+                    ANEWARRAY -> allocations.add("$site@$pc: anewarray ${cp.className(u2(code, pc + 1))}")
+                    MULTIANEWARRAY -> allocations.add("$site@$pc: multianewarray ${cp.className(u2(code, pc + 1))}")
+                    INVOKEDYNAMIC -> allocations.add("$site@$pc: invokedynamic")
+                    INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC, INVOKEINTERFACE -> {
+                        val (calleeOwner, calleeName, calleeDesc) = cp.memberRef(u2(code, pc + 1))
+                        if (calleeOwner == CANVAS) canvasCalls.add(calleeName)
+                        when {
+                            isAllocatingCall(calleeOwner, calleeName) ->
+                                allocations.add("$site@$pc: call $calleeOwner.$calleeName")
+                            calleeOwner.startsWith(APP_PACKAGE) && op != INVOKEINTERFACE ->
+                                queue.add(Triple(calleeOwner, calleeName, calleeDesc))
+                        }
+                    }
+                }
+                pc += instructionLength(code, pc)
+            }
+        }
+        return Report(allocations, canvasCalls, visited.size)
+    }
+
+    /**
+     * 在类及其本应用内的父类中查找方法
+     */
+    private fun resolve(owner: String, name: String, desc: String): Method? {
+        var current = load(owner)
+        while (current != null) {
+            current.methods[name + desc]?.let { return it }
+            val superName = current.superName ?: return null
+            if (!superName.startsWith(APP_PACKAGE)) return null
+            current = load(superName)
+        }
+        return null
+    }
+
+    private fun load(name: String): ClassFile? {
+        if (name in classes) return classes[name]
+        val classFile = classLoader.getResourceAsStream("$name.class")?.use { ClassFile(it.readBytes()) }
+        classes[name] = classFile
+        return classFile
+    }
+
+    /**
+     * 常量池与方法表，只解析扫描需要的部分
+     */
+    private class ClassFile(bytes: ByteArray) {
+        val superName: String?
+        val methods = HashMap<String, Method>()
+
+        private val utf8: Array<String?>
+        private val ref1: IntArray
+        private val ref2: IntArray
+
+        init {
+            val input = DataInputStream(ByteArrayInputStream(bytes))
+            require(input.readInt() == 0xCAFEBABE.toInt()) { "not a class file" }
+            input.readUnsignedShort() // minor
+            input.readUnsignedShort() // major
+
+            val count = input.readUnsignedShort()
+            utf8 = arrayOfNulls(count)
+            ref1 = IntArray(count)
+            ref2 = IntArray(count)
+            var i = 1
+            while (i < count) {
+                when (val tag = input.readUnsignedByte()) {
+                    1 -> utf8[i] = input.readUTF()
+                    3, 4 -> input.skipNBytes(4)
+                    5, 6 -> {
+                        input.skipNBytes(8)
+                        i++ // long 和 double 占两个槽
+                    }
+                    7, 8, 16, 19, 20 -> ref1[i] = input.readUnsignedShort()
+                    9, 10, 11, 12, 17, 18 -> {
+                        ref1[i] = input.readUnsignedShort()
+                        ref2[i] = input.readUnsignedShort()
+                    }
+                    15 -> {
+                        input.readUnsignedByte()
+                        ref1[i] = input.readUnsignedShort()
+                    }
+                    else -> error("unknown constant pool tag $tag")
+                }
+                i++
+            }
+
+            input.readUnsignedShort() // access
+            val name = className(input.readUnsignedShort())
+            val superIndex = input.readUnsignedShort()
+            superName = if (superIndex == 0) null else className(superIndex)
+            input.skipNBytes(2L * input.readUnsignedShort()) // interfaces
+
+            repeat(input.readUnsignedShort()) { // fields
+                input.skipNBytes(6)
+                skipAttributes(input)
+            }
+            repeat(input.readUnsignedShort()) {
+                input.readUnsignedShort() // access
+                val methodName = utf8[input.readUnsignedShort()]!!
+                val desc = utf8[input.readUnsignedShort()]!!
+                var code: ByteArray? = null
+                repeat(input.readUnsignedShort()) {
+                    val attributeName = utf8[input.readUnsignedShort()]
+                    val length = input.readInt()
+                    if (attributeName == "Code") {
+                        input.skipNBytes(4) // max_stack, max_locals
+                        val codeLength = input.readInt()
+                        code = ByteArray(codeLength).also { input.readFully(it) }
+                        input.skipNBytes((length - 8 - codeLength).toLong())
+                    } else {
+                        input.skipNBytes(length.toLong())
+                    }
+                }
+                methods[methodName + desc] = Method(name, methodName, desc, code)
+            }
+        }
+
+        fun className(index: Int): String = utf8[ref1[index]]!!
+
+        /** 字段或方法引用的 (所属类, 名称, 描述符) */
+        fun memberRef(index: Int): Triple<String, String, String> {
+            val nameAndType = ref2[index]
+            return Triple(className(ref1[index]), utf8[ref1[nameAndType]]!!, utf8[ref2[nameAndType]]!!)
+        }
+
+        private fun skipAttributes(input: DataInputStream) {
+            repeat(input.readUnsignedShort()) {
+                input.readUnsignedShort()
+                input.skipNBytes(input.readInt().toLong())
+            }
+        }
+    }
+
+    companion object {
+        const val APP_PACKAGE = "com/app/ralaunch/"
+        const val CANVAS = "android/graphics/Canvas"
+
+        const val TABLESWITCH = 0xAA
+        const val LOOKUPSWITCH = 0xAB
+        const val INVOKEVIRTUAL = 0xB6
+        const val INVOKESPECIAL = 0xB7
+        const val INVOKESTATIC = 0xB8
+        const val INVOKEINTERFACE = 0xB9
+        const val INVOKEDYNAMIC = 0xBA
+        const val NEW = 0xBB
+        const val NEWARRAY = 0xBC
+        const val ANEWARRAY = 0xBD
+        const val WIDE = 0xC4
+        const val MULTIANEWARRAY = 0xC5
+        const val IINC = 0x84
+
+        private val BOXES = setOf(
+            "java/lang/Integer", "java/lang/Long", "java/lang/Float", "java/lang/Double",
+            "java/lang/Short", "java/lang/Byte", "java/lang/Character", "java/lang/Boolean"
+        )
+
+        /**
+         * 不进入但已知会分配的外部调用：装箱、字符串拼接与处理、集合构造、迭代器、数组拷贝
+         */
+        fun isAllocatingCall(owner: String, name: String): Boolean = when {
+            owner in BOXES -> name == "valueOf"
+            owner == "java/lang/String" -> name == "valueOf" || name == "format" || name == "concat"
+            owner == "kotlin/jvm/internal/Intrinsics" -> name == "stringPlus"
+            owner.startsWith("kotlin/text/StringsKt") -> true
+            owner.startsWith("kotlin/collections/SetsKt") ||
+                owner.startsWith("kotlin/collections/CollectionsKt") ||
+                owner.startsWith("kotlin/collections/MapsKt") -> true
+            owner.startsWith("[") -> name == "clone"
+            else -> name == "iterator"
+        }
+
+        fun u2(code: ByteArray, at: Int): Int =
+            ((code[at].toInt() and 0xFF) shl 8) or (code[at + 1].toInt() and 0xFF)
+
+        private fun s4(code: ByteArray, at: Int): Int =
+            ((code[at].toInt() and 0xFF) shl 24) or ((code[at + 1].toInt() and 0xFF) shl 16) or
+                ((code[at + 2].toInt() and 0xFF) shl 8) or (code[at + 3].toInt() and 0xFF)
+
+        /**
+         * 指令字节数（JVMS 第 6 章）
+         */
+        fun instructionLength(code: ByteArray, pc: Int): Int {
+            val op = code[pc].toInt() and 0xFF
+            return when (op) {
+                TABLESWITCH -> {
+                    val base = pc + 1 + (3 - pc % 4)
+                    val low = s4(code, base + 4)
+                    val high = s4(code, base + 8)
+                    base - pc + 12 + (high - low + 1) * 4
+                }
+                LOOKUPSWITCH -> {
+                    val base = pc + 1 + (3 - pc % 4)
+                    base - pc + 8 + s4(code, base + 4) * 8
+                }
+                WIDE -> if ((code[pc + 1].toInt() and 0xFF) == IINC) 6 else 4
+                0x10, 0x12, 0xA9, NEWARRAY -> 2 // bipush, ldc, ret, newarray
+                in 0x15..0x19, in 0x36..0x3A -> 2 // load, store
+                0x11, 0x13, 0x14, IINC -> 3 // sipush, ldc_w, ldc2_w, iinc
+                in 0x99..0xA8, 0xC6, 0xC7 -> 3 // 条件跳转、goto、jsr、ifnull、ifnonnull
+                in 0xB2..0xB8, NEW, ANEWARRAY, 0xC0, 0xC1 -> 3 // 字段、调用、new、checkcast、instanceof
+                MULTIANEWARRAY -> 4
+                INVOKEINTERFACE, INVOKEDYNAMIC, 0xC8, 0xC9 -> 5 // goto_w, jsr_w
+                else -> 1
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.app.ralaunch.feature.controls.ui
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.util.Random
+
+class ControlHitGridTest {
+
+    @Test
+    fun candidatesMatchReverseLinearScan() {
+        val random = Random(45)
+        repeat(20) { round ->
+            val width = 800 + random.nextInt(2_000)
+            val height = 400 + random.nextInt(800)
+            val count = 1 + random.nextInt(120)
+            val bounds = randomBounds(random, count, width, height)
+            val grid = ControlHitGrid().apply { rebuild(width, height, count, bounds) }
+            val out = IntArray(grid.maxCandidates)
+
+            repeat(2_000) {
+                val x = random.nextFloat() * (width + 20) - 10f
+                val y = random.nextFloat() * (height + 20) - 10f
+                val found = grid.query(x, y, out)
+                val expected = linearScan(x, y, count, bounds, width, height)
+                assertEquals("round $round at ($x, $y)", expected, out.take(found))
+            }
+        }
+    }
+
+    @Test
+    fun edgesFollowRectContainsSemantics() {
+        val bounds = intArrayOf(
+            0, 0, 100, 100,
+            100, 0, 200, 100,
+            50, 50, 150, 150
+        )
+        val grid = ControlHitGrid().apply { rebuild(400, 300, 3, bounds) }
+        val out = IntArray(grid.maxCandidates)
+
+        fun hits(x: Float, y: Float) = out.take(grid.query(x, y, out))
+
+        assertEquals(listOf(0), hits(0f, 0f))
+        assertEquals(listOf(1), hits(100f, 0f))
+        assertEquals(listOf(0), hits(99.9f, 10f))
+        assertEquals(listOf(2, 1), hits(120f, 60f))
+        assertEquals(listOf(2, 0), hits(60f, 99f))
+        assertEquals(listOf(2), hits(149f, 149f))
+        assertEquals(emptyList<Int>(), hits(150f, 150f))
+        assertEquals(emptyList<Int>(), hits(399f, 299f))
+    }
+
+    @Test
+    fun emptyAndDegenerateLayouts() {
+        val grid = ControlHitGrid()
+        grid.rebuild(0, 0, 0, IntArray(0))
+        assertEquals(0, grid.query(0f, 0f, IntArray(1)))
+
+        grid.rebuild(100, 100, 2, intArrayOf(10, 10, 10, 50, -50, -50, -10, -10))
+        assertEquals(0, grid.maxCandidates)
+        assertEquals(0, grid.query(10f, 20f, IntArray(1)))
+    }
+
+    /**
+     * 查询只检查触摸点所在格子的控件：控件互不重叠时，候选数不随控件总数增长
+     */
+    @Test
+    fun queryCostDoesNotGrowWithControlCount() {
+        val width = 2560
+        val height = 1280
+        // 格子为 80 x 40，80 x 80 的控件按 80 像素对齐放置，只覆盖一列两行格子
+        val slots = (width / 80) * (height / 80)
+        for (count in intArrayOf(10, 80, 320)) {
+            // 第 0 个控件铺满布局，位于最下层
+            val bounds = IntArray((count + 1) * 4)
+            bounds[2] = width
+            bounds[3] = height
+            for (i in 1..count) {
+                val slot = (i * 7) % slots
+                val left = slot % (width / 80) * 80
+                val top = slot / (width / 80) * 80
+                bounds[i * 4] = left
+                bounds[i * 4 + 1] = top
+                bounds[i * 4 + 2] = left + 80
+                bounds[i * 4 + 3] = top + 80
+            }
+            val grid = ControlHitGrid().apply { rebuild(width, height, count + 1, bounds) }
+            val out = IntArray(grid.maxCandidates)
+
+            assertEquals("$count controls", 2, grid.maxCandidates)
+            for (i in 1..count) {
+                val x = bounds[i * 4] + 40f
+                val y = bounds[i * 4 + 1] + 40f
+                assertEquals(listOf(i, 0), out.take(grid.query(x, y, out)))
+            }
+        }
+    }
+
+    private fun randomBounds(random: Random, count: Int, width: Int, height: Int): IntArray {
+        val bounds = IntArray(count * 4)
+        for (i in 0 until count) {
+            val w = random.nextInt(width / 3)
+            val h = random.nextInt(height / 3)
+            // 允许部分超出布局
+            val left = random.nextInt(width + 100) - 80
+            val top = random.nextInt(height + 100) - 80
+            bounds[i * 4] = left
+            bounds[i * 4 + 1] = top
+            bounds[i * 4 + 2] = left + w
+            bounds[i * 4 + 3] = top + h
+        }
+        return bounds
+    }
+
+    /** 原 handlePointerDown 的遍历方式：从上层往下逐个检查 */
+    private fun linearScan(x: Float, y: Float, count: Int, bounds: IntArray, width: Int, height: Int): List<Int> {
+        val px = x.toInt()
+        val py = y.toInt()
+        if (px < 0 || py < 0 || px >= width || py >= height) return emptyList()
+        return (count - 1 downTo 0).filter { i ->
+            px >= bounds[i * 4] && py >= bounds[i * 4 + 1] && px < bounds[i * 4 + 2] && py < bounds[i * 4 + 3]
+        }
+    }
+}
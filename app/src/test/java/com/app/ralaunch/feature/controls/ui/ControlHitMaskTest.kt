@@ -0,0 +1,173 @@
+package com.app.ralaunch.feature.controls.ui
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.lang.management.ManagementFactory
+import java.util.Random
+
+class ControlHitMaskTest {
+
+    @Test
+    fun roundRectMaskMatchesGeometryOnEveryPixel() {
+        for ((w, h, radius) in listOf(Triple(180, 90, 24f), Triple(301, 157, 500f), Triple(64, 64, 0f), Triple(7, 400, 3.5f))) {
+            val predicate = ControlHitMask.PixelPredicate { x, y -> ControlHitMask.roundRectContains(x, y, w, h, radius) }
+            assertMaskMatches(w, h, predicate)
+        }
+    }
+
+    @Test
+    fun polygonMaskMatchesGeometryOnEveryPixel() {
+        val w = 240
+        val h = 200
+        // 凸多边形、凹多边形与自交五角星（非零环绕下中心被填充）
+        val shapes = listOf(
+            floatArrayOf(0.5f, 0f, 1f, 0.5f, 0.5f, 1f, 0f, 0.5f),
+            floatArrayOf(0f, 0f, 1f, 0f, 1f, 1f, 0.5f, 0.3f, 0f, 1f),
+            floatArrayOf(0.5f, 0f, 0.8f, 1f, 0f, 0.35f, 1f, 0.35f, 0.2f, 1f)
+        )
+        for (normalized in shapes) {
+            val xs = FloatArray(normalized.size / 2) { normalized[it * 2] * w }
+            val ys = FloatArray(normalized.size / 2) { normalized[it * 2 + 1] * h }
+            assertMaskMatches(w, h) { x, y -> ControlHitMask.polygonContains(x, y, xs, ys) }
+        }
+    }
+
+    @Test
+    fun geometryHelpersFollowPathRules() {
+        // 圆角半径超过短边一半时截断，退化为胶囊形
+        assertTrue(ControlHitMask.roundRectContains(50, 0, 100, 40, 1_000f))
+        assertFalse(ControlHitMask.roundRectContains(0, 0, 100, 40, 1_000f))
+        assertTrue(ControlHitMask.roundRectContains(0, 0, 100, 40, 0f))
+        assertFalse(ControlHitMask.roundRectContains(100, 0, 100, 40, 0f))
+
+        val starXs = floatArrayOf(50f, 80f, 0f, 100f, 20f)
+        val starYs = floatArrayOf(0f, 100f, 35f, 35f, 100f)
+        assertTrue("center of a self-intersecting star is filled", ControlHitMask.polygonContains(50, 50, starXs, starYs))
+        assertFalse(ControlHitMask.polygonContains(2, 2, starXs, starYs))
+        assertFalse(ControlHitMask.polygonContains(1, 1, floatArrayOf(0f, 10f), floatArrayOf(0f, 10f)))
+    }
+
+    @Test
+    fun alphaMaskMatchesPerPixelSamplingAwayFromEdges() {
+        val random = Random(46)
+        val texWidth = 128
+        val texHeight = 96
+        // 不透明圆形图案，外围半透明，带少量噪点
+        val pixels = IntArray(texWidth * texHeight) { i ->
+            val x = i % texWidth - texWidth / 2f
+            val y = i / texWidth - texHeight / 2f
+            val alpha = when {
+                x * x + y * y < 40f * 40f -> 255
+                random.nextInt(50) == 0 -> 200
+                else -> 30
+            }
+            (alpha shl 24) or 0x336699
+        }
+        val w = 200
+        val h = 150
+        val mask = ControlHitMask.fromAlpha(pixels, texWidth, texHeight, w, h)
+
+        // 原实现：每次触摸按本地坐标采样一个像素
+        fun sampleAlpha(localX: Float, localY: Float): Boolean {
+            val texX = ((localX / w) * texWidth).toInt().coerceIn(0, texWidth - 1)
+            val texY = ((localY / h) * texHeight).toInt().coerceIn(0, texHeight - 1)
+            return (pixels[texY * texWidth + texX] ushr 24) > 50
+        }
+
+        var mismatches = 0
+        for (y in 0 until h) {
+            for (x in 0 until w) {
+                val expected = sampleAlpha(x.toFloat(), y.toFloat())
+                when (mask.classify(x.toFloat(), y.toFloat())) {
+                    ControlHitMask.INSIDE -> assertTrue(expected)
+                    ControlHitMask.OUTSIDE -> assertFalse(expected)
+                }
+                if (mask.contains(x.toFloat(), y.toFloat()) != expected) mismatches++
+            }
+        }
+        assertTrue("mismatches $mismatches", mismatches < w * h / 20)
+    }
+
+    @Test
+    fun outOfBoundsAndEmptyMasks() {
+        val mask = ControlHitMask.build(10, 10) { _, _ -> true }
+        assertEquals(ControlHitMask.INSIDE, mask.classify(-0.5f, 0f))
+        assertEquals(ControlHitMask.OUTSIDE, mask.classify(-1f, 0f))
+        assertEquals(ControlHitMask.OUTSIDE, mask.classify(10f, 5f))
+        assertFalse(mask.contains(5f, 10f))
+
+        val empty = ControlHitMask.build(0, 0) { _, _ -> true }
+        assertEquals(ControlHitMask.OUTSIDE, empty.classify(0f, 0f))
+        assertFalse(empty.contains(0f, 0f))
+    }
+
+    @Test
+    fun lookupDoesNotAllocate() {
+        val w = 300
+        val h = 200
+        val xs = floatArrayOf(150f, 300f, 150f, 0f)
+        val ys = floatArrayOf(0f, 100f, 200f, 100f)
+        val predicate = ControlHitMask.PixelPredicate { x, y -> ControlHitMask.polygonContains(x, y, xs, ys) }
+        val mask = ControlHitMask.build(w, h, predicate = predicate)
+        val random = Random(1)
+        val points = FloatArray(8_192) { if (it % 2 == 0) random.nextFloat() * w else random.nextFloat() * h }
+
+        fun run(): Int {
+            var hits = 0
+            for (round in 0 until 50) {
+                for (p in points.indices step 2) {
+                    val x = points[p]
+                    val y = points[p + 1]
+                    val inside = when (mask.classify(x, y)) {
+                        ControlHitMask.INSIDE -> true
+                        ControlHitMask.EDGE -> predicate.test(x.toInt(), y.toInt())
+                        else -> false
+                    }
+                    if (inside) hits++
+                }
+            }
+            return hits
+        }
+
+        repeat(3) { run() }
+        val threadBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        val threadId = Thread.currentThread().id
+        val allocatedBefore = threadBean?.getThreadAllocatedBytes(threadId) ?: 0L
+        val hits = run()
+        val allocated = (threadBean?.getThreadAllocatedBytes(threadId) ?: 0L) - allocatedBefore
+
+        val lookups = 50 * points.size / 2
+        assertTrue(hits in 1 until lookups)
+        if (threadBean != null) {
+            assertTrue("allocated $allocated bytes", allocated < 1024)
+        }
+    }
+
+    /**
+     * 掩码判定与逐像素几何结果一致：完全在内/外的格子直接比对，跨越边界的格子按几何复算
+     */
+    private fun assertMaskMatches(w: Int, h: Int, predicate: ControlHitMask.PixelPredicate) {
+        val mask = ControlHitMask.build(w, h, predicate = predicate)
+        var edgePixels = 0
+        for (y in 0 until h) {
+            for (x in 0 until w) {
+                val expected = predicate.test(x, y)
+                // 触摸坐标带小数，取整后应落在同一像素
+                val fx = x + 0.75f
+                val fy = y + 0.25f
+                val decided = when (mask.classify(fx, fy)) {
+                    ControlHitMask.INSIDE -> true
+                    ControlHitMask.OUTSIDE -> false
+                    else -> {
+                        edgePixels++
+                        predicate.test(fx.toInt(), fy.toInt())
+                    }
+                }
+                assertEquals("pixel ($x, $y) of ${w}x$h", expected, decided)
+            }
+        }
+        assertTrue("edge cells should be a minority", edgePixels < w * h)
+    }
+}
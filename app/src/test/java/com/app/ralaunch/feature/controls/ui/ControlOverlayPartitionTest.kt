@@ -0,0 +1,139 @@
+package com.app.ralaunch.feature.controls.ui
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class ControlOverlayPartitionTest {
+
+    /**
+     * 模拟 [ControlOverlayRenderer]：宿主重绘时同步状态、按需重录静态层，并统计 GPU 每帧回放的控件数
+     */
+    private class OverlayModel(count: Int) {
+        val partition = ControlOverlayPartition().apply { reset(count) }
+        val atRest = BooleanArray(count) { true }
+        val visible = BooleanArray(count) { true }
+        var hostDirty = true
+        var hostRecords = 0
+        var staticRecords = 0
+        var replayedControls = 0L
+
+        /** 控件修改状态后调用 invalidate()，对应 ControlLayout.onDescendantInvalidated */
+        fun invalidate(index: Int, rest: Boolean) {
+            atRest[index] = rest
+            if (partition.onInvalidated(index, rest)) hostDirty = true
+        }
+
+        fun frame() {
+            if (hostDirty) {
+                hostRecords++
+                for (i in atRest.indices) partition.sync(i, atRest[i], visible[i])
+                if (partition.isStaticDirty) {
+                    partition.onStaticRecorded()
+                    staticRecords++
+                    // 静态层重新栅格化：回放所有静止控件一次
+                    replayedControls += partition.staticCount
+                }
+                hostDirty = false
+            }
+            // 每帧合成静态层，只回放实时控件
+            replayedControls += partition.count - partition.staticCount
+        }
+    }
+
+    @Test
+    fun restingControlsFormStaticLayerAndLiveUpdatesSkipHost() {
+        val model = OverlayModel(4)
+        model.frame()
+        assertEquals(1, model.staticRecords)
+        assertEquals(4, model.partition.staticCount)
+        assertFalse(model.partition.isStaticDirty)
+
+        // 摇杆被按住：离开静态层，宿主重绘一次
+        model.invalidate(JOYSTICK, rest = false)
+        model.frame()
+        assertEquals(2, model.hostRecords)
+        assertEquals(2, model.staticRecords)
+        assertFalse(model.partition.isStatic(JOYSTICK))
+        assertTrue(model.partition.isStatic(BUTTON))
+
+        // 拖动摇杆只更新摇杆自身的显示列表
+        repeat(100) {
+            model.invalidate(JOYSTICK, rest = false)
+            model.frame()
+        }
+        assertEquals(2, model.hostRecords)
+        assertEquals(2, model.staticRecords)
+
+        // 松开后回到静态层
+        model.invalidate(JOYSTICK, rest = true)
+        model.frame()
+        assertEquals(3, model.staticRecords)
+        assertTrue(model.partition.isStatic(JOYSTICK))
+    }
+
+    @Test
+    fun restingAppearanceChangeAndVisibilityRerecordStaticLayer() {
+        val model = OverlayModel(3)
+        model.frame()
+
+        // 纹理图集构建完成等静止外观变化：静态层重录，归属不变
+        model.invalidate(BUTTON, rest = true)
+        model.frame()
+        assertEquals(2, model.staticRecords)
+        assertEquals(3, model.partition.staticCount)
+
+        // 隐藏的控件不进入静态层，也不算实时控件
+        model.visible[BUTTON] = false
+        model.hostDirty = true
+        model.frame()
+        assertEquals(3, model.staticRecords)
+        assertFalse(model.partition.isStatic(BUTTON))
+        assertEquals(2, model.partition.staticCount)
+
+        // 增删控件后全部重新归类
+        model.partition.reset(5)
+        assertTrue(model.partition.isStaticDirty)
+        assertEquals(0, model.partition.staticCount)
+        assertFalse(model.partition.onInvalidated(7, atRest = false))
+    }
+
+    /**
+     * 60 个控件的布局：摇杆持续拖动，每 30 帧点按一次按钮（按住 6 帧）。
+     *
+     * 叠加层只在控件进出静止状态时重录静态层，其余帧只合成静态层并回放实时控件。
+     * 真机 UI 线程帧耗时由 ControlFrameTimeSampler 输出（日志标签 ControlFrameTime）。
+     */
+    @Test
+    fun sixtyControlSessionReplaysOnlyLiveControls() {
+        val controls = 60
+        val frames = 6_000
+        val model = OverlayModel(controls)
+
+        model.invalidate(JOYSTICK, rest = false)
+        for (frame in 0 until frames) {
+            val button = 2 + (frame / 30) % (controls - 2)
+            when (frame % 30) {
+                0 -> model.invalidate(button, rest = false)
+                6 -> model.invalidate(button, rest = true)
+            }
+            model.invalidate(JOYSTICK, rest = false)
+            model.frame()
+        }
+
+        // 每次点按进出静态层各重录一次，首帧的录制与第一次按下合并
+        val presses = frames / 30
+        assertEquals(2 * presses, model.staticRecords)
+        assertEquals(2 * presses, model.hostRecords)
+        // 每帧回放实时控件：摇杆，按住期间再加按钮；每次重录静态层回放全部静止控件
+        val liveReplays = frames + presses * 6L
+        val staticReplays = presses * ((controls - 2L) + (controls - 1L))
+        assertEquals(liveReplays + staticReplays, model.replayedControls)
+    }
+
+    private companion object {
+        const val JOYSTICK = 0
+        const val BUTTON = 1
+    }
+}
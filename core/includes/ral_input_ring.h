@@ -0,0 +1,72 @@
+#ifndef ROTATING_ART_LAUNCHER_RAL_INPUT_RING_H
+#define ROTATING_ART_LAUNCHER_RAL_INPUT_RING_H
+
+/*
+ * 虚拟控件输入事件环形缓冲区
+ *
+ * 固定布局（小端），由 libmain 静态分配。Kotlin 侧的 InputEventRing 通过 DirectByteBuffer
+ * 写入打包好的事件（按键、手柄按键、轴、鼠标、滚轮、触摸），写入不分配对象，也不经过 JNI；
+ * 消费方每帧经由 NativeInputQueue.nativeDrain 的一次 JNI 调用，按顺序把事件转交给 SDL 的输入入口，
+ * 并统计每个事件从写入到派发的延迟。
+ *
+ * DirectByteBuffer 的读写没有内存序，索引因此由 JVM 侧的原子变量发布：写者写完事件后以 release 语义
+ * 推进自己的 write index，消费方以 acquire 语义读取后作为 nativeDrain 的参数传入，
+ * nativeDrain 返回派发后的 read index，写者据此复用槽位。
+ * 本结构中的 write_index/read_index 与派发统计只由消费方写入，读者可能看到不同字段来自相邻两次派发，仅用于展示。
+ *
+ * 修改布局时必须同步更新 InputEventRing.kt 中的偏移量并提升 RAL_INPUT_RING_VERSION。
+ */
+
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+#define RAL_INPUT_RING_MAGIC 0x494C4152u /* "RALI" */
+#define RAL_INPUT_RING_VERSION 2u
+#define RAL_INPUT_RING_CAPACITY 256u      /* 必须是 2 的幂 */
+#define RAL_INPUT_RING_HEADER_SIZE 192u
+
+/* 延迟直方图：每桶 1 ms，最后一桶包含 >= 31 ms 的事件 */
+#define RAL_INPUT_LATENCY_BUCKETS 32u
+
+/* 事件类型 */
+#define RAL_INPUT_EVENT_KEY 1u            /* code = Android keycode，action 1 按下 / 0 抬起 */
+#define RAL_INPUT_EVENT_PAD_BUTTON 2u     /* device 上的手柄按键，code = Android keycode */
+#define RAL_INPUT_EVENT_AXIS 3u           /* device 上的轴，code = 轴序号，x = 轴值 */
+#define RAL_INPUT_EVENT_MOUSE 4u          /* code = 按键，action = MotionEvent 动作，device 非 0 表示相对坐标 */
+#define RAL_INPUT_EVENT_TOUCH 5u          /* device = 触摸设备，code = 手指 ID，pressure = 压力 */
+#define RAL_INPUT_EVENT_MOUSE_WHEEL 6u    /* y = 滚动量，正数向上 */
+
+typedef struct RalInputEvent {
+    uint16_t type;                /* offset 0 */
+    uint16_t action;              /* offset 2 */
+    int32_t code;                 /* offset 4 */
+    int32_t device;               /* offset 8 */
+    float x;                      /* offset 12 */
+    float y;                      /* offset 16 */
+    float pressure;               /* offset 20 */
+    uint64_t timestamp_ns;        /* offset 24，CLOCK_MONOTONIC，与 System.nanoTime 同源 */
+} RalInputEvent;
+
+typedef struct RalInputRing {
+    uint32_t magic;               /* offset 0 */
+    uint32_t version;             /* offset 4 */
+    uint32_t capacity;            /* offset 8 */
+    uint32_t event_size;          /* offset 12 */
+    uint64_t write_index;         /* offset 16，最近一次派发的终点 */
+    uint64_t read_index;          /* offset 24，已派发的事件总数 */
+    uint64_t dropped;             /* offset 32，缓冲区满时丢弃的事件数，由写者维护 */
+    uint64_t drained;             /* offset 40 */
+    uint64_t latency_total_ns;    /* offset 48 */
+    uint64_t latency_max_ns;      /* offset 56 */
+    uint32_t latency_histogram[RAL_INPUT_LATENCY_BUCKETS]; /* offset 64 */
+    RalInputEvent events[RAL_INPUT_RING_CAPACITY];        /* offset 192，第 i 个事件位于 i % capacity */
+} RalInputRing;
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif //ROTATING_ART_LAUNCHER_RAL_INPUT_RING_H
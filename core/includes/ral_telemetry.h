@@ -0,0 +1,96 @@
+#ifndef ROTATING_ART_LAUNCHER_RAL_TELEMETRY_H
+#define ROTATING_ART_LAUNCHER_RAL_TELEMETRY_H
+
+/*
+ * 进程内共享遥测块
+ *
+ * 固定布局（小端、512 字节），由 libmain 静态分配，替代原先通过 setenv 发布的
+ * RAL_FPS / RAL_FRAME_TIME 字符串：
+ *   - 帧区：由帧线程（native 渲染层的 present hook 或 C# FPSDisplayPatch）通过 RAL_Telemetry_RecordFrame 写入；
+ *   - 运行时区：由 C# FPSDisplayPatch 通过 RAL_Telemetry_PublishGc 写入累计 GC 次数与暂停时间。
+ * GL 诊断（RAL_GL_*）由子模块中的 FNA3D 渲染层通过环境变量发布，不经过该块。
+ * 每个区只有一个写者，使用各自的序列号（seqlock）：写入前置为奇数、写完置为偶数。
+ * Kotlin 侧通过 JNI 拿到指向该块的 DirectByteBuffer，按相同布局读取，读取本身不经过 JNI。
+ *
+ * 修改布局时必须同步更新 TelemetryBlock.kt 中的偏移量并提升 RAL_TELEMETRY_VERSION。
+ *
+ * 另有一个独立的帧时间环形缓冲区（RalFrameRing），RAL_Telemetry_RecordFrame 每帧写入一项，
+ * Kotlin 侧的会话采集器定期取走全部新帧，用于统计分位数、低帧率与卡顿次数。
+ */
+
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+#define RAL_TELEMETRY_MAGIC 0x544C4152u /* "RALT" */
+#define RAL_TELEMETRY_VERSION 2u
+#define RAL_TELEMETRY_BLOCK_SIZE 512u
+
+/* 帧时间直方图：每桶 1 ms，最后一桶包含 >= 63 ms 的帧 */
+#define RAL_TELEMETRY_HISTOGRAM_BUCKETS 64u
+
+/* 帧数据来源，第一个写入的来源占用帧区，其它来源的写入被忽略，避免同一帧被计两次 */
+#define RAL_TELEMETRY_SOURCE_NONE 0u
+#define RAL_TELEMETRY_SOURCE_NATIVE 1u
+#define RAL_TELEMETRY_SOURCE_MANAGED 2u
+
+typedef struct RalTelemetryFrame {
+    uint32_t seq;                 /* offset 16 */
+    uint32_t source;              /* offset 20 */
+    uint64_t frame_count;         /* offset 24 */
+    uint64_t last_frame_ns;       /* offset 32 */
+    uint64_t total_frame_ns;      /* offset 40 */
+    float fps;                    /* offset 48，最近一个 500 ms 窗口 */
+    float avg_frame_ms;           /* offset 52，最近一个窗口 */
+    float max_frame_ms;           /* offset 56，最近一个窗口 */
+    uint32_t reserved;            /* offset 60 */
+    uint32_t histogram[RAL_TELEMETRY_HISTOGRAM_BUCKETS]; /* offset 64，会话累计 */
+} RalTelemetryFrame;
+
+typedef struct RalTelemetryRuntime {
+    uint32_t seq;                 /* offset 400 */
+    uint32_t gc_count;            /* offset 404，第 0 代 GC 累计次数 */
+    double gc_pause_ms;           /* offset 408，GC 累计暂停时间 */
+} RalTelemetryRuntime;
+
+typedef struct RalTelemetryBlock {
+    uint32_t magic;               /* offset 0 */
+    uint32_t version;             /* offset 4 */
+    uint32_t size;                /* offset 8 */
+    uint32_t histogram_buckets;   /* offset 12 */
+    RalTelemetryFrame frame;      /* offset 16 */
+    uint8_t reserved_gl[80];      /* offset 320，原 GL 区，保留以固定后续偏移 */
+    RalTelemetryRuntime runtime;  /* offset 400 */
+    uint8_t reserved[96];         /* offset 416 */
+} RalTelemetryBlock;
+
+#define RAL_FRAME_RING_MAGIC 0x524C4152u /* "RALR" */
+#define RAL_FRAME_RING_CAPACITY 4096u
+
+typedef struct RalFrameRing {
+    uint32_t magic;               /* offset 0 */
+    uint32_t capacity;            /* offset 4 */
+    uint64_t write_index;         /* offset 8，已写入的帧总数；条目写完后以 release 语义递增 */
+    uint32_t frame_us[RAL_FRAME_RING_CAPACITY]; /* offset 16，第 i 帧位于 i % capacity，单位微秒 */
+} RalFrameRing;
+
+/* 遥测块地址，进程生命周期内不变 */
+__attribute__((visibility("default"))) RalTelemetryBlock *RAL_Telemetry_GetBlock(void);
+
+/*
+ * 记录一帧，只能在帧线程调用；无锁、无分配，可在每帧调用
+ * @param source RAL_TELEMETRY_SOURCE_*
+ * @param frame_ns 本帧耗时（纳秒）
+ */
+__attribute__((visibility("default"))) void RAL_Telemetry_RecordFrame(uint32_t source, uint64_t frame_ns);
+
+/* 发布一次 GC 统计，只能由同一个线程调用 */
+__attribute__((visibility("default"))) void RAL_Telemetry_PublishGc(uint32_t gc_count, double gc_pause_ms);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif //ROTATING_ART_LAUNCHER_RAL_TELEMETRY_H
@@ -1,6 +1,14 @@
 #ifndef ROTATING_ART_LAUNCHER_THREAD_AFFINITY_MANAGER_H
 #define ROTATING_ART_LAUNCHER_THREAD_AFFINITY_MANAGER_H
 
-int setThreadAffinityToBigCores();
+#include <cstdint>
+#include <sys/types.h>
+
+/**
+ * 将指定线程绑定到 cpuMask 中的 CPU（第 i 位对应 CPU i）
+ * 线程角色的判定与策略由 Kotlin 侧 ThreadAffinityController 负责
+ * @return 0 成功，否则为负的 errno
+ */
+int setThreadAffinityMask(pid_t tid, uint64_t cpuMask);
 
 #endif //ROTATING_ART_LAUNCHER_THREAD_AFFINITY_MANAGER_H
@@ -0,0 +1,142 @@
+#include <cstddef>
+#include <ctime>
+#include <jni.h>
+
+#include "ral_telemetry.h"
+
+static_assert(sizeof(RalTelemetryBlock) == RAL_TELEMETRY_BLOCK_SIZE, "telemetry block size changed");
+static_assert(offsetof(RalTelemetryBlock, frame) == 16, "frame section offset changed");
+static_assert(offsetof(RalTelemetryBlock, frame) + offsetof(RalTelemetryFrame, histogram) == 64,
+              "histogram offset changed");
+static_assert(offsetof(RalTelemetryBlock, runtime) == 400, "runtime section offset changed");
+static_assert(offsetof(RalTelemetryBlock, runtime) + offsetof(RalTelemetryRuntime, gc_pause_ms) == 408,
+              "runtime gc_pause_ms offset changed");
+static_assert(offsetof(RalFrameRing, frame_us) == 16, "frame ring offset changed");
+
+namespace {
+
+    constexpr uint64_t kWindowNs = 500'000'000ull;
+    constexpr uint64_t kNsPerMs = 1'000'000ull;
+
+    alignas(64) RalTelemetryBlock g_block = {
+            RAL_TELEMETRY_MAGIC,
+            RAL_TELEMETRY_VERSION,
+            RAL_TELEMETRY_BLOCK_SIZE,
+            RAL_TELEMETRY_HISTOGRAM_BUCKETS,
+    };
+
+    alignas(64) RalFrameRing g_frame_ring = {
+            RAL_FRAME_RING_MAGIC,
+            RAL_FRAME_RING_CAPACITY,
+    };
+
+    // 帧线程私有的窗口状态，不放进共享块
+    uint64_t g_window_start_ns = 0;
+    uint32_t g_window_frames = 0;
+    uint64_t g_window_total_ns = 0;
+    uint64_t g_window_max_ns = 0;
+
+    uint64_t monotonicNs() {
+        timespec ts{};
+        clock_gettime(CLOCK_MONOTONIC, &ts);
+        return static_cast<uint64_t>(ts.tv_sec) * 1'000'000'000ull + static_cast<uint64_t>(ts.tv_nsec);
+    }
+
+    inline void seqBeginWrite(uint32_t *seq) {
+        uint32_t value = __atomic_load_n(seq, __ATOMIC_RELAXED);
+        __atomic_store_n(seq, value + 1, __ATOMIC_RELAXED);
+        // 奇数序列号必须先于数据可见
+        __atomic_thread_fence(__ATOMIC_RELEASE);
+    }
+
+    inline void seqEndWrite(uint32_t *seq) {
+        uint32_t value = __atomic_load_n(seq, __ATOMIC_RELAXED);
+        __atomic_store_n(seq, value + 1, __ATOMIC_RELEASE);
+    }
+
+    bool claimFrameSource(uint32_t source) {
+        uint32_t current = __atomic_load_n(&g_block.frame.source, __ATOMIC_RELAXED);
+        if (current == source) {
+            return true;
+        }
+        if (current != RAL_TELEMETRY_SOURCE_NONE) {
+            return false;
+        }
+        uint32_t expected = RAL_TELEMETRY_SOURCE_NONE;
+        return __atomic_compare_exchange_n(&g_block.frame.source, &expected, source, false,
+                                           __ATOMIC_RELAXED, __ATOMIC_RELAXED) || expected == source;
+    }
+
+} // namespace
+
+extern "C" RalTelemetryBlock *RAL_Telemetry_GetBlock(void) {
+    return &g_block;
+}
+
+extern "C" void RAL_Telemetry_RecordFrame(uint32_t source, uint64_t frame_ns) {
+    if (source == RAL_TELEMETRY_SOURCE_NONE || !claimFrameSource(source)) {
+        return;
+    }
+
+    const uint64_t now = monotonicNs();
+    if (g_window_start_ns == 0) {
+        g_window_start_ns = now;
+    }
+    g_window_frames++;
+    g_window_total_ns += frame_ns;
+    if (frame_ns > g_window_max_ns) {
+        g_window_max_ns = frame_ns;
+    }
+
+    uint64_t bucket = frame_ns / kNsPerMs;
+    if (bucket >= RAL_TELEMETRY_HISTOGRAM_BUCKETS) {
+        bucket = RAL_TELEMETRY_HISTOGRAM_BUCKETS - 1;
+    }
+
+    RalTelemetryFrame &frame = g_block.frame;
+    seqBeginWrite(&frame.seq);
+    frame.frame_count++;
+    frame.last_frame_ns = frame_ns;
+    frame.total_frame_ns += frame_ns;
+    frame.histogram[bucket]++;
+
+    const uint64_t elapsed = now - g_window_start_ns;
+    if (elapsed >= kWindowNs) {
+        frame.fps = static_cast<float>(g_window_frames * 1e9 / static_cast<double>(elapsed));
+        frame.avg_frame_ms = static_cast<float>(g_window_total_ns / static_cast<double>(g_window_frames) / 1e6);
+        frame.max_frame_ms = static_cast<float>(g_window_max_ns / 1e6);
+        g_window_start_ns = now;
+        g_window_frames = 0;
+        g_window_total_ns = 0;
+        g_window_max_ns = 0;
+    }
+    seqEndWrite(&frame.seq);
+
+    const uint64_t frame_us = frame_ns / 1000ull;
+    const uint64_t index = __atomic_load_n(&g_frame_ring.write_index, __ATOMIC_RELAXED);
+    g_frame_ring.frame_us[index % RAL_FRAME_RING_CAPACITY] =
+            frame_us > UINT32_MAX ? UINT32_MAX : static_cast<uint32_t>(frame_us);
+    __atomic_store_n(&g_frame_ring.write_index, index + 1, __ATOMIC_RELEASE);
+}
+
+extern "C" void RAL_Telemetry_PublishGc(uint32_t gc_count, double gc_pause_ms) {
+    RalTelemetryRuntime &runtime = g_block.runtime;
+    seqBeginWrite(&runtime.seq);
+    runtime.gc_count = gc_count;
+    runtime.gc_pause_ms = gc_pause_ms;
+    seqEndWrite(&runtime.seq);
+}
+
+extern "C"
+JNIEXPORT jobject JNICALL
+Java_com_app_ralaunch_core_platform_runtime_NativeTelemetry_nativeGetBuffer(
+        JNIEnv *env, jobject thiz) {
+    return env->NewDirectByteBuffer(&g_block, sizeof(g_block));
+}
+
+extern "C"
+JNIEXPORT jobject JNICALL
+Java_com_app_ralaunch_core_platform_runtime_NativeTelemetry_nativeGetFrameRing(
+        JNIEnv *env, jobject thiz) {
+    return env->NewDirectByteBuffer(&g_frame_ring, sizeof(g_frame_ring));
+}
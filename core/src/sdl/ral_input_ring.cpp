@@ -0,0 +1,146 @@
+#include <cstddef>
+#include <ctime>
+#include <jni.h>
+
+#include "ral_input_ring.h"
+
+static_assert(sizeof(RalInputEvent) == 32, "input event size changed");
+static_assert(offsetof(RalInputEvent, timestamp_ns) == 24, "input event timestamp offset changed");
+static_assert(offsetof(RalInputRing, write_index) == 16, "write_index offset changed");
+static_assert(offsetof(RalInputRing, latency_histogram) == 64, "latency histogram offset changed");
+static_assert(offsetof(RalInputRing, events) == RAL_INPUT_RING_HEADER_SIZE, "events offset changed");
+static_assert((RAL_INPUT_RING_CAPACITY & (RAL_INPUT_RING_CAPACITY - 1)) == 0, "capacity must be a power of two");
+
+/*
+ * SDL 的 Java 输入入口（libSDL2 导出的 JNI 函数）
+ * 这些实现只转发参数、不使用 jclass，因此可以在 libmain 内直接调用，不再经过 JNI 分派
+ */
+extern "C" {
+JNIEXPORT void JNICALL Java_org_libsdl_app_SDLActivity_onNativeKeyDown(JNIEnv *env, jclass cls, jint keycode);
+JNIEXPORT void JNICALL Java_org_libsdl_app_SDLActivity_onNativeKeyUp(JNIEnv *env, jclass cls, jint keycode);
+JNIEXPORT void JNICALL Java_org_libsdl_app_SDLActivity_onNativeMouseDirect(
+        JNIEnv *env, jclass cls, jint button, jint action, jfloat x, jfloat y, jboolean relative);
+JNIEXPORT void JNICALL Java_org_libsdl_app_SDLActivity_onNativeTouch(
+        JNIEnv *env, jclass cls, jint touch_device_id, jint finger_id, jint action, jfloat x, jfloat y, jfloat p);
+JNIEXPORT jint JNICALL Java_org_libsdl_app_SDLControllerManager_onNativePadDown(
+        JNIEnv *env, jclass cls, jint device_id, jint keycode);
+JNIEXPORT jint JNICALL Java_org_libsdl_app_SDLControllerManager_onNativePadUp(
+        JNIEnv *env, jclass cls, jint device_id, jint keycode);
+JNIEXPORT void JNICALL Java_org_libsdl_app_SDLControllerManager_onNativeJoy(
+        JNIEnv *env, jclass cls, jint device_id, jint axis, jfloat value);
+/* sdl_input_bridge_extend.cpp */
+JNIEXPORT void JNICALL Java_com_app_ralaunch_feature_controls_bridges_SDLInputBridge_nativeSendMouseWheelSDL(
+        JNIEnv *env, jclass clazz, jfloat scroll_y);
+}
+
+namespace {
+
+    constexpr uint64_t kNsPerMs = 1'000'000ull;
+
+    alignas(64) RalInputRing g_ring = {
+            RAL_INPUT_RING_MAGIC,
+            RAL_INPUT_RING_VERSION,
+            RAL_INPUT_RING_CAPACITY,
+            sizeof(RalInputEvent),
+    };
+
+    // 消费方互斥标记，JNI 与 native 帧回调可能同时尝试派发
+    bool g_draining = false;
+
+    uint64_t monotonicNs() {
+        timespec ts{};
+        clock_gettime(CLOCK_MONOTONIC, &ts);
+        return static_cast<uint64_t>(ts.tv_sec) * 1'000'000'000ull + static_cast<uint64_t>(ts.tv_nsec);
+    }
+
+    void dispatch(JNIEnv *env, const RalInputEvent &event) {
+        switch (event.type) {
+            case RAL_INPUT_EVENT_KEY:
+                if (event.action) {
+                    Java_org_libsdl_app_SDLActivity_onNativeKeyDown(env, nullptr, event.code);
+                } else {
+                    Java_org_libsdl_app_SDLActivity_onNativeKeyUp(env, nullptr, event.code);
+                }
+                break;
+            case RAL_INPUT_EVENT_PAD_BUTTON:
+                if (event.action) {
+                    Java_org_libsdl_app_SDLControllerManager_onNativePadDown(env, nullptr, event.device, event.code);
+                } else {
+                    Java_org_libsdl_app_SDLControllerManager_onNativePadUp(env, nullptr, event.device, event.code);
+                }
+                break;
+            case RAL_INPUT_EVENT_AXIS:
+                Java_org_libsdl_app_SDLControllerManager_onNativeJoy(env, nullptr, event.device, event.code, event.x);
+                break;
+            case RAL_INPUT_EVENT_MOUSE:
+                Java_org_libsdl_app_SDLActivity_onNativeMouseDirect(
+                        env, nullptr, event.code, event.action, event.x, event.y,
+                        event.device != 0 ? JNI_TRUE : JNI_FALSE);
+                break;
+            case RAL_INPUT_EVENT_TOUCH:
+                Java_org_libsdl_app_SDLActivity_onNativeTouch(
+                        env, nullptr, event.device, event.code, event.action, event.x, event.y, event.pressure);
+                break;
+            case RAL_INPUT_EVENT_MOUSE_WHEEL:
+                Java_com_app_ralaunch_feature_controls_bridges_SDLInputBridge_nativeSendMouseWheelSDL(
+                        env, nullptr, event.y);
+                break;
+            default:
+                break;
+        }
+    }
+
+    void recordLatency(uint64_t now_ns, uint64_t timestamp_ns) {
+        uint64_t latency = now_ns > timestamp_ns ? now_ns - timestamp_ns : 0;
+        uint64_t bucket = latency / kNsPerMs;
+        if (bucket >= RAL_INPUT_LATENCY_BUCKETS) {
+            bucket = RAL_INPUT_LATENCY_BUCKETS - 1;
+        }
+        __atomic_store_n(&g_ring.latency_histogram[bucket], g_ring.latency_histogram[bucket] + 1, __ATOMIC_RELAXED);
+        __atomic_store_n(&g_ring.latency_total_ns, g_ring.latency_total_ns + latency, __ATOMIC_RELAXED);
+        if (latency > g_ring.latency_max_ns) {
+            __atomic_store_n(&g_ring.latency_max_ns, latency, __ATOMIC_RELAXED);
+        }
+    }
+
+    /*
+     * write 由调用方在 JVM 侧以 acquire 语义读取，此前写入的事件槽位对本线程可见；
+     * 并发调用方可能传入已派发过的旧值，此时不派发
+     */
+    uint64_t drain(JNIEnv *env, uint64_t write) {
+        if (env == nullptr || __atomic_exchange_n(&g_draining, true, __ATOMIC_ACQUIRE)) {
+            return __atomic_load_n(&g_ring.read_index, __ATOMIC_ACQUIRE);
+        }
+        uint64_t read = g_ring.read_index;
+        if (write > read) {
+            uint64_t now = monotonicNs();
+            for (uint64_t i = read; i < write; i++) {
+                const RalInputEvent &event = g_ring.events[i & (RAL_INPUT_RING_CAPACITY - 1)];
+                recordLatency(now, event.timestamp_ns);
+                dispatch(env, event);
+            }
+            __atomic_store_n(&g_ring.drained, g_ring.drained + (write - read), __ATOMIC_RELAXED);
+            __atomic_store_n(&g_ring.write_index, write, __ATOMIC_RELAXED);
+            __atomic_store_n(&g_ring.read_index, write, __ATOMIC_RELEASE);
+            read = write;
+        }
+        __atomic_store_n(&g_draining, false, __ATOMIC_RELEASE);
+        return read;
+    }
+
+} // namespace
+
+extern "C"
+JNIEXPORT jobject JNICALL
+Java_com_app_ralaunch_feature_controls_bridges_NativeInputQueue_nativeGetBuffer(
+        JNIEnv *env, jobject thiz) {
+    return env->NewDirectByteBuffer(&g_ring, sizeof(g_ring));
+}
+
+extern "C"
+JNIEXPORT jlong JNICALL
+Java_com_app_ralaunch_feature_controls_bridges_NativeInputQueue_nativeDrain(
+        JNIEnv *env, jobject thiz, jlong write_index) {
+    // 事件派发完、返回新的 read index 之后，写入端才会复用这些槽位
+    return static_cast<jlong>(drain(env, static_cast<uint64_t>(write_index)));
+}
@@ -24,6 +24,11 @@ public static class FPSDisplayPatcher
     private static float _currentFPS = 0f;
     private static readonly Stopwatch _stopwatch = Stopwatch.StartNew();
     
+    // 共享遥测块（libmain），不可用时退回只写环境变量
+    private const uint TelemetrySourceManaged = 2;
+    private static bool _telemetryAvailable = true;
+    private static long _lastFrameTicks = 0;
+    
     // 状态跟踪
     private static bool _lastCursorHidden = false;
     private static readonly object _lock = new object();
@@ -35,6 +40,15 @@ public static class FPSDisplayPatcher
     [DllImport("main", CallingConvention = CallingConvention.Cdecl)]
     private static extern int RAL_NotifyFPS(float fps);
     
+    // 写入共享遥测块的帧区，无锁、无分配，每帧调用
+    [DllImport("main", CallingConvention = CallingConvention.Cdecl)]
+    [SuppressGCTransition]
+    private static extern void RAL_Telemetry_RecordFrame(uint source, ulong frameNs);
+    
+    // 写入共享遥测块的运行时区（GC 累计次数与暂停时间），由启动器的会话指标直接读取
+    [DllImport("main", CallingConvention = CallingConvention.Cdecl)]
+    private static extern void RAL_Telemetry_PublishGc(uint gcCount, double gcPauseMs);
+    
     // Unix setenv 函数（直接设置进程环境变量）
     [DllImport("c", CallingConvention = CallingConvention.Cdecl)]
     private static extern int setenv(string name, string value, int overwrite);
@@ -145,6 +159,7 @@ public static class FPSDisplayPatcher
         {
             // 更新帧计数
             _frameCount++;
+            RecordTelemetryFrame();
             
             // 获取当前时间
             double currentTime = _stopwatch.Elapsed.TotalSeconds;
@@ -185,6 +200,54 @@ public static class FPSDisplayPatcher
         }
     }
     
+    /// <summary>
+    /// 将本帧耗时写入共享遥测块；libmain 未导出该函数时停用
+    /// </summary>
+    private static void RecordTelemetryFrame()
+    {
+        long nowTicks = _stopwatch.ElapsedTicks;
+        long lastTicks = _lastFrameTicks;
+        _lastFrameTicks = nowTicks;
+        if (!_telemetryAvailable || lastTicks == 0)
+        {
+            return;
+        }
+        
+        ulong frameNs = (ulong)((nowTicks - lastTicks) * (1_000_000_000.0 / Stopwatch.Frequency));
+        try
+        {
+            RAL_Telemetry_RecordFrame(TelemetrySourceManaged, frameNs);
+        }
+        catch (Exception ex) when (ex is DllNotFoundException || ex is EntryPointNotFoundException)
+        {
+            _telemetryAvailable = false;
+            Console.WriteLine($"[FPSDisplayPatch] Telemetry block unavailable: {ex.Message}");
+        }
+    }
+    
+    /// <summary>
+    /// 将 GC 累计暂停时间与次数写入共享遥测块，供启动器按运行时配置统计会话指标
+    /// </summary>
+    private static void PublishGcStats()
+    {
+        if (!_telemetryAvailable)
+        {
+            return;
+        }
+        
+        try
+        {
+            RAL_Telemetry_PublishGc(
+                (uint)GC.CollectionCount(0),
+                GC.GetTotalPauseDuration().TotalMilliseconds);
+        }
+        catch (Exception ex) when (ex is DllNotFoundException || ex is EntryPointNotFoundException)
+        {
+            _telemetryAvailable = false;
+            Console.WriteLine($"[FPSDisplayPatch] Telemetry block unavailable: {ex.Message}");
+        }
+    }
+    
     /// <summary>
     /// 更新 FPS 数据到环境变量
     /// </summary>
@@ -207,6 +270,8 @@ public static class FPSDisplayPatcher
                 Environment.SetEnvironmentVariable("RALCORE_FPS", fpsValue);
                 Environment.SetEnvironmentVariable("RALCORE_CURSOR_HIDDEN", cursorValue);
             }
+            
+            PublishGcStats();
         }
         catch
         {
@@ -0,0 +1,136 @@
+#!/usr/bin/env python3
+"""
+Generate integrity manifests for bundled component archives.
+
+For every tar / tar.gz / tar.xz archive in the assets directory (including
+subdirectories such as runtime_libs/), writes <output>/manifests/<archive>.json
+containing the archive size and CRC32 plus path, size and CRC32 of each
+regular file inside it. The app uses these
+manifests for fast (size + mtime) and deep (CRC32) verification of the
+extracted files and to repair only the files that fail.
+
+Archives that are still Git LFS pointers or cannot be read are skipped with a
+warning; the app falls back to its structural checks for those components.
+Run it explicitly (or via `./gradlew :app:generateAssetManifests`) after the
+real archives are in place, e.g. in CI before assembling the APK.
+
+Examples:
+    python3 scripts/generate_asset_manifest.py
+    python3 scripts/generate_asset_manifest.py --assets app/src/main/assets --output app/build/generated/assetManifests
+"""
+
+from __future__ import annotations
+
+import argparse
+import json
+import sys
+import tarfile
+import zlib
+from pathlib import Path
+
+
+ARCHIVE_SUFFIXES = (".tar.xz", ".tar.gz", ".tar")
+CHUNK_SIZE = 1024 * 1024
+
+
+def parse_args() -> argparse.Namespace:
+    parser = argparse.ArgumentParser(
+        description="Generate per-archive integrity manifests for app assets"
+    )
+    parser.add_argument(
+        "--assets",
+        default="app/src/main/assets",
+        help="Assets directory to scan (default: app/src/main/assets)",
+    )
+    parser.add_argument(
+        "--output",
+        default="app/build/generated/assetManifests",
+        help="Generated assets root; manifests are written to <output>/manifests",
+    )
+    return parser.parse_args()
+
+
+def crc32_of_stream(stream) -> int:
+    crc = 0
+    while True:
+        chunk = stream.read(CHUNK_SIZE)
+        if not chunk:
+            break
+        crc = zlib.crc32(chunk, crc)
+    return crc & 0xFFFFFFFF
+
+
+def normalize(name: str) -> str:
+    return name[2:] if name.startswith("./") else name
+
+
+LFS_POINTER_PREFIX = b"version https://git-lfs"
+
+
+def is_lfs_pointer(archive: Path) -> bool:
+    with archive.open("rb") as fh:
+        return fh.read(len(LFS_POINTER_PREFIX)) == LFS_POINTER_PREFIX
+
+
+def build_manifest(archive: Path, name: str) -> dict:
+    with archive.open("rb") as fh:
+        archive_crc = crc32_of_stream(fh)
+
+    entries = []
+    with tarfile.open(archive, "r:*") as tar:
+        for member in tar:
+            if not member.isfile():
+                continue
+            extracted = tar.extractfile(member)
+            if extracted is None:
+                continue
+            with extracted:
+                entries.append(
+                    {
+                        "path": normalize(member.name),
+                        "size": member.size,
+                        "crc32": crc32_of_stream(extracted),
+                    }
+                )
+
+    return {
+        "archive": name,
+        "archiveSize": archive.stat().st_size,
+        "archiveCrc32": archive_crc,
+        "entries": entries,
+    }
+
+
+def main() -> int:
+    args = parse_args()
+    assets_dir = Path(args.assets)
+    out_dir = Path(args.output) / "manifests"
+    out_dir.mkdir(parents=True, exist_ok=True)
+
+    if not assets_dir.is_dir():
+        print(f"assets directory not found: {assets_dir}", file=sys.stderr)
+        return 1
+
+    archives = sorted(
+        p for p in assets_dir.rglob("*") if p.is_file() and p.name.endswith(ARCHIVE_SUFFIXES)
+    )
+    for archive in archives:
+        name = archive.relative_to(assets_dir).as_posix()
+        if is_lfs_pointer(archive):
+            print(f"{name}: Git LFS pointer, skipped (fetch the LFS object to generate its manifest)", file=sys.stderr)
+            continue
+        try:
+            manifest = build_manifest(archive, name)
+        except (tarfile.TarError, EOFError, OSError) as e:
+            print(f"{name}: unreadable archive, skipped: {e}", file=sys.stderr)
+            continue
+        target = out_dir / f"{name}.json"
+        target.parent.mkdir(parents=True, exist_ok=True)
+        target.write_text(json.dumps(manifest, separators=(",", ":")), encoding="utf-8")
+        print(f"{name}: {len(manifest['entries'])} entries -> {target}")
+
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())